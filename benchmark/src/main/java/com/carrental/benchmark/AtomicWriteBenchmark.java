@@ -0,0 +1,65 @@
+package com.carrental.benchmark;
+
+import com.carrental.util.FileUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 整个数据文件重写的基准测试：原子写入（临时文件、校验行、刷盘、原子替换、刷新目录）与原来直接用FileWriter覆盖写入对比
+ * 每行与客户数据文件的行格式相近
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AtomicWriteBenchmark {
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private String dataDir;
+    private String filePath;
+    private List<String> lines;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.createDataDir();
+        filePath = dataDir + "/customers.txt";
+        lines = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            lines.add(i + ",客户" + i + "," + (13800000000L + i) + ",普通");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public boolean atomicWrite() {
+        return FileUtil.writeLines(filePath, lines);
+    }
+
+    /**
+     * 原来的FileUtil.writeLines：直接覆盖目标文件，不刷盘，写到一半时崩溃会留下不完整的文件
+     */
+    @Benchmark
+    public boolean legacyWrite() throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(filePath)))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        return true;
+    }
+}
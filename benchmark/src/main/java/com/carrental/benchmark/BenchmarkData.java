@@ -0,0 +1,48 @@
+package com.carrental.benchmark;
+
+import com.carrental.tool.DataGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试数据集，在临时目录中生成与各仓库文件格式一致的数据文件
+ */
+public final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    /**
+     * 创建空的临时数据目录
+     * @return 目录路径
+     */
+    public static String createDataDir() throws IOException {
+        return Files.createTempDirectory("carrental-bench").toString();
+    }
+
+    /**
+     * 用DataGenerator在数据目录中生成各数据文件，历史租赁记录全部已归还，所有车辆都可出租
+     */
+    public static void generate(String dataDir, int vehicles, int customers, int rentals, int users) throws IOException {
+        DataGenerator generator = new DataGenerator();
+        generator.setVehicleCount(vehicles);
+        generator.setCustomerCount(customers);
+        generator.setRentalCount(rentals);
+        generator.setUserCount(users);
+        generator.setOpenRatio(0);
+        generator.generate(dataDir);
+    }
+
+    /**
+     * 删除数据目录
+     */
+    public static void deleteDataDir(String dataDir) throws IOException {
+        try (Stream<Path> paths = Files.walk(new File(dataDir).toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.carrental.benchmark;
+
+import com.carrental.model.Branch;
+import com.carrental.model.Bus;
+import com.carrental.model.Car;
+import com.carrental.model.Van;
+import com.carrental.model.Vehicle;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.service.Impl.BranchRouter;
+import com.carrental.service.Impl.BranchVehicleServiceImpl;
+import com.carrental.service.Impl.VehicleServiceImpl;
+import com.carrental.service.VehicleService;
+import com.carrental.util.BranchStorage;
+import com.carrental.util.Constants;
+import com.carrental.util.PersistenceScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多网点分片基准测试：同样数量的车辆分布在branches个网点中，
+ * 比较各网点数据文件并行加载、跨网点查询可租赁客车和按ID路由查询车辆的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BranchShardBenchmark {
+    @Param({"1", "8"})
+    public int branches;
+
+    @Param({"100000"})
+    public int vehicles;
+
+    private String dataDir;
+    private PersistenceScheduler scheduler;
+    private final List<VehicleRepositoryFileImpl> repositories = new ArrayList<>();
+    private BranchVehicleServiceImpl vehicleService;
+    private int[] vehicleIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.createDataDir();
+        scheduler = PersistenceScheduler.sync();
+        List<Branch> branchList = new ArrayList<>();
+        for (int i = 0; i < branches; i++) {
+            Branch branch = new Branch(i, "B" + i, "网点" + i);
+            String branchDir = BranchStorage.prepare(branch, dataDir + "/branches", dataDir);
+            VehicleRepositoryFileImpl repository = new VehicleRepositoryFileImpl(branchDir, scheduler);
+            repository.addVehicles(newVehicles(vehicles / branches));
+            repository.saveVehicles();
+            repositories.add(repository);
+            branchList.add(branch);
+        }
+        BranchRouter<VehicleService> router = new BranchRouter<>(branchList,
+                branch -> new VehicleServiceImpl(repositories.get(branch.getIndex())));
+        vehicleService = new BranchVehicleServiceImpl(router);
+        vehicleIds = vehicleService.findAllVehicles().stream().mapToInt(Vehicle::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        scheduler.shutdown();
+        BenchmarkData.deleteDataDir(dataDir);
+    }
+
+    private static List<Vehicle> newVehicles(int count) {
+        List<Vehicle> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            switch (i % 10) {
+                case 0:
+                    result.add(new Bus(0, "宇通", "ZK6122", 800, 45));
+                    break;
+                case 1:
+                case 2:
+                case 3:
+                    result.add(new Van(0, "五菱", "宏光", 300, 1.5));
+                    break;
+                default:
+                    result.add(new Car(0, "大众", "帕萨特", 250, "自动"));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 并行加载各网点的车辆数据文件
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void loadShards() {
+        repositories.parallelStream().forEach(VehicleRepositoryFileImpl::loadVehicles);
+    }
+
+    /**
+     * 跨网点查询所有可租赁客车
+     */
+    @Benchmark
+    public List<Vehicle> availableBusesAnywhere() {
+        return vehicleService.findAvailableVehiclesByType(Constants.VEHICLE_TYPE_BUS);
+    }
+
+    /**
+     * 按车辆ID路由到所属网点查询
+     */
+    @Benchmark
+    public Optional<Vehicle> findVehicleById() {
+        return vehicleService.findVehicleById(vehicleIds[ThreadLocalRandom.current().nextInt(vehicleIds.length)]);
+    }
+}
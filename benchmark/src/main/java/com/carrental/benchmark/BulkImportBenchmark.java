@@ -0,0 +1,103 @@
+package com.carrental.benchmark;
+
+import com.carrental.model.Car;
+import com.carrental.repository.Impl.CustomerRepositoryFileImpl;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.tool.BulkDataTool;
+import com.carrental.util.PersistenceScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量导入导出基准测试：每次导入写入新的空数据目录，持久化为同步模式；rows为导入导出的记录数
+ * 结果为每次操作的耗时，吞吐量为rows除以耗时；addVehiclesOneByOne为逐条添加相同数量车辆的对照
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BulkImportBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private String sourceDir;
+    private String vehicleCsv;
+    private String vehicleJson;
+    private String customerCsv;
+    private VehicleRepositoryFileImpl sourceVehicles;
+
+    private String targetDir;
+    private PersistenceScheduler scheduler;
+    private VehicleRepositoryFileImpl vehicleRepository;
+    private CustomerRepositoryFileImpl customerRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        sourceDir = BenchmarkData.createDataDir();
+        BenchmarkData.generate(sourceDir, rows, rows, 0, 1);
+        PersistenceScheduler sourceScheduler = PersistenceScheduler.sync();
+        sourceVehicles = new VehicleRepositoryFileImpl(sourceDir, sourceScheduler);
+        vehicleCsv = sourceDir + "/vehicles.csv";
+        vehicleJson = sourceDir + "/vehicles.json";
+        customerCsv = sourceDir + "/customers.csv";
+        BulkDataTool.exportVehicles(sourceVehicles, vehicleCsv);
+        BulkDataTool.exportVehicles(sourceVehicles, vehicleJson);
+        BulkDataTool.exportCustomers(new CustomerRepositoryFileImpl(sourceDir, sourceScheduler), customerCsv);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDataDir(sourceDir);
+    }
+
+    @Setup(Level.Invocation)
+    public void createTarget() throws IOException {
+        targetDir = BenchmarkData.createDataDir();
+        scheduler = PersistenceScheduler.sync();
+        vehicleRepository = new VehicleRepositoryFileImpl(targetDir, scheduler);
+        customerRepository = new CustomerRepositoryFileImpl(targetDir, scheduler);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteTarget() throws IOException {
+        scheduler.shutdown();
+        BenchmarkData.deleteDataDir(targetDir);
+    }
+
+    @Benchmark
+    public int importVehiclesCsv() throws IOException {
+        return BulkDataTool.importVehicles(vehicleRepository, vehicleCsv).getImported();
+    }
+
+    @Benchmark
+    public int importVehiclesJson() throws IOException {
+        return BulkDataTool.importVehicles(vehicleRepository, vehicleJson).getImported();
+    }
+
+    @Benchmark
+    public int importCustomersCsv() throws IOException {
+        return BulkDataTool.importCustomers(customerRepository, customerCsv).getImported();
+    }
+
+    @Benchmark
+    public int addVehiclesOneByOne() {
+        for (int i = 0; i < rows; i++) {
+            vehicleRepository.addVehicle(new Car(0, "品牌" + i, "型号", 200, "自动"));
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public int exportVehiclesCsv() throws IOException {
+        return BulkDataTool.exportVehicles(sourceVehicles, targetDir + "/vehicles.csv");
+    }
+
+    @Benchmark
+    public int exportVehiclesJson() throws IOException {
+        return BulkDataTool.exportVehicles(sourceVehicles, targetDir + "/vehicles.json");
+    }
+}
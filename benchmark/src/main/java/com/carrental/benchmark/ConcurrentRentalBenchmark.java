@@ -0,0 +1,94 @@
+package com.carrental.benchmark;
+
+import com.carrental.model.RentalRecord;
+import com.carrental.repository.Impl.CustomerRepositoryFileImpl;
+import com.carrental.repository.Impl.RentalRecordRepositoryFileImpl;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.service.Impl.CustomerServiceImpl;
+import com.carrental.service.Impl.RentalServiceImpl;
+import com.carrental.service.Impl.VehicleServiceImpl;
+import com.carrental.service.RentalService;
+import com.carrental.service.VehicleService;
+import com.carrental.tool.RentalStressTest;
+import com.carrental.util.Constants;
+import com.carrental.util.DurabilityMode;
+import com.carrental.util.PersistenceScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个柜台同时租车还车的压力测试
+ * 车辆数较少以制造对同一车辆的竞争；租赁服务在车辆锁内通知RentalStressTest.ExclusiveRentalChecker登记和注销车辆，
+ * 还车完成前车辆必须一直处于登记状态，结束时检查冲突记录以及每辆已出租车辆正好有一条未归还记录
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ConcurrentRentalBenchmark {
+    @Param({"16", "1000"})
+    public int vehicles;
+
+    private String dataDir;
+    private PersistenceScheduler scheduler;
+    private VehicleService vehicleService;
+    private RentalRecordRepositoryFileImpl rentalRecordRepository;
+    private RentalService rentalService;
+    private RentalStressTest.ExclusiveRentalChecker checker; // 登记当前被租出的车辆
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.createDataDir();
+        BenchmarkData.generate(dataDir, vehicles, 100, 0, 1);
+
+        scheduler = new PersistenceScheduler(DurabilityMode.GROUP_COMMIT,
+                Constants.PERSISTENCE_FLUSH_INTERVAL_MS, Constants.PERSISTENCE_MAX_PENDING_CHANGES);
+        VehicleRepositoryFileImpl vehicleRepository = new VehicleRepositoryFileImpl(dataDir, scheduler);
+        CustomerRepositoryFileImpl customerRepository = new CustomerRepositoryFileImpl(dataDir, scheduler);
+        rentalRecordRepository = new RentalRecordRepositoryFileImpl(dataDir, scheduler);
+        rentalRecordRepository.setRepository(vehicleRepository, customerRepository);
+        vehicleService = new VehicleServiceImpl(vehicleRepository);
+        rentalService = new RentalServiceImpl(vehicleService, new CustomerServiceImpl(customerRepository),
+                rentalRecordRepository);
+        checker = new RentalStressTest.ExclusiveRentalChecker();
+        rentalService.addRentalListener(checker);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try {
+            List<String> errors = new ArrayList<>(checker.getViolations());
+            errors.addAll(RentalStressTest.checkUnreturnedRecords(vehicleService, rentalRecordRepository));
+            if (!errors.isEmpty()) {
+                throw new IllegalStateException("租车并发检查失败: " + errors);
+            }
+        } finally {
+            scheduler.shutdown();
+            BenchmarkData.deleteDataDir(dataDir);
+        }
+    }
+
+    @Benchmark
+    public Optional<RentalRecord> rentAndReturnVehicle() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int vehicleId = 1 + random.nextInt(vehicles);
+        Optional<RentalRecord> record = rentalService.rentVehicle(vehicleId, 1 + random.nextInt(100), 1);
+        if (!record.isPresent()) {
+            return record;
+        }
+        // 只有本线程能归还这条记录，还车前车辆必须一直登记为出租中
+        if (!checker.isRented(vehicleId)) {
+            throw new IllegalStateException("车辆在还车前已不是出租状态: " + vehicleId);
+        }
+        return rentalService.returnVehicle(record.get().getId());
+    }
+}
@@ -0,0 +1,110 @@
+package com.carrental.benchmark;
+
+import com.carrental.model.RentalRecord;
+import com.carrental.model.Vehicle;
+import com.carrental.repository.CustomerRepository;
+import com.carrental.repository.RentalRecordRepository;
+import com.carrental.repository.VehicleRepository;
+import com.carrental.repository.Impl.CustomerRepositoryFileImpl;
+import com.carrental.repository.Impl.CustomerRepositoryJdbcImpl;
+import com.carrental.repository.Impl.RentalRecordRepositoryFileImpl;
+import com.carrental.repository.Impl.RentalRecordRepositoryJdbcImpl;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.repository.Impl.VehicleRepositoryJdbcImpl;
+import com.carrental.service.Impl.CustomerServiceImpl;
+import com.carrental.service.Impl.RentalServiceImpl;
+import com.carrental.service.Impl.VehicleServiceImpl;
+import com.carrental.service.RentalService;
+import com.carrental.service.VehicleService;
+import com.carrental.util.Constants;
+import com.carrental.util.JdbcConnectionPool;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.StorageBackend;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件存储与嵌入式数据库（H2文件模式）存储的对比：单辆车出租状态更新、租车还车、按类型查询可出租车辆
+ * 两者都在每次修改后立即持久化（文件存储使用同步模式），rows为已有的车辆数和租赁记录数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JdbcRepositoryBenchmark {
+    private static final int CUSTOMERS = 1000;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    @Param({"FILE", "JDBC"})
+    public StorageBackend storage;
+
+    private String dataDir;
+    private JdbcConnectionPool pool;
+    private VehicleRepository vehicleRepository;
+    private VehicleService vehicleService;
+    private RentalService rentalService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.createDataDir();
+        BenchmarkData.generate(dataDir, rows, CUSTOMERS, rows, 1);
+
+        CustomerRepository customerRepository;
+        RentalRecordRepository rentalRecordRepository;
+        if (storage == StorageBackend.JDBC) {
+            // 首次打开时从生成的数据文件迁移
+            pool = new JdbcConnectionPool("jdbc:h2:file:" + dataDir + "/carrental", Constants.JDBC_POOL_SIZE);
+            vehicleRepository = new VehicleRepositoryJdbcImpl(pool, dataDir);
+            customerRepository = new CustomerRepositoryJdbcImpl(pool, dataDir);
+            rentalRecordRepository = new RentalRecordRepositoryJdbcImpl(pool, dataDir);
+        } else {
+            PersistenceScheduler scheduler = PersistenceScheduler.sync();
+            vehicleRepository = new VehicleRepositoryFileImpl(dataDir, scheduler);
+            customerRepository = new CustomerRepositoryFileImpl(dataDir, scheduler);
+            rentalRecordRepository = new RentalRecordRepositoryFileImpl(dataDir, scheduler);
+        }
+        rentalRecordRepository.setRepository(vehicleRepository, customerRepository);
+        vehicleService = new VehicleServiceImpl(vehicleRepository);
+        rentalService = new RentalServiceImpl(vehicleService, new CustomerServiceImpl(customerRepository),
+                rentalRecordRepository);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (pool != null) {
+            pool.close();
+        }
+        BenchmarkData.deleteDataDir(dataDir);
+    }
+
+    /**
+     * 只改变一辆车的出租状态后恢复：文件存储追加变更日志，数据库更新一行
+     */
+    @Benchmark
+    public boolean markVehicleAsRented() {
+        int vehicleId = 1 + ThreadLocalRandom.current().nextInt(rows);
+        return vehicleService.markVehicleAsRented(vehicleId) && vehicleService.markVehicleAsAvailable(vehicleId);
+    }
+
+    @Benchmark
+    public Optional<RentalRecord> rentAndReturnVehicle() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Optional<RentalRecord> record = rentalService.rentVehicle(1 + random.nextInt(rows),
+                1 + random.nextInt(CUSTOMERS), 1 + random.nextInt(7));
+        return record.isPresent() ? rentalService.returnVehicle(record.get().getId()) : record;
+    }
+
+    @Benchmark
+    public List<Vehicle> findAvailableVehiclesByType() {
+        return vehicleRepository.findAvailableVehiclesByType(Constants.VEHICLE_TYPE_CAR);
+    }
+}
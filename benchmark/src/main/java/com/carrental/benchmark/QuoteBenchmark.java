@@ -0,0 +1,79 @@
+package com.carrental.benchmark;
+
+import com.carrental.model.RentalQuote;
+import com.carrental.model.Vehicle;
+import com.carrental.repository.Impl.CustomerRepositoryFileImpl;
+import com.carrental.repository.Impl.RentalRecordRepositoryFileImpl;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.service.Impl.CustomerServiceImpl;
+import com.carrental.service.Impl.RentalServiceImpl;
+import com.carrental.service.Impl.VehicleServiceImpl;
+import com.carrental.service.RentalService;
+import com.carrental.service.VehicleService;
+import com.carrental.util.Constants;
+import com.carrental.util.PersistenceScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报价基准测试：为一个客户报出某类型全部可租赁车辆的租金，
+ * 比较批量报价与逐辆调用calculateRent()；vehicles为车辆总数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuoteBenchmark {
+    private static final int CUSTOMERS = 1000;
+    private static final int RENTAL_DAYS = 5;
+
+    @Param({"1000", "10000"})
+    public int vehicles;
+
+    private String dataDir;
+    private PersistenceScheduler scheduler;
+    private VehicleService vehicleService;
+    private RentalService rentalService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.createDataDir();
+        BenchmarkData.generate(dataDir, vehicles, CUSTOMERS, 1000, 1);
+
+        scheduler = PersistenceScheduler.sync();
+        VehicleRepositoryFileImpl vehicleRepository = new VehicleRepositoryFileImpl(dataDir, scheduler);
+        CustomerRepositoryFileImpl customerRepository = new CustomerRepositoryFileImpl(dataDir, scheduler);
+        RentalRecordRepositoryFileImpl rentalRecordRepository = new RentalRecordRepositoryFileImpl(dataDir, scheduler);
+        rentalRecordRepository.setRepository(vehicleRepository, customerRepository);
+        vehicleService = new VehicleServiceImpl(vehicleRepository);
+        rentalService = new RentalServiceImpl(vehicleService, new CustomerServiceImpl(customerRepository), rentalRecordRepository);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        scheduler.shutdown();
+        BenchmarkData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public List<RentalQuote> quoteAvailableVehicles() {
+        int customerId = 1 + ThreadLocalRandom.current().nextInt(CUSTOMERS);
+        return rentalService.quoteAvailableVehicles(customerId, Constants.VEHICLE_TYPE_CAR, RENTAL_DAYS);
+    }
+
+    @Benchmark
+    public double calculateRentEach() {
+        int customerId = 1 + ThreadLocalRandom.current().nextInt(CUSTOMERS);
+        double total = 0;
+        for (Vehicle vehicle : vehicleService.findAvailableVehiclesByType(Constants.VEHICLE_TYPE_CAR)) {
+            total += rentalService.calculateRent(vehicle.getId(), customerId, RENTAL_DAYS);
+        }
+        return total;
+    }
+}
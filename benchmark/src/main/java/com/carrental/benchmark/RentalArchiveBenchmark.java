@@ -0,0 +1,96 @@
+package com.carrental.benchmark;
+
+import com.carrental.model.RentalRecord;
+import com.carrental.repository.Impl.CustomerRepositoryFileImpl;
+import com.carrental.repository.Impl.RentalRecordRepositoryFileImpl;
+import com.carrental.repository.Impl.RentalRecordRepositoryPartitionedImpl;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.tool.DataGenerator;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.RentalStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租赁历史按月归档的基准测试：租赁记录均匀分布在最近两年，比较全部记录常驻内存与只保留热窗口时
+ * 加载租赁记录（含关联车辆和客户）的耗时，以及查询客户全部历史记录的耗时（归档时需要读取压缩分区）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RentalArchiveBenchmark {
+    private static final int CUSTOMERS = 10000;
+
+    @Param({"100000", "1000000"})
+    public int rentals;
+
+    private String fullDir;
+    private String archivedDir;
+    private RentalRecordRepositoryFileImpl fullRepository;
+    private RentalRecordRepositoryPartitionedImpl archivedRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fullDir = BenchmarkData.createDataDir();
+        archivedDir = BenchmarkData.createDataDir();
+        generate(fullDir);
+        generate(archivedDir);
+
+        PersistenceScheduler scheduler = PersistenceScheduler.sync();
+        VehicleRepositoryFileImpl vehicleRepository = new VehicleRepositoryFileImpl(fullDir, scheduler);
+        CustomerRepositoryFileImpl customerRepository = new CustomerRepositoryFileImpl(fullDir, scheduler);
+        fullRepository = new RentalRecordRepositoryFileImpl(fullDir, scheduler);
+        fullRepository.setRepository(vehicleRepository, customerRepository);
+        // 首次加载时写出归档分区
+        archivedRepository = new RentalRecordRepositoryPartitionedImpl(archivedDir, RentalStorage.TEXT, scheduler);
+        archivedRepository.setRepository(vehicleRepository, customerRepository);
+    }
+
+    private void generate(String dataDir) throws IOException {
+        DataGenerator generator = new DataGenerator();
+        generator.setStartDate(LocalDate.now().minusYears(2));
+        generator.setSpanDays(730);
+        generator.setVehicleCount(1000);
+        generator.setCustomerCount(CUSTOMERS);
+        generator.setRentalCount(rentals);
+        generator.setUserCount(1);
+        generator.setOpenRatio(0);
+        generator.generate(dataDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDataDir(fullDir);
+        BenchmarkData.deleteDataDir(archivedDir);
+    }
+
+    @Benchmark
+    public void loadFullHistory() {
+        fullRepository.loadRentalRecords();
+    }
+
+    @Benchmark
+    public void loadHotWindow() {
+        archivedRepository.loadRentalRecords();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<RentalRecord> customerHistoryInMemory() {
+        return fullRepository.findRentalRecordsByCustomerId(1 + ThreadLocalRandom.current().nextInt(CUSTOMERS));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<RentalRecord> customerHistoryArchived() {
+        return archivedRepository.findRentalRecordsByCustomerId(1 + ThreadLocalRandom.current().nextInt(CUSTOMERS));
+    }
+}
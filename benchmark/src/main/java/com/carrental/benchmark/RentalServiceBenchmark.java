@@ -0,0 +1,78 @@
+package com.carrental.benchmark;
+
+import com.carrental.model.RentalRecord;
+import com.carrental.repository.Impl.CustomerRepositoryFileImpl;
+import com.carrental.repository.Impl.RentalRecordRepositoryFileImpl;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.service.Impl.CustomerServiceImpl;
+import com.carrental.service.Impl.RentalServiceImpl;
+import com.carrental.service.Impl.VehicleServiceImpl;
+import com.carrental.service.RentalService;
+import com.carrental.util.Constants;
+import com.carrental.util.DurabilityMode;
+import com.carrental.util.PersistenceScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租赁业务基准测试：租车后立即还车，保持车辆状态不变；rows为已有的租赁记录数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RentalServiceBenchmark {
+    private static final int VEHICLES = 1000;
+    private static final int CUSTOMERS = 1000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"SYNC", "GROUP_COMMIT"})
+    public DurabilityMode durability;
+
+    private String dataDir;
+    private PersistenceScheduler scheduler;
+    private RentalService rentalService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.createDataDir();
+        BenchmarkData.generate(dataDir, VEHICLES, CUSTOMERS, rows, 1);
+
+        scheduler = new PersistenceScheduler(durability,
+                Constants.PERSISTENCE_FLUSH_INTERVAL_MS, Constants.PERSISTENCE_MAX_PENDING_CHANGES);
+        VehicleRepositoryFileImpl vehicleRepository = new VehicleRepositoryFileImpl(dataDir, scheduler);
+        CustomerRepositoryFileImpl customerRepository = new CustomerRepositoryFileImpl(dataDir, scheduler);
+        RentalRecordRepositoryFileImpl rentalRecordRepository = new RentalRecordRepositoryFileImpl(dataDir, scheduler);
+        rentalRecordRepository.setRepository(vehicleRepository, customerRepository);
+        rentalService = new RentalServiceImpl(new VehicleServiceImpl(vehicleRepository),
+                new CustomerServiceImpl(customerRepository), rentalRecordRepository);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        scheduler.shutdown();
+        BenchmarkData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public Optional<RentalRecord> rentAndReturnVehicle() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Optional<RentalRecord> record = rentalService.rentVehicle(1 + random.nextInt(VEHICLES),
+                1 + random.nextInt(CUSTOMERS), 1 + random.nextInt(7));
+        return record.isPresent() ? rentalService.returnVehicle(record.get().getId()) : record;
+    }
+
+    @Benchmark
+    public double calculateRent() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return rentalService.calculateRent(1 + random.nextInt(VEHICLES), 1 + random.nextInt(CUSTOMERS), 1 + random.nextInt(7));
+    }
+}
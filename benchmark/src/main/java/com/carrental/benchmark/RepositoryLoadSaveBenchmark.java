@@ -0,0 +1,106 @@
+package com.carrental.benchmark;
+
+import com.carrental.repository.Impl.CustomerRepositoryFileImpl;
+import com.carrental.repository.Impl.RentalRecordRepositoryCompactImpl;
+import com.carrental.repository.Impl.RentalRecordRepositoryFileImpl;
+import com.carrental.repository.Impl.UserRepositoryImpl;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.RentalStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各仓库整体加载和保存的基准测试
+ * 每个数据文件都生成rows行；租赁记录加载包含关联车辆和客户，紧凑存储只读入各列
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryLoadSaveBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private String dataDir;
+    private VehicleRepositoryFileImpl vehicleRepository;
+    private CustomerRepositoryFileImpl customerRepository;
+    private RentalRecordRepositoryFileImpl rentalRecordRepository;
+    private RentalRecordRepositoryCompactImpl compactRentalRecordRepository;
+    private UserRepositoryImpl userRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.createDataDir();
+        BenchmarkData.generate(dataDir, rows, rows, rows, rows);
+
+        PersistenceScheduler scheduler = PersistenceScheduler.sync();
+        vehicleRepository = new VehicleRepositoryFileImpl(dataDir, scheduler);
+        customerRepository = new CustomerRepositoryFileImpl(dataDir, scheduler);
+        userRepository = new UserRepositoryImpl(dataDir, scheduler);
+        rentalRecordRepository = new RentalRecordRepositoryFileImpl(dataDir, scheduler);
+        rentalRecordRepository.setRepository(vehicleRepository, customerRepository);
+        compactRentalRecordRepository = new RentalRecordRepositoryCompactImpl(dataDir, RentalStorage.TEXT, scheduler);
+        compactRentalRecordRepository.loadRentalRecords();
+        compactRentalRecordRepository.setRepository(vehicleRepository, customerRepository);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public void loadVehicles() {
+        vehicleRepository.loadVehicles();
+    }
+
+    @Benchmark
+    public void saveVehicles() {
+        vehicleRepository.saveVehicles();
+    }
+
+    @Benchmark
+    public void loadCustomers() {
+        customerRepository.loadCustomers();
+    }
+
+    @Benchmark
+    public void saveCustomers() {
+        customerRepository.saveCustomers();
+    }
+
+    @Benchmark
+    public void loadRentalRecords() {
+        rentalRecordRepository.loadRentalRecords();
+    }
+
+    @Benchmark
+    public void saveRentalRecords() {
+        rentalRecordRepository.saveRentalRecords();
+    }
+
+    @Benchmark
+    public void loadRentalRecordsCompact() {
+        compactRentalRecordRepository.loadRentalRecords();
+    }
+
+    @Benchmark
+    public void saveRentalRecordsCompact() {
+        compactRentalRecordRepository.saveRentalRecords();
+    }
+
+    @Benchmark
+    public void loadUsers() {
+        userRepository.loadUsers();
+    }
+
+    @Benchmark
+    public void saveUsers() {
+        userRepository.saveUsers();
+    }
+}
@@ -0,0 +1,77 @@
+package com.carrental.benchmark;
+
+import com.carrental.model.Vehicle;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.util.Constants;
+import com.carrental.util.PersistenceScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 车辆查询基准测试
+ * linear开头的方法是对照组，照搬建立索引之前在车辆列表上逐个过滤的查询，与同名的索引查询对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VehicleQueryBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private String dataDir;
+    private VehicleRepositoryFileImpl vehicleRepository;
+    private List<Vehicle> vehicleList; // 对照组使用的车辆列表，与原来仓库内部的列表相同
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.createDataDir();
+        BenchmarkData.generate(dataDir, rows, 1, 0, 1);
+        vehicleRepository = new VehicleRepositoryFileImpl(dataDir, PersistenceScheduler.sync());
+        vehicleList = vehicleRepository.findAllVehicles();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public Optional<Vehicle> findVehicleById() {
+        return vehicleRepository.findVehicleById(1 + ThreadLocalRandom.current().nextInt(rows));
+    }
+
+    @Benchmark
+    public List<Vehicle> findAvailableVehiclesByType() {
+        return vehicleRepository.findAvailableVehiclesByType(Constants.VEHICLE_TYPE_CAR);
+    }
+
+    /**
+     * 原来的findVehicleById：在列表中逐个比较ID
+     */
+    @Benchmark
+    public Optional<Vehicle> linearFindVehicleById() {
+        int id = 1 + ThreadLocalRandom.current().nextInt(rows);
+        return vehicleList.stream()
+                .filter(vehicle -> vehicle.getId() == id)
+                .findFirst();
+    }
+
+    /**
+     * 原来的findAvailableVehiclesByType：遍历整个列表，逐个检查出租状态和类型
+     */
+    @Benchmark
+    public List<Vehicle> linearFindAvailableVehiclesByType() {
+        return vehicleList.stream()
+                .filter(vehicle -> !vehicle.isRented() && vehicle.getType().equalsIgnoreCase(Constants.VEHICLE_TYPE_CAR))
+                .collect(Collectors.toList());
+    }
+}
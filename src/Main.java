@@ -1,69 +1,219 @@
 
-import com.carrental.controller.*;
+import com.carrental.api.ApiServer;
+import com.carrental.model.Branch;
+import com.carrental.model.RentalRecord;
 import com.carrental.repository.*;
 import com.carrental.repository.Impl.*;
 import com.carrental.service.*;
 import com.carrental.service.Impl.*;
+import com.carrental.terminal.TerminalServer;
+import com.carrental.terminal.TerminalSession;
+import com.carrental.util.BranchStorage;
+import com.carrental.util.Constants;
+import com.carrental.util.JdbcConnectionPool;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.RentalStorage;
+import com.carrental.util.StartupOrchestrator;
+import com.carrental.util.StorageBackend;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 /**
  * 汽车租赁管理系统入口类
  */
 public class Main {
     public static void main(String[] args) {
-        // 初始化数据访问层
-        VehicleRepository vehicleRepository = new VehicleRepositoryFileImpl();
-        CustomerRepository customerRepository = new CustomerRepositoryFileImpl();
-        RentalRecordRepositoryFileImpl rentalRecordRepository = new RentalRecordRepositoryFileImpl();
-        
-        // 设置Repository之间的依赖关系
-        rentalRecordRepository.setRepository(vehicleRepository,customerRepository);
+        // 初始化持久化调度器，退出时写入尚未保存的修改
+        PersistenceScheduler persistenceScheduler = new PersistenceScheduler(Constants.DURABILITY_MODE,
+                Constants.PERSISTENCE_FLUSH_INTERVAL_MS, Constants.PERSISTENCE_MAX_PENDING_CHANGES);
+        Runtime.getRuntime().addShutdownHook(new Thread(persistenceScheduler::shutdown, "persistence-shutdown"));
+
+        // 启动参数：--storage=file|jdbc选择存储方式，未指定时使用Constants中的配置；
+        // --http[=端口]同时启动HTTP接口，--terminal[=端口]同时启动终端服务器供多个柜台连接，
+        // 再加--no-console时不启动控制台，只提供HTTP接口或终端服务器
+        StorageBackend storage = Constants.STORAGE_BACKEND;
+        int httpPort = -1;
+        int terminalPort = -1;
+        boolean console = true;
+        for (String arg : args) {
+            if (arg.startsWith("--storage=")) {
+                storage = StorageBackend.valueOf(arg.substring("--storage=".length()).toUpperCase(Locale.ROOT));
+            } else if (arg.equals("--http")) {
+                httpPort = Constants.API_PORT;
+            } else if (arg.startsWith("--http=")) {
+                httpPort = Integer.parseInt(arg.substring("--http=".length()));
+            } else if (arg.equals("--terminal")) {
+                terminalPort = Constants.TERMINAL_PORT;
+            } else if (arg.startsWith("--terminal=")) {
+                terminalPort = Integer.parseInt(arg.substring("--terminal=".length()));
+            } else if (arg.equals("--no-console")) {
+                console = false;
+            }
+        }
+        JdbcConnectionPool connectionPool = null;
+        if (storage == StorageBackend.JDBC) {
+            connectionPool = new JdbcConnectionPool(Constants.JDBC_URL, Constants.JDBC_POOL_SIZE);
+            Runtime.getRuntime().addShutdownHook(new Thread(connectionPool::close, "jdbc-shutdown"));
+        }
+        JdbcConnectionPool pool = connectionPool;
+
+        // 网点配置文件存在时，车辆和租赁记录按网点分别保存在各自的目录中（只支持文件存储）
+        List<Branch> branches = BranchStorage.readBranches(Constants.BRANCH_FILE_PATH);
+        if (!branches.isEmpty() && pool != null) {
+            System.out.println("数据库存储不支持按网点分别保存，已忽略网点配置");
+            branches = new ArrayList<>();
+        }
 
-        UserRepository userRepository = new UserRepositoryImpl();
+        // 初始化数据访问层：各数据文件（或数据表）互不依赖，并行加载；分网点时各网点的数据文件也并行加载
+        StartupOrchestrator startup = new StartupOrchestrator(Constants.STARTUP_LOAD_THREADS);
+        Future<CustomerRepository> customerFuture = startup.submit("客户", () -> pool != null
+                ? new CustomerRepositoryJdbcImpl(pool) : new CustomerRepositoryFileImpl(persistenceScheduler));
+        Future<UserRepository> userFuture = startup.submit("用户", () -> pool != null
+                ? new UserRepositoryJdbcImpl(pool) : new UserRepositoryImpl(persistenceScheduler));
+        Future<ReservationRepository> reservationFuture = startup.submit("预约", () -> new ReservationRepositoryFileImpl(persistenceScheduler));
+        List<Future<VehicleRepository>> vehicleFutures = new ArrayList<>();
+        List<Future<RentalRecordRepository>> rentalFutures = new ArrayList<>();
+        if (branches.isEmpty()) {
+            vehicleFutures.add(startup.submit("车辆", () -> pool != null
+                    ? new VehicleRepositoryJdbcImpl(pool) : new VehicleRepositoryFileImpl(persistenceScheduler)));
+            rentalFutures.add(startup.submit("租赁记录", () -> newRentalRecordRepository(Constants.DATA_DIR, pool, persistenceScheduler)));
+        } else {
+            for (Branch branch : branches) {
+                String dataDir = BranchStorage.prepare(branch, Constants.BRANCH_DATA_DIR, Constants.DATA_DIR);
+                vehicleFutures.add(startup.submit("车辆[" + branch.getCode() + "]",
+                        () -> new VehicleRepositoryFileImpl(dataDir, persistenceScheduler)));
+                rentalFutures.add(startup.submit("租赁记录[" + branch.getCode() + "]",
+                        () -> newRentalRecordRepository(dataDir, null, persistenceScheduler)));
+            }
+        }
+
+        CustomerRepository customerRepository = startup.get(customerFuture);
+        UserRepository userRepository = startup.get(userFuture);
+        ReservationRepository reservationRepository = startup.get(reservationFuture);
+        List<VehicleRepository> vehicleRepositories = new ArrayList<>();
+        List<RentalRecordRepository> rentalRecordRepositories = new ArrayList<>();
+        for (int i = 0; i < vehicleFutures.size(); i++) {
+            vehicleRepositories.add(startup.get(vehicleFutures.get(i)));
+            rentalRecordRepositories.add(startup.get(rentalFutures.get(i)));
+        }
+
+        // 设置Repository之间的依赖关系，关联租赁记录中的车辆和客户；每个网点的租赁记录只关联本网点的车辆
+        startup.run("关联租赁记录", () -> {
+            for (int i = 0; i < rentalRecordRepositories.size(); i++) {
+                rentalRecordRepositories.get(i).setRepository(vehicleRepositories.get(i), customerRepository);
+            }
+        });
+        startup.printReport();
 
         // 初始化Service层
-        VehicleService vehicleService = new VehicleServiceImpl(vehicleRepository);
         CustomerService customerService = new CustomerServiceImpl(customerRepository);
-        RentalService rentalService = new RentalServiceImpl(vehicleService, customerService, rentalRecordRepository);
+        // 定价规则在启动时编译成查找表
+        PricingEngine pricingEngine = RuleTablePricingEngine.fromFile(Constants.PRICING_RULE_FILE_PATH);
+        VehicleService vehicleService;
+        ReservationServiceImpl reservationService;
+        RentalService rentalService;
+        AnalyticsServiceImpl analyticsService;
+        if (branches.isEmpty()) {
+            RentalRecordRepository rentalRecordRepository = rentalRecordRepositories.get(0);
+            vehicleService = new VehicleServiceImpl(vehicleRepositories.get(0));
+            // 预约服务按已有预约和未归还记录建立区间索引，租车时检查与预约是否冲突
+            reservationService = new ReservationServiceImpl(vehicleService, customerService,
+                    reservationRepository, rentalRecordRepository);
+            rentalService = new RentalServiceImpl(vehicleService, customerService, rentalRecordRepository,
+                    reservationService, pricingEngine);
+            // 经营统计先遍历一次已有记录，之后随租车、还车增量更新
+            analyticsService = new AnalyticsServiceImpl(vehicleService, rentalRecordRepository);
+        } else {
+            // 每个网点一套车辆服务和租赁服务，由路由器按车辆ID或租赁记录ID交给所属网点；客户、用户和预约各网点共用
+            List<Branch> branchList = branches;
+            BranchRouter<VehicleService> vehicleRouter = new BranchRouter<>(branchList,
+                    branch -> new VehicleServiceImpl(vehicleRepositories.get(branchList.indexOf(branch))));
+            vehicleService = new BranchVehicleServiceImpl(vehicleRouter);
+            List<RentalRecord> unreturnedRecords = new ArrayList<>();
+            for (RentalRecordRepository repository : rentalRecordRepositories) {
+                unreturnedRecords.addAll(repository.findUnreturnedRentalRecords());
+            }
+            ReservationServiceImpl reservations = new ReservationServiceImpl(vehicleService, customerService,
+                    reservationRepository, unreturnedRecords);
+            BranchRouter<RentalService> rentalRouter = new BranchRouter<>(branchList, branch -> {
+                int i = branchList.indexOf(branch);
+                return new RentalServiceImpl(vehicleRouter.getShards().get(i), customerService,
+                        rentalRecordRepositories.get(i), reservations, pricingEngine);
+            });
+            reservationService = reservations;
+            rentalService = new BranchRentalServiceImpl(rentalRouter);
+            analyticsService = new AnalyticsServiceImpl(vehicleService, rentalService);
+            System.out.println("已按网点加载数据: " + branchList);
+        }
+        rentalService.addRentalListener(reservationService);
         UserService userService = new UserServiceImpl(userRepository);
+        rentalService.addRentalListener(analyticsService);
+        if (Constants.RENTAL_ARCHIVE_ENABLED) {
+            // 统计需要解压全部归档分区，放到后台进行，启动时间只与近期数据量有关
+            analyticsService.rebuildInBackground();
+        } else {
+            analyticsService.rebuild();
+        }
 
-        // 初始化Controller层
-        VehicleController vehicleController = new VehicleController(vehicleService);
-        CustomerController customerController = new CustomerController(customerService);
-        RentalController rentalController = new RentalController(rentalService, vehicleService, customerService, vehicleController, customerController);
-        UserController userController = new UserController(userService);
-
-        // 初始化主控制器，传入用户控制器
-        MainController mainController = new MainController(vehicleController, customerController, rentalController, userController);
-
-        // 用户登录验证和系统主循环
-        while (true) {
-            boolean loggedIn = false;
-            int maxAttempts = 3;
-            int attempts = 0;
-            
-            // 登录循环
-            while (!loggedIn && attempts < maxAttempts) {
-                loggedIn = userController.showLoginScreen();
-                attempts++;
-                
-                if (!loggedIn && attempts < maxAttempts) {
-                    System.out.println("剩余尝试次数: " + (maxAttempts - attempts));
-                    try {
-                        Thread.sleep(1000); // 等待1秒后重试
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
+        // HTTP接口与控制台共用同一套Service，每个请求一个线程（Java 21及以上为虚拟线程）
+        if (httpPort >= 0) {
+            try {
+                ApiServer apiServer = new ApiServer(httpPort, vehicleService, customerService, rentalService, userService);
+                apiServer.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> apiServer.stop(1), "api-shutdown"));
+            } catch (IOException e) {
+                System.err.println("启动HTTP接口失败: " + e.getMessage());
             }
-            
-            if (loggedIn) {
-                // 登录成功，启动系统主菜单
-                mainController.showMainMenu();
-            } else {
-                // 登录失败次数过多
-                System.out.println("登录失败次数过多，系统即将退出。");
-                break;
+        }
+
+        // 控制台和终端服务器的每个连接各运行一个会话，拥有独立的控制器和登录用户
+        Supplier<TerminalSession> sessionFactory = () -> new TerminalSession(vehicleService, customerService,
+                rentalService, reservationService, userService, analyticsService);
+        if (terminalPort >= 0) {
+            try {
+                TerminalServer terminalServer = new TerminalServer(terminalPort, sessionFactory);
+                terminalServer.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(terminalServer::stop, "terminal-shutdown"));
+            } catch (IOException e) {
+                System.err.println("启动终端服务器失败: " + e.getMessage());
             }
         }
+        if (!console) {
+            return; // HTTP服务器和终端服务器的线程继续运行，按Ctrl+C退出
+        }
+
+        // 控制台会话结束（退出系统或登录失败次数过多）时退出进程
+        sessionFactory.get().run();
+        System.exit(0);
+    }
+
+    /**
+     * 按配置创建租赁记录仓库并加载数据
+     * @param dataDir 数据文件目录
+     * @param pool 数据库连接池，为null时使用文件存储
+     * @param scheduler 持久化调度器
+     * @return 租赁记录仓库
+     */
+    private static RentalRecordRepository newRentalRecordRepository(String dataDir, JdbcConnectionPool pool,
+                                                                    PersistenceScheduler scheduler) {
+        RentalRecordRepository repository;
+        if (pool != null) {
+            repository = new RentalRecordRepositoryJdbcImpl(pool, dataDir);
+        } else if (Constants.RENTAL_ARCHIVE_ENABLED) {
+            repository = new RentalRecordRepositoryPartitionedImpl(dataDir, Constants.RENTAL_STORAGE, scheduler);
+        } else if (Constants.RENTAL_COMPACT_STORE) {
+            repository = new RentalRecordRepositoryCompactImpl(dataDir, Constants.RENTAL_STORAGE, scheduler);
+        } else if (Constants.RENTAL_STORAGE == RentalStorage.BINARY) {
+            repository = new RentalRecordRepositoryBinaryImpl(dataDir, scheduler);
+        } else {
+            repository = new RentalRecordRepositoryFileImpl(dataDir, scheduler);
+        }
+        repository.loadRentalRecords();
+        return repository;
     }
 }
@@ -0,0 +1,363 @@
+package com.carrental.api;
+
+import com.carrental.model.Bus;
+import com.carrental.model.Car;
+import com.carrental.model.Customer;
+import com.carrental.model.RentalRecord;
+import com.carrental.model.User;
+import com.carrental.model.Van;
+import com.carrental.model.Vehicle;
+import com.carrental.service.UserService;
+import com.carrental.util.DateUtil;
+import com.carrental.util.JsonUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * HTTP接口处理器的基类：用HTTP Basic认证校验系统用户，解析路径、查询参数和JSON请求体，把结果写成JSON响应
+ * 子类按请求方法和路径分派，处理中抛出ApiException表示返回对应的错误状态码和错误信息
+ */
+public abstract class ApiHandler implements HttpHandler {
+    private final UserService userService; // 用户服务，用于校验请求中的用户名和密码
+
+    /**
+     * @param userService 用户服务
+     */
+    protected ApiHandler(UserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * 处理一个已通过认证的请求
+     * @param request 请求
+     * @return 响应内容（Map、List等，转换为JSON），为null时不返回内容
+     * @throws ApiException 请求有误或操作失败
+     */
+    protected abstract Object handle(Request request);
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            Optional<User> user = authenticate(exchange);
+            if (!user.isPresent()) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"carrental\"");
+                send(exchange, 401, error("用户名或密码错误"));
+                return;
+            }
+            Request request = new Request(exchange, user.get());
+            Object body = handle(request);
+            send(exchange, body == null ? 204 : request.status, body);
+        } catch (ApiException e) {
+            send(exchange, e.getStatus(), error(e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("处理请求失败: " + exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            e.printStackTrace();
+            send(exchange, 500, error("服务器内部错误"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 按Authorization请求头中的用户名和密码登录
+     */
+    private Optional<User> authenticate(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Basic ")) {
+            return Optional.empty();
+        }
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(header.substring("Basic ".length()).trim()),
+                    StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        int colon = credentials.indexOf(':');
+        if (colon < 0) {
+            return Optional.empty();
+        }
+        return userService.login(credentials.substring(0, colon), credentials.substring(colon + 1));
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = JsonUtil.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", message);
+        return error;
+    }
+
+    /**
+     * 请求有误或操作失败，返回指定的状态码和错误信息
+     */
+    public static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status; // HTTP状态码
+
+        public ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * 一个HTTP请求：方法、处理器路径之后的各段路径、查询参数、JSON请求体和当前用户
+     */
+    protected static class Request {
+        private final HttpExchange exchange;
+        private final User user;
+        private final List<String> path = new ArrayList<>();
+        private final Map<String, String> query = new HashMap<>();
+        private int status = 200; // 成功时的状态码
+
+        Request(HttpExchange exchange, User user) {
+            this.exchange = exchange;
+            this.user = user;
+            String fullPath = exchange.getRequestURI().getPath();
+            String contextPath = exchange.getHttpContext().getPath();
+            for (String segment : fullPath.substring(Math.min(contextPath.length(), fullPath.length())).split("/")) {
+                if (!segment.isEmpty()) {
+                    path.add(decode(segment));
+                }
+            }
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null) {
+                for (String pair : rawQuery.split("&")) {
+                    int equals = pair.indexOf('=');
+                    if (equals > 0) {
+                        query.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+                    }
+                }
+            }
+        }
+
+        private static String decode(String value) {
+            try {
+                return URLDecoder.decode(value, "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public String method() {
+            return exchange.getRequestMethod();
+        }
+
+        public User user() {
+            return user;
+        }
+
+        /**
+         * @return 处理器路径之后的各段路径，例如/api/rentals/5/return为[5, return]
+         */
+        public List<String> path() {
+            return path;
+        }
+
+        /**
+         * 设置成功时的状态码，例如创建成功时为201
+         */
+        public void status(int status) {
+            this.status = status;
+        }
+
+        /**
+         * @param name 参数名
+         * @return 查询参数的值，不存在时返回null
+         */
+        public String query(String name) {
+            return query.get(name);
+        }
+
+        /**
+         * @param name 参数名
+         * @return 查询参数的整数值，不存在时返回null
+         * @throws ApiException 不是整数
+         */
+        public Integer queryInt(String name) {
+            String value = query.get(name);
+            return value == null ? null : parseInt(value, name);
+        }
+
+        /**
+         * 读取并解析JSON对象请求体
+         * @return 请求体中的字段
+         * @throws ApiException 请求体不是JSON对象
+         */
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> body() {
+            Object parsed;
+            try (InputStream in = exchange.getRequestBody()) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                byte[] chunk = new byte[4096];
+                int read;
+                while ((read = in.read(chunk)) > 0) {
+                    buffer.write(chunk, 0, read);
+                }
+                parsed = JsonUtil.parse(new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new ApiException(400, "读取请求内容失败");
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, e.getMessage());
+            }
+            if (!(parsed instanceof Map)) {
+                throw new ApiException(400, "请求内容应为JSON对象");
+            }
+            return (Map<String, Object>) parsed;
+        }
+    }
+
+    /**
+     * 解析路径或参数中的整数
+     * @throws ApiException 不是整数
+     */
+    protected static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + "应为整数: " + value);
+        }
+    }
+
+    /**
+     * @throws ApiException 字段不存在或为空
+     */
+    protected static String requiredString(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value == null || value.toString().trim().isEmpty()) {
+            throw new ApiException(400, "缺少字段: " + name);
+        }
+        return value.toString().trim();
+    }
+
+    /**
+     * @throws ApiException 字段不存在或不是数字
+     */
+    protected static double requiredNumber(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Number)) {
+            throw new ApiException(400, "缺少数字字段: " + name);
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    /**
+     * @throws ApiException 字段不存在或不是整数
+     */
+    protected static int requiredInt(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Long)) {
+            throw new ApiException(400, "缺少整数字段: " + name);
+        }
+        return ((Long) value).intValue();
+    }
+
+    /**
+     * @throws ApiException 字段不存在或不是整数数组
+     */
+    protected static List<Integer> requiredIntList(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof List) || ((List<?>) value).isEmpty()) {
+            throw new ApiException(400, "缺少整数数组字段: " + name);
+        }
+        List<Integer> values = new ArrayList<>();
+        for (Object element : (List<?>) value) {
+            if (!(element instanceof Long)) {
+                throw new ApiException(400, name + "中应为整数: " + element);
+            }
+            values.add(((Long) element).intValue());
+        }
+        return values;
+    }
+
+    protected static Map<String, Object> toJson(Vehicle vehicle) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", vehicle.getId());
+        json.put("type", vehicle.getType());
+        json.put("brand", vehicle.getBrand());
+        json.put("model", vehicle.getModel());
+        json.put("dailyRent", vehicle.getDailyRent());
+        json.put("rented", vehicle.isRented());
+        if (vehicle instanceof Bus) {
+            json.put("seats", ((Bus) vehicle).getSeats());
+        } else if (vehicle instanceof Van) {
+            json.put("loadCapacity", ((Van) vehicle).getLoadCapacity());
+        } else if (vehicle instanceof Car) {
+            json.put("transmission", ((Car) vehicle).getTransmission());
+        }
+        return json;
+    }
+
+    protected static Map<String, Object> toJson(Customer customer) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", customer.getId());
+        json.put("name", customer.getName());
+        json.put("customerType", customer.getCustomerType());
+        json.put("phone", customer.getPhone());
+        return json;
+    }
+
+    protected static Map<String, Object> toJson(RentalRecord record) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", record.getId());
+        json.put("vehicle", record.getVehicle() == null ? null : toJson(record.getVehicle()));
+        json.put("customer", record.getCustomer() == null ? null : toJson(record.getCustomer()));
+        json.put("rentalDate", formatDate(record.getRentalDate()));
+        json.put("returnDate", formatDate(record.getReturnDate()));
+        json.put("rentalDays", record.getRentalDays());
+        json.put("totalRent", record.getTotalRent());
+        json.put("returned", record.isReturned());
+        return json;
+    }
+
+    /**
+     * @return yyyy-MM-dd格式的日期，date为null时返回null
+     */
+    private static String formatDate(Date date) {
+        return date == null ? null : LocalDate.ofEpochDay(DateUtil.toEpochDay(date)).toString();
+    }
+
+    /**
+     * 用户信息不包含密码
+     */
+    protected static Map<String, Object> toJson(User user) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("username", user.getUsername());
+        json.put("role", user.getRole());
+        return json;
+    }
+}
@@ -0,0 +1,72 @@
+package com.carrental.api;
+
+import com.carrental.service.CustomerService;
+import com.carrental.service.RentalService;
+import com.carrental.service.UserService;
+import com.carrental.service.VehicleService;
+import com.carrental.util.Constants;
+import com.carrental.util.VirtualThreads;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内嵌的HTTP JSON接口服务器，基于JDK自带的com.sun.net.httpserver，与控制台共用同一套Service
+ * 每个请求由一个线程处理：运行在Java 21及以上版本时使用虚拟线程，否则使用按需创建的线程池
+ */
+public class ApiServer {
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * 构造方法，绑定端口并注册各接口，调用start()后开始处理请求
+     * @param port 端口，为0时自动选择空闲端口
+     * @throws IOException 端口绑定失败
+     */
+    public ApiServer(int port, VehicleService vehicleService, CustomerService customerService,
+                     RentalService rentalService, UserService userService) throws IOException {
+        // 响应头和响应体分两次写出，开启Nagle算法时会与客户端的延迟确认叠加成约40ms的等待
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(port), Constants.API_BACKLOG);
+        this.executor = VirtualThreads.newThreadPerTaskExecutor("api-worker-");
+        server.setExecutor(executor);
+        server.createContext("/api/vehicles", new VehicleApiHandler(vehicleService, userService));
+        server.createContext("/api/customers", new CustomerApiHandler(customerService, userService));
+        server.createContext("/api/rentals", new RentalApiHandler(rentalService, userService));
+        server.createContext("/api/users", new UserApiHandler(userService));
+    }
+
+    /**
+     * 开始处理请求
+     */
+    public void start() {
+        server.start();
+        System.out.println("HTTP接口已启动: http://localhost:" + getPort() + "/api/");
+    }
+
+    /**
+     * @return 实际监听的端口
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * 停止接收新请求，等待正在处理的请求完成
+     * @param delaySeconds 最多等待的秒数
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.carrental.api;
+
+import com.carrental.model.Customer;
+import com.carrental.service.CustomerService;
+import com.carrental.service.UserService;
+import com.carrental.util.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 客户接口，路径/api/customers
+ * GET /api/customers[?type=类型]、GET /api/customers/{id}、POST /api/customers、
+ * PUT /api/customers/{id}、DELETE /api/customers/{id}
+ */
+public class CustomerApiHandler extends ApiHandler {
+    private final CustomerService customerService;
+
+    public CustomerApiHandler(CustomerService customerService, UserService userService) {
+        super(userService);
+        this.customerService = customerService;
+    }
+
+    @Override
+    protected Object handle(Request request) {
+        List<String> path = request.path();
+        String method = request.method();
+        if (path.isEmpty() && "GET".equals(method)) {
+            String type = request.query("type");
+            List<Customer> customers = type == null ? customerService.findAllCustomers() : customerService.findCustomersByType(type);
+            List<Object> result = new ArrayList<>(customers.size());
+            for (Customer customer : customers) {
+                result.add(toJson(customer));
+            }
+            return result;
+        }
+        if (path.isEmpty() && "POST".equals(method)) {
+            Map<String, Object> body = request.body();
+            Customer customer = new Customer();
+            customer.setName(requiredString(body, "name"));
+            customer.setCustomerType(customerType(body));
+            customer.setPhone(requiredString(body, "phone"));
+            if (!customerService.addCustomer(customer)) {
+                throw new ApiException(500, "添加客户失败");
+            }
+            request.status(201);
+            return toJson(customer);
+        }
+        if (path.size() == 1) {
+            int id = parseInt(path.get(0), "客户ID");
+            Customer customer = customerService.findCustomerById(id)
+                    .orElseThrow(() -> new ApiException(404, "客户不存在: " + id));
+            switch (method) {
+                case "GET":
+                    return toJson(customer);
+                case "PUT":
+                    return updateCustomer(customer, request.body());
+                case "DELETE":
+                    if (!customerService.deleteCustomer(id)) {
+                        throw new ApiException(404, "客户不存在: " + id);
+                    }
+                    return null;
+                default:
+                    throw new ApiException(405, "不支持的请求方法: " + method);
+            }
+        }
+        throw new ApiException(404, "接口不存在");
+    }
+
+    /**
+     * 修改姓名、类型和电话，请求中没有的字段保持不变
+     */
+    private Object updateCustomer(Customer customer, Map<String, Object> body) {
+        if (body.containsKey("name")) {
+            customer.setName(requiredString(body, "name"));
+        }
+        if (body.containsKey("customerType")) {
+            customer.setCustomerType(customerType(body));
+        }
+        if (body.containsKey("phone")) {
+            customer.setPhone(requiredString(body, "phone"));
+        }
+        if (!customerService.updateCustomer(customer)) {
+            throw new ApiException(404, "客户不存在: " + customer.getId());
+        }
+        return toJson(customer);
+    }
+
+    private static String customerType(Map<String, Object> body) {
+        String type = requiredString(body, "customerType");
+        if (!type.equals(Constants.CUSTOMER_TYPE_REGULAR) && !type.equals(Constants.CUSTOMER_TYPE_VIP)
+                && !type.equals(Constants.CUSTOMER_TYPE_ENTERPRISE)) {
+            throw new ApiException(400, "未知的客户类型: " + type);
+        }
+        return type;
+    }
+}
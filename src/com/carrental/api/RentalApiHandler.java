@@ -0,0 +1,136 @@
+package com.carrental.api;
+
+import com.carrental.model.RentalQuote;
+import com.carrental.model.RentalRecord;
+import com.carrental.service.RentalService;
+import com.carrental.service.UserService;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 租赁接口，路径/api/rentals
+ * GET /api/rentals[?vehicleId=|customerId=|unreturned=true]、GET /api/rentals/{id}、
+ * GET /api/rentals/quotes?customerId=&amp;type=&amp;days=、
+ * POST /api/rentals（租车）、POST /api/rentals/batch（批量租车）、
+ * POST /api/rentals/{id}/return（还车）、POST /api/rentals/return（批量还车）
+ */
+public class RentalApiHandler extends ApiHandler {
+    private final RentalService rentalService;
+
+    public RentalApiHandler(RentalService rentalService, UserService userService) {
+        super(userService);
+        this.rentalService = rentalService;
+    }
+
+    @Override
+    protected Object handle(Request request) {
+        List<String> path = request.path();
+        String method = request.method();
+        if ("GET".equals(method)) {
+            if (path.isEmpty()) {
+                return listRecords(request);
+            }
+            if (path.size() == 1 && "quotes".equals(path.get(0))) {
+                return quote(request);
+            }
+            if (path.size() == 1) {
+                int id = parseInt(path.get(0), "租赁记录ID");
+                return toJson(rentalService.findRentalRecordById(id)
+                        .orElseThrow(() -> new ApiException(404, "租赁记录不存在: " + id)));
+            }
+        } else if ("POST".equals(method)) {
+            if (path.isEmpty()) {
+                Map<String, Object> body = request.body();
+                Optional<RentalRecord> record = rentalService.rentVehicle(requiredInt(body, "vehicleId"),
+                        requiredInt(body, "customerId"), rentalDays(body));
+                request.status(201);
+                return toJson(record.orElseThrow(() -> new ApiException(409, "租车失败：车辆不可租、客户不存在或与预约冲突")));
+            }
+            if (path.size() == 1 && "batch".equals(path.get(0))) {
+                Map<String, Object> body = request.body();
+                List<RentalRecord> records = rentalService.rentVehicles(requiredIntList(body, "vehicleIds"),
+                        requiredInt(body, "customerId"), rentalDays(body));
+                if (records.isEmpty()) {
+                    throw new ApiException(409, "批量租车失败，未租出任何车辆");
+                }
+                request.status(201);
+                return toJson(records);
+            }
+            if (path.size() == 1 && "return".equals(path.get(0))) {
+                List<RentalRecord> records = rentalService.returnVehicles(requiredIntList(request.body(), "recordIds"));
+                if (records.isEmpty()) {
+                    throw new ApiException(409, "批量还车失败，未归还任何车辆");
+                }
+                return toJson(records);
+            }
+            if (path.size() == 2 && "return".equals(path.get(1))) {
+                int id = parseInt(path.get(0), "租赁记录ID");
+                return toJson(rentalService.returnVehicle(id)
+                        .orElseThrow(() -> new ApiException(409, "还车失败：记录不存在或车辆已归还")));
+            }
+        } else {
+            throw new ApiException(405, "不支持的请求方法: " + method);
+        }
+        throw new ApiException(404, "接口不存在");
+    }
+
+    private Object listRecords(Request request) {
+        Integer vehicleId = request.queryInt("vehicleId");
+        Integer customerId = request.queryInt("customerId");
+        List<RentalRecord> records;
+        if (vehicleId != null) {
+            records = rentalService.findRentalRecordsByVehicleId(vehicleId);
+        } else if (customerId != null) {
+            records = rentalService.findRentalRecordsByCustomerId(customerId);
+        } else if ("true".equals(request.query("unreturned"))) {
+            records = rentalService.findUnreturnedRentalRecords();
+        } else {
+            records = rentalService.findAllRentalRecords();
+        }
+        return toJson(records);
+    }
+
+    /**
+     * 为客户报出某类型全部可租赁车辆的租金
+     */
+    private Object quote(Request request) {
+        Integer customerId = request.queryInt("customerId");
+        Integer days = request.queryInt("days");
+        String type = request.query("type");
+        if (customerId == null || days == null || type == null) {
+            throw new ApiException(400, "缺少参数customerId、type或days");
+        }
+        if (days <= 0) {
+            throw new ApiException(400, "租赁天数必须大于0");
+        }
+        List<Object> result = new ArrayList<>();
+        for (RentalQuote quote : rentalService.quoteAvailableVehicles(customerId, type, days)) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("vehicle", toJson(quote.getVehicle()));
+            json.put("rentalDays", quote.getRentalDays());
+            json.put("totalRent", quote.getTotalRent());
+            result.add(json);
+        }
+        return result;
+    }
+
+    private static int rentalDays(Map<String, Object> body) {
+        int rentalDays = requiredInt(body, "rentalDays");
+        if (rentalDays <= 0) {
+            throw new ApiException(400, "租赁天数必须大于0");
+        }
+        return rentalDays;
+    }
+
+    private static List<Object> toJson(List<RentalRecord> records) {
+        List<Object> result = new ArrayList<>(records.size());
+        for (RentalRecord record : records) {
+            result.add(toJson(record));
+        }
+        return result;
+    }
+}
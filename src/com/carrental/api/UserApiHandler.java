@@ -0,0 +1,89 @@
+package com.carrental.api;
+
+import com.carrental.model.User;
+import com.carrental.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户接口，路径/api/users；除查看当前用户外只有ADMIN可以使用
+ * GET /api/users/me、GET /api/users、POST /api/users、PUT /api/users/{用户名}、DELETE /api/users/{用户名}
+ */
+public class UserApiHandler extends ApiHandler {
+    private final UserService userService;
+
+    public UserApiHandler(UserService userService) {
+        super(userService);
+        this.userService = userService;
+    }
+
+    @Override
+    protected Object handle(Request request) {
+        List<String> path = request.path();
+        String method = request.method();
+        if (path.size() == 1 && "me".equals(path.get(0)) && "GET".equals(method)) {
+            return toJson(request.user());
+        }
+        if (!"ADMIN".equals(request.user().getRole())) {
+            throw new ApiException(403, "只有管理员可以管理用户");
+        }
+        if (path.isEmpty() && "GET".equals(method)) {
+            List<Object> result = new ArrayList<>();
+            for (User user : userService.findAllUsers()) {
+                result.add(toJson(user));
+            }
+            return result;
+        }
+        if (path.isEmpty() && "POST".equals(method)) {
+            Map<String, Object> body = request.body();
+            User user = new User(requiredString(body, "username"), requiredString(body, "password"), role(body));
+            if (!userService.addUser(user)) {
+                throw new ApiException(409, "用户名已存在: " + user.getUsername());
+            }
+            request.status(201);
+            return toJson(user);
+        }
+        if (path.size() == 1) {
+            String username = path.get(0);
+            User user = userService.findByUsername(username)
+                    .orElseThrow(() -> new ApiException(404, "用户不存在: " + username));
+            switch (method) {
+                case "GET":
+                    return toJson(user);
+                case "PUT":
+                    Map<String, Object> body = request.body();
+                    if (body.containsKey("password")) {
+                        user.setPassword(requiredString(body, "password"));
+                    }
+                    if (body.containsKey("role")) {
+                        user.setRole(role(body));
+                    }
+                    if (!userService.updateUser(user)) {
+                        throw new ApiException(404, "用户不存在: " + username);
+                    }
+                    return toJson(user);
+                case "DELETE":
+                    if (request.user().getUsername().equals(username)) {
+                        throw new ApiException(409, "不能删除当前登录的用户");
+                    }
+                    if (!userService.deleteUser(request.user(), username)) {
+                        throw new ApiException(409, "删除用户失败，管理员用户不能被删除");
+                    }
+                    return null;
+                default:
+                    throw new ApiException(405, "不支持的请求方法: " + method);
+            }
+        }
+        throw new ApiException(404, "接口不存在");
+    }
+
+    private static String role(Map<String, Object> body) {
+        String role = requiredString(body, "role");
+        if (!"ADMIN".equals(role) && !"USER".equals(role)) {
+            throw new ApiException(400, "无效的角色，应为ADMIN或USER: " + role);
+        }
+        return role;
+    }
+}
@@ -0,0 +1,144 @@
+package com.carrental.api;
+
+import com.carrental.model.Bus;
+import com.carrental.model.Car;
+import com.carrental.model.Van;
+import com.carrental.model.Vehicle;
+import com.carrental.service.UserService;
+import com.carrental.service.VehicleService;
+import com.carrental.util.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 车辆接口，路径/api/vehicles
+ * GET /api/vehicles[?type=类型&amp;available=true]、GET /api/vehicles/{id}、POST /api/vehicles、
+ * PUT /api/vehicles/{id}、DELETE /api/vehicles/{id}
+ */
+public class VehicleApiHandler extends ApiHandler {
+    private final VehicleService vehicleService;
+
+    public VehicleApiHandler(VehicleService vehicleService, UserService userService) {
+        super(userService);
+        this.vehicleService = vehicleService;
+    }
+
+    @Override
+    protected Object handle(Request request) {
+        List<String> path = request.path();
+        String method = request.method();
+        if (path.isEmpty() && "GET".equals(method)) {
+            return listVehicles(request.query("type"), "true".equals(request.query("available")));
+        }
+        if (path.isEmpty() && "POST".equals(method)) {
+            Vehicle vehicle = createVehicle(request.body());
+            if (!vehicleService.addVehicle(vehicle)) {
+                throw new ApiException(500, "添加车辆失败");
+            }
+            request.status(201);
+            return toJson(vehicle);
+        }
+        if (path.size() == 1) {
+            Vehicle vehicle = findVehicle(parseInt(path.get(0), "车辆ID"));
+            switch (method) {
+                case "GET":
+                    return toJson(vehicle);
+                case "PUT":
+                    return updateVehicle(vehicle, request.body());
+                case "DELETE":
+                    if (vehicle.isRented()) {
+                        throw new ApiException(409, "车辆已被出租，无法删除");
+                    }
+                    if (!vehicleService.deleteVehicle(vehicle.getId())) {
+                        throw new ApiException(404, "车辆不存在: " + vehicle.getId());
+                    }
+                    return null;
+                default:
+                    throw new ApiException(405, "不支持的请求方法: " + method);
+            }
+        }
+        throw new ApiException(404, "接口不存在");
+    }
+
+    private List<Object> listVehicles(String type, boolean availableOnly) {
+        List<Vehicle> vehicles;
+        if (type != null) {
+            vehicles = availableOnly ? vehicleService.findAvailableVehiclesByType(type) : vehicleService.findVehiclesByType(type);
+        } else {
+            vehicles = vehicleService.findAllVehicles();
+        }
+        List<Object> result = new ArrayList<>(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            if (!availableOnly || !vehicle.isRented()) {
+                result.add(toJson(vehicle));
+            }
+        }
+        return result;
+    }
+
+    private Vehicle findVehicle(int id) {
+        return vehicleService.findVehicleById(id)
+                .orElseThrow(() -> new ApiException(404, "车辆不存在: " + id));
+    }
+
+    /**
+     * 按请求内容创建车辆，类型决定车辆子类，子类特有的字段可省略
+     */
+    private static Vehicle createVehicle(Map<String, Object> body) {
+        String type = requiredString(body, "type");
+        Vehicle vehicle;
+        switch (type) {
+            case Constants.VEHICLE_TYPE_CAR:
+                Car car = new Car();
+                car.setTransmission(body.get("transmission") == null ? "自动" : body.get("transmission").toString());
+                vehicle = car;
+                break;
+            case Constants.VEHICLE_TYPE_VAN:
+                Van van = new Van();
+                van.setLoadCapacity(body.get("loadCapacity") == null ? 2.5 : requiredNumber(body, "loadCapacity"));
+                vehicle = van;
+                break;
+            case Constants.VEHICLE_TYPE_BUS:
+            case "巴士":
+                Bus bus = new Bus();
+                bus.setSeats(body.get("seats") == null ? 0 : requiredInt(body, "seats"));
+                vehicle = bus;
+                break;
+            default:
+                throw new ApiException(400, "未知的车辆类型: " + type);
+        }
+        vehicle.setType(type);
+        vehicle.setBrand(requiredString(body, "brand"));
+        vehicle.setModel(requiredString(body, "model"));
+        vehicle.setDailyRent(requiredNumber(body, "dailyRent"));
+        if (!(vehicle.getDailyRent() > 0)) {
+            throw new ApiException(400, "日租金必须大于0");
+        }
+        return vehicle;
+    }
+
+    /**
+     * 修改品牌、型号和日租金，请求中没有的字段保持不变
+     */
+    private Object updateVehicle(Vehicle vehicle, Map<String, Object> body) {
+        if (body.containsKey("brand")) {
+            vehicle.setBrand(requiredString(body, "brand"));
+        }
+        if (body.containsKey("model")) {
+            vehicle.setModel(requiredString(body, "model"));
+        }
+        if (body.containsKey("dailyRent")) {
+            double dailyRent = requiredNumber(body, "dailyRent");
+            if (!(dailyRent > 0)) {
+                throw new ApiException(400, "日租金必须大于0");
+            }
+            vehicle.setDailyRent(dailyRent);
+        }
+        if (!vehicleService.updateVehicle(vehicle)) {
+            throw new ApiException(404, "车辆不存在: " + vehicle.getId());
+        }
+        return toJson(vehicle);
+    }
+}
@@ -0,0 +1,101 @@
+package com.carrental.controller;
+
+import com.carrental.service.AnalyticsService;
+import com.carrental.util.InputUtil;
+
+import java.util.Map;
+
+/**
+ * 经营统计控制器，显示营收和车辆利用率
+ */
+public class AnalyticsController {
+    private AnalyticsService analyticsService;
+
+    // 构造函数注入依赖
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    /**
+     * 显示经营统计菜单
+     */
+    public void showMenu() {
+        while (true) {
+            System.out.println("\n===== 经营统计 =====");
+            System.out.println("1. 按车辆类型统计营收");
+            System.out.println("2. 按客户类型统计营收");
+            System.out.println("3. 按月份统计营收");
+            System.out.println("4. 查看车辆利用率");
+            System.out.println("5. 重新统计");
+            System.out.println("0. 返回上一级");
+
+            int choice = InputUtil.getInt("请选择操作: ");
+
+            switch (choice) {
+                case 1:
+                    displayRevenue("车辆类型", analyticsService.getRevenueByVehicleType());
+                    break;
+                case 2:
+                    displayRevenue("客户类型", analyticsService.getRevenueByCustomerType());
+                    break;
+                case 3:
+                    displayRevenue("月份", analyticsService.getRevenueByMonth());
+                    break;
+                case 4:
+                    displayUtilization();
+                    break;
+                case 5:
+                    analyticsService.rebuild();
+                    System.out.println("统计完成，共" + analyticsService.getRentalCount() + "条租赁记录。");
+                    break;
+                case 0:
+                    return;
+                default:
+                    System.out.println("无效的选择，请重新输入！");
+            }
+        }
+    }
+
+    /**
+     * 显示营收汇总
+     * @param dimension 统计维度名称
+     * @param revenue 维度取值到营收的映射
+     */
+    private void displayRevenue(String dimension, Map<String, Double> revenue) {
+        System.out.println("\n===== 按" + dimension + "统计营收 =====");
+        if (revenue.isEmpty()) {
+            System.out.println("没有租赁记录！");
+            return;
+        }
+
+        double total = analyticsService.getTotalRevenue();
+        System.out.printf("%-15s %-15s %-10s\n", dimension, "营收(元)", "占比");
+        System.out.println("----------------------------------------");
+        for (Map.Entry<String, Double> entry : revenue.entrySet()) {
+            System.out.printf("%-15s %-15.2f %-10s\n", entry.getKey(), entry.getValue(),
+                    total > 0 ? String.format("%.1f%%", entry.getValue() * 100 / total) : "-");
+        }
+        System.out.println("----------------------------------------");
+        System.out.printf("%-15s %-15.2f\n", "合计", total);
+    }
+
+    /**
+     * 显示车辆利用率
+     */
+    private void displayUtilization() {
+        System.out.println("\n===== 车辆利用率 =====");
+        Map<String, Double> utilization = analyticsService.getFleetUtilization();
+        if (utilization.isEmpty()) {
+            System.out.println("没有车辆信息！");
+            return;
+        }
+
+        System.out.printf("%-15s %-10s\n", "车辆类型", "利用率");
+        System.out.println("-------------------------");
+        for (Map.Entry<String, Double> entry : utilization.entrySet()) {
+            System.out.printf("%-15s %.1f%%\n", entry.getKey(), entry.getValue() * 100);
+        }
+        System.out.println("-------------------------");
+        System.out.printf("%-15s %.1f%%\n", "全部", analyticsService.getOverallUtilization() * 100);
+    }
+}
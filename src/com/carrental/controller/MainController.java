@@ -10,6 +10,7 @@ public class MainController {
     private CustomerController customerController;
     private RentalController rentalController;
     private UserController userController;
+    private AnalyticsController analyticsController;
 
 
 
@@ -21,10 +22,18 @@ public class MainController {
         this.userController = userController;
     }
 
+    // 构造函数，包含经营统计控制器
+    public MainController(VehicleController vehicleController, CustomerController customerController, RentalController rentalController,
+                          UserController userController, AnalyticsController analyticsController) {
+        this(vehicleController, customerController, rentalController, userController);
+        this.analyticsController = analyticsController;
+    }
+
     /**
      * 显示系统主菜单
+     * @return 退出登录时返回true（回到登录界面），退出系统时返回false
      */
-    public void showMainMenu() {
+    public boolean showMainMenu() {
         while (true) {
             System.out.println("===== 汽车租赁管理系统 =====");
             System.out.println("1. 汽车信息管理");
@@ -34,6 +43,9 @@ public class MainController {
                 System.out.println("4. 用户管理");
             }
             System.out.println("5. 退出登录");
+            if (analyticsController != null) {
+                System.out.println("6. 经营统计");
+            }
             System.out.println("0. 退出系统");
 
             int choice = InputUtil.getInt("请选择功能模块: ");
@@ -60,12 +72,17 @@ public class MainController {
                     if (userController != null) {
                         userController.logout();
                     }
-                    return; // 返回Main类，重新开始登录流程
+                    return true; // 重新开始登录流程
+                case 6:
+                    if (analyticsController != null) {
+                        analyticsController.showMenu();
+                    } else {
+                        System.out.println("经营统计功能未启用！");
+                    }
+                    break;
                 case 0:
                     System.out.println("感谢使用汽车租赁管理系统，再见！");
-                    InputUtil.close();
-                    System.exit(0);
-                    return;
+                    return false;
                 default:
                     System.out.println("无效的选择，请重新输入！");
             }
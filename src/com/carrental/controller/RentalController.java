@@ -1,6 +1,7 @@
 package com.carrental.controller;
 
 import com.carrental.model.Customer;
+import com.carrental.model.RentalQuote;
 import com.carrental.model.RentalRecord;
 import com.carrental.model.Vehicle;
 import com.carrental.service.CustomerService;
@@ -21,6 +22,7 @@ public class RentalController {
     private CustomerService customerService;
     private VehicleController vehicleController;
     private CustomerController customerController;
+    private ReservationController reservationController; // 预约管理，为null时不显示该菜单项
 
     // 构造函数注入依赖
     public RentalController(RentalService rentalService, VehicleService vehicleService, CustomerService customerService, 
@@ -32,6 +34,14 @@ public class RentalController {
         this.customerController = customerController;
     }
 
+    // 构造函数注入依赖，包含预约管理
+    public RentalController(RentalService rentalService, VehicleService vehicleService, CustomerService customerService,
+                            VehicleController vehicleController, CustomerController customerController,
+                            ReservationController reservationController) {
+        this(rentalService, vehicleService, customerService, vehicleController, customerController);
+        this.reservationController = reservationController;
+    }
+
     /**
      * 显示日常业务管理菜单
      */
@@ -43,6 +53,11 @@ public class RentalController {
             System.out.println("3. 查看未归还记录");
             System.out.println("4. 查看所有租赁记录");
             System.out.println("5. 查看客户租赁记录");
+            if (reservationController != null) {
+                System.out.println("6. 预约管理");
+            }
+            System.out.println("7. 批量租车");
+            System.out.println("8. 批量还车");
             System.out.println("0. 返回上一级");
 
             int choice = InputUtil.getInt("请选择操作: ");
@@ -63,6 +78,19 @@ public class RentalController {
                 case 5:
                     displayRentalRecordsByCustomerId();
                     break;
+                case 6:
+                    if (reservationController != null) {
+                        reservationController.showMenu();
+                    } else {
+                        System.out.println("预约管理功能未启用！");
+                    }
+                    break;
+                case 7:
+                    rentVehicles();
+                    break;
+                case 8:
+                    returnVehicles();
+                    break;
                 case 0:
                     return;
                 default:
@@ -79,42 +107,40 @@ public class RentalController {
 
         String type=InputUtil.getString("选择要租的车型（轿车，面包车，巴士，客车）：");
 
-        // 先显示可租赁车辆
-        if(vehicleController.findAvailableVehiclesByType(type)) {
-            int vehicleId = InputUtil.getInt("请输入要租赁的车辆ID: ");
-            
-            // 验证车辆是否存在且类型匹配
-            Optional<Vehicle> optionalVehicle = vehicleService.findVehicleById(vehicleId);
-            if (!optionalVehicle.isPresent()) {
-                System.out.println("未找到ID为" + vehicleId + "的车辆！");
-                return;
-            }
-            Vehicle vehicle = optionalVehicle.get();
-            if (!vehicle.getType().equals(type)) {
-                System.out.println("选择的车辆不是" + type + "类型！");
-                return;
-            }
-            if (vehicle.isRented()) {
-                System.out.println("该车辆已被出租！");
-                return;
-            }
+        // 显示客户列表
+        System.out.println("\n客户列表：");
+        customerController.displayAllCustomers();
 
-            // 显示客户列表
-            System.out.println("\n客户列表：");
-            customerController.displayAllCustomers();
+        int customerId = InputUtil.getInt("请输入客户ID: ");
 
-            int customerId = InputUtil.getInt("请输入客户ID: ");
-            
-            // 验证客户是否存在
-            Optional<Customer> optionalCustomer = customerService.findCustomerById(customerId);
-            if (!optionalCustomer.isPresent()) {
-                System.out.println("未找到ID为" + customerId + "的客户！");
-                return;
-            }
+        // 验证客户是否存在
+        Optional<Customer> optionalCustomer = customerService.findCustomerById(customerId);
+        if (!optionalCustomer.isPresent()) {
+            System.out.println("未找到ID为" + customerId + "的客户！");
+            return;
+        }
+
+        int rentalDays = InputUtil.getInt("请输入租赁天数: ");
+        if (rentalDays <= 0) {
+            System.out.println("租赁天数必须大于0！");
+            return;
+        }
+
+        // 一次报出该类型所有可租赁车辆的租金
+        List<RentalQuote> quotes = rentalService.quoteAvailableVehicles(customerId, type, rentalDays);
+        if(displayQuotes(type, quotes)) {
+            int vehicleId = InputUtil.getInt("请输入要租赁的车辆ID: ");
 
-            int rentalDays = InputUtil.getInt("请输入租赁天数: ");
-            if (rentalDays <= 0) {
-                System.out.println("租赁天数必须大于0！");
+            // 验证车辆是否在报价列表中
+            boolean quoted = false;
+            for (RentalQuote quote : quotes) {
+                if (quote.getVehicle().getId() == vehicleId) {
+                    quoted = true;
+                    break;
+                }
+            }
+            if (!quoted) {
+                System.out.println("ID为" + vehicleId + "的车辆不是可租赁的" + type + "！");
                 return;
             }
 
@@ -139,6 +165,90 @@ public class RentalController {
 
     }
 
+    /**
+     * 批量租车功能，同一客户一次租用多辆车，全部成功或全部不租
+     */
+    private void rentVehicles() {
+        System.out.println("\n===== 批量租车 =====");
+
+        // 显示客户列表
+        System.out.println("\n客户列表：");
+        customerController.displayAllCustomers();
+
+        int customerId = InputUtil.getInt("请输入客户ID: ");
+        if (!customerService.findCustomerById(customerId).isPresent()) {
+            System.out.println("未找到ID为" + customerId + "的客户！");
+            return;
+        }
+
+        int rentalDays = InputUtil.getInt("请输入租赁天数: ");
+        if (rentalDays <= 0) {
+            System.out.println("租赁天数必须大于0！");
+            return;
+        }
+
+        List<Integer> vehicleIds = InputUtil.getIntList("请输入要租赁的车辆ID，以逗号分隔: ");
+        List<RentalRecord> records = rentalService.rentVehicles(vehicleIds, customerId, rentalDays);
+        if (records.isEmpty()) {
+            System.out.println("批量租车失败，所有车辆均未租出！");
+            return;
+        }
+
+        double totalRent = 0;
+        System.out.println("\n批量租车成功！共" + records.size() + "辆");
+        System.out.printf("%-10s %-20s %-10s\n", "记录ID", "车辆信息", "租金");
+        for (RentalRecord record : records) {
+            System.out.printf("%-10d %-20s %-10.2f\n", record.getId(),
+                    record.getVehicle().getType() + " " + record.getVehicle().getBrand() + " " + record.getVehicle().getModel(),
+                    record.getTotalRent());
+            totalRent += record.getTotalRent();
+        }
+        System.out.printf("总租金: %.2f 元\n", totalRent);
+        System.out.println("请妥善保存租赁记录ID，用于还车时使用。");
+    }
+
+    /**
+     * 批量还车功能，全部成功或全部不还
+     */
+    private void returnVehicles() {
+        System.out.println("\n===== 批量还车 =====");
+
+        // 先显示未归还的租赁记录
+        System.out.println("未归还的租赁记录：");
+        displayUnreturnedRecords();
+
+        List<Integer> recordIds = InputUtil.getIntList("请输入租赁记录ID，以逗号分隔: ");
+        List<RentalRecord> records = rentalService.returnVehicles(recordIds);
+        if (records.isEmpty()) {
+            System.out.println("批量还车失败，所有车辆均未归还！");
+            return;
+        }
+        System.out.println("\n批量还车成功！共归还" + records.size() + "辆车");
+    }
+
+    /**
+     * 显示报价列表
+     * @param type 车辆类型
+     * @param quotes 报价列表
+     * @return 是否有可租赁的车辆
+     */
+    private boolean displayQuotes(String type, List<RentalQuote> quotes) {
+        System.out.println("\n===== 可租赁的" + type + "报价 =====");
+        if (quotes.isEmpty()) {
+            System.out.println("没有可租赁的" + type + "！");
+            return false;
+        }
+
+        System.out.printf("%-5s %-10s %-20s %-15s %-15s\n", "ID", "品牌", "车型", "日租金", "总租金");
+        System.out.println("----------------------------------------------------------------------");
+        for (RentalQuote quote : quotes) {
+            Vehicle vehicle = quote.getVehicle();
+            System.out.printf("%-5d %-10s %-20s %-15.2f %-15.2f\n",
+                    vehicle.getId(), vehicle.getBrand(), vehicle.getModel(), vehicle.getDailyRent(), quote.getTotalRent());
+        }
+        return true;
+    }
+
     /**
      * 还车功能
      */
@@ -0,0 +1,154 @@
+package com.carrental.controller;
+
+import com.carrental.model.Customer;
+import com.carrental.model.Reservation;
+import com.carrental.model.Vehicle;
+import com.carrental.service.CustomerService;
+import com.carrental.service.ReservationService;
+import com.carrental.service.VehicleService;
+import com.carrental.util.InputUtil;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 预约管理控制器，处理车辆预约相关的用户交互
+ */
+public class ReservationController {
+    private ReservationService reservationService;
+    private VehicleService vehicleService;
+    private CustomerService customerService;
+    private VehicleController vehicleController;
+    private CustomerController customerController;
+
+    // 构造函数注入依赖
+    public ReservationController(ReservationService reservationService, VehicleService vehicleService, CustomerService customerService,
+                                 VehicleController vehicleController, CustomerController customerController) {
+        this.reservationService = reservationService;
+        this.vehicleService = vehicleService;
+        this.customerService = customerService;
+        this.vehicleController = vehicleController;
+        this.customerController = customerController;
+    }
+
+    /**
+     * 显示预约管理菜单
+     */
+    public void showMenu() {
+        while (true) {
+            System.out.println("\n===== 预约管理 =====");
+            System.out.println("1. 预约车辆");
+            System.out.println("2. 取消预约");
+            System.out.println("3. 查看所有预约");
+            System.out.println("4. 查询空闲车辆");
+            System.out.println("0. 返回上一级");
+
+            int choice = InputUtil.getInt("请选择操作: ");
+
+            switch (choice) {
+                case 1:
+                    reserveVehicle();
+                    break;
+                case 2:
+                    cancelReservation();
+                    break;
+                case 3:
+                    displayAllReservations();
+                    break;
+                case 4:
+                    displayAvailableVehicles();
+                    break;
+                case 0:
+                    return;
+                default:
+                    System.out.println("无效的选择，请重新输入！");
+            }
+        }
+    }
+
+    /**
+     * 预约车辆：先按车型和期间列出空闲车辆，再选择车辆和客户
+     */
+    private void reserveVehicle() {
+        System.out.println("\n===== 预约车辆 =====");
+        String type = InputUtil.getString("选择要预约的车型（轿车，面包车，客车）：");
+        Date startDate = InputUtil.getDate("请输入开始日期(yyyy-MM-dd): ");
+        int days = InputUtil.getInt("请输入预约天数: ");
+        if (days <= 0) {
+            System.out.println("预约天数必须大于0！");
+            return;
+        }
+
+        List<Vehicle> vehicles = reservationService.findAvailableVehicles(type, startDate, days);
+        System.out.println("\n===== 该期间空闲的" + type + "列表 =====");
+        if (!vehicleController.displayVehicles(vehicles)) {
+            return;
+        }
+        int vehicleId = InputUtil.getInt("请输入要预约的车辆ID: ");
+
+        System.out.println("\n客户列表：");
+        customerController.displayAllCustomers();
+        int customerId = InputUtil.getInt("请输入客户ID: ");
+
+        Optional<Reservation> reservation = reservationService.reserveVehicle(vehicleId, customerId, startDate, days);
+        if (reservation.isPresent()) {
+            System.out.println("\n预约成功！预约ID: " + reservation.get().getId());
+        } else {
+            System.out.println("预约失败！");
+        }
+    }
+
+    /**
+     * 取消预约
+     */
+    private void cancelReservation() {
+        System.out.println("\n===== 取消预约 =====");
+        displayAllReservations();
+        int reservationId = InputUtil.getInt("请输入要取消的预约ID: ");
+        if (reservationService.cancelReservation(reservationId)) {
+            System.out.println("预约已取消！");
+        } else {
+            System.out.println("未找到ID为" + reservationId + "的预约！");
+        }
+    }
+
+    /**
+     * 查询指定期间空闲的车辆
+     */
+    private void displayAvailableVehicles() {
+        System.out.println("\n===== 查询空闲车辆 =====");
+        String type = InputUtil.getString("请输入车型（轿车，面包车，客车）：");
+        Date startDate = InputUtil.getDate("请输入开始日期(yyyy-MM-dd): ");
+        int days = InputUtil.getInt("请输入天数: ");
+        System.out.println("\n===== 该期间空闲的" + type + "列表 =====");
+        vehicleController.displayVehicles(reservationService.findAvailableVehicles(type, startDate, days));
+    }
+
+    /**
+     * 显示所有预约
+     */
+    private void displayAllReservations() {
+        System.out.println("\n===== 所有预约 =====");
+        List<Reservation> reservations = reservationService.findAllReservations();
+        if (reservations.isEmpty()) {
+            System.out.println("没有预约记录！");
+            return;
+        }
+
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        System.out.printf("%-5s %-20s %-10s %-15s %-10s\n", "ID", "车辆信息", "客户", "开始日期", "天数");
+        System.out.println("----------------------------------------------------------------------");
+        for (Reservation reservation : reservations) {
+            String vehicle = vehicleService.findVehicleById(reservation.getVehicleId())
+                    .map(v -> v.getType() + " " + v.getBrand() + " " + v.getModel())
+                    .orElse("车辆" + reservation.getVehicleId());
+            String customer = customerService.findCustomerById(reservation.getCustomerId())
+                    .map(Customer::getName)
+                    .orElse("客户" + reservation.getCustomerId());
+            System.out.printf("%-5d %-20s %-10s %-15s %-10d\n",
+                    reservation.getId(), vehicle, customer, sdf.format(reservation.getStartDate()), reservation.getDays());
+        }
+    }
+}
@@ -2,9 +2,9 @@ package com.carrental.controller;
 
 import com.carrental.model.User;
 import com.carrental.service.UserService;
+import com.carrental.util.InputUtil;
 
 import java.util.List;
-import java.util.Scanner;
 import java.util.Optional;
 
 /**
@@ -12,7 +12,6 @@ import java.util.Optional;
  */
 public class UserController {
     private final UserService userService;
-    private Scanner scanner;
     private User currentUser; // 当前登录用户
     
     /**
@@ -21,7 +20,6 @@ public class UserController {
      */
     public UserController(UserService userService) {
         this.userService = userService;
-        this.scanner = new Scanner(System.in);
     }
     
     /**
@@ -35,11 +33,9 @@ public class UserController {
         System.out.println("             用户登录");
         System.out.println("========================================");
         
-        System.out.print("请输入用户名: ");
-        String username = scanner.nextLine().trim();
+        String username = InputUtil.getString("请输入用户名: ").trim();
         
-        System.out.print("请输入密码: ");
-        String password = scanner.nextLine().trim();
+        String password = InputUtil.getString("请输入密码: ").trim();
         
         // 调用服务层进行登录验证
         Optional<User> userOpt = userService.login(username, password);
@@ -105,8 +101,7 @@ public class UserController {
             System.out.println("0. 返回主菜单");
             System.out.println("========================================");
             
-            System.out.print("请选择操作 (1-4): ");
-            String choice = scanner.nextLine().trim();
+            String choice = InputUtil.getString("请选择操作 (1-4): ").trim();
             
             switch (choice) {
                 case "1":
@@ -136,8 +131,7 @@ public class UserController {
     private void addUser() {
         System.out.println("\n------ 添加用户 ------");
         
-        System.out.print("请输入用户名: ");
-        String username = scanner.nextLine().trim(); //.trim() 去除字符串首尾的空白字符（包括空格、制表符 \t、换行符 \n 等不可见的空白符号），中间的空白字符会保留。
+        String username = InputUtil.getString("请输入用户名: ").trim(); //.trim() 去除字符串首尾的空白字符（包括空格、制表符 \t、换行符 \n 等不可见的空白符号），中间的空白字符会保留。
         
         // 检查用户名是否已存在
         if (userService.findByUsername(username).isPresent()) {
@@ -145,11 +139,9 @@ public class UserController {
             return;
         }
         
-        System.out.print("请输入密码: ");
-        String password = scanner.nextLine().trim();
+        String password = InputUtil.getString("请输入密码: ").trim();
         
-        System.out.print("请输入角色 (ADMIN/USER): ");
-        String role = scanner.nextLine().trim().toUpperCase();
+        String role = InputUtil.getString("请输入角色 (ADMIN/USER): ").trim().toUpperCase();
         
         // 验证角色
         if (!"ADMIN".equals(role) && !"USER".equals(role)) {
@@ -174,8 +166,7 @@ public class UserController {
     private void updateUser() {
         System.out.println("\n------ 更新用户信息 ------");
         
-        System.out.print("请输入要更新的用户名: ");
-        String username = scanner.nextLine().trim();
+        String username = InputUtil.getString("请输入要更新的用户名: ").trim();
         
         Optional<User> userOpt = userService.findByUsername(username);
         if (!userOpt.isPresent()) {
@@ -186,14 +177,12 @@ public class UserController {
         User user = userOpt.get();
         System.out.println("当前用户信息: " + user);
         
-        System.out.print("请输入新密码 (留空不修改): ");
-        String newPassword = scanner.nextLine().trim();
+        String newPassword = InputUtil.getString("请输入新密码 (留空不修改): ").trim();
         if (!newPassword.isEmpty()) {
             user.setPassword(newPassword);
         }
         
-        System.out.print("请输入新角色 (ADMIN/USER，留空不修改): ");
-        String newRole = scanner.nextLine().trim().toUpperCase();
+        String newRole = InputUtil.getString("请输入新角色 (ADMIN/USER，留空不修改): ").trim().toUpperCase();
         if (!newRole.isEmpty()) {
             if ("ADMIN".equals(newRole) || "USER".equals(newRole)) {
                 user.setRole(newRole);
@@ -216,8 +205,7 @@ public class UserController {
     private void deleteUser() {
         System.out.println("\n------ 删除用户 ------");
         
-        System.out.print("请输入要删除的用户名: ");
-        String username = scanner.nextLine().trim();
+        String username = InputUtil.getString("请输入要删除的用户名: ").trim();
         
         // 不能删除当前登录的管理员账户
         if (currentUser != null && currentUser.getUsername().equals(username)) {
@@ -232,8 +220,7 @@ public class UserController {
         }
         
         // 确认删除
-        System.out.print("确定要删除用户 "+username+" 吗？(y/n): ");
-        String confirm = scanner.nextLine().trim().toLowerCase();
+        String confirm = InputUtil.getString("确定要删除用户 "+username+" 吗？(y/n): ").trim().toLowerCase();
         
         if ("y".equals(confirm)) {
             if (userService.deleteUser(currentUser, username)) {
@@ -214,7 +214,7 @@ public class VehicleController {
      * 显示车辆列表
      * @param vehicles 车辆列表
      */
-    private Boolean displayVehicles(List<Vehicle> vehicles) {
+    Boolean displayVehicles(List<Vehicle> vehicles) {
         if (vehicles.isEmpty()) {
             System.out.println("没有车辆记录！");
             return false;
@@ -0,0 +1,76 @@
+package com.carrental.model;
+
+import com.carrental.util.Constants;
+
+/**
+ * 网点类，每个网点的车辆和租赁记录保存在自己的数据目录中
+ * 网点序号决定该网点车辆和租赁记录的ID段：序号为i的网点使用(i * BRANCH_ID_BLOCK, (i + 1) * BRANCH_ID_BLOCK]，
+ * 由ID即可找到所属网点；未分网点前的数据ID从1开始，归入序号为0的网点
+ */
+public class Branch {
+    private int index;   // 网点序号，确定后不能修改
+    private String code; // 网点代码，也是数据目录名
+    private String name; // 网点名称
+
+    public Branch() {
+    }
+
+    public Branch(int index, String code, String name) {
+        this.index = index;
+        this.code = code;
+        this.name = name;
+    }
+
+    /**
+     * 计算车辆或租赁记录ID所属网点的序号
+     * @param id 车辆ID或租赁记录ID
+     * @return 网点序号，ID无效时返回-1
+     */
+    public static int indexOfId(int id) {
+        return id <= 0 ? -1 : (id - 1) / Constants.BRANCH_ID_BLOCK;
+    }
+
+    /**
+     * @return 本网点ID段的起点，序列从这里开始分配，第一个ID为该值加1
+     */
+    public int getIdBase() {
+        return index * Constants.BRANCH_ID_BLOCK;
+    }
+
+    /**
+     * @return 本网点ID段的终点，即本网点允许分配的最大ID
+     */
+    public int getIdLimit() {
+        return getIdBase() + Constants.BRANCH_ID_BLOCK;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return code + " " + name;
+    }
+}
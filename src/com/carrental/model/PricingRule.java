@@ -0,0 +1,116 @@
+package com.carrental.model;
+
+/**
+ * 定价规则类，描述在什么条件下对日租金加收附加费、对租金乘以倍率
+ * 车辆类型、客户类型为null表示不限；天数范围为闭区间，最多天数为0表示不限；
+ * 月份以位图表示，第m-1位对应m月，取值ALL_MONTHS表示不限
+ * 租金 = (车辆日租金 + 所有适用规则的附加费之和) × 天数 × 所有适用规则的倍率之积
+ */
+public class PricingRule {
+    public static final int ALL_MONTHS = 0xFFF; // 全部12个月
+
+    private String vehicleType;   // 车辆类型
+    private String customerType;  // 客户类型
+    private int minDays;          // 最少天数
+    private int maxDays;          // 最多天数
+    private int months;           // 适用月份位图
+    private double multiplier;    // 租金倍率
+    private double dailySurcharge; // 每日附加费
+
+    public PricingRule() {
+        this.minDays = 1;
+        this.months = ALL_MONTHS;
+        this.multiplier = 1.0;
+    }
+
+    public PricingRule(String vehicleType, String customerType, int minDays, int maxDays, int months,
+                       double multiplier, double dailySurcharge) {
+        this.vehicleType = vehicleType;
+        this.customerType = customerType;
+        this.minDays = minDays;
+        this.maxDays = maxDays;
+        this.months = months;
+        this.multiplier = multiplier;
+        this.dailySurcharge = dailySurcharge;
+    }
+
+    /**
+     * 创建只按客户类型打折的规则
+     * @param customerType 客户类型
+     * @param discount 折扣率
+     * @return 规则
+     */
+    public static PricingRule customerDiscount(String customerType, double discount) {
+        return new PricingRule(null, customerType, 1, 0, ALL_MONTHS, discount, 0);
+    }
+
+    // Getters and Setters
+    public String getVehicleType() {
+        return vehicleType;
+    }
+
+    public void setVehicleType(String vehicleType) {
+        this.vehicleType = vehicleType;
+    }
+
+    public String getCustomerType() {
+        return customerType;
+    }
+
+    public void setCustomerType(String customerType) {
+        this.customerType = customerType;
+    }
+
+    public int getMinDays() {
+        return minDays;
+    }
+
+    public void setMinDays(int minDays) {
+        this.minDays = minDays;
+    }
+
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    public void setMaxDays(int maxDays) {
+        this.maxDays = maxDays;
+    }
+
+    public int getMonths() {
+        return months;
+    }
+
+    public void setMonths(int months) {
+        this.months = months;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    public double getDailySurcharge() {
+        return dailySurcharge;
+    }
+
+    public void setDailySurcharge(double dailySurcharge) {
+        this.dailySurcharge = dailySurcharge;
+    }
+
+    @Override
+    public String toString() {
+        return "PricingRule{" +
+                "vehicleType='" + vehicleType + '\'' +
+                ", customerType='" + customerType + '\'' +
+                ", minDays=" + minDays +
+                ", maxDays=" + maxDays +
+                ", months=" + Integer.toBinaryString(months) +
+                ", multiplier=" + multiplier +
+                ", dailySurcharge=" + dailySurcharge +
+                '}';
+    }
+}
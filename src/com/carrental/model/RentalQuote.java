@@ -0,0 +1,64 @@
+package com.carrental.model;
+
+/**
+ * 租金报价类，表示某客户租用某车辆若干天的总租金，不产生租赁记录
+ */
+public class RentalQuote {
+    private Vehicle vehicle;     // 报价的车辆
+    private Customer customer;   // 客户
+    private int rentalDays;      // 租赁天数
+    private double totalRent;    // 总租金
+
+    public RentalQuote() {
+    }
+
+    public RentalQuote(Vehicle vehicle, Customer customer, int rentalDays, double totalRent) {
+        this.vehicle = vehicle;
+        this.customer = customer;
+        this.rentalDays = rentalDays;
+        this.totalRent = totalRent;
+    }
+
+    // Getters and Setters
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    public void setVehicle(Vehicle vehicle) {
+        this.vehicle = vehicle;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(Customer customer) {
+        this.customer = customer;
+    }
+
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    public void setRentalDays(int rentalDays) {
+        this.rentalDays = rentalDays;
+    }
+
+    public double getTotalRent() {
+        return totalRent;
+    }
+
+    public void setTotalRent(double totalRent) {
+        this.totalRent = totalRent;
+    }
+
+    @Override
+    public String toString() {
+        return "RentalQuote{" +
+                "vehicle=" + vehicle +
+                ", customer=" + customer +
+                ", rentalDays=" + rentalDays +
+                ", totalRent=" + totalRent +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package com.carrental.model;
+
+import java.util.Date;
+
+/**
+ * 车辆预约类，预约期间为从开始日期起的若干整天
+ */
+public class Reservation {
+    private int id;              // 预约ID
+    private int vehicleId;       // 预约的车辆ID
+    private int customerId;      // 客户ID
+    private Date startDate;      // 开始日期
+    private int days;            // 预约天数
+
+    public Reservation() {
+    }
+
+    public Reservation(int id, int vehicleId, int customerId, Date startDate, int days) {
+        this.id = id;
+        this.vehicleId = vehicleId;
+        this.customerId = customerId;
+        this.startDate = startDate;
+        this.days = days;
+    }
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(int vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    public Date getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(Date startDate) {
+        this.startDate = startDate;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation{" +
+                "id=" + id +
+                ", vehicleId=" + vehicleId +
+                ", customerId=" + customerId +
+                ", startDate=" + startDate +
+                ", days=" + days +
+                '}';
+    }
+}
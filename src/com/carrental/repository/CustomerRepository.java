@@ -16,6 +16,13 @@ public interface CustomerRepository {
      */
     boolean addCustomer(Customer customer);
 
+    /**
+     * 批量添加客户，一次分配一段连续的ID，所有客户只触发一次持久化
+     * @param customers 客户列表，添加后各客户的ID被设置为新分配的ID
+     * @return 添加的客户数
+     */
+    int addCustomers(List<Customer> customers);
+
     /**
      * 删除客户
      * @param id 客户ID
@@ -51,18 +58,21 @@ public interface CustomerRepository {
     List<Customer> findCustomersByType(String type);
 
     /**
-     * 获取下一个可用的客户ID
+     * 分配下一个可用的客户ID，已分配的ID不会再次使用
      * @return 下一个可用的客户ID
+     * @throws IllegalStateException ID已用完或序列无法保存时抛出
      */
     int getNextCustomerId();
     
     /**
      * 从文件加载客户数据
+     * @throws java.io.UncheckedIOException 读取失败或文件校验失败，拒绝加载可能已损坏的数据
      */
     void loadCustomers();
     
     /**
      * 将客户数据保存到文件
+     * @throws java.io.UncheckedIOException 写入失败，原文件保持不变
      */
     void saveCustomers();
 }
\ No newline at end of file
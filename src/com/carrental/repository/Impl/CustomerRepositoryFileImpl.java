@@ -4,7 +4,13 @@ import com.carrental.model.Customer;
 import com.carrental.repository.CustomerRepository;
 import com.carrental.util.Constants;
 import com.carrental.util.FileUtil;
+import com.carrental.util.IdSequence;
+import com.carrental.util.IntHashMap;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.RecordReader;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -12,15 +18,39 @@ import java.util.stream.Collectors;
 
 /**
  * 客户数据访问实现类，使用文件存储客户数据
+ * 公开方法对本对象加锁，主键索引与各辅助索引一起更新，可被多个线程并发调用
  */
 public class CustomerRepositoryFileImpl implements CustomerRepository {
-    private List<Customer> customers; // 客户列表
+    private final String filePath; // 客户数据文件路径
+    private IntHashMap<Customer> customers; // 客户ID到客户的映射，按添加顺序遍历
+    private final IdSequence idSequence; // 客户ID序列
+    private final PersistenceScheduler.Target persistence; // 持久化目标，修改后标记待保存
     
     /**
-     * 构造方法，初始化客户列表并加载文件中的数据
+     * 构造方法，初始化客户列表并加载文件中的数据，每次修改立即保存
      */
     public CustomerRepositoryFileImpl() {
-        this.customers = new ArrayList<>();
+        this(PersistenceScheduler.sync());
+    }
+
+    /**
+     * 构造方法，初始化客户列表并加载文件中的数据
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public CustomerRepositoryFileImpl(PersistenceScheduler scheduler) {
+        this(Constants.DATA_DIR, scheduler);
+    }
+
+    /**
+     * 构造方法，初始化客户列表并加载指定目录中的数据
+     * @param dataDir 数据文件目录
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public CustomerRepositoryFileImpl(String dataDir, PersistenceScheduler scheduler) {
+        this.filePath = dataDir + "/" + Constants.CUSTOMER_FILE_NAME;
+        this.customers = new IntHashMap<>();
+        this.persistence = scheduler.register(filePath, this::saveCustomers);
+        this.idSequence = new IdSequence(dataDir + "/" + Constants.CUSTOMER_SEQUENCE_FILE_NAME);
         loadCustomers();
         
         // 如果没有客户数据，添加一些示例客户
@@ -71,30 +101,57 @@ public class CustomerRepositoryFileImpl implements CustomerRepository {
      */
 
     @Override
-    public boolean addCustomer(Customer customer) {
+    public synchronized boolean addCustomer(Customer customer) {
         if (customer != null) {
-            // 设置客户ID
-            customer.setId(getNextCustomerId());
-            customers.add(customer);
-            saveCustomers(); // 自动保存到文件
+            // 设置客户ID，ID无法分配时添加失败
+            try {
+                customer.setId(getNextCustomerId());
+            } catch (IllegalStateException e) {
+                System.err.println(e.getMessage());
+                return false;
+            }
+            customers.put(customer.getId(), customer);
+            persistence.markDirty(); // 标记待保存，由调度器写入文件
             return true;
         }
         return false;
     }
 
+    /**
+     * 批量添加客户：一次分配整段ID，只标记一次待保存
+     * @param newCustomers 客户列表
+     * @return 添加的客户数
+     */
+    @Override
+    public synchronized int addCustomers(List<Customer> newCustomers) {
+        if (newCustomers.isEmpty()) {
+            return 0;
+        }
+        int id;
+        try {
+            id = idSequence.nextRange(newCustomers.size());
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return 0;
+        }
+        for (Customer customer : newCustomers) {
+            customer.setId(id++);
+            customers.put(customer.getId(), customer);
+        }
+        persistence.markDirty();
+        return newCustomers.size();
+    }
+
     /**
      * 删除客户
      * @param id 客户ID
      * @return 删除是否成功
      */
     @Override
-    public boolean deleteCustomer(int id) {
-        for (int i = 0; i < customers.size(); i++) {
-            if (customers.get(i).getId() == id) {
-                customers.remove(i);
-                saveCustomers(); // 自动保存到文件
-                return true;
-            }
+    public synchronized boolean deleteCustomer(int id) {
+        if (customers.remove(id) != null) {
+            persistence.markDirty(); // 标记待保存，由调度器写入文件
+            return true;
         }
         return false;
     }
@@ -105,14 +162,14 @@ public class CustomerRepositoryFileImpl implements CustomerRepository {
      * @return 更新是否成功
      */
     @Override
-    public boolean updateCustomer(Customer customer) {
+    public synchronized boolean updateCustomer(Customer customer) {
         if (customer == null) return false;
 
         // 检查客户是否存在
-        Optional<Customer> optionalCustomer = findCustomerById(customer.getId());
-        if (optionalCustomer.isPresent()) {
-            // 客户对象在Controller层已经被修改，直接保存到文件
-            saveCustomers();
+        if (customers.containsKey(customer.getId())) {
+            // 客户对象在Controller层已经被修改，替换后保存到文件
+            customers.put(customer.getId(), customer);
+            persistence.markDirty();
             return true;
         }
         return false;
@@ -124,10 +181,8 @@ public class CustomerRepositoryFileImpl implements CustomerRepository {
      * @return 客户对象，如果不存在则返回Optional.empty()
      */
     @Override
-    public Optional<Customer> findCustomerById(int id) {
-        return customers.stream()
-                .filter(customer -> customer.getId() == id)
-                .findFirst();
+    public synchronized Optional<Customer> findCustomerById(int id) {
+        return Optional.ofNullable(customers.get(id));
     }
 
     /**
@@ -135,8 +190,8 @@ public class CustomerRepositoryFileImpl implements CustomerRepository {
      * @return 所有客户列表
      */
     @Override
-    public List<Customer> findAllCustomers() {
-        return new ArrayList<>(customers);
+    public synchronized List<Customer> findAllCustomers() {
+        return customers.values();
     }
 
     /**
@@ -145,74 +200,64 @@ public class CustomerRepositoryFileImpl implements CustomerRepository {
      * @return 对应类型的客户列表
      */
     @Override
-    public List<Customer> findCustomersByType(String type) {
+    public synchronized List<Customer> findCustomersByType(String type) {
         return customers.stream()
                 .filter(customer -> customer.getCustomerType().equalsIgnoreCase(type))
                 .collect(Collectors.toList());
     }
 
     /**
-     * 获取下一个可用的客户ID
+     * 分配下一个可用的客户ID
      * @return 下一个可用的客户ID
      */
     @Override
     public int getNextCustomerId() {
-        // 如果没有客户，返回1
-        if (customers.isEmpty()) {
-            return 1;
-        }
-        
-        // 找到最大的ID，然后加1
-        int maxId = customers.stream()
-                .mapToInt(Customer::getId)
-                .max()
-                .orElse(0);
-        
-        return maxId + 1;
+        return idSequence.next();
     }
 
     /**
      * 从文件加载客户数据
      */
     @Override
-    public void loadCustomers() {
-        List<String> lines = FileUtil.readLines(Constants.CUSTOMER_FILE_PATH);
+    public synchronized void loadCustomers() {
         customers.clear();
+        int maxId = 0;
         
-        for (String line : lines) {
-            // 跳过空行
-            if (line.trim().isEmpty()) {
-                continue;
-            }
-            
-            try {
-                // 解析客户数据
-                // 格式：ID,姓名,类型,电话
-                String[] parts = line.split(",");
-                if (parts.length >= 4) {
-                    int id = Integer.parseInt(parts[0]);
-                    String name = parts[1];
-                    String type = parts[2];
-                    String phone = parts[3];
-                    
-                    Customer customer = new Customer();
-                    customer.setId(id);
-                    customer.setName(name);
-                    customer.setCustomerType(type);
-                    customer.setPhone(phone);
-                    customers.add(customer);
+        try (RecordReader reader = new RecordReader(filePath)) {
+            while (reader.next()) {
+                try {
+                    // 解析客户数据
+                    // 格式：ID,姓名,类型,电话
+                    if (reader.fieldCount() >= 4) {
+                        int id = reader.getInt(0);
+                        
+                        Customer customer = new Customer();
+                        customer.setId(id);
+                        customer.setName(reader.getString(1));
+                        customer.setCustomerType(reader.getString(2));
+                        customer.setPhone(reader.getString(3));
+                        customers.put(id, customer);
+                        maxId = Math.max(maxId, id);
+                    }
+                } catch (NumberFormatException e) {
+                    System.err.println("解析客户数据失败: " + reader.line());
                 }
-            } catch (NumberFormatException e) {
-                System.err.println("解析客户数据失败: " + line);
             }
+            reader.verify();
+        } catch (IOException e) {
+            // 不加载部分内容，避免之后保存时覆盖原文件
+            throw new UncheckedIOException("读取文件失败: " + filePath, e);
         }
+
+        // 序列不能落后于已有数据（例如序列文件丢失时）
+        idSequence.recover(maxId);
     }
 
     /**
      * 将客户数据保存到文件
      */
     @Override
-    public void saveCustomers() {
+    public synchronized void saveCustomers() {
         List<String> lines = new ArrayList<>();
         
         // 将所有客户转换为字符串格式
@@ -226,6 +271,6 @@ public class CustomerRepositoryFileImpl implements CustomerRepository {
         }
         
         // 写入文件
-        FileUtil.writeLines(Constants.CUSTOMER_FILE_PATH, lines);
+        FileUtil.requireWritten(FileUtil.writeLines(filePath, lines), filePath);
     }
 }
\ No newline at end of file
@@ -0,0 +1,295 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.model.Customer;
+import com.carrental.repository.CustomerRepository;
+import com.carrental.util.Constants;
+import com.carrental.util.IdSequence;
+import com.carrental.util.JdbcConnectionPool;
+import com.carrental.util.JdbcIdSequence;
+import com.carrental.util.PersistenceScheduler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 客户数据访问实现类，使用嵌入式数据库存储客户数据
+ * 每次修改只写入对应的行，并发控制由数据库负责
+ */
+public class CustomerRepositoryJdbcImpl implements CustomerRepository {
+    private static final String SELECT = "SELECT id, name, customer_type, phone FROM customers";
+    private static final String INSERT = "INSERT INTO customers (name, customer_type, phone, id) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE customers SET name = ?, customer_type = ?, phone = ? WHERE id = ?";
+
+    private final JdbcConnectionPool pool; // 数据库连接池
+    private final JdbcIdSequence idSequence; // 客户ID序列
+
+    /**
+     * 构造方法，表不存在时创建，表为空时从默认数据目录的客户文件迁移
+     * @param pool 数据库连接池
+     */
+    public CustomerRepositoryJdbcImpl(JdbcConnectionPool pool) {
+        this(pool, Constants.DATA_DIR);
+    }
+
+    /**
+     * 构造方法，表不存在时创建，表为空时从指定数据目录的客户文件迁移
+     * @param pool 数据库连接池
+     * @param dataDir 迁移时读取的数据文件目录
+     */
+    public CustomerRepositoryJdbcImpl(JdbcConnectionPool pool, String dataDir) {
+        this.pool = pool;
+        try {
+            this.idSequence = pool.transaction(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE IF NOT EXISTS customers ("
+                            + "id INTEGER PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                            + "customer_type VARCHAR(20) NOT NULL, phone VARCHAR(30))");
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_customers_type ON customers (customer_type)");
+                }
+                return new JdbcIdSequence(connection, "customers");
+            });
+            if (isEmpty()) {
+                migrateFromFile(dataDir);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("初始化客户数据表失败", e);
+        }
+    }
+
+    private boolean isEmpty() throws SQLException {
+        return pool.execute(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM customers")) {
+                return resultSet.next() && resultSet.getInt(1) == 0;
+            }
+        });
+    }
+
+    /**
+     * 首次使用数据库时导入客户文件中的数据（没有数据文件时为示例客户），保留原有ID
+     */
+    private void migrateFromFile(String dataDir) throws SQLException {
+        List<Customer> customers = new CustomerRepositoryFileImpl(dataDir, PersistenceScheduler.sync()).findAllCustomers();
+        int lastId = new IdSequence(dataDir + "/" + Constants.CUSTOMER_SEQUENCE_FILE_NAME).current();
+        for (Customer customer : customers) {
+            lastId = Math.max(lastId, customer.getId());
+        }
+        int maxId = lastId;
+        pool.transaction(connection -> {
+            insertAll(connection, customers);
+            idSequence.recover(connection, maxId);
+            return null;
+        });
+        System.out.println("已从数据文件迁移" + customers.size() + "位客户到数据库");
+    }
+
+    /**
+     * 添加客户
+     * @param customer 客户对象
+     * @return 添加是否成功
+     */
+    @Override
+    public boolean addCustomer(Customer customer) {
+        if (customer == null) {
+            return false;
+        }
+        try {
+            pool.transaction(connection -> {
+                customer.setId(idSequence.nextRange(connection, 1));
+                try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                    bind(insert, customer);
+                    return insert.executeUpdate();
+                }
+            });
+            return true;
+        } catch (SQLException e) {
+            System.err.println("添加客户失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 批量添加客户：一次分配整段ID，在一个事务中批量插入
+     * @param customers 客户列表
+     * @return 添加的客户数
+     */
+    @Override
+    public int addCustomers(List<Customer> customers) {
+        if (customers.isEmpty()) {
+            return 0;
+        }
+        try {
+            pool.transaction(connection -> {
+                int id = idSequence.nextRange(connection, customers.size());
+                for (Customer customer : customers) {
+                    customer.setId(id++);
+                }
+                insertAll(connection, customers);
+                return null;
+            });
+            return customers.size();
+        } catch (SQLException e) {
+            System.err.println("批量添加客户失败: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static void insertAll(Connection connection, List<Customer> customers) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (Customer customer : customers) {
+                bind(insert, customer);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * 删除客户
+     * @param id 客户ID
+     * @return 删除是否成功
+     */
+    @Override
+    public boolean deleteCustomer(int id) {
+        try {
+            return pool.execute(connection -> {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM customers WHERE id = ?")) {
+                    delete.setInt(1, id);
+                    return delete.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("删除客户失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 更新客户信息，只写入该客户对应的一行
+     * @param customer 客户对象
+     * @return 更新是否成功
+     */
+    @Override
+    public boolean updateCustomer(Customer customer) {
+        if (customer == null) {
+            return false;
+        }
+        try {
+            return pool.execute(connection -> {
+                try (PreparedStatement update = connection.prepareStatement(UPDATE)) {
+                    bind(update, customer);
+                    return update.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("更新客户失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 根据ID查询客户
+     * @param id 客户ID
+     * @return 客户对象，如果不存在则返回Optional.empty()
+     */
+    @Override
+    public Optional<Customer> findCustomerById(int id) {
+        List<Customer> customers = query(SELECT + " WHERE id = ?", id);
+        return customers.isEmpty() ? Optional.empty() : Optional.of(customers.get(0));
+    }
+
+    /**
+     * 查询所有客户
+     * @return 所有客户列表
+     */
+    @Override
+    public List<Customer> findAllCustomers() {
+        return query(SELECT + " ORDER BY id");
+    }
+
+    /**
+     * 根据客户类型查询客户
+     * @param type 客户类型
+     * @return 对应类型的客户列表
+     */
+    @Override
+    public List<Customer> findCustomersByType(String type) {
+        return query(SELECT + " WHERE customer_type = ? ORDER BY id", type);
+    }
+
+    /**
+     * 执行查询并转换为客户列表
+     * @param sql 查询语句
+     * @param parameters 查询参数
+     * @return 客户列表，查询失败时为空列表
+     */
+    private List<Customer> query(String sql, Object... parameters) {
+        try {
+            return pool.execute(connection -> {
+                try (PreparedStatement query = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        query.setObject(i + 1, parameters[i]);
+                    }
+                    List<Customer> customers = new ArrayList<>();
+                    try (ResultSet resultSet = query.executeQuery()) {
+                        while (resultSet.next()) {
+                            Customer customer = new Customer();
+                            customer.setId(resultSet.getInt("id"));
+                            customer.setName(resultSet.getString("name"));
+                            customer.setCustomerType(resultSet.getString("customer_type"));
+                            customer.setPhone(resultSet.getString("phone"));
+                            customers.add(customer);
+                        }
+                    }
+                    return customers;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("查询客户失败: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 分配下一个可用的客户ID
+     * @return 下一个可用的客户ID
+     */
+    @Override
+    public int getNextCustomerId() {
+        try {
+            return pool.transaction(connection -> idSequence.nextRange(connection, 1));
+        } catch (SQLException e) {
+            throw new IllegalStateException("分配客户ID失败", e);
+        }
+    }
+
+    /**
+     * 数据保存在数据库中，按需查询，不需要预先加载
+     */
+    @Override
+    public void loadCustomers() {
+    }
+
+    /**
+     * 每次修改时已写入数据库，不需要单独保存
+     */
+    @Override
+    public void saveCustomers() {
+    }
+
+    /**
+     * 设置插入、更新语句的参数，ID为最后一个参数
+     */
+    private static void bind(PreparedStatement statement, Customer customer) throws SQLException {
+        statement.setString(1, customer.getName());
+        statement.setString(2, customer.getCustomerType());
+        statement.setString(3, customer.getPhone());
+        statement.setInt(4, customer.getId());
+    }
+}
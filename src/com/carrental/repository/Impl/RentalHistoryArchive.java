@@ -0,0 +1,410 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.util.AtomicFileWriter;
+import com.carrental.util.Constants;
+import com.carrental.util.RecordReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 租赁历史归档：按租赁月份把已归还的记录写入gzip压缩的分区文件，分区写入后不再修改
+ * 同一月份可以有多个分区（如旧记录晚于其他记录归还），文件名为"yyyy-MM.序号.gz"
+ * 清单文件每行一个分区，格式为"月份,文件名,记录数,最小ID,最大ID"，按写入顺序排列
+ *
+ * 分区文件解压后依次是：魔数(int)、版本(int)、记录数n(int)、
+ * 车辆ID数及升序不重复的车辆ID(int)、客户ID数及升序不重复的客户ID(int)（分区摘要），
+ * 之后与二进制列存格式相同依次是各列；按车辆或客户查询时只读摘要即可判断是否需要读取整个分区
+ * 读取过的分区按列缓存（每条记录约32字节），缓存的记录数超过上限时按最近使用淘汰；本类不加锁，由仓库加锁后调用
+ */
+public class RentalHistoryArchive {
+    private static final int MAGIC = 0x43524131; // "CRA1"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String dir;          // 分区文件所在目录
+    private final String manifestPath; // 清单文件路径
+    private final List<Segment> segments = new ArrayList<>(); // 按写入顺序排列的分区
+    private final LinkedHashMap<String, RentalRecordColumns> cache = new LinkedHashMap<>(16, 0.75f, true); // 文件名到已读取的分区，按访问顺序排列
+    private final int cacheCapacity; // 缓存的最大记录数
+    private int cachedRecords;       // 缓存中的记录数
+
+    /**
+     * 构造方法，读取清单；分区本身在查询涉及时才读取
+     * @param dir 分区文件所在目录
+     * @param cacheCapacity 内存中最多缓存的归档记录数
+     */
+    public RentalHistoryArchive(String dir, int cacheCapacity) {
+        this.dir = dir;
+        this.manifestPath = dir + "/" + Constants.RENTAL_ARCHIVE_MANIFEST_FILE_NAME;
+        this.cacheCapacity = cacheCapacity;
+        loadManifest();
+    }
+
+    /**
+     * 一个分区在清单中的信息
+     */
+    private static class Segment {
+        final String month;
+        final String fileName;
+        final int size;
+        final int minId;
+        final int maxId;
+        int[] vehicleIds;  // 分区摘要，读取前为null
+        int[] customerIds;
+
+        Segment(String month, String fileName, int size, int minId, int maxId) {
+            this.month = month;
+            this.fileName = fileName;
+            this.size = size;
+            this.minId = minId;
+            this.maxId = maxId;
+        }
+    }
+
+    private void loadManifest() {
+        try (RecordReader reader = new RecordReader(manifestPath)) {
+            while (reader.next()) {
+                if (reader.fieldCount() < 5) {
+                    continue;
+                }
+                try {
+                    segments.add(new Segment(reader.getString(0), reader.getString(1),
+                            reader.getInt(2), reader.getInt(3), reader.getInt(4)));
+                } catch (NumberFormatException e) {
+                    System.err.println("解析归档清单失败: " + reader.line());
+                }
+            }
+            reader.verify();
+        } catch (IOException e) {
+            // 清单不完整时再次归档会丢失分区，拒绝加载
+            throw new UncheckedIOException("读取文件失败: " + manifestPath, e);
+        }
+    }
+
+    /**
+     * 把租赁日期早于cutoffDay的已归还记录按月份写入新的分区，再更新清单
+     * 先写分区、后写清单：中途失败时清单不变，新分区文件不会被读取
+     * @param records 全部记录
+     * @param cutoffDay 热窗口起点（纪元日）
+     * @return 未归档的记录，没有需要归档的记录时为records本身
+     * @throws IOException 写入失败，此时没有记录被归档
+     */
+    public RentalRecordColumns archive(RentalRecordColumns records, int cutoffDay) throws IOException {
+        TreeMap<String, RentalRecordColumns> byMonth = new TreeMap<>();
+        RentalRecordColumns hot = new RentalRecordColumns(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            int rentalDay = records.getRentalDay(i);
+            RentalRecordColumns target = hot;
+            if (records.isReturned(i) && rentalDay != RentalRecordColumns.NO_DATE && rentalDay < cutoffDay) {
+                String month = YearMonth.from(LocalDate.ofEpochDay(rentalDay)).toString();
+                target = byMonth.computeIfAbsent(month, key -> new RentalRecordColumns());
+            }
+            target.add(records.getId(i), records.getVehicleId(i), records.getCustomerId(i), rentalDay,
+                    records.getPlannedDays(i), records.getReturnDay(i), records.getRentCents(i), records.isReturned(i));
+        }
+        if (byMonth.isEmpty()) {
+            return records;
+        }
+
+        new File(dir).mkdirs();
+        List<Segment> written = new ArrayList<>();
+        for (Map.Entry<String, RentalRecordColumns> entry : byMonth.entrySet()) {
+            written.add(writeSegment(entry.getKey(), entry.getValue()));
+        }
+        List<Segment> all = new ArrayList<>(segments);
+        all.addAll(written);
+        writeManifest(all);
+        segments.addAll(written);
+        return hot;
+    }
+
+    private Segment writeSegment(String month, RentalRecordColumns columns) throws IOException {
+        int sequence = 0;
+        for (Segment segment : segments) {
+            if (segment.month.equals(month)) {
+                sequence++;
+            }
+        }
+        String fileName = month + "." + sequence + ".gz";
+        int size = columns.size();
+        int minId = Integer.MAX_VALUE;
+        int maxId = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minId = Math.min(minId, columns.getId(i));
+            maxId = Math.max(maxId, columns.getId(i));
+        }
+        Segment segment = new Segment(month, fileName, size, minId, maxId);
+        segment.vehicleIds = distinctSorted(columns.vehicleIds(), size);
+        segment.customerIds = distinctSorted(columns.customerIds(), size);
+
+        try (AtomicFileWriter writer = new AtomicFileWriter(new File(dir, fileName).getPath())) {
+            GZIPOutputStream gzip = new GZIPOutputStream(writer.openDataStream(), BUFFER_SIZE);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip, BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            writeIds(out, segment.vehicleIds);
+            writeIds(out, segment.customerIds);
+            writeInts(out, columns.ids(), size);
+            writeInts(out, columns.vehicleIds(), size);
+            writeInts(out, columns.customerIds(), size);
+            writeInts(out, columns.rentalDays(), size);
+            writeInts(out, columns.plannedDays(), size);
+            writeInts(out, columns.returnDays(), size);
+            long[] rentCents = columns.rentCents();
+            for (int i = 0; i < size; i++) {
+                out.writeLong(rentCents[i]);
+            }
+            long[] returnedWords = columns.returned().toLongArray();
+            int words = (size + 63) / 64;
+            for (int i = 0; i < words; i++) {
+                out.writeLong(i < returnedWords.length ? returnedWords[i] : 0L);
+            }
+            out.flush();
+            // 只结束压缩流，不关闭底层文件，由commit()追加校验行后替换
+            gzip.finish();
+            writer.commit();
+        }
+        return segment;
+    }
+
+    private void writeManifest(List<Segment> all) throws IOException {
+        try (AtomicFileWriter writer = new AtomicFileWriter(manifestPath)) {
+            for (Segment segment : all) {
+                writer.writeLine(segment.month + "," + segment.fileName + "," + segment.size + ","
+                        + segment.minId + "," + segment.maxId);
+            }
+            writer.commit();
+        }
+    }
+
+    private static int[] distinctSorted(int[] values, int size) {
+        int[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    private static void writeIds(DataOutputStream out, int[] ids) throws IOException {
+        out.writeInt(ids.length);
+        writeInts(out, ids, ids.length);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values, int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+
+    /**
+     * 读取ID范围包含该ID的分区
+     * @param id 记录ID
+     * @return 按写入顺序排列的分区
+     * @throws IOException 读取失败，或文件格式错误
+     */
+    public List<RentalRecordColumns> readSegmentsContainingId(int id) throws IOException {
+        List<RentalRecordColumns> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.minId <= id && id <= segment.maxId) {
+                result.add(readSegment(segment));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 读取包含该车辆记录的分区
+     * @param vehicleId 车辆ID
+     * @return 按写入顺序排列的分区
+     * @throws IOException 读取失败，或文件格式错误
+     */
+    public List<RentalRecordColumns> readSegmentsWithVehicle(int vehicleId) throws IOException {
+        List<RentalRecordColumns> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            readSummary(segment);
+            if (Arrays.binarySearch(segment.vehicleIds, vehicleId) >= 0) {
+                result.add(readSegment(segment));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 读取包含该客户记录的分区
+     * @param customerId 客户ID
+     * @return 按写入顺序排列的分区
+     * @throws IOException 读取失败，或文件格式错误
+     */
+    public List<RentalRecordColumns> readSegmentsWithCustomer(int customerId) throws IOException {
+        List<RentalRecordColumns> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            readSummary(segment);
+            if (Arrays.binarySearch(segment.customerIds, customerId) >= 0) {
+                result.add(readSegment(segment));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 读取全部分区
+     * @return 按写入顺序排列的分区
+     * @throws IOException 读取失败，或文件格式错误
+     */
+    public List<RentalRecordColumns> readAllSegments() throws IOException {
+        List<RentalRecordColumns> result = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            result.add(readSegment(segment));
+        }
+        return result;
+    }
+
+    /**
+     * 只读取分区摘要，已读过时直接返回
+     */
+    private void readSummary(Segment segment) throws IOException {
+        if (segment.vehicleIds != null) {
+            return;
+        }
+        try (DataInputStream in = openSegment(segment)) {
+            readHeader(in, segment);
+        }
+    }
+
+    private RentalRecordColumns readSegment(Segment segment) throws IOException {
+        RentalRecordColumns columns = cache.get(segment.fileName);
+        if (columns != null) {
+            return columns;
+        }
+        try (DataInputStream in = openSegment(segment)) {
+            readHeader(in, segment);
+            int size = segment.size;
+            int capacity = Math.max(size, 16);
+            int[] ids = readInts(in, size, capacity);
+            int[] vehicleIds = readInts(in, size, capacity);
+            int[] customerIds = readInts(in, size, capacity);
+            int[] rentalDays = readInts(in, size, capacity);
+            int[] plannedDays = readInts(in, size, capacity);
+            int[] returnDays = readInts(in, size, capacity);
+            long[] rentCents = new long[capacity];
+            for (int i = 0; i < size; i++) {
+                rentCents[i] = in.readLong();
+            }
+            long[] returnedWords = new long[(size + 63) / 64];
+            for (int i = 0; i < returnedWords.length; i++) {
+                returnedWords[i] = in.readLong();
+            }
+            columns = new RentalRecordColumns(size, ids, vehicleIds, customerIds, rentalDays, plannedDays, returnDays,
+                    rentCents, BitSet.valueOf(returnedWords));
+        }
+        cache(segment.fileName, columns);
+        return columns;
+    }
+
+    /**
+     * 放入缓存，超出容量时淘汰最久未使用的分区，但至少保留刚放入的分区
+     */
+    private void cache(String fileName, RentalRecordColumns columns) {
+        cache.put(fileName, columns);
+        cachedRecords += columns.size();
+        Iterator<RentalRecordColumns> eldest = cache.values().iterator();
+        while (cachedRecords > cacheCapacity && cache.size() > 1) {
+            cachedRecords -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * 打开分区文件的解压流；压缩数据之后的校验行不是gzip格式，解压时会被忽略，内容由gzip自身的CRC校验
+     */
+    private DataInputStream openSegment(Segment segment) throws IOException {
+        File file = new File(dir, segment.fileName);
+        return new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+    }
+
+    /**
+     * 读取并校验文件头，同时读取分区摘要
+     */
+    private void readHeader(DataInputStream in, Segment segment) throws IOException {
+        String filePath = dir + "/" + segment.fileName;
+        if (in.readInt() != MAGIC) {
+            throw new IOException("不是租赁记录归档文件: " + filePath);
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("不支持的文件版本" + version + ": " + filePath);
+        }
+        if (in.readInt() != segment.size) {
+            throw new IOException("记录数与归档清单不符: " + filePath);
+        }
+        int[] vehicleIds = readInts(in, in.readInt(), 0);
+        int[] customerIds = readInts(in, in.readInt(), 0);
+        segment.vehicleIds = vehicleIds;
+        segment.customerIds = customerIds;
+    }
+
+    private static int[] readInts(DataInputStream in, int size, int capacity) throws IOException {
+        if (size < 0) {
+            throw new IOException("文件格式错误");
+        }
+        int[] values = new int[Math.max(size, capacity)];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    /**
+     * @return 已归档的记录数
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * @return 已归档记录的最大ID，没有归档记录时为0
+     */
+    public int getMaxId() {
+        int maxId = 0;
+        for (Segment segment : segments) {
+            maxId = Math.max(maxId, segment.maxId);
+        }
+        return maxId;
+    }
+
+    /**
+     * @return 分区文件所在目录
+     */
+    public String getDir() {
+        return dir;
+    }
+}
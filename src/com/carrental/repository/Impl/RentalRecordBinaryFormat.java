@@ -0,0 +1,184 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.util.AtomicFileWriter;
+import com.carrental.util.ChecksumTrailer;
+import com.carrental.util.FileUtil;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ * 租赁记录二进制列存格式
+ * 文件头：魔数(int)、版本(int)、记录数n(int)；之后依次是各列，每列连续存放n个值：
+ * ID(int)、车辆ID(int)、客户ID(int)、租赁日期(int纪元日)、租赁天数(int)、归还日期(int纪元日，无日期为NO_DATE)、
+ * 总租金(long分)、归还状态(位图，long[(n+63)/64])；最后是一个换行符和与文本文件相同的校验行
+ * 所有数值为大端序，读取时通过内存映射整列复制到数组，不逐条解析
+ */
+public final class RentalRecordBinaryFormat {
+    private static final int MAGIC = 0x43524231; // "CRB1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+
+    private RentalRecordBinaryFormat() {
+    }
+
+    /**
+     * 读取二进制格式的租赁记录
+     * @param filePath 文件路径，文件不存在时返回空结果
+     * @return 按文件顺序排列的记录
+     * @throws IOException 读取失败，或文件格式错误、校验失败
+     */
+    public static RentalRecordColumns read(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return new RentalRecordColumns();
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileLength = channel.size();
+            if (fileLength > Integer.MAX_VALUE) {
+                throw new IOException("文件过大: " + filePath);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileLength);
+            try {
+                return read(mapped, filePath);
+            } finally {
+                FileUtil.unmap(mapped);
+            }
+        }
+    }
+
+    /**
+     * 读取二进制格式的租赁记录；二进制文件不存在而文本文件存在时，从文本文件迁移并立即写出二进制文件
+     * @param filePath 二进制文件路径
+     * @param textFilePath 迁移来源的文本文件路径，迁移后保持不变
+     * @return 按文件顺序排列的记录
+     * @throws IOException 读写失败，或文件格式错误、校验失败
+     */
+    public static RentalRecordColumns readOrMigrate(String filePath, String textFilePath) throws IOException {
+        if (!new File(filePath).exists() && new File(textFilePath).exists()) {
+            RentalRecordColumns columns = RentalRecordTextFormat.read(textFilePath);
+            write(filePath, columns);
+            System.out.println("已将租赁记录从" + textFilePath + "迁移到" + filePath + "，共" + columns.size() + "条");
+            return columns;
+        }
+        return read(filePath);
+    }
+
+    private static RentalRecordColumns read(MappedByteBuffer mapped, String filePath) throws IOException {
+        int fileLength = mapped.capacity();
+        int tailLength = Math.min(fileLength, ChecksumTrailer.MAX_LENGTH);
+        byte[] tail = new byte[tailLength];
+        ((ByteBuffer) mapped.duplicate().position(fileLength - tailLength)).get(tail);
+        ChecksumTrailer trailer = ChecksumTrailer.parse(tail, tailLength, fileLength);
+        if (trailer == null) {
+            throw new IOException("文件缺少校验行: " + filePath);
+        }
+        int contentLength = (int) trailer.getContentLength();
+        if (checksum(mapped, contentLength) != trailer.getCrc()) {
+            throw new IOException("文件校验失败，内容可能已损坏: " + filePath);
+        }
+
+        ByteBuffer buffer = mapped.duplicate();
+        if (contentLength < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("不是租赁记录二进制文件: " + filePath);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("不支持的文件版本" + version + ": " + filePath);
+        }
+        int size = buffer.getInt();
+        long words = (size + 63L) / 64;
+        if (size < 0 || HEADER_SIZE + size * 32L + words * 8 + 1 != contentLength) {
+            throw new IOException("文件长度与记录数不符: " + filePath);
+        }
+
+        int capacity = Math.max(size, 16);
+        int[] ids = readInts(buffer, size, capacity);
+        int[] vehicleIds = readInts(buffer, size, capacity);
+        int[] customerIds = readInts(buffer, size, capacity);
+        int[] rentalDays = readInts(buffer, size, capacity);
+        int[] plannedDays = readInts(buffer, size, capacity);
+        int[] returnDays = readInts(buffer, size, capacity);
+        long[] rentCents = new long[capacity];
+        readLongs(buffer, rentCents, size);
+        long[] returnedWords = new long[(int) words];
+        readLongs(buffer, returnedWords, returnedWords.length);
+
+        return new RentalRecordColumns(size, ids, vehicleIds, customerIds, rentalDays, plannedDays, returnDays,
+                rentCents, BitSet.valueOf(returnedWords));
+    }
+
+    private static long checksum(ByteBuffer mapped, int contentLength) {
+        CRC32 crc = new CRC32();
+        ByteBuffer content = mapped.duplicate();
+        byte[] chunk = new byte[64 * 1024];
+        int remaining = contentLength;
+        while (remaining > 0) {
+            int length = Math.min(chunk.length, remaining);
+            content.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+            remaining -= length;
+        }
+        return crc.getValue();
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int size, int capacity) {
+        int[] values = new int[capacity];
+        buffer.asIntBuffer().get(values, 0, size);
+        buffer.position(buffer.position() + size * 4);
+        return values;
+    }
+
+    private static void readLongs(ByteBuffer buffer, long[] values, int size) {
+        buffer.asLongBuffer().get(values, 0, size);
+        buffer.position(buffer.position() + size * 8);
+    }
+
+    /**
+     * 以二进制格式写入租赁记录，整个文件原子替换
+     * @param filePath 文件路径
+     * @param columns 记录
+     * @throws IOException 写入失败，原文件保持不变
+     */
+    public static void write(String filePath, RentalRecordColumns columns) throws IOException {
+        int size = columns.size();
+        try (AtomicFileWriter writer = new AtomicFileWriter(filePath)) {
+            DataOutputStream out = writer.openDataStream();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            writeInts(out, columns.ids(), size);
+            writeInts(out, columns.vehicleIds(), size);
+            writeInts(out, columns.customerIds(), size);
+            writeInts(out, columns.rentalDays(), size);
+            writeInts(out, columns.plannedDays(), size);
+            writeInts(out, columns.returnDays(), size);
+            long[] rentCents = columns.rentCents();
+            for (int i = 0; i < size; i++) {
+                out.writeLong(rentCents[i]);
+            }
+            long[] returnedWords = columns.returned().toLongArray();
+            int words = (size + 63) / 64;
+            for (int i = 0; i < words; i++) {
+                out.writeLong(i < returnedWords.length ? returnedWords[i] : 0L);
+            }
+            // 校验行需要独占一行
+            out.writeByte('\n');
+            writer.commit();
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values, int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+}
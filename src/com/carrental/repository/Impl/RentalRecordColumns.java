@@ -0,0 +1,198 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.util.DateUtil;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+
+/**
+ * 按列存放的租赁记录：每个字段一个基本类型数组，第i条记录的各字段位于各数组的第i个位置
+ * 日期存为本地时区的纪元日（1970-01-01起的天数），租金存为分，归还状态存为位图；
+ * 租赁天数为租车时约定的天数，旧数据中没有该字段时为0
+ * 用于在各存储格式之间传递数据，不对外共享数组
+ */
+public class RentalRecordColumns {
+    public static final int NO_DATE = Integer.MIN_VALUE; // 没有日期（未归还记录的归还日期）
+
+    private int size;
+    private int[] ids;
+    private int[] vehicleIds;
+    private int[] customerIds;
+    private int[] rentalDays;      // 租赁日期
+    private int[] plannedDays;     // 租赁天数，未知时为0
+    private int[] returnDays;      // 归还日期
+    private long[] rentCents;      // 总租金（分）
+    private final BitSet returned = new BitSet(); // 是否已归还
+
+    public RentalRecordColumns() {
+        this(1024);
+    }
+
+    /**
+     * @param capacity 初始容量
+     */
+    public RentalRecordColumns(int capacity) {
+        capacity = Math.max(capacity, 16);
+        ids = new int[capacity];
+        vehicleIds = new int[capacity];
+        customerIds = new int[capacity];
+        rentalDays = new int[capacity];
+        plannedDays = new int[capacity];
+        returnDays = new int[capacity];
+        rentCents = new long[capacity];
+    }
+
+    /**
+     * 追加一条记录
+     * @return 记录所在的位置
+     */
+    public int add(int id, int vehicleId, int customerId, int rentalDay, int days, int returnDay, long cents,
+                   boolean isReturned) {
+        if (size == ids.length) {
+            grow(size * 2);
+        }
+        ids[size] = id;
+        vehicleIds[size] = vehicleId;
+        customerIds[size] = customerId;
+        rentalDays[size] = rentalDay;
+        plannedDays[size] = days;
+        returnDays[size] = returnDay;
+        rentCents[size] = cents;
+        returned.set(size, isReturned);
+        return size++;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        vehicleIds = Arrays.copyOf(vehicleIds, capacity);
+        customerIds = Arrays.copyOf(customerIds, capacity);
+        rentalDays = Arrays.copyOf(rentalDays, capacity);
+        plannedDays = Arrays.copyOf(plannedDays, capacity);
+        returnDays = Arrays.copyOf(returnDays, capacity);
+        rentCents = Arrays.copyOf(rentCents, capacity);
+    }
+
+    /**
+     * 由各列数组直接构造，数组长度不小于size，构造后归本对象所有
+     */
+    RentalRecordColumns(int size, int[] ids, int[] vehicleIds, int[] customerIds, int[] rentalDays,
+                        int[] plannedDays, int[] returnDays, long[] rentCents, BitSet returned) {
+        this.size = size;
+        this.ids = ids;
+        this.vehicleIds = vehicleIds;
+        this.customerIds = customerIds;
+        this.rentalDays = rentalDays;
+        this.plannedDays = plannedDays;
+        this.returnDays = returnDays;
+        this.rentCents = rentCents;
+        this.returned.or(returned);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    public int getVehicleId(int index) {
+        return vehicleIds[index];
+    }
+
+    public int getCustomerId(int index) {
+        return customerIds[index];
+    }
+
+    public int getRentalDay(int index) {
+        return rentalDays[index];
+    }
+
+    public int getPlannedDays(int index) {
+        return plannedDays[index];
+    }
+
+    public int getReturnDay(int index) {
+        return returnDays[index];
+    }
+
+    public long getRentCents(int index) {
+        return rentCents[index];
+    }
+
+    public boolean isReturned(int index) {
+        return returned.get(index);
+    }
+
+    /**
+     * 修改一条记录，ID不可修改
+     */
+    public void set(int index, int vehicleId, int customerId, int rentalDay, int days, int returnDay, long cents,
+                    boolean isReturned) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        vehicleIds[index] = vehicleId;
+        customerIds[index] = customerId;
+        rentalDays[index] = rentalDay;
+        plannedDays[index] = days;
+        returnDays[index] = returnDay;
+        rentCents[index] = cents;
+        returned.set(index, isReturned);
+    }
+
+    // 以下供存储格式按列整体读写
+    int[] ids() { return ids; }
+    int[] vehicleIds() { return vehicleIds; }
+    int[] customerIds() { return customerIds; }
+    int[] rentalDays() { return rentalDays; }
+    int[] plannedDays() { return plannedDays; }
+    int[] returnDays() { return returnDays; }
+    long[] rentCents() { return rentCents; }
+    BitSet returned() { return returned; }
+
+    /**
+     * 日期转换为本地时区的纪元日
+     * @param date 日期，可以为null
+     * @return 纪元日，date为null时返回NO_DATE
+     */
+    public static int toEpochDay(Date date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        return DateUtil.toEpochDay(date);
+    }
+
+    /**
+     * 纪元日转换为本地时区当天零点的日期
+     * @param epochDay 纪元日
+     * @return 日期，epochDay为NO_DATE时返回null
+     */
+    public static Date toDate(int epochDay) {
+        if (epochDay == NO_DATE) {
+            return null;
+        }
+        return DateUtil.fromEpochDay(epochDay);
+    }
+
+    /**
+     * 金额转换为分，舍入规则与String.format("%.2f")一致
+     * @param amount 金额（元）
+     * @return 分
+     */
+    public static long toCents(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    /**
+     * 分转换为金额
+     * @param cents 分
+     * @return 金额（元）
+     */
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+}
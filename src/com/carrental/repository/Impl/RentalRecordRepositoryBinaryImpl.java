@@ -0,0 +1,49 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.util.Constants;
+import com.carrental.util.PersistenceScheduler;
+
+import java.io.IOException;
+
+/**
+ * 租赁记录数据访问实现类，使用二进制列存文件存储租赁记录数据
+ * 数据目录中只有文本格式的租赁记录文件时，首次加载从文本文件迁移并立即写出二进制文件，文本文件保持不变
+ */
+public class RentalRecordRepositoryBinaryImpl extends RentalRecordRepositoryFileImpl {
+    private final String textFilePath; // 迁移来源的文本文件路径
+
+    /**
+     * 构造方法，每次修改立即保存
+     */
+    public RentalRecordRepositoryBinaryImpl() {
+        this(PersistenceScheduler.sync());
+    }
+
+    /**
+     * 构造方法
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public RentalRecordRepositoryBinaryImpl(PersistenceScheduler scheduler) {
+        this(Constants.DATA_DIR, scheduler);
+    }
+
+    /**
+     * 构造方法，数据文件位于指定目录
+     * @param dataDir 数据文件目录
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public RentalRecordRepositoryBinaryImpl(String dataDir, PersistenceScheduler scheduler) {
+        super(dataDir, Constants.RENTAL_BINARY_FILE_NAME, scheduler);
+        this.textFilePath = dataDir + "/" + Constants.RENTAL_FILE_NAME;
+    }
+
+    @Override
+    protected RentalRecordColumns readColumns() throws IOException {
+        return RentalRecordBinaryFormat.readOrMigrate(getFilePath(), textFilePath);
+    }
+
+    @Override
+    protected void writeColumns(RentalRecordColumns columns) throws IOException {
+        RentalRecordBinaryFormat.write(getFilePath(), columns);
+    }
+}
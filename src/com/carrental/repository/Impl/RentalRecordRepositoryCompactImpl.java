@@ -0,0 +1,494 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.model.Customer;
+import com.carrental.model.RentalRecord;
+import com.carrental.model.Vehicle;
+import com.carrental.repository.CustomerRepository;
+import com.carrental.repository.RentalRecordRepository;
+import com.carrental.repository.VehicleRepository;
+import com.carrental.util.Constants;
+import com.carrental.util.IdSequence;
+import com.carrental.util.IntHashMap;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.RentalStorage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+/**
+ * 紧凑的租赁记录数据访问实现类，记录按列存放在基本类型数组中，不为每条记录保留对象
+ * 每条记录约占40字节（各列32字节加两条索引链8字节），车辆和客户只保存ID
+ *
+ * 查询返回的RentalRecord是按需生成的视图：列表只保存行号，取出元素时才创建对象并关联车辆和客户；
+ * 视图与仓库中的数据相互独立，修改后需调用updateRentalRecord()写回
+ * 记录只追加不删除，行号一经分配不再改变；公开方法对本对象加锁，可被多个线程并发调用
+ */
+public class RentalRecordRepositoryCompactImpl implements RentalRecordRepository {
+    private static final int NO_ROW = -1;
+
+    private final String filePath; // 租赁记录文件路径
+    private final String textFilePath; // 二进制存储时迁移来源的文本文件路径
+    private final RentalStorage storage; // 文件存储格式
+    private RentalRecordColumns columns = new RentalRecordColumns(); // 按列存放的全部记录
+    private final IdSequence idSequence; // 记录ID序列
+    private final PersistenceScheduler.Target persistence; // 持久化目标，修改后标记待保存
+    private VehicleRepository vehicleRepository; // 车辆仓库引用，生成视图时关联车辆
+    private CustomerRepository customerRepository; // 客户仓库引用，生成视图时关联客户
+
+    private boolean idsAscending = true; // 各行ID是否递增，递增时按ID二分查找行号
+    private int[] rowsById = new int[0]; // ID不递增时按ID排序的行号，有效长度为记录数
+    private int[] nextRowOfVehicle = new int[1024]; // 同一车辆的下一条记录的行号
+    private int[] nextRowOfCustomer = new int[1024]; // 同一客户的下一条记录的行号
+    private final IntHashMap<int[]> vehicleRows = new IntHashMap<>(); // 车辆ID到该车辆记录链的首尾行号
+    private final IntHashMap<int[]> customerRows = new IntHashMap<>(); // 客户ID到该客户记录链的首尾行号
+
+    /**
+     * 构造方法，每次修改立即保存
+     */
+    public RentalRecordRepositoryCompactImpl() {
+        this(PersistenceScheduler.sync());
+    }
+
+    /**
+     * 构造方法
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public RentalRecordRepositoryCompactImpl(PersistenceScheduler scheduler) {
+        this(Constants.DATA_DIR, Constants.RENTAL_STORAGE, scheduler);
+    }
+
+    /**
+     * 构造方法，数据文件位于指定目录
+     * @param dataDir 数据文件目录
+     * @param storage 文件存储格式
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public RentalRecordRepositoryCompactImpl(String dataDir, RentalStorage storage, PersistenceScheduler scheduler) {
+        this.storage = storage;
+        this.textFilePath = dataDir + "/" + Constants.RENTAL_FILE_NAME;
+        this.filePath = storage == RentalStorage.BINARY
+                ? dataDir + "/" + Constants.RENTAL_BINARY_FILE_NAME
+                : textFilePath;
+        this.persistence = scheduler.register(filePath, this::saveRentalRecords);
+        this.idSequence = new IdSequence(dataDir + "/" + Constants.RENTAL_SEQUENCE_FILE_NAME);
+    }
+
+    /**
+     * 设置车辆，客户仓库引用；记录中只保存ID，无需逐条关联
+     * @param vehicleRepository 车辆仓库
+     * @param customerRepository 客户仓库
+     */
+    @Override
+    public synchronized void setRepository(VehicleRepository vehicleRepository, CustomerRepository customerRepository) {
+        this.vehicleRepository = vehicleRepository;
+        this.customerRepository = customerRepository;
+    }
+
+    /**
+     * 添加租赁记录，记录对象本身不被保存
+     * @param record 租赁记录对象
+     * @return 添加是否成功
+     */
+    @Override
+    public synchronized boolean addRentalRecord(RentalRecord record) {
+        if (record != null) {
+            // 设置记录ID，ID段用完时添加失败
+            try {
+                record.setId(getNextRecordId());
+            } catch (IllegalStateException e) {
+                System.err.println(e.getMessage());
+                return false;
+            }
+            appendRow(record);
+            persistence.markDirty(); // 标记待保存，由调度器写入文件
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 批量添加租赁记录：一次分配整段ID，只标记一次待保存
+     * @param records 租赁记录列表
+     * @return 添加是否成功
+     */
+    @Override
+    public synchronized boolean addRentalRecords(List<RentalRecord> records) {
+        if (records.contains(null)) {
+            return false;
+        }
+        if (records.isEmpty()) {
+            return true;
+        }
+        int id;
+        try {
+            id = idSequence.nextRange(records.size());
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
+        for (RentalRecord record : records) {
+            record.setId(id++);
+            appendRow(record);
+        }
+        persistence.markDirty();
+        return true;
+    }
+
+    private void appendRow(RentalRecord record) {
+        int row = columns.add(record.getId(), vehicleIdOf(record), customerIdOf(record),
+                RentalRecordColumns.toEpochDay(record.getRentalDate()),
+                record.getRentalDays(),
+                RentalRecordColumns.toEpochDay(record.getReturnDate()),
+                RentalRecordColumns.toCents(record.getTotalRent()),
+                record.isReturned());
+        indexRow(row);
+    }
+
+    /**
+     * 更新租赁记录（主要用于归还车辆），把视图中的字段写回
+     * @param record 租赁记录对象
+     * @return 更新是否成功
+     */
+    @Override
+    public synchronized boolean updateRentalRecord(RentalRecord record) {
+        if (record == null) return false;
+
+        int row = findRow(record.getId());
+        if (row == NO_ROW) {
+            return false;
+        }
+        if (writeRow(row, record)) {
+            // 更换车辆或客户很少发生，直接重建索引链
+            rebuildIndexes();
+        }
+        persistence.markDirty(); // 标记待保存，由调度器写入文件
+        return true;
+    }
+
+    /**
+     * 批量更新租赁记录：先确认全部记录存在，再统一写回，只标记一次待保存
+     * @param records 租赁记录列表
+     * @return 更新是否成功
+     */
+    @Override
+    public synchronized boolean updateRentalRecords(List<RentalRecord> records) {
+        int[] rows = new int[records.size()];
+        for (int i = 0; i < rows.length; i++) {
+            RentalRecord record = records.get(i);
+            rows[i] = record == null ? NO_ROW : findRow(record.getId());
+            if (rows[i] == NO_ROW) {
+                return false;
+            }
+        }
+        if (rows.length == 0) {
+            return true;
+        }
+        boolean reindex = false;
+        for (int i = 0; i < rows.length; i++) {
+            reindex |= writeRow(rows[i], records.get(i));
+        }
+        if (reindex) {
+            rebuildIndexes();
+        }
+        persistence.markDirty();
+        return true;
+    }
+
+    /**
+     * 把记录的字段写回指定行
+     * @return 车辆或客户是否改变，改变时需要重建索引链
+     */
+    private boolean writeRow(int row, RentalRecord record) {
+        int vehicleId = vehicleIdOf(record);
+        int customerId = customerIdOf(record);
+        boolean reindex = vehicleId != columns.getVehicleId(row) || customerId != columns.getCustomerId(row);
+        columns.set(row, vehicleId, customerId,
+                RentalRecordColumns.toEpochDay(record.getRentalDate()),
+                record.getRentalDays(),
+                RentalRecordColumns.toEpochDay(record.getReturnDate()),
+                RentalRecordColumns.toCents(record.getTotalRent()),
+                record.isReturned());
+        return reindex;
+    }
+
+    /**
+     * 根据ID查询租赁记录
+     * @param id 记录ID
+     * @return 租赁记录视图，如果不存在则返回Optional.empty()
+     */
+    @Override
+    public synchronized Optional<RentalRecord> findRentalRecordById(int id) {
+        int row = findRow(id);
+        return row == NO_ROW ? Optional.empty() : Optional.of(materialize(row));
+    }
+
+    /**
+     * 查询所有租赁记录
+     * @return 所有租赁记录的视图列表，不包含之后添加的记录
+     */
+    @Override
+    public synchronized List<RentalRecord> findAllRentalRecords() {
+        return new RecordList(null, columns.size());
+    }
+
+    /**
+     * 查询未归还的租赁记录
+     * @return 未归还的租赁记录视图列表
+     */
+    @Override
+    public synchronized List<RentalRecord> findUnreturnedRentalRecords() {
+        int[] rows = new int[16];
+        int count = 0;
+        for (int row = columns.returned().nextClearBit(0); row < columns.size();
+             row = columns.returned().nextClearBit(row + 1)) {
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, count * 2);
+            }
+            rows[count++] = row;
+        }
+        return new RecordList(rows, count);
+    }
+
+    /**
+     * 根据车辆ID查询租赁记录
+     * @param vehicleId 车辆ID
+     * @return 该车辆的租赁记录视图列表
+     */
+    @Override
+    public synchronized List<RentalRecord> findRentalRecordsByVehicleId(int vehicleId) {
+        return collectChain(vehicleRows.get(vehicleId), nextRowOfVehicle);
+    }
+
+    /**
+     * 根据客户ID查询租赁记录
+     * @param customerId 客户ID
+     * @return 该客户的租赁记录视图列表
+     */
+    @Override
+    public synchronized List<RentalRecord> findRentalRecordsByCustomerId(int customerId) {
+        return collectChain(customerRows.get(customerId), nextRowOfCustomer);
+    }
+
+    /**
+     * 分配下一个可用的记录ID
+     * @return 下一个可用的记录ID
+     */
+    @Override
+    public int getNextRecordId() {
+        return idSequence.next();
+    }
+
+    /**
+     * 从文件加载租赁记录数据，只读入各列，不创建记录对象，也不依赖车辆和客户数据
+     */
+    @Override
+    public synchronized void loadRentalRecords() {
+        RentalRecordColumns loaded;
+        try {
+            loaded = storage == RentalStorage.BINARY
+                    ? RentalRecordBinaryFormat.readOrMigrate(filePath, textFilePath)
+                    : RentalRecordTextFormat.read(filePath);
+        } catch (IOException e) {
+            // 不加载部分内容，避免之后保存时覆盖原文件
+            throw new UncheckedIOException("读取文件失败: " + filePath, e);
+        }
+
+        columns = loaded;
+        int maxId = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            maxId = Math.max(maxId, columns.getId(i));
+        }
+        rebuildIndexes();
+
+        // 序列不能落后于已有数据（例如序列文件丢失时）
+        idSequence.recover(maxId);
+    }
+
+    /**
+     * 将租赁记录数据保存到文件
+     */
+    @Override
+    public synchronized void saveRentalRecords() {
+        try {
+            if (storage == RentalStorage.BINARY) {
+                RentalRecordBinaryFormat.write(filePath, columns);
+            } else {
+                RentalRecordTextFormat.write(filePath, columns);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入文件失败: " + filePath, e);
+        }
+    }
+
+    private static int vehicleIdOf(RentalRecord record) {
+        return record.getVehicle() != null ? record.getVehicle().getId() : 0;
+    }
+
+    private static int customerIdOf(RentalRecord record) {
+        return record.getCustomer() != null ? record.getCustomer().getId() : 0;
+    }
+
+    /**
+     * 根据记录ID查找行号
+     * @return 行号，不存在时返回NO_ROW
+     */
+    private int findRow(int id) {
+        int[] ids = columns.ids();
+        if (idsAscending) {
+            int row = Arrays.binarySearch(ids, 0, columns.size(), id);
+            return row >= 0 ? row : NO_ROW;
+        }
+        int low = 0;
+        int high = columns.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = ids[rowsById[mid]];
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return rowsById[mid];
+            }
+        }
+        return NO_ROW;
+    }
+
+    /**
+     * 把新追加的一行加入ID索引和车辆、客户索引链
+     */
+    private void indexRow(int row) {
+        int id = columns.getId(row);
+        if (idsAscending) {
+            if (row > 0 && columns.getId(row - 1) >= id) {
+                idsAscending = false;
+                sortRowsById(row + 1);
+            }
+        } else if (id > columns.getId(rowsById[row - 1])) {
+            // 新ID由序列分配，总是大于已有ID，追加到末尾即可保持有序
+            if (row == rowsById.length) {
+                rowsById = Arrays.copyOf(rowsById, row * 2);
+            }
+            rowsById[row] = row;
+        } else {
+            sortRowsById(row + 1);
+        }
+
+        if (row >= nextRowOfVehicle.length) {
+            int capacity = Math.max(row + 1, nextRowOfVehicle.length * 2);
+            nextRowOfVehicle = Arrays.copyOf(nextRowOfVehicle, capacity);
+            nextRowOfCustomer = Arrays.copyOf(nextRowOfCustomer, capacity);
+        }
+        appendToChain(vehicleRows, columns.getVehicleId(row), nextRowOfVehicle, row);
+        appendToChain(customerRows, columns.getCustomerId(row), nextRowOfCustomer, row);
+    }
+
+    private static void appendToChain(IntHashMap<int[]> chains, int key, int[] nextRow, int row) {
+        nextRow[row] = NO_ROW;
+        int[] chain = chains.get(key);
+        if (chain == null) {
+            chains.put(key, new int[]{row, row});
+        } else {
+            nextRow[chain[1]] = row;
+            chain[1] = row;
+        }
+    }
+
+    /**
+     * 重建全部索引
+     */
+    private void rebuildIndexes() {
+        idsAscending = true;
+        rowsById = new int[0];
+        vehicleRows.clear();
+        customerRows.clear();
+        for (int row = 0; row < columns.size(); row++) {
+            indexRow(row);
+        }
+    }
+
+    /**
+     * 按ID排序前size行的行号；ID和行号合成一个long排序，避免装箱
+     */
+    private void sortRowsById(int size) {
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = ((long) columns.getId(row) << 32) | row;
+        }
+        Arrays.sort(keys);
+        rowsById = new int[Math.max(size * 2, 16)];
+        for (int i = 0; i < size; i++) {
+            rowsById[i] = (int) keys[i];
+        }
+    }
+
+    private List<RentalRecord> collectChain(int[] chain, int[] nextRow) {
+        if (chain == null) {
+            return new RecordList(new int[0], 0);
+        }
+        int[] rows = new int[16];
+        int count = 0;
+        for (int row = chain[0]; row != NO_ROW; row = nextRow[row]) {
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, count * 2);
+            }
+            rows[count++] = row;
+        }
+        return new RecordList(rows, count);
+    }
+
+    /**
+     * 生成指定行的记录对象，关联车辆和客户
+     */
+    private RentalRecord materialize(int row) {
+        RentalRecord record = new RentalRecord();
+        record.setId(columns.getId(row));
+        record.setRentalDate(RentalRecordColumns.toDate(columns.getRentalDay(row)));
+        record.setRentalDays(columns.getPlannedDays(row));
+        record.setReturnDate(RentalRecordColumns.toDate(columns.getReturnDay(row)));
+        record.setTotalRent(RentalRecordColumns.toAmount(columns.getRentCents(row)));
+        record.setReturned(columns.isReturned(row));
+        if (vehicleRepository != null) {
+            Optional<Vehicle> vehicle = vehicleRepository.findVehicleById(columns.getVehicleId(row));
+            vehicle.ifPresent(record::setVehicle);
+        }
+        if (customerRepository != null) {
+            Optional<Customer> customer = customerRepository.findCustomerById(columns.getCustomerId(row));
+            customer.ifPresent(record::setCustomer);
+        }
+        return record;
+    }
+
+    /**
+     * 按行号取记录的只读列表，取出元素时才生成记录对象
+     */
+    private final class RecordList extends AbstractList<RentalRecord> implements RandomAccess {
+        private final int[] rows; // 行号，为null时表示第0行到第size-1行
+        private final int size;
+
+        RecordList(int[] rows, int size) {
+            this.rows = rows;
+            this.size = size;
+        }
+
+        @Override
+        public RentalRecord get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+            }
+            synchronized (RentalRecordRepositoryCompactImpl.this) {
+                return materialize(rows != null ? rows[index] : index);
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
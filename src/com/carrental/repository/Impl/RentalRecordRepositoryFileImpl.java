@@ -7,42 +7,91 @@ import com.carrental.repository.RentalRecordRepository;
 import com.carrental.repository.VehicleRepository;
 import com.carrental.repository.CustomerRepository;
 import com.carrental.util.Constants;
-import com.carrental.util.FileUtil;
+import com.carrental.util.IdSequence;
+import com.carrental.util.IntHashMap;
+import com.carrental.util.PersistenceScheduler;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * 租赁记录数据访问实现类，使用文件存储租赁记录数据
+ * 公开方法对本对象加锁，主键索引与各辅助索引一起更新，可被多个线程并发调用
  */
 public class RentalRecordRepositoryFileImpl implements RentalRecordRepository {
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd"); // 日期格式化
-    private List<RentalRecord> rentalRecords; // 租赁记录列表
+    private final String filePath; // 租赁记录文件路径
+    private IntHashMap<RentalRecord> rentalRecords; // 记录ID到租赁记录的映射，按添加顺序遍历
+    private final IdSequence idSequence; // 记录ID序列
+    private IntHashMap<List<RentalRecord>> recordsByVehicle; // 车辆ID到该车辆租赁记录的索引
+    private IntHashMap<List<RentalRecord>> recordsByCustomer; // 客户ID到该客户租赁记录的索引
+    private IntHashMap<RentalRecord> unreturnedRecords; // 未归还租赁记录的索引
     private VehicleRepository vehicleRepository; // 车辆仓库引用
     private CustomerRepository customerRepository; // 客户仓库引用
+    private boolean loaded; // 是否已从文件加载
+    private List<RentalRecord> unresolvedRecords = new ArrayList<>(); // 加载后尚未关联车辆和客户的记录
+    private int[] unresolvedVehicleIds = new int[0]; // 与unresolvedRecords一一对应的车辆ID
+    private int[] unresolvedCustomerIds = new int[0]; // 与unresolvedRecords一一对应的客户ID
+    private final PersistenceScheduler.Target persistence; // 持久化目标，修改后标记待保存
 
     /**
-     * 构造方法，初始化租赁记录列表
+     * 构造方法，初始化租赁记录列表，每次修改立即保存
      */
     public RentalRecordRepositoryFileImpl() {
-        this.rentalRecords = new ArrayList<>();
+        this(PersistenceScheduler.sync());
+    }
+
+    /**
+     * 构造方法，初始化租赁记录列表
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public RentalRecordRepositoryFileImpl(PersistenceScheduler scheduler) {
+        this(Constants.DATA_DIR, scheduler);
+    }
+
+    /**
+     * 构造方法，初始化租赁记录列表，数据文件位于指定目录
+     * @param dataDir 数据文件目录
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public RentalRecordRepositoryFileImpl(String dataDir, PersistenceScheduler scheduler) {
+        this(dataDir, Constants.RENTAL_FILE_NAME, scheduler);
+    }
+
+    /**
+     * 构造方法，供使用其他存储格式的子类指定数据文件名
+     * @param dataDir 数据文件目录
+     * @param fileName 数据文件名
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    protected RentalRecordRepositoryFileImpl(String dataDir, String fileName, PersistenceScheduler scheduler) {
+        this.filePath = dataDir + "/" + fileName;
+        this.rentalRecords = new IntHashMap<>();
+        this.persistence = scheduler.register(filePath, this::saveRentalRecords);
+        this.idSequence = new IdSequence(dataDir + "/" + Constants.RENTAL_SEQUENCE_FILE_NAME);
+        this.recordsByVehicle = new IntHashMap<>();
+        this.recordsByCustomer = new IntHashMap<>();
+        this.unreturnedRecords = new IntHashMap<>();
     }
 
     /**
      * 设置车辆，客户仓库引用
+     * 尚未加载时加载数据；已加载时只关联记录中的车辆和客户对象，不重新读取文件
      * @param vehicleRepository 车辆仓库
      * @param customerRepository 客户仓库
      */
-    public void setRepository(VehicleRepository vehicleRepository,CustomerRepository customerRepository) {
+    @Override
+    public synchronized void setRepository(VehicleRepository vehicleRepository,CustomerRepository customerRepository) {
         this.vehicleRepository = vehicleRepository;
         this.customerRepository = customerRepository;
-        // 设置依赖后重新加载数据，确保能正确关联车辆对象
-        loadRentalRecords();
+        if (loaded) {
+            resolveReferences();
+        } else {
+            loadRentalRecords();
+        }
     }
 
 
@@ -52,12 +101,18 @@ public class RentalRecordRepositoryFileImpl implements RentalRecordRepository {
      * @return 添加是否成功
      */
     @Override
-    public boolean addRentalRecord(RentalRecord record) {
+    public synchronized boolean addRentalRecord(RentalRecord record) {
         if (record != null) {
-            // 设置记录ID
-            record.setId(getNextRecordId());
-            rentalRecords.add(record);
-            saveRentalRecords(); // 自动保存到文件
+            // 设置记录ID，ID段用完时添加失败
+            try {
+                record.setId(getNextRecordId());
+            } catch (IllegalStateException e) {
+                System.err.println(e.getMessage());
+                return false;
+            }
+            rentalRecords.put(record.getId(), record);
+            indexRecord(record);
+            persistence.markDirty(); // 标记待保存，由调度器写入文件
             return true;
         }
         return false;
@@ -69,15 +124,82 @@ public class RentalRecordRepositoryFileImpl implements RentalRecordRepository {
      * @return 更新是否成功
      */
     @Override
-    public boolean updateRentalRecord(RentalRecord record) {
-        if (record == null) return false;
+    public synchronized boolean updateRentalRecord(RentalRecord record) {
+        if (record == null || !rentalRecords.containsKey(record.getId())) {
+            return false;
+        }
+        replaceRecord(record);
+        persistence.markDirty(); // 标记待保存，由调度器写入文件
+        return true;
+    }
 
-        Optional<RentalRecord> optionalRecord = findRentalRecordById(record.getId());
-        if (optionalRecord.isPresent()) {
-            saveRentalRecords(); // 自动保存到文件
+    /**
+     * 批量添加租赁记录：一次分配整段ID，只标记一次待保存
+     * @param records 租赁记录列表
+     * @return 添加是否成功
+     */
+    @Override
+    public synchronized boolean addRentalRecords(List<RentalRecord> records) {
+        if (records.contains(null)) {
+            return false;
+        }
+        if (records.isEmpty()) {
             return true;
         }
-        return false;
+        int id;
+        try {
+            id = idSequence.nextRange(records.size());
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
+        for (RentalRecord record : records) {
+            record.setId(id++);
+            rentalRecords.put(record.getId(), record);
+            indexRecord(record);
+        }
+        persistence.markDirty();
+        return true;
+    }
+
+    /**
+     * 批量更新租赁记录：先确认全部记录存在，再统一更新，只标记一次待保存
+     * @param records 租赁记录列表
+     * @return 更新是否成功
+     */
+    @Override
+    public synchronized boolean updateRentalRecords(List<RentalRecord> records) {
+        for (RentalRecord record : records) {
+            if (record == null || !rentalRecords.containsKey(record.getId())) {
+                return false;
+            }
+        }
+        if (records.isEmpty()) {
+            return true;
+        }
+        for (RentalRecord record : records) {
+            replaceRecord(record);
+        }
+        persistence.markDirty();
+        return true;
+    }
+
+    /**
+     * 用传入的记录替换已有记录并更新索引
+     * @param record 租赁记录对象，对应的记录必须存在
+     */
+    private void replaceRecord(RentalRecord record) {
+        RentalRecord existing = rentalRecords.get(record.getId());
+        if (existing != record) {
+            // 传入的是新对象时，先移除旧对象的索引
+            unindexRecord(existing);
+            rentalRecords.put(record.getId(), record);
+            indexRecord(record);
+        } else if (record.isReturned()) {
+            unreturnedRecords.remove(record.getId());
+        } else {
+            unreturnedRecords.put(record.getId(), record);
+        }
     }
 
     /**
@@ -86,10 +208,8 @@ public class RentalRecordRepositoryFileImpl implements RentalRecordRepository {
      * @return 租赁记录对象，如果不存在则返回Optional.empty()
      */
     @Override
-    public Optional<RentalRecord> findRentalRecordById(int id) {
-        return rentalRecords.stream()
-                .filter(record -> record.getId() == id)
-                .findFirst();
+    public synchronized Optional<RentalRecord> findRentalRecordById(int id) {
+        return Optional.ofNullable(rentalRecords.get(id));
     }
 
     /**
@@ -97,8 +217,8 @@ public class RentalRecordRepositoryFileImpl implements RentalRecordRepository {
      * @return 所有租赁记录列表
      */
     @Override
-    public List<RentalRecord> findAllRentalRecords() {
-        return new ArrayList<>(rentalRecords);
+    public synchronized List<RentalRecord> findAllRentalRecords() {
+        return rentalRecords.values();
     }
 
     /**
@@ -106,10 +226,8 @@ public class RentalRecordRepositoryFileImpl implements RentalRecordRepository {
      * @return 未归还的租赁记录列表
      */
     @Override
-    public List<RentalRecord> findUnreturnedRentalRecords() {
-        return rentalRecords.stream()
-                .filter(record -> !record.isReturned())
-                .collect(Collectors.toList());
+    public synchronized List<RentalRecord> findUnreturnedRentalRecords() {
+        return unreturnedRecords.values();
     }
 
     /**
@@ -118,10 +236,9 @@ public class RentalRecordRepositoryFileImpl implements RentalRecordRepository {
      * @return 该车辆的租赁记录列表
      */
     @Override
-    public List<RentalRecord> findRentalRecordsByVehicleId(int vehicleId) {
-        return rentalRecords.stream()
-                .filter(record -> record.getVehicle() != null && record.getVehicle().getId() == vehicleId)
-                .collect(Collectors.toList());
+    public synchronized List<RentalRecord> findRentalRecordsByVehicleId(int vehicleId) {
+        List<RentalRecord> records = recordsByVehicle.get(vehicleId);
+        return records != null ? new ArrayList<>(records) : new ArrayList<>();
     }
 
     /**
@@ -130,115 +247,223 @@ public class RentalRecordRepositoryFileImpl implements RentalRecordRepository {
      * @return 该客户的租赁记录列表
      */
     @Override
-    public List<RentalRecord> findRentalRecordsByCustomerId(int customerId) {
-        return rentalRecords.stream()
-                .filter(record -> record.getCustomer() != null && record.getCustomer().getId() == customerId)
-                .collect(Collectors.toList());
+    public synchronized List<RentalRecord> findRentalRecordsByCustomerId(int customerId) {
+        List<RentalRecord> records = recordsByCustomer.get(customerId);
+        return records != null ? new ArrayList<>(records) : new ArrayList<>();
+    }
+
+    /**
+     * 将租赁记录加入车辆、客户和未归还索引
+     * @param record 租赁记录
+     */
+    private void indexRecord(RentalRecord record) {
+        if (record.getVehicle() != null) {
+            addToIndex(recordsByVehicle, record.getVehicle().getId(), record);
+        }
+        if (record.getCustomer() != null) {
+            addToIndex(recordsByCustomer, record.getCustomer().getId(), record);
+        }
+        if (!record.isReturned()) {
+            unreturnedRecords.put(record.getId(), record);
+        }
+    }
+
+    /**
+     * 从车辆、客户和未归还索引中移除租赁记录
+     * @param record 租赁记录
+     */
+    private void unindexRecord(RentalRecord record) {
+        if (record.getVehicle() != null) {
+            removeFromIndex(recordsByVehicle, record.getVehicle().getId(), record);
+        }
+        if (record.getCustomer() != null) {
+            removeFromIndex(recordsByCustomer, record.getCustomer().getId(), record);
+        }
+        unreturnedRecords.remove(record.getId());
+    }
+
+    private static void addToIndex(IntHashMap<List<RentalRecord>> index, int key, RentalRecord record) {
+        List<RentalRecord> records = index.get(key);
+        if (records == null) {
+            records = new ArrayList<>();
+            index.put(key, records);
+        }
+        records.add(record);
+    }
+
+    private static void removeFromIndex(IntHashMap<List<RentalRecord>> index, int key, RentalRecord record) {
+        List<RentalRecord> records = index.get(key);
+        if (records != null) {
+            records.remove(record);
+            if (records.isEmpty()) {
+                index.remove(key);
+            }
+        }
     }
 
     /**
-     * 获取下一个可用的记录ID
+     * 分配下一个可用的记录ID
      * @return 下一个可用的记录ID
      */
     @Override
     public int getNextRecordId() {
-        // 如果没有记录，返回1
-        if (rentalRecords.isEmpty()) {
-            return 1;
-        }
-        
-        // 找到最大的ID，然后加1
-        int maxId = rentalRecords.stream()
-                .mapToInt(RentalRecord::getId)
-                .max()
-                .orElse(0);
-        
-        return maxId + 1;
+        return idSequence.next();
     }
 
     /**
      * 从文件加载租赁记录数据
+     * 未设置车辆和客户仓库时只解析记录，待setRepository()时再统一关联，
+     * 因此可以和车辆、客户数据的加载并行进行
      */
     @Override
-    public void loadRentalRecords() {
-        List<String> lines = FileUtil.readLines(Constants.RENTAL_FILE_PATH);
+    public synchronized void loadRentalRecords() {
         rentalRecords.clear();
-        
-        for (String line : lines) {
-            // 跳过空行
-            if (line.trim().isEmpty()) {
-                continue;
-            }
-            
-            try {
-                // 解析租赁记录数据
-                // 格式：ID,车辆ID,客户ID,租赁日期,归还日期,总租金,状态
-                String[] parts = line.split(",");
-                if (parts.length >= 7) {
-                    int id = Integer.parseInt(parts[0]);
-                    int vehicleId = Integer.parseInt(parts[1]);
-                    int customerId = Integer.parseInt(parts[2]);
-                    Date rentalDate = DATE_FORMAT.parse(parts[3]);
-                    Date returnDate = parts[4].equals("null") ? null : DATE_FORMAT.parse(parts[4]);
-                    double totalRent = Double.parseDouble(parts[5]);
-                    String status = parts[6];
-                    
-                    RentalRecord record = new RentalRecord();
-                    record.setId(id);
-                    
-                    // 通过repository查找车辆和客户对象
-                    if (vehicleRepository != null) {
-                        Optional<Vehicle> vehicleOpt = vehicleRepository.findVehicleById(vehicleId);
-                        vehicleOpt.ifPresent(record::setVehicle);
-                    }
-                    
-                    if (customerRepository != null) {
-                        Optional<Customer> customerOpt = customerRepository.findCustomerById(customerId);
-                        customerOpt.ifPresent(record::setCustomer);
-                    }
-                    
-                    record.setRentalDate(rentalDate);
-                    record.setReturnDate(returnDate);
-                    record.setTotalRent(totalRent);
-                    
-                    // 设置是否已归还状态
-                    record.setReturned("已归还".equals(status));
-                    
-                    rentalRecords.add(record);
+        recordsByVehicle.clear();
+        recordsByCustomer.clear();
+        unreturnedRecords.clear();
+        unresolvedRecords = new ArrayList<>();
+        unresolvedVehicleIds = new int[1024];
+        unresolvedCustomerIds = new int[1024];
+        int maxId = 0;
+
+        try {
+            RentalRecordColumns columns = readColumns();
+            unresolvedVehicleIds = new int[Math.max(columns.size(), 16)];
+            unresolvedCustomerIds = new int[unresolvedVehicleIds.length];
+            for (int i = 0; i < columns.size(); i++) {
+                int id = columns.getId(i);
+                RentalRecord record = new RentalRecord();
+                record.setId(id);
+                record.setRentalDate(RentalRecordColumns.toDate(columns.getRentalDay(i)));
+                record.setRentalDays(columns.getPlannedDays(i));
+                record.setReturnDate(RentalRecordColumns.toDate(columns.getReturnDay(i)));
+                record.setTotalRent(RentalRecordColumns.toAmount(columns.getRentCents(i)));
+                record.setReturned(columns.isReturned(i));
+
+                rentalRecords.put(id, record);
+                if (!record.isReturned()) {
+                    unreturnedRecords.put(id, record);
                 }
-            } catch (NumberFormatException | ParseException e) {
-                System.err.println("解析租赁记录数据失败: " + line);
+                addUnresolved(record, columns.getVehicleId(i), columns.getCustomerId(i));
+                maxId = Math.max(maxId, id);
+            }
+        } catch (IOException e) {
+            // 不加载部分内容，避免之后保存时覆盖原文件
+            throw new UncheckedIOException("读取文件失败: " + filePath, e);
+        }
+
+        // 序列不能落后于已有数据（例如序列文件丢失时）
+        idSequence.recover(maxId);
+        loaded = true;
+
+        if (vehicleRepository != null || customerRepository != null) {
+            resolveReferences();
+        }
+    }
+
+    private void addUnresolved(RentalRecord record, int vehicleId, int customerId) {
+        int index = unresolvedRecords.size();
+        if (index == unresolvedVehicleIds.length) {
+            unresolvedVehicleIds = Arrays.copyOf(unresolvedVehicleIds, index * 2);
+            unresolvedCustomerIds = Arrays.copyOf(unresolvedCustomerIds, index * 2);
+        }
+        unresolvedRecords.add(record);
+        unresolvedVehicleIds[index] = vehicleId;
+        unresolvedCustomerIds[index] = customerId;
+    }
+
+    /**
+     * 一次遍历关联所有待关联记录的车辆和客户对象，并建立车辆、客户索引
+     * 先把车辆和客户各取一次建成ID映射，避免对每条记录查询仓库
+     */
+    private void resolveReferences() {
+        IntHashMap<Vehicle> vehicleById = new IntHashMap<>();
+        if (vehicleRepository != null) {
+            for (Vehicle vehicle : vehicleRepository.findAllVehicles()) {
+                vehicleById.put(vehicle.getId(), vehicle);
             }
         }
+        IntHashMap<Customer> customerById = new IntHashMap<>();
+        if (customerRepository != null) {
+            for (Customer customer : customerRepository.findAllCustomers()) {
+                customerById.put(customer.getId(), customer);
+            }
+        }
+
+        for (int i = 0; i < unresolvedRecords.size(); i++) {
+            RentalRecord record = unresolvedRecords.get(i);
+            Vehicle vehicle = vehicleById.get(unresolvedVehicleIds[i]);
+            if (vehicle != null) {
+                record.setVehicle(vehicle);
+                addToIndex(recordsByVehicle, vehicle.getId(), record);
+            }
+            Customer customer = customerById.get(unresolvedCustomerIds[i]);
+            if (customer != null) {
+                record.setCustomer(customer);
+                addToIndex(recordsByCustomer, customer.getId(), record);
+            }
+        }
+
+        unresolvedRecords = new ArrayList<>();
+        unresolvedVehicleIds = new int[0];
+        unresolvedCustomerIds = new int[0];
     }
 
     /**
      * 将租赁记录数据保存到文件
+     * @throws UncheckedIOException 写入失败，原文件保持不变
      */
     @Override
-    public void saveRentalRecords() {
-        List<String> lines = new ArrayList<>();
-        
-        // 将所有租赁记录转换为字符串格式
+    public synchronized void saveRentalRecords() {
+        RentalRecordColumns columns = new RentalRecordColumns(rentalRecords.size());
         for (RentalRecord record : rentalRecords) {
             int vehicleId = record.getVehicle() != null ? record.getVehicle().getId() : 0;
             int customerId = record.getCustomer() != null ? record.getCustomer().getId() : 0;
-            String rentalDateStr = DATE_FORMAT.format(record.getRentalDate());
-            String returnDateStr = record.getReturnDate() != null ? DATE_FORMAT.format(record.getReturnDate()) : "null";
-            String status = record.isReturned() ? "已归还" : "未归还";
-            
-            String line = String.format("%d,%d,%d,%s,%s,%.2f,%s",
-                    record.getId(),
-                    vehicleId,
-                    customerId,
-                    rentalDateStr,
-                    returnDateStr,
-                    record.getTotalRent(),
-                    status);
-            lines.add(line);
-        }
-        
-        // 写入文件
-        FileUtil.writeLines(Constants.RENTAL_FILE_PATH, lines);
-    }
-}
\ No newline at end of file
+            columns.add(record.getId(), vehicleId, customerId,
+                    RentalRecordColumns.toEpochDay(record.getRentalDate()),
+                    record.getRentalDays(),
+                    RentalRecordColumns.toEpochDay(record.getReturnDate()),
+                    RentalRecordColumns.toCents(record.getTotalRent()),
+                    record.isReturned());
+        }
+
+        try {
+            writeColumns(columns);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入文件失败: " + filePath, e);
+        }
+    }
+
+    /**
+     * @return 数据文件路径
+     */
+    protected String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * @return 记录ID序列
+     */
+    protected IdSequence getIdSequence() {
+        return idSequence;
+    }
+
+    /**
+     * 从数据文件读取全部记录，子类可改用其他存储格式
+     * 格式：ID,车辆ID,客户ID,租赁日期,归还日期,总租金,状态,租赁天数
+     * @return 按文件顺序排列的记录
+     * @throws IOException 读取失败
+     */
+    protected RentalRecordColumns readColumns() throws IOException {
+        return RentalRecordTextFormat.read(filePath);
+    }
+
+    /**
+     * 将全部记录写入数据文件，子类可改用其他存储格式
+     * @param columns 记录
+     * @throws IOException 写入失败
+     */
+    protected void writeColumns(RentalRecordColumns columns) throws IOException {
+        RentalRecordTextFormat.write(filePath, columns);
+    }
+}
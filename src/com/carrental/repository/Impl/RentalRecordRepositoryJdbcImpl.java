@@ -0,0 +1,454 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.model.Customer;
+import com.carrental.model.RentalRecord;
+import com.carrental.model.Vehicle;
+import com.carrental.repository.CustomerRepository;
+import com.carrental.repository.RentalRecordRepository;
+import com.carrental.repository.VehicleRepository;
+import com.carrental.util.Constants;
+import com.carrental.util.IdSequence;
+import com.carrental.util.JdbcConnectionPool;
+import com.carrental.util.JdbcIdSequence;
+import com.carrental.util.RentalStorage;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 租赁记录数据访问实现类，使用嵌入式数据库存储租赁记录
+ * 表中只保存车辆ID和客户ID，查询时通过车辆、客户仓库关联；日期按纪元日、租金按分保存，与列式文件格式一致
+ */
+public class RentalRecordRepositoryJdbcImpl implements RentalRecordRepository {
+    private static final String SELECT = "SELECT id, vehicle_id, customer_id, rental_day, rental_days, return_day, "
+            + "rent_cents, returned FROM rental_records";
+    private static final String INSERT = "INSERT INTO rental_records "
+            + "(vehicle_id, customer_id, rental_day, rental_days, return_day, rent_cents, returned, id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE rental_records SET vehicle_id = ?, customer_id = ?, rental_day = ?, "
+            + "rental_days = ?, return_day = ?, rent_cents = ?, returned = ? WHERE id = ?";
+    // 一次查询的记录超过该数量时，先取出全部车辆和客户再关联，否则按ID逐个查询
+    private static final int BULK_RESOLVE_THRESHOLD = 256;
+
+    private final JdbcConnectionPool pool; // 数据库连接池
+    private final JdbcIdSequence idSequence; // 记录ID序列
+    private volatile VehicleRepository vehicleRepository; // 车辆仓库，用于关联车辆
+    private volatile CustomerRepository customerRepository; // 客户仓库，用于关联客户
+
+    /**
+     * 构造方法，表不存在时创建，表为空时从默认数据目录的租赁记录文件迁移
+     * @param pool 数据库连接池
+     */
+    public RentalRecordRepositoryJdbcImpl(JdbcConnectionPool pool) {
+        this(pool, Constants.DATA_DIR);
+    }
+
+    /**
+     * 构造方法，表不存在时创建，表为空时从指定数据目录的租赁记录文件迁移
+     * @param pool 数据库连接池
+     * @param dataDir 迁移时读取的数据文件目录
+     */
+    public RentalRecordRepositoryJdbcImpl(JdbcConnectionPool pool, String dataDir) {
+        this.pool = pool;
+        try {
+            this.idSequence = pool.transaction(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE IF NOT EXISTS rental_records ("
+                            + "id INTEGER PRIMARY KEY, vehicle_id INTEGER NOT NULL, customer_id INTEGER NOT NULL, "
+                            + "rental_day INTEGER NOT NULL, rental_days INTEGER NOT NULL DEFAULT 0, return_day INTEGER, "
+                            + "rent_cents BIGINT NOT NULL, returned BOOLEAN NOT NULL)");
+                    if (!hasColumn(connection, "rental_records", "rental_days")) {
+                        // 旧版本创建的表没有租赁天数列，已有记录按0（未知）处理
+                        statement.execute("ALTER TABLE rental_records ADD COLUMN rental_days INTEGER NOT NULL DEFAULT 0");
+                    }
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_rental_records_vehicle ON rental_records (vehicle_id)");
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_rental_records_customer ON rental_records (customer_id)");
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_rental_records_returned ON rental_records (returned)");
+                }
+                return new JdbcIdSequence(connection, "rental_records");
+            });
+            if (isEmpty()) {
+                migrateFromFile(dataDir);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("初始化租赁记录数据表失败", e);
+        }
+    }
+
+    /**
+     * 查询一次指定列，判断表中是否有该列；各数据库查询元数据时表名大小写不一致，直接查询更可靠
+     */
+    private static boolean hasColumn(Connection connection, String table, String column) {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT " + column + " FROM " + table + " WHERE 1 = 0").close();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isEmpty() throws SQLException {
+        return pool.execute(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM rental_records")) {
+                return resultSet.next() && resultSet.getInt(1) == 0;
+            }
+        });
+    }
+
+    /**
+     * 首次使用数据库时导入租赁记录文件中的数据，按Constants.RENTAL_STORAGE选择文件格式，保留原有ID
+     */
+    private void migrateFromFile(String dataDir) throws SQLException {
+        RentalRecordColumns columns;
+        try {
+            String textFilePath = dataDir + "/" + Constants.RENTAL_FILE_NAME;
+            columns = Constants.RENTAL_STORAGE == RentalStorage.BINARY
+                    ? RentalRecordBinaryFormat.readOrMigrate(dataDir + "/" + Constants.RENTAL_BINARY_FILE_NAME, textFilePath)
+                    : RentalRecordTextFormat.read(textFilePath);
+        } catch (IOException e) {
+            System.err.println("读取租赁记录文件失败，不迁移: " + e.getMessage());
+            return;
+        }
+        int lastId = new IdSequence(dataDir + "/" + Constants.RENTAL_SEQUENCE_FILE_NAME).current();
+        for (int i = 0; i < columns.size(); i++) {
+            lastId = Math.max(lastId, columns.getId(i));
+        }
+        int maxId = lastId;
+        pool.transaction(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                for (int i = 0; i < columns.size(); i++) {
+                    bind(insert, columns.getVehicleId(i), columns.getCustomerId(i), columns.getRentalDay(i),
+                            columns.getPlannedDays(i), columns.getReturnDay(i), columns.getRentCents(i), columns.isReturned(i), columns.getId(i));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            idSequence.recover(connection, maxId);
+            return null;
+        });
+        System.out.println("已从数据文件迁移" + columns.size() + "条租赁记录到数据库");
+    }
+
+    /**
+     * 设置车辆，客户仓库引用，之后查询到的记录关联对应的车辆和客户
+     * @param vehicleRepository 车辆仓库
+     * @param customerRepository 客户仓库
+     */
+    @Override
+    public void setRepository(VehicleRepository vehicleRepository, CustomerRepository customerRepository) {
+        this.vehicleRepository = vehicleRepository;
+        this.customerRepository = customerRepository;
+    }
+
+    /**
+     * 添加租赁记录
+     * @param record 租赁记录对象
+     * @return 添加是否成功
+     */
+    @Override
+    public boolean addRentalRecord(RentalRecord record) {
+        if (record == null) {
+            return false;
+        }
+        try {
+            pool.transaction(connection -> {
+                record.setId(idSequence.nextRange(connection, 1));
+                try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                    bind(insert, record);
+                    return insert.executeUpdate();
+                }
+            });
+            return true;
+        } catch (SQLException e) {
+            System.err.println("添加租赁记录失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 更新租赁记录（主要用于归还车辆），只写入该记录对应的一行
+     * @param record 租赁记录对象
+     * @return 更新是否成功
+     */
+    @Override
+    public boolean updateRentalRecord(RentalRecord record) {
+        if (record == null) {
+            return false;
+        }
+        try {
+            return pool.execute(connection -> {
+                try (PreparedStatement update = connection.prepareStatement(UPDATE)) {
+                    bind(update, record);
+                    return update.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("更新租赁记录失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 批量添加租赁记录：一次分配整段ID，在一个事务中批量插入
+     * @param records 租赁记录列表
+     * @return 添加是否成功
+     */
+    @Override
+    public boolean addRentalRecords(List<RentalRecord> records) {
+        if (records.contains(null)) {
+            return false;
+        }
+        if (records.isEmpty()) {
+            return true;
+        }
+        try {
+            pool.transaction(connection -> {
+                int id = idSequence.nextRange(connection, records.size());
+                try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                    for (RentalRecord record : records) {
+                        record.setId(id++);
+                        bind(insert, record);
+                        insert.addBatch();
+                    }
+                    return insert.executeBatch();
+                }
+            });
+            return true;
+        } catch (SQLException e) {
+            System.err.println("批量添加租赁记录失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 批量更新租赁记录：在一个事务中批量更新，有记录不存在时回滚
+     * @param records 租赁记录列表
+     * @return 更新是否成功
+     */
+    @Override
+    public boolean updateRentalRecords(List<RentalRecord> records) {
+        if (records.contains(null)) {
+            return false;
+        }
+        if (records.isEmpty()) {
+            return true;
+        }
+        try {
+            return pool.transaction(connection -> {
+                try (PreparedStatement update = connection.prepareStatement(UPDATE)) {
+                    for (RentalRecord record : records) {
+                        bind(update, record);
+                        update.addBatch();
+                    }
+                    for (int count : update.executeBatch()) {
+                        if (count == 0) {
+                            connection.rollback(); // 有记录不存在，整批不更新
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("批量更新租赁记录失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 根据ID查询租赁记录
+     * @param id 记录ID
+     * @return 租赁记录对象，如果不存在则返回Optional.empty()
+     */
+    @Override
+    public Optional<RentalRecord> findRentalRecordById(int id) {
+        List<RentalRecord> records = query(SELECT + " WHERE id = ?", id);
+        return records.isEmpty() ? Optional.empty() : Optional.of(records.get(0));
+    }
+
+    /**
+     * 查询所有租赁记录
+     * @return 所有租赁记录列表
+     */
+    @Override
+    public List<RentalRecord> findAllRentalRecords() {
+        return query(SELECT + " ORDER BY id");
+    }
+
+    /**
+     * 查询未归还的租赁记录
+     * @return 未归还的租赁记录列表
+     */
+    @Override
+    public List<RentalRecord> findUnreturnedRentalRecords() {
+        return query(SELECT + " WHERE returned = ? ORDER BY id", false);
+    }
+
+    /**
+     * 根据车辆ID查询租赁记录
+     * @param vehicleId 车辆ID
+     * @return 该车辆的租赁记录列表
+     */
+    @Override
+    public List<RentalRecord> findRentalRecordsByVehicleId(int vehicleId) {
+        return query(SELECT + " WHERE vehicle_id = ? ORDER BY id", vehicleId);
+    }
+
+    /**
+     * 根据客户ID查询租赁记录
+     * @param customerId 客户ID
+     * @return 该客户的租赁记录列表
+     */
+    @Override
+    public List<RentalRecord> findRentalRecordsByCustomerId(int customerId) {
+        return query(SELECT + " WHERE customer_id = ? ORDER BY id", customerId);
+    }
+
+    /**
+     * 执行查询，读完结果并归还连接后再关联车辆和客户（关联时车辆、客户仓库可能也要使用连接池）
+     * @param sql 查询语句
+     * @param parameters 查询参数
+     * @return 租赁记录列表，查询失败时为空列表
+     */
+    private List<RentalRecord> query(String sql, Object... parameters) {
+        List<RentalRecord> records = new ArrayList<>();
+        List<int[]> references = new ArrayList<>(); // 各记录的{车辆ID, 客户ID}
+        try {
+            pool.execute(connection -> {
+                try (PreparedStatement query = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        query.setObject(i + 1, parameters[i]);
+                    }
+                    try (ResultSet resultSet = query.executeQuery()) {
+                        while (resultSet.next()) {
+                            records.add(toRecord(resultSet));
+                            references.add(new int[]{resultSet.getInt("vehicle_id"), resultSet.getInt("customer_id")});
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("查询租赁记录失败: " + e.getMessage());
+            return new ArrayList<>();
+        }
+        resolveReferences(records, references);
+        return records;
+    }
+
+    /**
+     * 关联记录中的车辆和客户，同一次查询中相同ID的车辆、客户只查一次
+     */
+    private void resolveReferences(List<RentalRecord> records, List<int[]> references) {
+        VehicleRepository vehicles = vehicleRepository;
+        CustomerRepository customers = customerRepository;
+        if (vehicles == null || customers == null) {
+            return;
+        }
+        Map<Integer, Vehicle> vehicleById = new HashMap<>();
+        Map<Integer, Customer> customerById = new HashMap<>();
+        boolean bulk = records.size() > BULK_RESOLVE_THRESHOLD;
+        if (bulk) {
+            for (Vehicle vehicle : vehicles.findAllVehicles()) {
+                vehicleById.put(vehicle.getId(), vehicle);
+            }
+            for (Customer customer : customers.findAllCustomers()) {
+                customerById.put(customer.getId(), customer);
+            }
+        }
+        for (int i = 0; i < records.size(); i++) {
+            int vehicleId = references.get(i)[0];
+            int customerId = references.get(i)[1];
+            if (bulk) {
+                records.get(i).setVehicle(vehicleById.get(vehicleId));
+                records.get(i).setCustomer(customerById.get(customerId));
+            } else {
+                records.get(i).setVehicle(vehicleById.computeIfAbsent(vehicleId,
+                        id -> vehicles.findVehicleById(id).orElse(null)));
+                records.get(i).setCustomer(customerById.computeIfAbsent(customerId,
+                        id -> customers.findCustomerById(id).orElse(null)));
+            }
+        }
+    }
+
+    /**
+     * 分配下一个可用的记录ID
+     * @return 下一个可用的记录ID
+     */
+    @Override
+    public int getNextRecordId() {
+        try {
+            return pool.transaction(connection -> idSequence.nextRange(connection, 1));
+        } catch (SQLException e) {
+            throw new IllegalStateException("分配租赁记录ID失败", e);
+        }
+    }
+
+    /**
+     * 数据保存在数据库中，按需查询，不需要预先加载
+     */
+    @Override
+    public void loadRentalRecords() {
+    }
+
+    /**
+     * 每次修改时已写入数据库，不需要单独保存
+     */
+    @Override
+    public void saveRentalRecords() {
+    }
+
+    private static void bind(PreparedStatement statement, RentalRecord record) throws SQLException {
+        bind(statement,
+                record.getVehicle() != null ? record.getVehicle().getId() : 0,
+                record.getCustomer() != null ? record.getCustomer().getId() : 0,
+                RentalRecordColumns.toEpochDay(record.getRentalDate()),
+                record.getRentalDays(),
+                RentalRecordColumns.toEpochDay(record.getReturnDate()),
+                RentalRecordColumns.toCents(record.getTotalRent()),
+                record.isReturned(),
+                record.getId());
+    }
+
+    /**
+     * 设置插入、更新语句的参数，ID为最后一个参数；没有归还日期时写入NULL
+     */
+    private static void bind(PreparedStatement statement, int vehicleId, int customerId, int rentalDay, int rentalDays,
+                             int returnDay, long rentCents, boolean returned, int id) throws SQLException {
+        statement.setInt(1, vehicleId);
+        statement.setInt(2, customerId);
+        statement.setInt(3, rentalDay);
+        statement.setInt(4, rentalDays);
+        if (returnDay == RentalRecordColumns.NO_DATE) {
+            statement.setNull(5, Types.INTEGER);
+        } else {
+            statement.setInt(5, returnDay);
+        }
+        statement.setLong(6, rentCents);
+        statement.setBoolean(7, returned);
+        statement.setInt(8, id);
+    }
+
+    private static RentalRecord toRecord(ResultSet resultSet) throws SQLException {
+        RentalRecord record = new RentalRecord();
+        record.setId(resultSet.getInt("id"));
+        record.setRentalDate(RentalRecordColumns.toDate(resultSet.getInt("rental_day")));
+        record.setRentalDays(resultSet.getInt("rental_days"));
+        int returnDay = resultSet.getInt("return_day");
+        record.setReturnDate(resultSet.wasNull() ? null : RentalRecordColumns.toDate(returnDay));
+        record.setTotalRent(RentalRecordColumns.toAmount(resultSet.getLong("rent_cents")));
+        record.setReturned(resultSet.getBoolean("returned"));
+        return record;
+    }
+}
@@ -0,0 +1,213 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.model.RentalRecord;
+import com.carrental.repository.CustomerRepository;
+import com.carrental.repository.VehicleRepository;
+import com.carrental.util.Constants;
+import com.carrental.util.IntHashMap;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.RentalStorage;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 按月归档历史的租赁记录数据访问实现类：内存和数据文件中只保留未归还的记录和最近Constants.RENTAL_HOT_MONTHS个月的记录，
+ * 更早的已归还记录在加载时移入按月分区的压缩归档（RentalHistoryArchive），启动时间和内存占用只与近期数据量有关
+ *
+ * 按ID、车辆或客户查询时先查近期数据，再读取可能包含结果的归档分区；查询全部记录时读取所有分区
+ * 归档记录只读：查询返回的是新建的对象，updateRentalRecord()对归档记录返回false
+ */
+public class RentalRecordRepositoryPartitionedImpl extends RentalRecordRepositoryFileImpl {
+    private final RentalStorage storage; // 近期数据文件的存储格式
+    private final String textFilePath; // 二进制存储时迁移来源的文本文件路径
+    private final RentalHistoryArchive archive; // 归档分区
+    private VehicleRepository vehicleRepository; // 车辆仓库引用，读取归档记录时关联车辆
+    private CustomerRepository customerRepository; // 客户仓库引用，读取归档记录时关联客户
+
+    /**
+     * 构造方法
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public RentalRecordRepositoryPartitionedImpl(PersistenceScheduler scheduler) {
+        this(Constants.DATA_DIR, Constants.RENTAL_STORAGE, scheduler);
+    }
+
+    /**
+     * 构造方法，数据文件和归档目录位于指定目录
+     * @param dataDir 数据文件目录
+     * @param storage 近期数据文件的存储格式
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public RentalRecordRepositoryPartitionedImpl(String dataDir, RentalStorage storage, PersistenceScheduler scheduler) {
+        super(dataDir, storage == RentalStorage.BINARY ? Constants.RENTAL_BINARY_FILE_NAME : Constants.RENTAL_FILE_NAME,
+                scheduler);
+        this.storage = storage;
+        this.textFilePath = dataDir + "/" + Constants.RENTAL_FILE_NAME;
+        this.archive = new RentalHistoryArchive(dataDir + "/" + Constants.RENTAL_ARCHIVE_DIR_NAME,
+                Constants.RENTAL_ARCHIVE_CACHE_RECORDS);
+    }
+
+    @Override
+    public synchronized void setRepository(VehicleRepository vehicleRepository, CustomerRepository customerRepository) {
+        this.vehicleRepository = vehicleRepository;
+        this.customerRepository = customerRepository;
+        super.setRepository(vehicleRepository, customerRepository);
+    }
+
+    /**
+     * 读取数据文件，把已移出热窗口的已归还记录写入归档，再用剩余记录重写数据文件
+     * 归档失败时保留全部记录，下次加载时重试
+     */
+    @Override
+    protected RentalRecordColumns readColumns() throws IOException {
+        RentalRecordColumns columns = storage == RentalStorage.BINARY
+                ? RentalRecordBinaryFormat.readOrMigrate(getFilePath(), textFilePath)
+                : RentalRecordTextFormat.read(getFilePath());
+        // 序列不能落后于已归档的记录
+        getIdSequence().recover(archive.getMaxId());
+
+        RentalRecordColumns hot;
+        try {
+            hot = archive.archive(columns, hotWindowStart());
+        } catch (IOException e) {
+            System.err.println("归档租赁记录失败: " + archive.getDir());
+            e.printStackTrace();
+            return columns;
+        }
+        if (hot != columns) {
+            writeColumns(hot);
+            System.out.println("已将" + (columns.size() - hot.size()) + "条租赁记录归档到" + archive.getDir());
+        }
+        return hot;
+    }
+
+    @Override
+    protected void writeColumns(RentalRecordColumns columns) throws IOException {
+        if (storage == RentalStorage.BINARY) {
+            RentalRecordBinaryFormat.write(getFilePath(), columns);
+        } else {
+            RentalRecordTextFormat.write(getFilePath(), columns);
+        }
+    }
+
+    /**
+     * @return 热窗口起点：往前数RENTAL_HOT_MONTHS个月（含当月）的第一天
+     */
+    private static int hotWindowStart() {
+        return (int) LocalDate.now().withDayOfMonth(1).minusMonths(Constants.RENTAL_HOT_MONTHS - 1).toEpochDay();
+    }
+
+    @Override
+    public synchronized Optional<RentalRecord> findRentalRecordById(int id) {
+        Optional<RentalRecord> record = super.findRentalRecordById(id);
+        if (record.isPresent()) {
+            return record;
+        }
+        try {
+            List<RentalRecord> archived = collectArchived(archive.readSegmentsContainingId(id),
+                    (columns, row) -> columns.getId(row) == id);
+            return archived.isEmpty() ? Optional.empty() : Optional.of(archived.get(0));
+        } catch (IOException e) {
+            return archiveReadFailed(e).stream().findFirst();
+        }
+    }
+
+    /**
+     * 查询所有租赁记录，读取全部归档分区
+     * @return 归档记录在前、近期记录在后
+     */
+    @Override
+    public synchronized List<RentalRecord> findAllRentalRecords() {
+        List<RentalRecord> result;
+        try {
+            result = collectArchived(archive.readAllSegments(), (columns, row) -> true);
+        } catch (IOException e) {
+            result = archiveReadFailed(e);
+        }
+        result.addAll(super.findAllRentalRecords());
+        return result;
+    }
+
+    @Override
+    public synchronized List<RentalRecord> findRentalRecordsByVehicleId(int vehicleId) {
+        List<RentalRecord> result;
+        try {
+            result = collectArchived(archive.readSegmentsWithVehicle(vehicleId),
+                    (columns, row) -> columns.getVehicleId(row) == vehicleId);
+        } catch (IOException e) {
+            result = archiveReadFailed(e);
+        }
+        result.addAll(super.findRentalRecordsByVehicleId(vehicleId));
+        return result;
+    }
+
+    @Override
+    public synchronized List<RentalRecord> findRentalRecordsByCustomerId(int customerId) {
+        List<RentalRecord> result;
+        try {
+            result = collectArchived(archive.readSegmentsWithCustomer(customerId),
+                    (columns, row) -> columns.getCustomerId(row) == customerId);
+        } catch (IOException e) {
+            result = archiveReadFailed(e);
+        }
+        result.addAll(super.findRentalRecordsByCustomerId(customerId));
+        return result;
+    }
+
+    private List<RentalRecord> archiveReadFailed(IOException e) {
+        System.err.println("读取归档分区失败: " + archive.getDir());
+        e.printStackTrace();
+        return new ArrayList<>();
+    }
+
+    /**
+     * 分区中的行过滤条件
+     */
+    private interface RowFilter {
+        boolean test(RentalRecordColumns columns, int row);
+    }
+
+    /**
+     * 取出各分区中满足条件的记录并创建对象
+     * 加载中断时同一记录可能既在近期数据中又在归档中，或在多个分区中，此时以近期数据、后写入的分区为准
+     */
+    private List<RentalRecord> collectArchived(List<RentalRecordColumns> segments, RowFilter filter) {
+        IntHashMap<RentalRecord> records = new IntHashMap<>();
+        for (RentalRecordColumns columns : segments) {
+            for (int row = 0; row < columns.size(); row++) {
+                if (filter.test(columns, row) && !super.findRentalRecordById(columns.getId(row)).isPresent()) {
+                    records.put(columns.getId(row), toRecord(columns, row));
+                }
+            }
+        }
+        return records.values();
+    }
+
+    private RentalRecord toRecord(RentalRecordColumns columns, int row) {
+        RentalRecord record = new RentalRecord();
+        record.setId(columns.getId(row));
+        record.setRentalDate(RentalRecordColumns.toDate(columns.getRentalDay(row)));
+        record.setRentalDays(columns.getPlannedDays(row));
+        record.setReturnDate(RentalRecordColumns.toDate(columns.getReturnDay(row)));
+        record.setTotalRent(RentalRecordColumns.toAmount(columns.getRentCents(row)));
+        record.setReturned(columns.isReturned(row));
+        if (vehicleRepository != null) {
+            record.setVehicle(vehicleRepository.findVehicleById(columns.getVehicleId(row)).orElse(null));
+        }
+        if (customerRepository != null) {
+            record.setCustomer(customerRepository.findCustomerById(columns.getCustomerId(row)).orElse(null));
+        }
+        return record;
+    }
+
+    /**
+     * @return 已归档的记录数
+     */
+    public synchronized int getArchivedCount() {
+        return archive.size();
+    }
+}
@@ -0,0 +1,99 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.util.AtomicFileWriter;
+import com.carrental.util.RecordReader;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * 租赁记录文本格式，每行一条记录
+ * 格式：ID,车辆ID,客户ID,租赁日期,归还日期,总租金,状态,租赁天数
+ * 日期为yyyy-MM-dd，未归还时归还日期为null；总租金保留两位小数；状态为已归还或未归还；
+ * 租赁天数是后来增加的字段，旧文件中没有时按0（未知）读取
+ */
+public final class RentalRecordTextFormat {
+    private static final String NULL_DATE = "null";
+    private static final String STATUS_RETURNED = "已归还";
+    private static final String STATUS_UNRETURNED = "未归还";
+
+    private RentalRecordTextFormat() {
+    }
+
+    /**
+     * 读取文本格式的租赁记录，跳过格式错误的行
+     * @param filePath 文件路径，文件不存在时返回空结果
+     * @return 按文件顺序排列的记录
+     * @throws IOException 读取失败
+     */
+    public static RentalRecordColumns read(String filePath) throws IOException {
+        RentalRecordColumns columns = new RentalRecordColumns();
+        try (RecordReader reader = new RecordReader(filePath)) {
+            while (reader.next()) {
+                if (reader.fieldCount() < 7) {
+                    continue;
+                }
+                try {
+                    columns.add(reader.getInt(0), reader.getInt(1), reader.getInt(2),
+                            reader.getEpochDay(3),
+                            reader.fieldCount() > 7 ? reader.getInt(7) : 0,
+                            reader.fieldEquals(4, NULL_DATE) ? RentalRecordColumns.NO_DATE : reader.getEpochDay(4),
+                            RentalRecordColumns.toCents(reader.getDouble(5)),
+                            reader.fieldEquals(6, STATUS_RETURNED));
+                } catch (NumberFormatException e) {
+                    System.err.println("解析租赁记录数据失败: " + reader.line());
+                }
+            }
+            reader.verify();
+        }
+        return columns;
+    }
+
+    /**
+     * 以文本格式写入租赁记录，整个文件原子替换
+     * @param filePath 文件路径
+     * @param columns 记录
+     * @throws IOException 写入失败，原文件保持不变
+     */
+    public static void write(String filePath, RentalRecordColumns columns) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        try (AtomicFileWriter writer = new AtomicFileWriter(filePath)) {
+            for (int i = 0; i < columns.size(); i++) {
+                line.setLength(0);
+                line.append(columns.getId(i)).append(',')
+                        .append(columns.getVehicleId(i)).append(',')
+                        .append(columns.getCustomerId(i)).append(',');
+                appendDate(line, columns.getRentalDay(i));
+                line.append(',');
+                appendDate(line, columns.getReturnDay(i));
+                line.append(',');
+                appendAmount(line, columns.getRentCents(i));
+                line.append(',').append(columns.isReturned(i) ? STATUS_RETURNED : STATUS_UNRETURNED);
+                line.append(',').append(columns.getPlannedDays(i));
+                writer.writeLine(line.toString());
+            }
+            writer.commit();
+        }
+    }
+
+    private static void appendDate(StringBuilder line, int epochDay) {
+        if (epochDay == RentalRecordColumns.NO_DATE) {
+            line.append(NULL_DATE);
+        } else {
+            line.append(LocalDate.ofEpochDay(epochDay));
+        }
+    }
+
+    private static void appendAmount(StringBuilder line, long cents) {
+        if (cents < 0) {
+            line.append('-');
+            cents = -cents;
+        }
+        line.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+}
@@ -0,0 +1,177 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.model.Reservation;
+import com.carrental.repository.ReservationRepository;
+import com.carrental.util.Constants;
+import com.carrental.util.FileUtil;
+import com.carrental.util.IdSequence;
+import com.carrental.util.IntHashMap;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.RecordReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 预约数据访问实现类，使用文件存储预约数据
+ * 公开方法对本对象加锁，可被多个线程并发调用
+ */
+public class ReservationRepositoryFileImpl implements ReservationRepository {
+    private final String filePath; // 预约数据文件路径
+    private final IntHashMap<Reservation> reservations; // 预约ID到预约的映射，按添加顺序遍历
+    private final IdSequence idSequence; // 预约ID序列
+    private final PersistenceScheduler.Target persistence; // 持久化目标，修改后标记待保存
+
+    /**
+     * 构造方法，加载文件中的数据，每次修改立即保存
+     */
+    public ReservationRepositoryFileImpl() {
+        this(PersistenceScheduler.sync());
+    }
+
+    /**
+     * 构造方法，加载文件中的数据
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public ReservationRepositoryFileImpl(PersistenceScheduler scheduler) {
+        this(Constants.DATA_DIR, scheduler);
+    }
+
+    /**
+     * 构造方法，加载指定目录中的数据
+     * @param dataDir 数据文件目录
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public ReservationRepositoryFileImpl(String dataDir, PersistenceScheduler scheduler) {
+        this.filePath = dataDir + "/" + Constants.RESERVATION_FILE_NAME;
+        this.reservations = new IntHashMap<>();
+        this.persistence = scheduler.register(filePath, this::saveReservations);
+        this.idSequence = new IdSequence(dataDir + "/" + Constants.RESERVATION_SEQUENCE_FILE_NAME);
+        loadReservations();
+    }
+
+    /**
+     * 添加预约
+     * @param reservation 预约对象
+     * @return 添加是否成功
+     */
+    @Override
+    public synchronized boolean addReservation(Reservation reservation) {
+        if (reservation != null) {
+            // 设置预约ID，ID无法分配时添加失败
+            try {
+                reservation.setId(getNextReservationId());
+            } catch (IllegalStateException e) {
+                System.err.println(e.getMessage());
+                return false;
+            }
+            reservations.put(reservation.getId(), reservation);
+            persistence.markDirty(); // 标记待保存，由调度器写入文件
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 删除预约
+     * @param id 预约ID
+     * @return 删除是否成功
+     */
+    @Override
+    public synchronized boolean deleteReservation(int id) {
+        if (reservations.remove(id) != null) {
+            persistence.markDirty(); // 标记待保存，由调度器写入文件
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 根据ID查询预约
+     * @param id 预约ID
+     * @return 预约对象，如果不存在则返回Optional.empty()
+     */
+    @Override
+    public synchronized Optional<Reservation> findReservationById(int id) {
+        return Optional.ofNullable(reservations.get(id));
+    }
+
+    /**
+     * 查询所有预约
+     * @return 所有预约列表
+     */
+    @Override
+    public synchronized List<Reservation> findAllReservations() {
+        return reservations.values();
+    }
+
+    /**
+     * 分配下一个可用的预约ID
+     * @return 下一个可用的预约ID
+     */
+    @Override
+    public int getNextReservationId() {
+        return idSequence.next();
+    }
+
+    /**
+     * 从文件加载预约数据
+     */
+    @Override
+    public synchronized void loadReservations() {
+        reservations.clear();
+        int maxId = 0;
+
+        try (RecordReader reader = new RecordReader(filePath)) {
+            while (reader.next()) {
+                try {
+                    // 解析预约数据
+                    // 格式：ID,车辆ID,客户ID,开始日期,天数
+                    if (reader.fieldCount() >= 5) {
+                        int id = reader.getInt(0);
+                        Reservation reservation = new Reservation(id, reader.getInt(1), reader.getInt(2),
+                                reader.getDate(3), reader.getInt(4));
+                        reservations.put(id, reservation);
+                        maxId = Math.max(maxId, id);
+                    }
+                } catch (NumberFormatException e) {
+                    System.err.println("解析预约数据失败: " + reader.line());
+                }
+            }
+            reader.verify();
+        } catch (IOException e) {
+            // 不加载部分内容，避免之后保存时覆盖原文件
+            throw new UncheckedIOException("读取文件失败: " + filePath, e);
+        }
+
+        // 序列不能落后于已有数据（例如序列文件丢失时）
+        idSequence.recover(maxId);
+    }
+
+    /**
+     * 将预约数据保存到文件
+     */
+    @Override
+    public synchronized void saveReservations() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        List<String> lines = new ArrayList<>();
+
+        // 将所有预约转换为字符串格式
+        for (Reservation reservation : reservations) {
+            String line = String.format("%d,%d,%d,%s,%d",
+                    reservation.getId(),
+                    reservation.getVehicleId(),
+                    reservation.getCustomerId(),
+                    dateFormat.format(reservation.getStartDate()),
+                    reservation.getDays());
+            lines.add(line);
+        }
+
+        // 写入文件
+        FileUtil.requireWritten(FileUtil.writeLines(filePath, lines), filePath);
+    }
+}
@@ -4,21 +4,47 @@ import com.carrental.model.User;
 import com.carrental.repository.UserRepository;
 import com.carrental.util.Constants;
 import com.carrental.util.FileUtil;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.RecordReader;
 
-
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 用户数据访问实现类，使用文件存储用户数据
+ * 用户映射使用ConcurrentHashMap，可被多个线程并发调用
  */
 public class UserRepositoryImpl implements UserRepository {
+    private final String filePath; // 用户数据文件路径
     private Map<String, User> userMap; // 用户名到用户对象的映射，用于快速查找
+    private final PersistenceScheduler.Target persistence; // 持久化目标，修改后标记待保存
     
     /**
-     * 构造方法，初始化用户数据映射并加载文件中的数据
+     * 构造方法，初始化用户数据映射并加载文件中的数据，每次修改立即保存
      */
     public UserRepositoryImpl() {
-        this.userMap = new HashMap<>();
+        this(PersistenceScheduler.sync());
+    }
+
+    /**
+     * 构造方法，初始化用户数据映射并加载文件中的数据
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public UserRepositoryImpl(PersistenceScheduler scheduler) {
+        this(Constants.DATA_DIR, scheduler);
+    }
+
+    /**
+     * 构造方法，初始化用户数据映射并加载指定目录中的数据
+     * @param dataDir 数据文件目录
+     * @param scheduler 持久化调度器，决定修改何时写入文件
+     */
+    public UserRepositoryImpl(String dataDir, PersistenceScheduler scheduler) {
+        this.filePath = dataDir + "/" + Constants.USER_FILE_NAME;
+        this.userMap = new ConcurrentHashMap<>();
+        this.persistence = scheduler.register(filePath, this::saveUsers);
         loadUsers();
         
         // 如果没有用户数据，添加默认管理员账户
@@ -51,11 +77,10 @@ public class UserRepositoryImpl implements UserRepository {
      */
     @Override
     public boolean addUser(User user) {
-        if (userMap.containsKey(user.getUsername())) {
+        if (userMap.putIfAbsent(user.getUsername(), user) != null) {
             return false; // 用户名已存在
         }
-        userMap.put(user.getUsername(), user);
-        saveUsers(); // 自动保存到文件
+        persistence.markDirty(); // 标记待保存，由调度器写入文件
         return true;
     }
     /**
@@ -65,11 +90,10 @@ public class UserRepositoryImpl implements UserRepository {
      */
     @Override
     public boolean updateUser(User user) {
-        if (!userMap.containsKey(user.getUsername())) {
+        if (userMap.replace(user.getUsername(), user) == null) {
             return false; // 用户不存在
         }
-        userMap.put(user.getUsername(), user);
-        saveUsers(); // 自动保存到文件
+        persistence.markDirty(); // 标记待保存，由调度器写入文件
         return true;
     }
     /**
@@ -81,7 +105,8 @@ public class UserRepositoryImpl implements UserRepository {
     @Override
     public boolean deleteUser(User currentUser, String username) {
         // 检查要删除的用户是否存在
-        if (!userMap.containsKey(username)) {
+        User userToDelete = userMap.get(username);
+        if (userToDelete == null) {
             return false; // 用户不存在
         }
         
@@ -91,14 +116,15 @@ public class UserRepositoryImpl implements UserRepository {
         }
         
         // 检查要删除的用户是否是ADMIN角色（ADMIN用户不可以被删除）
-        User userToDelete = userMap.get(username);
         if ("ADMIN".equals(userToDelete.getRole())) {
             return false; // ADMIN用户不能被删除
         }
         
-        // 执行删除操作
-        userMap.remove(username);
-        saveUsers(); // 自动保存到文件
+        // 执行删除操作（期间被其他线程修改过则不删除）
+        if (!userMap.remove(username, userToDelete)) {
+            return false;
+        }
+        persistence.markDirty(); // 标记待保存，由调度器写入文件
         return true;
     }
     /**
@@ -114,32 +140,29 @@ public class UserRepositoryImpl implements UserRepository {
      * 从文件加载用户数据
      */
     @Override
-    public void loadUsers() {
-        List<String> lines = FileUtil.readLines(Constants.USER_FILE_PATH);
+    public synchronized void loadUsers() {
         userMap.clear();
         
-        for (String line : lines) {
-            // 跳过空行
-            if (line.trim().isEmpty()) {
-                continue;
-            }
-            
-            // 解析用户数据，格式：用户名,密码,角色
-            String[] parts = line.split(",");
-            if (parts.length >= 3) {
-                String username = parts[0];
-                String password = parts[1];
-                String role = parts[2];
-                User user = new User(username, password, role);
-                userMap.put(username, user);
+        try (RecordReader reader = new RecordReader(filePath)) {
+            while (reader.next()) {
+                // 解析用户数据，格式：用户名,密码,角色
+                if (reader.fieldCount() >= 3) {
+                    String username = reader.getString(0);
+                    User user = new User(username, reader.getString(1), reader.getString(2));
+                    userMap.put(username, user);
+                }
             }
+            reader.verify();
+        } catch (IOException e) {
+            // 不加载部分内容，避免之后保存时覆盖原文件
+            throw new UncheckedIOException("读取文件失败: " + filePath, e);
         }
     }
     /**
      * 将用户数据保存到文件
      */
     @Override
-    public void saveUsers() {
+    public synchronized void saveUsers() {
         List<String> lines = new ArrayList<>();
         
         // 将所有用户转换为字符串格式
@@ -149,7 +172,7 @@ public class UserRepositoryImpl implements UserRepository {
         }
         
         // 写入文件
-        FileUtil.writeLines(Constants.USER_FILE_PATH, lines);
+        FileUtil.requireWritten(FileUtil.writeLines(filePath, lines), filePath);
     }
     
 }
\ No newline at end of file
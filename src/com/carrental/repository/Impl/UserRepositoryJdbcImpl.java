@@ -0,0 +1,222 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.model.User;
+import com.carrental.repository.UserRepository;
+import com.carrental.util.Constants;
+import com.carrental.util.JdbcConnectionPool;
+import com.carrental.util.PersistenceScheduler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 用户数据访问实现类，使用嵌入式数据库存储用户数据
+ * 每次修改只写入对应的行，并发控制由数据库负责
+ */
+public class UserRepositoryJdbcImpl implements UserRepository {
+    private static final String SELECT = "SELECT username, password, role FROM users";
+
+    private final JdbcConnectionPool pool; // 数据库连接池
+
+    /**
+     * 构造方法，表不存在时创建，表为空时从默认数据目录的用户文件迁移
+     * @param pool 数据库连接池
+     */
+    public UserRepositoryJdbcImpl(JdbcConnectionPool pool) {
+        this(pool, Constants.DATA_DIR);
+    }
+
+    /**
+     * 构造方法，表不存在时创建，表为空时从指定数据目录的用户文件迁移
+     * @param pool 数据库连接池
+     * @param dataDir 迁移时读取的数据文件目录
+     */
+    public UserRepositoryJdbcImpl(JdbcConnectionPool pool, String dataDir) {
+        this.pool = pool;
+        try {
+            boolean empty = pool.execute(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE IF NOT EXISTS users ("
+                            + "username VARCHAR(50) PRIMARY KEY, password VARCHAR(100) NOT NULL, role VARCHAR(20) NOT NULL)");
+                    try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+                        return resultSet.next() && resultSet.getInt(1) == 0;
+                    }
+                }
+            });
+            if (empty) {
+                migrateFromFile(dataDir);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("初始化用户数据表失败", e);
+        }
+    }
+
+    /**
+     * 首次使用数据库时导入用户文件中的数据（没有数据文件时为默认管理员账户）
+     */
+    private void migrateFromFile(String dataDir) throws SQLException {
+        List<User> users = new UserRepositoryImpl(dataDir, PersistenceScheduler.sync()).findAllUsers();
+        pool.transaction(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO users (username, password, role) VALUES (?, ?, ?)")) {
+                for (User user : users) {
+                    insert.setString(1, user.getUsername());
+                    insert.setString(2, user.getPassword());
+                    insert.setString(3, user.getRole());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            return null;
+        });
+        System.out.println("已从数据文件迁移" + users.size() + "个用户到数据库");
+    }
+
+    /**
+     * 根据用户名查找用户
+     * @param username 用户名
+     * @return 如果找到用户返回User对象的Optional，否则返回空Optional
+     */
+    @Override
+    public Optional<User> findByUsername(String username) {
+        try {
+            return pool.execute(connection -> findByUsername(connection, username));
+        } catch (SQLException e) {
+            System.err.println("查询用户失败: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<User> findByUsername(Connection connection, String username) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(SELECT + " WHERE username = ?")) {
+            query.setString(1, username);
+            try (ResultSet resultSet = query.executeQuery()) {
+                return resultSet.next() ? Optional.of(toUser(resultSet)) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * 添加用户
+     * @param user 用户对象
+     * @return 添加成功返回true，用户名已存在时返回false
+     */
+    @Override
+    public boolean addUser(User user) {
+        try {
+            return pool.transaction(connection -> {
+                if (findByUsername(connection, user.getUsername()).isPresent()) {
+                    return false; // 用户名已存在
+                }
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO users (username, password, role) VALUES (?, ?, ?)")) {
+                    insert.setString(1, user.getUsername());
+                    insert.setString(2, user.getPassword());
+                    insert.setString(3, user.getRole());
+                    return insert.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("添加用户失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 更新用户信息
+     * @param user 用户对象
+     * @return 更新成功返回true，用户不存在时返回false
+     */
+    @Override
+    public boolean updateUser(User user) {
+        try {
+            return pool.execute(connection -> {
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE users SET password = ?, role = ? WHERE username = ?")) {
+                    update.setString(1, user.getPassword());
+                    update.setString(2, user.getRole());
+                    update.setString(3, user.getUsername());
+                    return update.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("更新用户失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 删除用户，只有ADMIN可以删除用户，ADMIN用户不能被删除
+     * @param currentUser 当前登录用户
+     * @param username 要删除的用户名
+     * @return 删除成功返回true，否则返回false
+     */
+    @Override
+    public boolean deleteUser(User currentUser, String username) {
+        if (!"ADMIN".equals(currentUser.getRole())) {
+            return false; // 非ADMIN用户不能删除用户
+        }
+        try {
+            return pool.transaction(connection -> {
+                Optional<User> userToDelete = findByUsername(connection, username);
+                if (!userToDelete.isPresent() || "ADMIN".equals(userToDelete.get().getRole())) {
+                    return false; // 用户不存在或是ADMIN用户
+                }
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM users WHERE username = ?")) {
+                    delete.setString(1, username);
+                    return delete.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("删除用户失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 查询所有用户
+     * @return 所有用户列表
+     */
+    @Override
+    public List<User> findAllUsers() {
+        try {
+            return pool.execute(connection -> {
+                List<User> users = new ArrayList<>();
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(SELECT + " ORDER BY username")) {
+                    while (resultSet.next()) {
+                        users.add(toUser(resultSet));
+                    }
+                }
+                return users;
+            });
+        } catch (SQLException e) {
+            System.err.println("查询用户失败: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 数据保存在数据库中，按需查询，不需要预先加载
+     */
+    @Override
+    public void loadUsers() {
+    }
+
+    /**
+     * 每次修改时已写入数据库，不需要单独保存
+     */
+    @Override
+    public void saveUsers() {
+    }
+
+    private static User toUser(ResultSet resultSet) throws SQLException {
+        return new User(resultSet.getString("username"), resultSet.getString("password"), resultSet.getString("role"));
+    }
+}
@@ -7,20 +7,74 @@ import com.carrental.model.Vehicle;
 import com.carrental.repository.VehicleRepository;
 import com.carrental.util.Constants;
 import com.carrental.util.FileUtil;
+import com.carrental.util.IdSequence;
+import com.carrental.util.IntHashMap;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.RecordReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * 车辆数据访问实现类，使用文件存储车辆数据
+ * 公开方法对本对象加锁，主键索引与各辅助索引一起更新，可被多个线程并发调用
  */
 public class VehicleRepositoryFileImpl implements VehicleRepository {
-    private List<Vehicle> vehicles; // 车辆列表
+    // 变更日志条目前缀：U表示新增或更新（后接完整车辆行），D表示删除（后接车辆ID）
+    private static final String JOURNAL_UPDATE = "U,";
+    private static final String JOURNAL_DELETE = "D,";
+    private final String filePath; // 车辆数据文件路径
+    private final String journalFilePath; // 变更日志文件路径
+    private final String compactingJournalFilePath; // 正在合并的变更日志文件路径
+    private IntHashMap<Vehicle> vehicles; // 车辆ID到车辆的映射，按添加顺序遍历
+    private final IdSequence idSequence; // 车辆ID序列
+    private BitSet availableVehicles; // 可出租车辆的ID位图
+    private Map<String, BitSet> availableByType; // 按类型划分的可出租车辆ID位图
+    private int bitBase; // 位图下标0对应的车辆ID，网点的车辆ID从其ID段起点开始，位图只为本段分配空间
+    private int journalEntries; // 自上次快照以来变更日志中的条目数
+    private boolean compacting; // 是否正在后台合并快照
+    private ExecutorService compactExecutor; // 后台合并快照的线程
+    private final Object snapshotLock = new Object(); // 保证快照按生成顺序写入
+    private long snapshotVersion; // 最近一次生成的快照版本
+    private long writtenSnapshotVersion; // 最近一次写入文件的快照版本
+    private List<String> pendingJournal; // 尚未写入文件的变更日志条目
+    private final PersistenceScheduler.Target persistence; // 持久化目标，有待写入的变更日志时标记
 
     /**
-     * 构造方法，初始化车辆列表并加载文件中的数据
+     * 构造方法，初始化车辆列表并加载文件中的数据，每次修改立即写入变更日志
      */
     public VehicleRepositoryFileImpl() {
-        this.vehicles = new ArrayList<>();
+        this(PersistenceScheduler.sync());
+    }
+
+    /**
+     * 构造方法，初始化车辆列表并加载文件中的数据
+     * @param scheduler 持久化调度器，决定变更日志何时写入文件
+     */
+    public VehicleRepositoryFileImpl(PersistenceScheduler scheduler) {
+        this(Constants.DATA_DIR, scheduler);
+    }
+
+    /**
+     * 构造方法，初始化车辆列表并加载指定目录中的数据
+     * @param dataDir 数据文件目录
+     * @param scheduler 持久化调度器，决定变更日志何时写入文件
+     */
+    public VehicleRepositoryFileImpl(String dataDir, PersistenceScheduler scheduler) {
+        this.filePath = dataDir + "/" + Constants.VEHICLE_FILE_NAME;
+        this.journalFilePath = dataDir + "/" + Constants.VEHICLE_JOURNAL_FILE_NAME;
+        this.compactingJournalFilePath = journalFilePath + ".compacting";
+        this.vehicles = new IntHashMap<>();
+        this.pendingJournal = new ArrayList<>();
+        this.persistence = scheduler.register(filePath, this::flushJournal);
+        this.idSequence = new IdSequence(dataDir + "/" + Constants.VEHICLE_SEQUENCE_FILE_NAME);
+        this.bitBase = idSequence.current() / Constants.BRANCH_ID_BLOCK * Constants.BRANCH_ID_BLOCK;
+        this.availableVehicles = new BitSet();
+        this.availableByType = new HashMap<>();
         loadVehicles();
         
         // 如果没有车辆数据，添加一些示例车辆
@@ -98,27 +152,59 @@ public class VehicleRepositoryFileImpl implements VehicleRepository {
      * @return 添加是否成功
      */
     @Override
-    public boolean addVehicle(Vehicle vehicle) {
-        // 设置车辆ID
-        vehicle.setId(getNextVehicleId());
-        vehicles.add(vehicle);
-        saveVehicles(); // 自动保存到文件
+    public synchronized boolean addVehicle(Vehicle vehicle) {
+        // 设置车辆ID，ID段用完时添加失败
+        try {
+            vehicle.setId(getNextVehicleId());
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
+        putVehicle(vehicle);
+        appendJournal(JOURNAL_UPDATE + formatVehicle(vehicle)); // 追加到变更日志
         return true;
     }
 
+    /**
+     * 批量添加车辆：一次分配整段ID，变更日志条目一起追加，只标记一次待写入
+     * @param newVehicles 车辆列表
+     * @return 添加的车辆数
+     */
+    @Override
+    public synchronized int addVehicles(List<Vehicle> newVehicles) {
+        if (newVehicles.isEmpty()) {
+            return 0;
+        }
+        int id;
+        try {
+            id = idSequence.nextRange(newVehicles.size());
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return 0;
+        }
+        for (Vehicle vehicle : newVehicles) {
+            vehicle.setId(id++);
+            putVehicle(vehicle);
+            pendingJournal.add(JOURNAL_UPDATE + formatVehicle(vehicle));
+        }
+        persistence.markDirty();
+        journalEntries += newVehicles.size();
+        if (journalEntries >= Constants.VEHICLE_JOURNAL_COMPACT_THRESHOLD && !compacting) {
+            scheduleCompaction();
+        }
+        return newVehicles.size();
+    }
+
     /**
      * 删除车辆
      * @param id 车辆ID
      * @return 删除是否成功
      */
     @Override
-    public boolean deleteVehicle(int id) {
-        for (int i = 0; i < vehicles.size(); i++) {
-            if (vehicles.get(i).getId() == id) {
-                vehicles.remove(i);
-                saveVehicles(); // 自动保存到文件
-                return true;
-            }
+    public synchronized boolean deleteVehicle(int id) {
+        if (removeVehicle(id)) {
+            appendJournal(JOURNAL_DELETE + id); // 追加到变更日志
+            return true;
         }
         return false;
     }
@@ -129,27 +215,90 @@ public class VehicleRepositoryFileImpl implements VehicleRepository {
      * @return 更新是否成功
      */
     @Override
-    public boolean updateVehicle(Vehicle updatedVehicle) {
-        for (int i = 0; i < vehicles.size(); i++) {
-            if (vehicles.get(i).getId() == updatedVehicle.getId()) {
-                vehicles.set(i, updatedVehicle);//替换
-                saveVehicles(); // 自动保存到文件
-                return true;
-            }
+    public synchronized boolean updateVehicle(Vehicle updatedVehicle) {
+        if (vehicles.containsKey(updatedVehicle.getId())) {
+            putVehicle(updatedVehicle);//替换
+            appendJournal(JOURNAL_UPDATE + formatVehicle(updatedVehicle)); // 追加到变更日志
+            return true;
         }
         return false;
     }
 
+    /**
+     * 批量更新车辆信息：变更日志条目一起追加，只标记一次待写入
+     * @param updatedVehicles 车辆列表
+     * @return 更新是否成功
+     */
+    @Override
+    public synchronized boolean updateVehicles(List<Vehicle> updatedVehicles) {
+        for (Vehicle vehicle : updatedVehicles) {
+            if (!vehicles.containsKey(vehicle.getId())) {
+                return false;
+            }
+        }
+        if (updatedVehicles.isEmpty()) {
+            return true;
+        }
+        for (Vehicle vehicle : updatedVehicles) {
+            putVehicle(vehicle);
+            pendingJournal.add(JOURNAL_UPDATE + formatVehicle(vehicle));
+        }
+        persistence.markDirty();
+        journalEntries += updatedVehicles.size();
+        if (journalEntries >= Constants.VEHICLE_JOURNAL_COMPACT_THRESHOLD && !compacting) {
+            scheduleCompaction();
+        }
+        return true;
+    }
+
+    /**
+     * 修改车辆的出租状态，状态和可租赁位图在本对象的锁内一起更新
+     * @param id 车辆ID
+     * @param rented 是否已出租
+     * @return 是否修改成功
+     */
+    @Override
+    public synchronized boolean setRented(int id, boolean rented) {
+        Vehicle vehicle = vehicles.get(id);
+        if (vehicle == null || vehicle.isRented() == rented) {
+            return false;
+        }
+        vehicle.setRented(rented);
+        putVehicle(vehicle);
+        appendJournal(JOURNAL_UPDATE + formatVehicle(vehicle));
+        return true;
+    }
+
+    /**
+     * 批量修改车辆的出租状态：先检查全部车辆，再一起修改，变更日志条目一起追加
+     * @param ids 车辆ID列表
+     * @param rented 是否已出租
+     * @return 是否修改成功
+     */
+    @Override
+    public synchronized boolean setRented(List<Integer> ids, boolean rented) {
+        List<Vehicle> changed = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Vehicle vehicle = vehicles.get(id);
+            if (vehicle == null || vehicle.isRented() == rented) {
+                return false;
+            }
+            changed.add(vehicle);
+        }
+        for (Vehicle vehicle : changed) {
+            vehicle.setRented(rented);
+        }
+        return updateVehicles(changed);
+    }
+
     /**
      * 根据ID查询车辆
      * @param id 车辆ID
      * @return 车辆对象，如果不存在则返回Optional.empty()
      */
     @Override
-    public Optional<Vehicle> findVehicleById(int id) {
-        return vehicles.stream()
-                .filter(vehicle -> vehicle.getId() == id)
-                .findFirst();
+    public synchronized Optional<Vehicle> findVehicleById(int id) {
+        return Optional.ofNullable(vehicles.get(id));
     }
 
     /**
@@ -157,8 +306,8 @@ public class VehicleRepositoryFileImpl implements VehicleRepository {
      * @return 所有车辆列表
      */
     @Override
-    public List<Vehicle> findAllVehicles() {
-        return new ArrayList<>(vehicles);
+    public synchronized List<Vehicle> findAllVehicles() {
+        return vehicles.values();
     }
 
     /**
@@ -167,7 +316,7 @@ public class VehicleRepositoryFileImpl implements VehicleRepository {
      * @return 对应类型的车辆列表
      */
     @Override
-    public List<Vehicle> findVehiclesByType(String type) {
+    public synchronized List<Vehicle> findVehiclesByType(String type) {
         return vehicles.stream()
                 .filter(vehicle -> vehicle.getType().equalsIgnoreCase(type))
                 .collect(java.util.stream.Collectors.toList());
@@ -178,10 +327,8 @@ public class VehicleRepositoryFileImpl implements VehicleRepository {
      * @return 可租赁车辆列表
      */
     @Override
-    public List<Vehicle> findAvailableVehicles() {
-        return vehicles.stream()
-                .filter(vehicle -> !vehicle.isRented())
-                .collect(java.util.stream.Collectors.toList());
+    public synchronized List<Vehicle> findAvailableVehicles() {
+        return collectVehicles(availableVehicles);
     }
 
     /**
@@ -190,136 +337,401 @@ public class VehicleRepositoryFileImpl implements VehicleRepository {
      * @return 可租赁的特定类型车辆列表
      */
     @Override
-    public List<Vehicle> findAvailableVehiclesByType(String type) {
-        return vehicles.stream()
-                .filter(vehicle -> !vehicle.isRented() && vehicle.getType().equalsIgnoreCase(type))
-                .collect(java.util.stream.Collectors.toList());
+    public synchronized List<Vehicle> findAvailableVehiclesByType(String type) {
+        BitSet available = availableByType.get(typeKey(type));
+        if (available == null) {
+            return new ArrayList<>();
+        }
+        return collectVehicles(available);
+    }
+
+    /**
+     * 按位图中的ID取出车辆，只访问位图中置位的车辆
+     * @param ids 车辆ID位图
+     * @return 车辆列表，按ID升序
+     */
+    private List<Vehicle> collectVehicles(BitSet ids) {
+        List<Vehicle> result = new ArrayList<>(ids.cardinality());
+        for (int bit = ids.nextSetBit(0); bit >= 0; bit = ids.nextSetBit(bit + 1)) {
+            Vehicle vehicle = vehicles.get(bitBase + bit);
+            if (vehicle != null) {
+                result.add(vehicle);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 放入车辆并更新可出租位图
+     * @param vehicle 车辆对象
+     */
+    private void putVehicle(Vehicle vehicle) {
+        vehicles.put(vehicle.getId(), vehicle);
+        clearAvailability(vehicle.getId());
+        if (!vehicle.isRented()) {
+            if (vehicle.getId() < bitBase) {
+                rebaseBitmaps(vehicle.getId());
+            }
+            int bit = vehicle.getId() - bitBase;
+            availableVehicles.set(bit);
+            availableByType.computeIfAbsent(typeKey(vehicle.getType()), key -> new BitSet()).set(bit);
+        }
+    }
+
+    /**
+     * 车辆ID小于位图起点时（如手工编辑过数据文件）把位图起点移到该ID，重建各位图
+     * @param id 车辆ID
+     */
+    private void rebaseBitmaps(int id) {
+        int shift = bitBase - id;
+        availableVehicles = shifted(availableVehicles, shift);
+        for (Map.Entry<String, BitSet> entry : availableByType.entrySet()) {
+            entry.setValue(shifted(entry.getValue(), shift));
+        }
+        bitBase = id;
+    }
+
+    private static BitSet shifted(BitSet bits, int shift) {
+        BitSet result = new BitSet(bits.length() + shift);
+        for (int bit = bits.nextSetBit(0); bit >= 0; bit = bits.nextSetBit(bit + 1)) {
+            result.set(bit + shift);
+        }
+        return result;
+    }
+
+    /**
+     * 移除车辆并更新可出租位图
+     * @param id 车辆ID
+     * @return 车辆存在并被移除返回true，否则返回false
+     */
+    private boolean removeVehicle(int id) {
+        if (vehicles.remove(id) == null) {
+            return false;
+        }
+        clearAvailability(id);
+        return true;
+    }
+
+    /**
+     * 从所有位图中清除车辆ID
+     * 车辆对象可能已在外部被修改了类型，因此无法只清除原类型的位图；类型只有少数几种，逐个清除即可
+     * @param id 车辆ID
+     */
+    private void clearAvailability(int id) {
+        if (id < bitBase) {
+            return;
+        }
+        int bit = id - bitBase;
+        availableVehicles.clear(bit);
+        for (BitSet available : availableByType.values()) {
+            available.clear(bit);
+        }
+    }
+
+    /**
+     * 位图按类型分组使用的键，与equalsIgnoreCase的比较方式一致
+     * @param type 车辆类型
+     * @return 分组键
+     */
+    private static String typeKey(String type) {
+        return type == null ? "" : type.toLowerCase(Locale.ROOT);
     }
 
     /**
-     * 获取下一个可用的车辆ID
+     * 分配下一个可用的车辆ID
      * @return 下一个可用的车辆ID
      */
     @Override
     public int getNextVehicleId() {
-        // 如果没有车辆，返回1
-        if (vehicles.isEmpty()) {
-            return 1;
-        }
-        
-        // 找到最大的ID，然后加1
-        int maxId = vehicles.stream()
-                .mapToInt(Vehicle::getId)
-                .max()              //避免集合为空时出现 NullPointerException
-                .orElse(0);   //如果 vehicles 为空（OptionalInt 无值），则返回默认值 0
-        
-        return maxId + 1;
+        return idSequence.next();
     }
 
     /**
-     * 从文件加载车辆数据
+     * 从文件加载车辆数据：先读取快照，再按顺序重放变更日志
      */
     @Override
-    public void loadVehicles() {
-        List<String> lines = FileUtil.readLines(Constants.VEHICLE_FILE_PATH);
+    public synchronized void loadVehicles() {
         vehicles.clear();
+        pendingJournal.clear();
+        availableVehicles.clear();
+        availableByType.clear();
         
-        for (String line : lines) {
-            // 跳过空行
-            if (line.trim().isEmpty()) {
-                continue;
-            }
-            
-            // 解析车辆数据
-            // 格式：ID,类型,品牌型号,购买年份,购买价格,日租金,座位数,状态
-            String[] parts = line.split(",");
-            if (parts.length >= 8) {
+        try (RecordReader reader = new RecordReader(filePath)) {
+            while (reader.next()) {
+                if (reader.fieldCount() < 8) {
+                    continue;
+                }
                 try {
-                    int id = Integer.parseInt(parts[0]);
-                    String type = parts[1];
-                    String brandModel = parts[2];
-                    double dailyRent = Double.parseDouble(parts[5]);
-                    int seatingCapacity = Integer.parseInt(parts[6]);
-                    boolean available = Boolean.parseBoolean(parts[7]);
-                    
-                    Vehicle vehicle;
-                    // 根据类型创建不同的车辆对象
-                    switch (type) {
-                        case "轿车":
-                            vehicle = new Car();
-                            // 简单拆分品牌和型号
-                            String[] brandModelParts = brandModel.split(" ", 2);
-                            if (brandModelParts.length > 0) vehicle.setBrand(brandModelParts[0]);
-                            if (brandModelParts.length > 1) vehicle.setModel(brandModelParts[1]);
-                            vehicle.setType(type);
-                            vehicle.setDailyRent(dailyRent);
-                            ((Car)vehicle).setTransmission("自动"); // 默认设置
-                            break;
-                        case "面包车":
-                            vehicle = new Van();
-                            brandModelParts = brandModel.split(" ", 2);
-                            if (brandModelParts.length > 0) vehicle.setBrand(brandModelParts[0]);
-                            if (brandModelParts.length > 1) vehicle.setModel(brandModelParts[1]);
-                            vehicle.setType(type);
-                            vehicle.setDailyRent(dailyRent);
-                            ((Van)vehicle).setLoadCapacity(2.5); // 默认设置
-                            break;
-                        case "巴士":
-                        case "客车":
-                            vehicle = new Bus();
-                            brandModelParts = brandModel.split(" ", 2);
-                            if (brandModelParts.length > 0) vehicle.setBrand(brandModelParts[0]);
-                            if (brandModelParts.length > 1) vehicle.setModel(brandModelParts[1]);
-                            vehicle.setType(type);
-                            vehicle.setDailyRent(dailyRent);
-                            ((Bus)vehicle).setSeats(seatingCapacity);
-                            break;
-                        default:
-                            continue; // 未知类型，跳过
+                    Vehicle vehicle = createVehicle(reader.getInt(0), reader.getString(1), reader.getString(2),
+                            reader.getDouble(5), reader.getInt(6), reader.getBoolean(7));
+                    if (vehicle != null) {
+                        putVehicle(vehicle);
                     }
-                    
-                    vehicle.setId(id);
-                    vehicle.setRented(!available); // isAvailable()对应!isRented()
-                    vehicles.add(vehicle);
-                    
                 } catch (NumberFormatException e) {
-                    System.err.println("解析车辆数据失败: " + line);
+                    System.err.println("解析车辆数据失败: " + reader.line());
                 }
             }
+            reader.verify();
+        } catch (IOException e) {
+            // 不加载部分内容，避免之后保存时覆盖原文件
+            throw new UncheckedIOException("读取文件失败: " + filePath, e);
+        }
+
+        // 上次合并未完成时，旧日志中的变更可能尚未写入快照，需先重放
+        boolean interruptedCompaction = FileUtil.fileExists(compactingJournalFilePath);
+        journalEntries = 0;
+        if (interruptedCompaction) {
+            journalEntries += replayJournal(compactingJournalFilePath);
+        }
+        journalEntries += replayJournal(journalFilePath);
+
+        // 序列不能落后于已有数据（例如序列文件丢失时）
+        int maxId = 0;
+        for (Vehicle vehicle : vehicles) {
+            maxId = Math.max(maxId, vehicle.getId());
+        }
+        idSequence.recover(maxId);
+
+        // 恢复后立即生成新快照，清理残留的日志文件
+        if (interruptedCompaction || journalEntries >= Constants.VEHICLE_JOURNAL_COMPACT_THRESHOLD) {
+            saveVehicles();
+        }
+    }
+
+    /**
+     * 重放变更日志
+     * @param journalPath 日志文件路径
+     * @return 重放的条目数
+     */
+    private int replayJournal(String journalPath) {
+        List<String> entries = FileUtil.readJournal(journalPath); // 末尾写了一半的条目已被丢弃
+        int replayed = 0;
+
+        for (String entry : entries) {
+            if (entry.startsWith(JOURNAL_UPDATE)) {
+                Vehicle vehicle = parseVehicle(entry.substring(JOURNAL_UPDATE.length()));
+                if (vehicle == null) {
+                    continue;
+                }
+                putVehicle(vehicle);
+                replayed++;
+            } else if (entry.startsWith(JOURNAL_DELETE)) {
+                try {
+                    removeVehicle(Integer.parseInt(entry.substring(JOURNAL_DELETE.length()).trim()));
+                    replayed++;
+                } catch (NumberFormatException e) {
+                    System.err.println("解析车辆变更日志失败: " + entry);
+                }
+            } else if (!entry.trim().isEmpty()) {
+                System.err.println("解析车辆变更日志失败: " + entry);
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * 解析一行车辆数据
+     * 格式：ID,类型,品牌型号,购买年份,购买价格,日租金,座位数,状态
+     * @param line 数据行
+     * @return 车辆对象，格式错误或类型未知时返回null
+     */
+    private Vehicle parseVehicle(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 8) {
+            return null;
+        }
+
+        try {
+            return createVehicle(Integer.parseInt(parts[0]), parts[1], parts[2],
+                    Double.parseDouble(parts[5]), Integer.parseInt(parts[6]), Boolean.parseBoolean(parts[7]));
+        } catch (NumberFormatException e) {
+            System.err.println("解析车辆数据失败: " + line);
+            return null;
+        }
+    }
+
+    /**
+     * 根据各字段创建车辆对象
+     * @return 车辆对象，类型未知时返回null
+     */
+    private Vehicle createVehicle(int id, String type, String brandModel, double dailyRent,
+                                  int seatingCapacity, boolean available) {
+        Vehicle vehicle;
+        // 根据类型创建不同的车辆对象
+        switch (type) {
+            case "轿车":
+                vehicle = new Car();
+                // 简单拆分品牌和型号
+                String[] brandModelParts = brandModel.split(" ", 2);
+                if (brandModelParts.length > 0) vehicle.setBrand(brandModelParts[0]);
+                if (brandModelParts.length > 1) vehicle.setModel(brandModelParts[1]);
+                vehicle.setType(type);
+                vehicle.setDailyRent(dailyRent);
+                ((Car)vehicle).setTransmission("自动"); // 默认设置
+                break;
+            case "面包车":
+                vehicle = new Van();
+                brandModelParts = brandModel.split(" ", 2);
+                if (brandModelParts.length > 0) vehicle.setBrand(brandModelParts[0]);
+                if (brandModelParts.length > 1) vehicle.setModel(brandModelParts[1]);
+                vehicle.setType(type);
+                vehicle.setDailyRent(dailyRent);
+                ((Van)vehicle).setLoadCapacity(2.5); // 默认设置
+                break;
+            case "巴士":
+            case "客车":
+                vehicle = new Bus();
+                brandModelParts = brandModel.split(" ", 2);
+                if (brandModelParts.length > 0) vehicle.setBrand(brandModelParts[0]);
+                if (brandModelParts.length > 1) vehicle.setModel(brandModelParts[1]);
+                vehicle.setType(type);
+                vehicle.setDailyRent(dailyRent);
+                ((Bus)vehicle).setSeats(seatingCapacity);
+                break;
+            default:
+                return null; // 未知类型，跳过
+        }
+
+        vehicle.setId(id);
+        vehicle.setRented(!available); // isAvailable()对应!isRented()
+        return vehicle;
+    }
+
+    /**
+     * 将车辆转换为一行数据
+     * @param vehicle 车辆对象
+     * @return 数据行
+     */
+    private String formatVehicle(Vehicle vehicle) {
+        String brandModel = vehicle.getBrand() + " " + vehicle.getModel();
+        //座位默认
+        int seatingCapacity = 0;
+        if (vehicle instanceof Bus) {
+            seatingCapacity = ((Bus)vehicle).getSeats();
+        } else if (vehicle instanceof Van) {
+            seatingCapacity = 9; // 默认值
+        } else if (vehicle instanceof Car) {
+            seatingCapacity = 5; // 默认值
         }
+
+        return String.format("%d,%s,%s,0,0,%.2f,%d,%b",
+                vehicle.getId(),
+                vehicle.getType(),
+                brandModel,
+                vehicle.getDailyRent(),
+                seatingCapacity,
+                !vehicle.isRented()); // isAvailable()对应!isRented()
     }
 
     /**
-     * 将车辆数据保存到文件
+     * 将车辆数据保存到文件：写入完整快照并清空变更日志
      */
     @Override
-    public void saveVehicles() {
+    public synchronized void saveVehicles() {
+        // 写入文件，失败时保留变更日志
+        FileUtil.requireWritten(writeSnapshot(snapshotLines(), snapshotVersion), filePath);
+        pendingJournal.clear(); // 快照已包含所有修改
+        FileUtil.deleteFile(journalFilePath);
+        FileUtil.deleteFile(compactingJournalFilePath);
+        journalEntries = 0;
+    }
+
+    /**
+     * 追加一条变更日志，由持久化调度器决定何时写入文件；超过阈值时触发后台合并
+     * @param entry 日志条目
+     */
+    private void appendJournal(String entry) {
+        pendingJournal.add(entry);
+        persistence.markDirty();
+        journalEntries++;
+        if (journalEntries >= Constants.VEHICLE_JOURNAL_COMPACT_THRESHOLD && !compacting) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * 将待写入的变更日志一次性追加到文件
+     * @throws UncheckedIOException 写入失败，待写入的日志保留到下次重试
+     */
+    private synchronized void flushJournal() {
+        if (pendingJournal.isEmpty()) {
+            return;
+        }
+        FileUtil.requireWritten(FileUtil.appendJournal(journalFilePath, pendingJournal), journalFilePath);
+        pendingJournal.clear();
+    }
+
+    /**
+     * 在后台将当前数据合并为快照
+     * 持锁期间只复制数据并把当前日志改名，写快照在锁外进行，不阻塞新的变更
+     */
+    private void scheduleCompaction() {
+        // 上次合并失败留下的旧日志不能被覆盖，直接同步写快照
+        if (FileUtil.fileExists(compactingJournalFilePath)) {
+            saveVehicles();
+            return;
+        }
+        // 日志条目都还未写入文件时没有日志需要改名，之后写入的条目重放结果与快照一致
+        if (FileUtil.fileExists(journalFilePath) && !FileUtil.renameFile(journalFilePath, compactingJournalFilePath)) {
+            return; // 改名失败时保留日志，下次追加再尝试
+        }
+        final List<String> lines = snapshotLines();
+        final long version = snapshotVersion;
+        compacting = true;
+        journalEntries = 0;
+
+        if (compactExecutor == null) {
+            compactExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "vehicle-journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        compactExecutor.execute(() -> {
+            try {
+                if (writeSnapshot(lines, version)) {
+                    FileUtil.deleteFile(compactingJournalFilePath);
+                }
+            } finally {
+                synchronized (VehicleRepositoryFileImpl.this) {
+                    compacting = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * 生成当前所有车辆的快照数据行
+     * @return 数据行列表
+     */
+    private List<String> snapshotLines() {
         List<String> lines = new ArrayList<>();
-        
+
         // 将所有车辆转换为字符串格式存入
         for (Vehicle vehicle : vehicles) {
-            String brandModel = vehicle.getBrand() + " " + vehicle.getModel();
-            //座位默认
-            int seatingCapacity = 0;
-            if (vehicle instanceof Bus) {
-                seatingCapacity = ((Bus)vehicle).getSeats();
-            } else if (vehicle instanceof Van) {
-                seatingCapacity = 9; // 默认值
-            } else if (vehicle instanceof Car) {
-                seatingCapacity = 5; // 默认值
+            lines.add(formatVehicle(vehicle));
+        }
+        snapshotVersion++;
+        return lines;
+    }
+
+    /**
+     * 写入快照，FileUtil.writeLines保证写到一半时崩溃不会丢失旧快照
+     * 若已有更新版本的快照写入，则跳过旧版本
+     * @param lines 数据行列表
+     * @param version 快照版本
+     * @return 写入是否成功
+     */
+    private boolean writeSnapshot(List<String> lines, long version) {
+        synchronized (snapshotLock) {
+            if (version < writtenSnapshotVersion) {
+                return true;
             }
-            
-            String line = String.format("%d,%s,%s,0,0,%.2f,%d,%b",
-                    vehicle.getId(),
-                    vehicle.getType(),
-                    brandModel,
-                    vehicle.getDailyRent(),
-                    seatingCapacity,
-                    !vehicle.isRented()); // isAvailable()对应!isRented()
-            lines.add(line);
+            if (FileUtil.writeLines(filePath, lines)) {
+                writtenSnapshotVersion = version;
+                return true;
+            }
+            return false;
         }
-        
-        // 写入文件
-        FileUtil.writeLines(Constants.VEHICLE_FILE_PATH, lines);
     }
 }
\ No newline at end of file
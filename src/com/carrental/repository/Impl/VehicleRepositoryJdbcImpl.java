@@ -0,0 +1,459 @@
+package com.carrental.repository.Impl;
+
+import com.carrental.model.Bus;
+import com.carrental.model.Car;
+import com.carrental.model.Van;
+import com.carrental.model.Vehicle;
+import com.carrental.repository.VehicleRepository;
+import com.carrental.util.Constants;
+import com.carrental.util.IdSequence;
+import com.carrental.util.JdbcConnectionPool;
+import com.carrental.util.JdbcIdSequence;
+import com.carrental.util.PersistenceScheduler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 车辆数据访问实现类，使用嵌入式数据库存储车辆数据
+ * 每次修改只写入对应的行（例如租车时只更新一辆车的出租状态），并发控制由数据库负责
+ */
+public class VehicleRepositoryJdbcImpl implements VehicleRepository {
+    private static final String COLUMNS = "id, type, brand, model, daily_rent, rented, seats, load_capacity, transmission";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM vehicles";
+    private static final String INSERT = "INSERT INTO vehicles "
+            + "(type, brand, model, daily_rent, rented, seats, load_capacity, transmission, id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE vehicles SET "
+            + "type = ?, brand = ?, model = ?, daily_rent = ?, rented = ?, seats = ?, load_capacity = ?, transmission = ? "
+            + "WHERE id = ?";
+    private static final String UPDATE_RENTED = "UPDATE vehicles SET rented = ? WHERE id = ? AND rented = ?";
+
+    private final JdbcConnectionPool pool; // 数据库连接池
+    private final JdbcIdSequence idSequence; // 车辆ID序列
+
+    /**
+     * 构造方法，表不存在时创建，表为空时从默认数据目录的车辆文件迁移
+     * @param pool 数据库连接池
+     */
+    public VehicleRepositoryJdbcImpl(JdbcConnectionPool pool) {
+        this(pool, Constants.DATA_DIR);
+    }
+
+    /**
+     * 构造方法，表不存在时创建，表为空时从指定数据目录的车辆文件迁移
+     * @param pool 数据库连接池
+     * @param dataDir 迁移时读取的数据文件目录
+     */
+    public VehicleRepositoryJdbcImpl(JdbcConnectionPool pool, String dataDir) {
+        this.pool = pool;
+        try {
+            this.idSequence = pool.transaction(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE IF NOT EXISTS vehicles ("
+                            + "id INTEGER PRIMARY KEY, type VARCHAR(20) NOT NULL, brand VARCHAR(100), model VARCHAR(100), "
+                            + "daily_rent DOUBLE NOT NULL, rented BOOLEAN NOT NULL, "
+                            + "seats INTEGER, load_capacity DOUBLE, transmission VARCHAR(20))");
+                    // 按类型查询可出租车辆时使用
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_vehicles_type_rented ON vehicles (type, rented)");
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_vehicles_rented ON vehicles (rented)");
+                }
+                return new JdbcIdSequence(connection, "vehicles");
+            });
+            if (isEmpty()) {
+                migrateFromFile(dataDir);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("初始化车辆数据表失败", e);
+        }
+    }
+
+    private boolean isEmpty() throws SQLException {
+        return pool.execute(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM vehicles")) {
+                return resultSet.next() && resultSet.getInt(1) == 0;
+            }
+        });
+    }
+
+    /**
+     * 首次使用数据库时导入车辆文件中的数据（没有数据文件时为示例车辆），保留原有ID
+     */
+    private void migrateFromFile(String dataDir) throws SQLException {
+        List<Vehicle> vehicles = new VehicleRepositoryFileImpl(dataDir, PersistenceScheduler.sync()).findAllVehicles();
+        int lastId = new IdSequence(dataDir + "/" + Constants.VEHICLE_SEQUENCE_FILE_NAME).current();
+        for (Vehicle vehicle : vehicles) {
+            lastId = Math.max(lastId, vehicle.getId());
+        }
+        int maxId = lastId;
+        pool.transaction(connection -> {
+            insertAll(connection, vehicles);
+            idSequence.recover(connection, maxId);
+            return null;
+        });
+        System.out.println("已从数据文件迁移" + vehicles.size() + "辆车到数据库");
+    }
+
+    /**
+     * 添加车辆
+     * @param vehicle 车辆对象
+     * @return 添加是否成功
+     */
+    @Override
+    public boolean addVehicle(Vehicle vehicle) {
+        try {
+            pool.transaction(connection -> {
+                vehicle.setId(idSequence.nextRange(connection, 1));
+                try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                    bind(insert, vehicle);
+                    return insert.executeUpdate();
+                }
+            });
+            return true;
+        } catch (SQLException e) {
+            System.err.println("添加车辆失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 批量添加车辆：一次分配整段ID，在一个事务中批量插入
+     * @param vehicles 车辆列表
+     * @return 添加的车辆数
+     */
+    @Override
+    public int addVehicles(List<Vehicle> vehicles) {
+        if (vehicles.isEmpty()) {
+            return 0;
+        }
+        try {
+            pool.transaction(connection -> {
+                int id = idSequence.nextRange(connection, vehicles.size());
+                for (Vehicle vehicle : vehicles) {
+                    vehicle.setId(id++);
+                }
+                insertAll(connection, vehicles);
+                return null;
+            });
+            return vehicles.size();
+        } catch (SQLException e) {
+            System.err.println("批量添加车辆失败: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static void insertAll(Connection connection, List<Vehicle> vehicles) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (Vehicle vehicle : vehicles) {
+                bind(insert, vehicle);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * 删除车辆
+     * @param id 车辆ID
+     * @return 删除是否成功
+     */
+    @Override
+    public boolean deleteVehicle(int id) {
+        try {
+            return pool.execute(connection -> {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM vehicles WHERE id = ?")) {
+                    delete.setInt(1, id);
+                    return delete.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("删除车辆失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 更新车辆信息，只写入该车辆对应的一行
+     * @param vehicle 车辆对象
+     * @return 更新是否成功
+     */
+    @Override
+    public boolean updateVehicle(Vehicle vehicle) {
+        if (vehicle == null) {
+            return false;
+        }
+        try {
+            return pool.execute(connection -> {
+                try (PreparedStatement update = connection.prepareStatement(UPDATE)) {
+                    bind(update, vehicle);
+                    return update.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("更新车辆失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 批量更新车辆信息：在一个事务中批量更新，有车辆不存在时回滚
+     * @param vehicles 车辆列表
+     * @return 更新是否成功
+     */
+    @Override
+    public boolean updateVehicles(List<Vehicle> vehicles) {
+        if (vehicles.isEmpty()) {
+            return true;
+        }
+        try {
+            return pool.transaction(connection -> {
+                try (PreparedStatement update = connection.prepareStatement(UPDATE)) {
+                    for (Vehicle vehicle : vehicles) {
+                        bind(update, vehicle);
+                        update.addBatch();
+                    }
+                    for (int count : update.executeBatch()) {
+                        if (count == 0) {
+                            connection.rollback(); // 有车辆不存在，整批不更新
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("批量更新车辆失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 修改车辆的出租状态，只在原状态不同时更新该行
+     * @param id 车辆ID
+     * @param rented 是否已出租
+     * @return 是否修改成功
+     */
+    @Override
+    public boolean setRented(int id, boolean rented) {
+        try {
+            return pool.execute(connection -> {
+                try (PreparedStatement update = connection.prepareStatement(UPDATE_RENTED)) {
+                    bindRented(update, id, rented);
+                    return update.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("更新车辆失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 批量修改车辆的出租状态：在一个事务中批量更新，有车辆不存在或原状态相同时回滚
+     * @param ids 车辆ID列表
+     * @param rented 是否已出租
+     * @return 是否修改成功
+     */
+    @Override
+    public boolean setRented(List<Integer> ids, boolean rented) {
+        if (ids.isEmpty()) {
+            return true;
+        }
+        try {
+            return pool.transaction(connection -> {
+                try (PreparedStatement update = connection.prepareStatement(UPDATE_RENTED)) {
+                    for (int id : ids) {
+                        bindRented(update, id, rented);
+                        update.addBatch();
+                    }
+                    for (int count : update.executeBatch()) {
+                        if (count == 0) {
+                            connection.rollback(); // 有车辆不存在或已是目标状态，整批不更新
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("批量更新车辆失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void bindRented(PreparedStatement statement, int id, boolean rented) throws SQLException {
+        statement.setBoolean(1, rented);
+        statement.setInt(2, id);
+        statement.setBoolean(3, !rented);
+    }
+
+    /**
+     * 根据ID查询车辆
+     * @param id 车辆ID
+     * @return 车辆对象，如果不存在则返回Optional.empty()
+     */
+    @Override
+    public Optional<Vehicle> findVehicleById(int id) {
+        List<Vehicle> vehicles = query(SELECT + " WHERE id = ?", id);
+        return vehicles.isEmpty() ? Optional.empty() : Optional.of(vehicles.get(0));
+    }
+
+    /**
+     * 查询所有车辆
+     * @return 所有车辆列表
+     */
+    @Override
+    public List<Vehicle> findAllVehicles() {
+        return query(SELECT + " ORDER BY id");
+    }
+
+    /**
+     * 根据车辆类型查询车辆
+     * @param type 车辆类型
+     * @return 对应类型的车辆列表
+     */
+    @Override
+    public List<Vehicle> findVehiclesByType(String type) {
+        return query(SELECT + " WHERE type = ? ORDER BY id", type);
+    }
+
+    /**
+     * 查询可租赁的车辆
+     * @return 可租赁车辆列表
+     */
+    @Override
+    public List<Vehicle> findAvailableVehicles() {
+        return query(SELECT + " WHERE rented = ? ORDER BY id", false);
+    }
+
+    /**
+     * 查询可租赁的特定类型车辆，使用(type, rented)索引
+     * @param type 车辆类型
+     * @return 可租赁的特定类型车辆列表
+     */
+    @Override
+    public List<Vehicle> findAvailableVehiclesByType(String type) {
+        return query(SELECT + " WHERE type = ? AND rented = ? ORDER BY id", type, false);
+    }
+
+    /**
+     * 执行查询并转换为车辆列表
+     * @param sql 查询语句
+     * @param parameters 查询参数
+     * @return 车辆列表，查询失败时为空列表
+     */
+    private List<Vehicle> query(String sql, Object... parameters) {
+        try {
+            return pool.execute(connection -> {
+                try (PreparedStatement query = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        query.setObject(i + 1, parameters[i]);
+                    }
+                    List<Vehicle> vehicles = new ArrayList<>();
+                    try (ResultSet resultSet = query.executeQuery()) {
+                        while (resultSet.next()) {
+                            vehicles.add(toVehicle(resultSet));
+                        }
+                    }
+                    return vehicles;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("查询车辆失败: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 分配下一个可用的车辆ID
+     * @return 下一个可用的车辆ID
+     */
+    @Override
+    public int getNextVehicleId() {
+        try {
+            return pool.transaction(connection -> idSequence.nextRange(connection, 1));
+        } catch (SQLException e) {
+            throw new IllegalStateException("分配车辆ID失败", e);
+        }
+    }
+
+    /**
+     * 数据保存在数据库中，按需查询，不需要预先加载
+     */
+    @Override
+    public void loadVehicles() {
+    }
+
+    /**
+     * 每次修改时已写入数据库，不需要单独保存
+     */
+    @Override
+    public void saveVehicles() {
+    }
+
+    /**
+     * 设置插入、更新语句的参数，ID为最后一个参数
+     */
+    private static void bind(PreparedStatement statement, Vehicle vehicle) throws SQLException {
+        statement.setString(1, vehicle.getType());
+        statement.setString(2, vehicle.getBrand());
+        statement.setString(3, vehicle.getModel());
+        statement.setDouble(4, vehicle.getDailyRent());
+        statement.setBoolean(5, vehicle.isRented());
+        if (vehicle instanceof Bus) {
+            statement.setInt(6, ((Bus) vehicle).getSeats());
+        } else {
+            statement.setNull(6, Types.INTEGER);
+        }
+        if (vehicle instanceof Van) {
+            statement.setDouble(7, ((Van) vehicle).getLoadCapacity());
+        } else {
+            statement.setNull(7, Types.DOUBLE);
+        }
+        statement.setString(8, vehicle instanceof Car ? ((Car) vehicle).getTransmission() : null);
+        statement.setInt(9, vehicle.getId());
+    }
+
+    /**
+     * 根据类型将查询结果的当前行转换为车辆对象
+     */
+    private static Vehicle toVehicle(ResultSet resultSet) throws SQLException {
+        String type = resultSet.getString("type");
+        Vehicle vehicle;
+        switch (type) {
+            case "轿车":
+                Car car = new Car();
+                car.setTransmission(resultSet.getString("transmission"));
+                vehicle = car;
+                break;
+            case "面包车":
+                Van van = new Van();
+                van.setLoadCapacity(resultSet.getDouble("load_capacity"));
+                vehicle = van;
+                break;
+            case "巴士":
+            case "客车":
+                Bus bus = new Bus();
+                bus.setSeats(resultSet.getInt("seats"));
+                vehicle = bus;
+                break;
+            default:
+                vehicle = new Vehicle();
+        }
+        vehicle.setId(resultSet.getInt("id"));
+        vehicle.setType(type);
+        vehicle.setBrand(resultSet.getString("brand"));
+        vehicle.setModel(resultSet.getString("model"));
+        vehicle.setDailyRent(resultSet.getDouble("daily_rent"));
+        vehicle.setRented(resultSet.getBoolean("rented"));
+        return vehicle;
+    }
+}
@@ -23,6 +23,20 @@ public interface RentalRecordRepository {
      */
     boolean updateRentalRecord(RentalRecord record);
 
+    /**
+     * 批量添加租赁记录，一次分配一段连续的ID，所有记录只触发一次持久化
+     * @param records 租赁记录列表
+     * @return 添加是否成功，列表中有null时都不添加并返回false
+     */
+    boolean addRentalRecords(List<RentalRecord> records);
+
+    /**
+     * 批量更新租赁记录（主要用于批量还车），所有记录只触发一次持久化
+     * @param records 租赁记录列表
+     * @return 更新是否成功，有任何记录不存在时都不更新并返回false
+     */
+    boolean updateRentalRecords(List<RentalRecord> records);
+
     /**
      * 根据ID查询租赁记录
      * @param id 记录ID
@@ -57,18 +71,28 @@ public interface RentalRecordRepository {
     List<RentalRecord> findRentalRecordsByCustomerId(int customerId);
 
     /**
-     * 获取下一个可用的记录ID
+     * 分配下一个可用的记录ID，已分配的ID不会再次使用
      * @return 下一个可用的记录ID
+     * @throws IllegalStateException ID已用完或序列无法保存时抛出
      */
     int getNextRecordId();
     
     /**
      * 从文件加载租赁记录数据
+     * @throws java.io.UncheckedIOException 读取失败或文件校验失败，拒绝加载可能已损坏的数据
      */
     void loadRentalRecords();
     
     /**
      * 将租赁记录数据保存到文件
+     * @throws java.io.UncheckedIOException 写入失败，原文件保持不变
      */
     void saveRentalRecords();
+
+    /**
+     * 设置车辆，客户仓库引用，用于关联租赁记录中的车辆和客户
+     * @param vehicleRepository 车辆仓库
+     * @param customerRepository 客户仓库
+     */
+    void setRepository(VehicleRepository vehicleRepository, CustomerRepository customerRepository);
 }
\ No newline at end of file
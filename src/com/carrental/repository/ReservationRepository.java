@@ -0,0 +1,57 @@
+package com.carrental.repository;
+
+import com.carrental.model.Reservation;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 预约数据访问接口
+ */
+public interface ReservationRepository {
+    /**
+     * 添加预约
+     * @param reservation 预约对象
+     * @return 添加是否成功
+     */
+    boolean addReservation(Reservation reservation);
+
+    /**
+     * 删除预约
+     * @param id 预约ID
+     * @return 删除是否成功
+     */
+    boolean deleteReservation(int id);
+
+    /**
+     * 根据ID查询预约
+     * @param id 预约ID
+     * @return 预约对象，如果不存在则返回Optional.empty()
+     */
+    Optional<Reservation> findReservationById(int id);
+
+    /**
+     * 查询所有预约
+     * @return 所有预约列表
+     */
+    List<Reservation> findAllReservations();
+
+    /**
+     * 分配下一个可用的预约ID，已分配的ID不会再次使用
+     * @return 下一个可用的预约ID
+     * @throws IllegalStateException ID已用完或序列无法保存时抛出
+     */
+    int getNextReservationId();
+
+    /**
+     * 从文件加载预约数据
+     * @throws java.io.UncheckedIOException 读取失败或文件校验失败，拒绝加载可能已损坏的数据
+     */
+    void loadReservations();
+
+    /**
+     * 将预约数据保存到文件
+     * @throws java.io.UncheckedIOException 写入失败，原文件保持不变
+     */
+    void saveReservations();
+}
@@ -47,11 +47,13 @@ public interface UserRepository {
    
     /**
      * 从文件加载用户数据
+     * @throws java.io.UncheckedIOException 读取失败或文件校验失败，拒绝加载可能已损坏的数据
      */
     void loadUsers();
     
     /**
      * 将用户数据保存到文件
+     * @throws java.io.UncheckedIOException 写入失败，原文件保持不变
      */
     void saveUsers();
 }
\ No newline at end of file
@@ -16,6 +16,13 @@ public interface VehicleRepository {
          */
         boolean addVehicle(Vehicle vehicle);
 
+        /**
+         * 批量添加车辆，一次分配一段连续的ID，所有车辆只触发一次持久化
+         * @param vehicles 车辆列表，添加后各车辆的ID被设置为新分配的ID
+         * @return 添加的车辆数
+         */
+        int addVehicles(List<Vehicle> vehicles);
+
         /**
          * 删除车辆
          * @param id 车辆ID
@@ -30,6 +37,29 @@ public interface VehicleRepository {
          */
         boolean updateVehicle(Vehicle vehicle);
 
+        /**
+         * 批量更新车辆信息，所有车辆只触发一次持久化
+         * @param vehicles 车辆列表
+         * @return 更新是否成功，有任何车辆不存在时都不更新并返回false
+         */
+        boolean updateVehicles(List<Vehicle> vehicles);
+
+        /**
+         * 修改车辆的出租状态，检查原状态、修改状态和更新可租赁车辆的查询结果在同一次加锁或事务中完成
+         * @param id 车辆ID
+         * @param rented 是否已出租
+         * @return 车辆存在且原状态不同时修改并返回true，否则返回false
+         */
+        boolean setRented(int id, boolean rented);
+
+        /**
+         * 批量修改车辆的出租状态，所有车辆只触发一次持久化
+         * @param ids 车辆ID列表
+         * @param rented 是否已出租
+         * @return 全部车辆都存在且原状态都不同时修改并返回true，否则都不修改并返回false
+         */
+        boolean setRented(List<Integer> ids, boolean rented);
+
         /**
          * 根据ID查询车辆
          * @param id 车辆ID
@@ -64,18 +94,21 @@ public interface VehicleRepository {
         List<Vehicle> findAvailableVehiclesByType(String type);
 
         /**
-         * 获取下一个可用的车辆ID
+         * 分配下一个可用的车辆ID，已分配的ID不会再次使用
          * @return 下一个可用的车辆ID
+         * @throws IllegalStateException ID已用完或序列无法保存时抛出
          */
         int getNextVehicleId();
 
         /**
          * 从文件加载车辆数据
+         * @throws java.io.UncheckedIOException 读取失败或文件校验失败，拒绝加载可能已损坏的数据
          */
         void loadVehicles();
 
         /**
          * 将车辆数据保存到文件
+         * @throws java.io.UncheckedIOException 写入失败，原文件和变更日志保持不变
          */
         void saveVehicles();
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.carrental.service;
+
+import java.util.Map;
+
+/**
+ * 经营统计服务接口，提供营收和车辆利用率的汇总数据
+ * 营收按租车时确定的总租金计入，统计值随租车、还车增量更新，查询时直接读取
+ */
+public interface AnalyticsService {
+    /**
+     * 按车辆类型汇总营收
+     * @return 车辆类型到营收（元）的映射
+     */
+    Map<String, Double> getRevenueByVehicleType();
+
+    /**
+     * 按客户类型汇总营收，客户类型取租车时的类型
+     * @return 客户类型到营收（元）的映射
+     */
+    Map<String, Double> getRevenueByCustomerType();
+
+    /**
+     * 按租车月份汇总营收
+     * @return 月份（yyyy-MM）到营收（元）的映射，按月份升序
+     */
+    Map<String, Double> getRevenueByMonth();
+
+    /**
+     * 营收总额
+     * @return 营收（元）
+     */
+    double getTotalRevenue();
+
+    /**
+     * 租赁记录总数
+     * @return 记录数
+     */
+    long getRentalCount();
+
+    /**
+     * 各车辆类型当前的利用率，即出租中的车辆占该类型车辆总数的比例
+     * @return 车辆类型到利用率（0到1）的映射
+     */
+    Map<String, Double> getFleetUtilization();
+
+    /**
+     * 全部车辆当前的利用率
+     * @return 利用率（0到1），没有车辆时为0
+     */
+    double getOverallUtilization();
+
+    /**
+     * 遍历全部租赁记录重新计算统计值
+     */
+    void rebuild();
+}
@@ -0,0 +1,32 @@
+package com.carrental.service;
+
+import com.carrental.model.Customer;
+import com.carrental.model.Vehicle;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 定价引擎接口，根据车辆、客户、租赁天数和开始日期计算总租金
+ */
+public interface PricingEngine {
+    /**
+     * 计算一辆车的租金
+     * @param vehicle 车辆
+     * @param customer 客户
+     * @param rentalDays 租赁天数
+     * @param startDate 开始日期，用于确定季节
+     * @return 总租金
+     */
+    double quote(Vehicle vehicle, Customer customer, int rentalDays, Date startDate);
+
+    /**
+     * 批量计算多辆车的租金，客户类型和季节只解析一次
+     * @param vehicles 车辆列表
+     * @param customer 客户
+     * @param rentalDays 租赁天数
+     * @param startDate 开始日期，用于确定季节
+     * @return 与车辆列表一一对应的总租金
+     */
+    double[] quoteAll(List<Vehicle> vehicles, Customer customer, int rentalDays, Date startDate);
+}
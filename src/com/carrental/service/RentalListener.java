@@ -0,0 +1,21 @@
+package com.carrental.service;
+
+import com.carrental.model.RentalRecord;
+
+/**
+ * 租赁事件监听器，租车、还车成功后由租赁服务在持有该车辆锁时调用
+ * 实现应尽快返回且不抛出异常
+ */
+public interface RentalListener {
+    /**
+     * 租车成功
+     * @param record 新建的租赁记录
+     */
+    void onVehicleRented(RentalRecord record);
+
+    /**
+     * 还车成功
+     * @param record 已归还的租赁记录
+     */
+    void onVehicleReturned(RentalRecord record);
+}
@@ -1,5 +1,6 @@
 package com.carrental.service;
 
+import com.carrental.model.RentalQuote;
 import com.carrental.model.RentalRecord;
 
 import java.util.List;
@@ -25,6 +26,22 @@ public interface RentalService {
      */
     Optional<RentalRecord> returnVehicle(int recordId);
 
+    /**
+     * 批量租车：同一客户一次租用多辆车，全部成功或全部不租，所有记录只触发一次持久化
+     * @param vehicleIds 车辆ID列表，不能重复
+     * @param customerId 客户ID
+     * @param rentalDays 租赁天数
+     * @return 与车辆ID列表顺序一致的租赁记录，任一车辆不可租时返回空列表
+     */
+    List<RentalRecord> rentVehicles(List<Integer> vehicleIds, int customerId, int rentalDays);
+
+    /**
+     * 批量还车：全部成功或全部不还，所有记录只触发一次持久化
+     * @param recordIds 租赁记录ID列表，不能重复
+     * @return 与记录ID列表顺序一致的租赁记录，任一记录不存在或已归还时返回空列表
+     */
+    List<RentalRecord> returnVehicles(List<Integer> recordIds);
+
     /**
      * 根据ID查询租赁记录
      * @param id 记录ID
@@ -66,4 +83,19 @@ public interface RentalService {
      * @return 计算后的租金
      */
     double calculateRent(int vehicleId, int customerId, int rentalDays);
-}
\ No newline at end of file
+
+    /**
+     * 为客户报出某类型所有可租赁车辆的租金，客户只查询一次，与逐辆调用calculateRent()的结果相同
+     * @param customerId 客户ID
+     * @param type 车辆类型
+     * @param rentalDays 租赁天数
+     * @return 按车辆ID升序的报价列表，客户不存在时为空列表
+     */
+    List<RentalQuote> quoteAvailableVehicles(int customerId, String type, int rentalDays);
+
+    /**
+     * 注册租赁事件监听器，租车、还车成功后通知
+     * @param listener 监听器
+     */
+    void addRentalListener(RentalListener listener);
+}
@@ -0,0 +1,85 @@
+package com.carrental.service;
+
+import com.carrental.model.Reservation;
+import com.carrental.model.Vehicle;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 预约服务接口，管理车辆的预约，并保证预约与租车的时间互不冲突
+ * 日期均按整天计算，预约期间为从开始日期起的days天
+ */
+public interface ReservationService {
+    /**
+     * 预约车辆
+     * @param vehicleId 车辆ID
+     * @param customerId 客户ID
+     * @param startDate 开始日期，不能早于今天
+     * @param days 预约天数
+     * @return 预约，车辆在该期间已被预约或出租时返回Optional.empty()
+     */
+    Optional<Reservation> reserveVehicle(int vehicleId, int customerId, Date startDate, int days);
+
+    /**
+     * 取消预约
+     * @param id 预约ID
+     * @return 取消是否成功
+     */
+    boolean cancelReservation(int id);
+
+    /**
+     * 根据ID查询预约
+     * @param id 预约ID
+     * @return 预约，如果不存在则返回Optional.empty()
+     */
+    Optional<Reservation> findReservationById(int id);
+
+    /**
+     * 查询所有预约
+     * @return 所有预约列表
+     */
+    List<Reservation> findAllReservations();
+
+    /**
+     * 查询车辆的预约
+     * @param vehicleId 车辆ID
+     * @return 该车辆的预约列表，按开始日期升序
+     */
+    List<Reservation> findReservationsByVehicleId(int vehicleId);
+
+    /**
+     * 判断车辆在指定期间是否既没有预约也没有出租
+     * @param vehicleId 车辆ID
+     * @param startDate 开始日期
+     * @param days 天数
+     * @return 空闲返回true
+     */
+    boolean isAvailable(int vehicleId, Date startDate, int days);
+
+    /**
+     * 查询指定类型中在指定期间空闲的车辆
+     * @param type 车辆类型
+     * @param startDate 开始日期
+     * @param days 天数
+     * @return 空闲的车辆列表
+     */
+    List<Vehicle> findAvailableVehicles(String type, Date startDate, int days);
+
+    /**
+     * 为从今天开始的租车占用车辆的时间，租车服务在持有该车辆锁时调用
+     * 同一客户在该期间的预约视为到店取车，随租车成功一起完成；其他客户的预约与之冲突
+     * @param vehicleId 车辆ID
+     * @param customerId 客户ID
+     * @param days 租赁天数
+     * @return 与其他预约冲突时返回false
+     */
+    boolean holdForRental(int vehicleId, int customerId, int days);
+
+    /**
+     * 租车失败时撤销holdForRental()占用的时间，恢复被完成的预约
+     * @param vehicleId 车辆ID
+     */
+    void cancelRentalHold(int vehicleId);
+}
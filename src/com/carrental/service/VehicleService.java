@@ -76,4 +76,18 @@ public interface VehicleService {
      * @return 是否标记成功
      */
     boolean markVehicleAsAvailable(int id);
-}
\ No newline at end of file
+
+    /**
+     * 批量将车辆标记为已出租，所有车辆只触发一次持久化
+     * @param ids 车辆ID列表
+     * @return 是否标记成功，有任何车辆不存在或已出租时都不标记并返回false
+     */
+    boolean markVehiclesAsRented(List<Integer> ids);
+
+    /**
+     * 批量将车辆标记为可出租，所有车辆只触发一次持久化
+     * @param ids 车辆ID列表
+     * @return 是否标记成功，有任何车辆不存在或未出租时都不标记并返回false
+     */
+    boolean markVehiclesAsAvailable(List<Integer> ids);
+}
@@ -0,0 +1,318 @@
+package com.carrental.service.Impl;
+
+import com.carrental.model.Branch;
+import com.carrental.model.RentalRecord;
+import com.carrental.model.Vehicle;
+import com.carrental.repository.RentalRecordRepository;
+import com.carrental.service.AnalyticsService;
+import com.carrental.service.RentalListener;
+import com.carrental.service.RentalService;
+import com.carrental.service.VehicleService;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * 经营统计服务实现类
+ * 启动时并行遍历一次全部租赁记录得到初始统计值，之后作为租赁事件监听器随租车、还车增量更新，
+ * 查询时只复制已汇总的计数，不再遍历记录；金额以分为单位累加，结果与遍历顺序无关
+ *
+ * 重新计算时不持有本对象的锁读取记录并汇总，期间的租车、还车事件照常更新当前统计值并另行登记，
+ * 汇总完成后短暂加锁换上新统计值，再补上登记的事件。租车、还车先写入租赁记录再通知监听器，
+ * 重新计算时读到的记录可能随后又收到事件：租车事件中的记录ID不超过重新计算时读到的同一ID段（网点）内最大ID的，
+ * 已经计入，不再累加；还车事件只对统计值中仍计为出租中的记录生效
+ *
+ * 读取全部记录较慢时（如启用历史归档后需解压所有分区）可用rebuildInBackground()在后台计算，不拖慢启动；
+ * 计算完成前查询统计值的线程等待计算完成
+ */
+public class AnalyticsServiceImpl implements AnalyticsService, RentalListener {
+    private static final String UNKNOWN = "未知";
+
+    private final VehicleService vehicleService;
+    private final Supplier<List<RentalRecord>> allRecords; // 全部租赁记录的来源，重新计算时读取
+    private Totals totals = new Totals(); // 当前统计值，对本对象加锁访问
+    private Map<Integer, Integer> rebuiltMaxIds = new HashMap<>(); // 重新计算时读到的各ID段内的最大记录ID
+    private boolean rebuilding; // 是否有后台重新计算尚未完成，对本对象加锁访问
+    private List<RentalRecord> rentedDuringRebuild;   // 重新计算期间收到的租车事件，未在重新计算时为null
+    private List<RentalRecord> returnedDuringRebuild; // 重新计算期间收到的还车事件，未在重新计算时为null
+    private final Object rebuildLock = new Object(); // 保证同一时间只有一次重新计算
+
+    // 构造函数注入依赖
+    public AnalyticsServiceImpl(VehicleService vehicleService, RentalRecordRepository rentalRecordRepository) {
+        this.vehicleService = vehicleService;
+        this.allRecords = rentalRecordRepository::findAllRentalRecords;
+    }
+
+    // 构造函数注入依赖，从租赁服务读取全部记录，租赁记录分多个网点保存时使用
+    public AnalyticsServiceImpl(VehicleService vehicleService, RentalService rentalService) {
+        this.vehicleService = vehicleService;
+        this.allRecords = rentalService::findAllRentalRecords;
+    }
+
+    /**
+     * 遍历全部租赁记录重新计算统计值；读取和汇总记录时不加锁，租车、还车不等待计算完成
+     */
+    @Override
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                rentedDuringRebuild = new ArrayList<>();
+                returnedDuringRebuild = new ArrayList<>();
+            }
+            Totals rebuilt;
+            try {
+                List<RentalRecord> records = allRecords.get();
+                rebuilt = records.parallelStream().collect(Collector.of(Totals::new, Totals::add, Totals::merge));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    rentedDuringRebuild = null;
+                    returnedDuringRebuild = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                totals = rebuilt;
+                rebuiltMaxIds = new HashMap<>(rebuilt.maxIds);
+                // 同一记录总是先租后还，先补租车事件再补还车事件即可
+                for (RentalRecord record : rentedDuringRebuild) {
+                    addRented(record);
+                }
+                for (RentalRecord record : returnedDuringRebuild) {
+                    totals.returned(record);
+                }
+                rentedDuringRebuild = null;
+                returnedDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * 在后台线程中重新计算统计值，立即返回；计算完成前查询统计值的线程等待，租车、还车不等待
+     * 计算失败时输出错误，统计值只包含之后的租车、还车
+     */
+    public void rebuildInBackground() {
+        synchronized (this) {
+            rebuilding = true;
+        }
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                rebuild();
+                System.out.printf("经营统计计算完成，用时%dms%n", (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                System.err.println("计算经营统计失败: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                synchronized (this) {
+                    rebuilding = false;
+                    notifyAll();
+                }
+            }
+        }, "analytics-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 等待后台重新计算完成，需持有本对象的锁；等待时被中断则直接返回当前统计值
+     */
+    private void awaitRebuild() {
+        while (rebuilding) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onVehicleRented(RentalRecord record) {
+        addRented(record);
+        if (rentedDuringRebuild != null) {
+            rentedDuringRebuild.add(record);
+        }
+    }
+
+    @Override
+    public synchronized void onVehicleReturned(RentalRecord record) {
+        totals.returned(record);
+        if (returnedDuringRebuild != null) {
+            returnedDuringRebuild.add(record);
+        }
+    }
+
+    /**
+     * 累加一次租车，需持有本对象的锁
+     */
+    private void addRented(RentalRecord record) {
+        if (record.getId() <= rebuiltMaxIds.getOrDefault(Branch.indexOfId(record.getId()), 0)) {
+            return; // 重新计算时已计入
+        }
+        totals.add(record);
+    }
+
+    @Override
+    public synchronized Map<String, Double> getRevenueByVehicleType() {
+        awaitRebuild();
+        return toAmounts(totals.revenueByVehicleType, new TreeMap<>());
+    }
+
+    @Override
+    public synchronized Map<String, Double> getRevenueByCustomerType() {
+        awaitRebuild();
+        return toAmounts(totals.revenueByCustomerType, new TreeMap<>());
+    }
+
+    @Override
+    public synchronized Map<String, Double> getRevenueByMonth() {
+        awaitRebuild();
+        return toAmounts(totals.revenueByMonth, new TreeMap<>());
+    }
+
+    @Override
+    public synchronized double getTotalRevenue() {
+        awaitRebuild();
+        return totals.revenueCents / 100.0;
+    }
+
+    @Override
+    public synchronized long getRentalCount() {
+        awaitRebuild();
+        return totals.rentalCount;
+    }
+
+    /**
+     * 各车辆类型当前的利用率；车辆总数取自车辆数据，出租中的车辆数取自统计值
+     */
+    @Override
+    public Map<String, Double> getFleetUtilization() {
+        Map<String, Integer> fleetSizes = fleetSizes();
+        Map<String, Long> active;
+        synchronized (this) {
+            awaitRebuild();
+            active = new HashMap<>(totals.activeByVehicleType);
+        }
+
+        Map<String, Double> utilization = new TreeMap<>();
+        for (Map.Entry<String, Integer> entry : fleetSizes.entrySet()) {
+            long rented = active.getOrDefault(entry.getKey(), 0L);
+            utilization.put(entry.getKey(), Math.min(1.0, (double) rented / entry.getValue()));
+        }
+        return utilization;
+    }
+
+    @Override
+    public double getOverallUtilization() {
+        int fleetSize = 0;
+        for (int size : fleetSizes().values()) {
+            fleetSize += size;
+        }
+        long rented;
+        synchronized (this) {
+            awaitRebuild();
+            rented = totals.activeRentals;
+        }
+        return fleetSize == 0 ? 0 : Math.min(1.0, (double) rented / fleetSize);
+    }
+
+    private Map<String, Integer> fleetSizes() {
+        Map<String, Integer> sizes = new TreeMap<>();
+        for (Vehicle vehicle : vehicleService.findAllVehicles()) {
+            sizes.merge(vehicle.getType(), 1, Integer::sum);
+        }
+        return sizes;
+    }
+
+    private static Map<String, Double> toAmounts(Map<String, Long> cents, Map<String, Double> result) {
+        for (Map.Entry<String, Long> entry : cents.entrySet()) {
+            result.put(entry.getKey(), entry.getValue() / 100.0);
+        }
+        return result;
+    }
+
+    /**
+     * 一组统计值，可逐条累加记录，也可与另一组合并，用于并行汇总
+     */
+    private static final class Totals {
+        final Map<String, Long> revenueByVehicleType = new HashMap<>(); // 车辆类型到营收（分）
+        final Map<String, Long> revenueByCustomerType = new HashMap<>(); // 客户类型到营收（分）
+        final Map<String, Long> revenueByMonth = new HashMap<>(); // 租车月份到营收（分）
+        final Map<String, Long> activeByVehicleType = new HashMap<>(); // 车辆类型到出租中的记录数
+        final Set<Integer> activeIds = new HashSet<>(); // 计为出租中的记录ID
+        final Map<Integer, Integer> maxIds = new HashMap<>(); // ID段序号到累加过的最大记录ID
+        long revenueCents; // 营收总额（分）
+        long rentalCount; // 记录数
+        long activeRentals; // 出租中的记录数
+        private long monthStart; // 缓存的月份起点（毫秒）
+        private long monthEnd;   // 缓存的月份终点（毫秒，不含）
+        private String monthKey; // 缓存的月份
+
+        void add(RentalRecord record) {
+            long cents = Math.round(record.getTotalRent() * 100);
+            String vehicleType = record.getVehicle() != null ? record.getVehicle().getType() : UNKNOWN;
+            String customerType = record.getCustomer() != null ? record.getCustomer().getCustomerType() : UNKNOWN;
+            revenueByVehicleType.merge(vehicleType, cents, Long::sum);
+            revenueByCustomerType.merge(customerType, cents, Long::sum);
+            revenueByMonth.merge(monthOf(record), cents, Long::sum);
+            revenueCents += cents;
+            rentalCount++;
+            maxIds.merge(Branch.indexOfId(record.getId()), record.getId(), Math::max);
+            if (!record.isReturned() && activeIds.add(record.getId())) {
+                activeByVehicleType.merge(vehicleType, 1L, Long::sum);
+                activeRentals++;
+            }
+        }
+
+        void returned(RentalRecord record) {
+            if (!activeIds.remove(record.getId())) {
+                return; // 重新计算时已是归还状态
+            }
+            String vehicleType = record.getVehicle() != null ? record.getVehicle().getType() : UNKNOWN;
+            activeByVehicleType.merge(vehicleType, -1L, Long::sum);
+            activeRentals--;
+        }
+
+        Totals merge(Totals other) {
+            other.revenueByVehicleType.forEach((key, value) -> revenueByVehicleType.merge(key, value, Long::sum));
+            other.revenueByCustomerType.forEach((key, value) -> revenueByCustomerType.merge(key, value, Long::sum));
+            other.revenueByMonth.forEach((key, value) -> revenueByMonth.merge(key, value, Long::sum));
+            other.activeByVehicleType.forEach((key, value) -> activeByVehicleType.merge(key, value, Long::sum));
+            activeIds.addAll(other.activeIds);
+            other.maxIds.forEach((key, value) -> maxIds.merge(key, value, Math::max));
+            revenueCents += other.revenueCents;
+            rentalCount += other.rentalCount;
+            activeRentals += other.activeRentals;
+            return this;
+        }
+
+        /**
+         * 租车日期所在的月份；记录大多按日期排列，缓存上一个月份的时间范围，避免逐条换算时区
+         */
+        private String monthOf(RentalRecord record) {
+            if (record.getRentalDate() == null) {
+                return UNKNOWN;
+            }
+            long time = record.getRentalDate().getTime();
+            if (time < monthStart || time >= monthEnd) {
+                ZoneId zone = ZoneId.systemDefault();
+                YearMonth month = YearMonth.from(Instant.ofEpochMilli(time).atZone(zone));
+                monthStart = month.atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+                monthEnd = month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+                monthKey = month.toString();
+            }
+            return monthKey;
+        }
+    }
+}
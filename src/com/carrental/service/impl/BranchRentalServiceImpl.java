@@ -0,0 +1,121 @@
+package com.carrental.service.Impl;
+
+import com.carrental.model.RentalQuote;
+import com.carrental.model.RentalRecord;
+import com.carrental.service.RentalListener;
+import com.carrental.service.RentalService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 多网点租赁服务：租车按车辆ID、还车按租赁记录ID交给所属网点的租赁服务，各网点的租车还车互不阻塞；
+ * 查询全部记录、未归还记录、客户的记录和报价时并行查询各网点后合并
+ * 批量租车、批量还车只能在一个网点内进行，跨网点时不执行任何操作
+ */
+public class BranchRentalServiceImpl implements RentalService {
+    private final BranchRouter<RentalService> router;
+
+    // 构造函数注入依赖
+    public BranchRentalServiceImpl(BranchRouter<RentalService> router) {
+        this.router = router;
+    }
+
+    @Override
+    public Optional<RentalRecord> rentVehicle(int vehicleId, int customerId, int rentalDays) {
+        Optional<RentalService> shard = router.route(vehicleId);
+        if (!shard.isPresent()) {
+            System.out.println("车辆不存在或已被出租！");
+            return Optional.empty();
+        }
+        return shard.get().rentVehicle(vehicleId, customerId, rentalDays);
+    }
+
+    @Override
+    public Optional<RentalRecord> returnVehicle(int recordId) {
+        Optional<RentalService> shard = router.route(recordId);
+        if (!shard.isPresent()) {
+            System.out.println("租赁记录不存在！");
+            return Optional.empty();
+        }
+        return shard.get().returnVehicle(recordId);
+    }
+
+    @Override
+    public List<RentalRecord> rentVehicles(List<Integer> vehicleIds, int customerId, int rentalDays) {
+        Optional<RentalService> shard = singleShard(vehicleIds, "车辆");
+        return shard.isPresent() ? shard.get().rentVehicles(vehicleIds, customerId, rentalDays) : new ArrayList<>();
+    }
+
+    @Override
+    public List<RentalRecord> returnVehicles(List<Integer> recordIds) {
+        Optional<RentalService> shard = singleShard(recordIds, "租赁记录");
+        return shard.isPresent() ? shard.get().returnVehicles(recordIds) : new ArrayList<>();
+    }
+
+    /**
+     * 找到一批ID共同所属网点的分片
+     */
+    private Optional<RentalService> singleShard(List<Integer> ids, String name) {
+        Optional<Map<RentalService, List<Integer>>> groups = router.groupByShard(ids);
+        if (!groups.isPresent() || groups.get().isEmpty()) {
+            System.out.println(name + "不存在！");
+            return Optional.empty();
+        }
+        if (groups.get().size() > 1) {
+            System.out.println("批量操作的" + name + "必须属于同一网点！");
+            return Optional.empty();
+        }
+        return Optional.of(groups.get().keySet().iterator().next());
+    }
+
+    @Override
+    public Optional<RentalRecord> findRentalRecordById(int id) {
+        return router.route(id).flatMap(shard -> shard.findRentalRecordById(id));
+    }
+
+    @Override
+    public List<RentalRecord> findAllRentalRecords() {
+        return router.fanOut(RentalService::findAllRentalRecords);
+    }
+
+    @Override
+    public List<RentalRecord> findUnreturnedRentalRecords() {
+        return router.fanOut(RentalService::findUnreturnedRentalRecords);
+    }
+
+    @Override
+    public List<RentalRecord> findRentalRecordsByVehicleId(int vehicleId) {
+        return router.route(vehicleId).map(shard -> shard.findRentalRecordsByVehicleId(vehicleId)).orElseGet(ArrayList::new);
+    }
+
+    @Override
+    public List<RentalRecord> findRentalRecordsByCustomerId(int customerId) {
+        return router.fanOut(shard -> shard.findRentalRecordsByCustomerId(customerId));
+    }
+
+    @Override
+    public double calculateRent(int vehicleId, int customerId, int rentalDays) {
+        return router.route(vehicleId).map(shard -> shard.calculateRent(vehicleId, customerId, rentalDays)).orElse(0.0);
+    }
+
+    /**
+     * 为客户报出所有网点某类型全部可租赁车辆的租金
+     */
+    @Override
+    public List<RentalQuote> quoteAvailableVehicles(int customerId, String type, int rentalDays) {
+        return router.fanOut(shard -> shard.quoteAvailableVehicles(customerId, type, rentalDays));
+    }
+
+    /**
+     * 在每个网点的租赁服务上注册监听器，监听器会被不同网点的线程并发调用
+     */
+    @Override
+    public void addRentalListener(RentalListener listener) {
+        for (RentalService shard : router.getShards()) {
+            shard.addRentalListener(listener);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.carrental.service.Impl;
+
+import com.carrental.model.Branch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 网点路由器：每个网点一个分片（如该网点的车辆服务或租赁服务），按车辆ID或租赁记录ID所在的ID段找到所属分片，
+ * 跨网点的查询在各分片上并行执行后按网点序号依次合并；由于ID按网点分段，合并结果仍按ID有序
+ * @param <S> 分片类型
+ */
+public class BranchRouter<S> {
+    private final List<Branch> branches;
+    private final List<S> shards;      // 与branches一一对应
+    private final Object[] shardByIndex; // 网点序号到分片，没有该序号的网点时为null
+
+    /**
+     * 构造方法，为每个网点创建分片
+     * @param branches 按序号排列的网点列表，不能为空
+     * @param shardFactory 创建网点的分片
+     */
+    public BranchRouter(List<Branch> branches, Function<Branch, S> shardFactory) {
+        if (branches.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个网点");
+        }
+        this.branches = Collections.unmodifiableList(new ArrayList<>(branches));
+        List<S> created = new ArrayList<>(branches.size());
+        this.shardByIndex = new Object[branches.get(branches.size() - 1).getIndex() + 1];
+        for (Branch branch : branches) {
+            S shard = shardFactory.apply(branch);
+            created.add(shard);
+            shardByIndex[branch.getIndex()] = shard;
+        }
+        this.shards = Collections.unmodifiableList(created);
+    }
+
+    /**
+     * 找到车辆ID或租赁记录ID所属网点的分片
+     * @param id 车辆ID或租赁记录ID
+     * @return 分片，ID不属于任何网点时为空
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<S> route(int id) {
+        int index = Branch.indexOfId(id);
+        if (index < 0 || index >= shardByIndex.length) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((S) shardByIndex[index]);
+    }
+
+    /**
+     * 找到车辆ID或租赁记录ID所属的网点
+     * @param id 车辆ID或租赁记录ID
+     * @return 网点，ID不属于任何网点时为空
+     */
+    public Optional<Branch> branchOf(int id) {
+        int index = Branch.indexOfId(id);
+        for (Branch branch : branches) {
+            if (branch.getIndex() == index) {
+                return Optional.of(branch);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 按网点代码找到分片
+     * @param code 网点代码
+     * @return 分片，没有该网点时为空
+     */
+    public Optional<S> shard(String code) {
+        for (int i = 0; i < branches.size(); i++) {
+            if (branches.get(i).getCode().equalsIgnoreCase(code)) {
+                return Optional.of(shards.get(i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return 序号最小的网点的分片，新增车辆未指定网点时使用
+     */
+    public S defaultShard() {
+        return shards.get(0);
+    }
+
+    /**
+     * 在所有分片上并行执行查询，按网点序号依次合并结果
+     * @param query 分片上的查询
+     * @return 合并后的结果
+     */
+    public <T> List<T> fanOut(Function<S, List<T>> query) {
+        if (shards.size() == 1) {
+            return query.apply(shards.get(0));
+        }
+        return shards.parallelStream()
+                .map(query)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 按所属网点分组ID，保持每组内的原有顺序
+     * @param ids 车辆ID或租赁记录ID
+     * @return 分片到该分片上的ID，有不属于任何网点的ID时为空
+     */
+    public Optional<Map<S, List<Integer>>> groupByShard(List<Integer> ids) {
+        Map<S, List<Integer>> groups = new LinkedHashMap<>();
+        for (int id : ids) {
+            Optional<S> shard = route(id);
+            if (!shard.isPresent()) {
+                return Optional.empty();
+            }
+            groups.computeIfAbsent(shard.get(), key -> new ArrayList<>()).add(id);
+        }
+        return Optional.of(groups);
+    }
+
+    /**
+     * @return 按序号排列的网点列表
+     */
+    public List<Branch> getBranches() {
+        return branches;
+    }
+
+    /**
+     * @return 与getBranches()一一对应的分片列表
+     */
+    public List<S> getShards() {
+        return shards;
+    }
+}
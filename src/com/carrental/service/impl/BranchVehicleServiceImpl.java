@@ -0,0 +1,153 @@
+package com.carrental.service.Impl;
+
+import com.carrental.model.Branch;
+import com.carrental.model.Vehicle;
+import com.carrental.service.VehicleService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 多网点车辆服务：按车辆ID把操作交给所属网点的车辆服务，跨网点的查询（如"所有网点的可租赁客车"）并行查询各网点后合并
+ */
+public class BranchVehicleServiceImpl implements VehicleService {
+    private final BranchRouter<VehicleService> router;
+
+    // 构造函数注入依赖
+    public BranchVehicleServiceImpl(BranchRouter<VehicleService> router) {
+        this.router = router;
+    }
+
+    /**
+     * 添加车辆到序号最小的网点
+     * @param vehicle 车辆对象
+     * @return 添加是否成功
+     */
+    @Override
+    public boolean addVehicle(Vehicle vehicle) {
+        return router.defaultShard().addVehicle(vehicle);
+    }
+
+    /**
+     * 添加车辆到指定网点，车辆ID在该网点的ID段内分配
+     * @param branchCode 网点代码
+     * @param vehicle 车辆对象
+     * @return 添加是否成功，没有该网点时返回false
+     */
+    public boolean addVehicle(String branchCode, Vehicle vehicle) {
+        Optional<VehicleService> shard = router.shard(branchCode);
+        if (!shard.isPresent()) {
+            System.out.println("网点不存在: " + branchCode);
+            return false;
+        }
+        return shard.get().addVehicle(vehicle);
+    }
+
+    @Override
+    public boolean deleteVehicle(int id) {
+        return router.route(id).map(shard -> shard.deleteVehicle(id)).orElse(false);
+    }
+
+    @Override
+    public boolean updateVehicle(Vehicle vehicle) {
+        return router.route(vehicle.getId()).map(shard -> shard.updateVehicle(vehicle)).orElse(false);
+    }
+
+    @Override
+    public Optional<Vehicle> findVehicleById(int id) {
+        return router.route(id).flatMap(shard -> shard.findVehicleById(id));
+    }
+
+    @Override
+    public List<Vehicle> findAllVehicles() {
+        return router.fanOut(VehicleService::findAllVehicles);
+    }
+
+    @Override
+    public List<Vehicle> findVehiclesByType(String type) {
+        return router.fanOut(shard -> shard.findVehiclesByType(type));
+    }
+
+    @Override
+    public List<Vehicle> findAvailableVehiclesByType(String type) {
+        return router.fanOut(shard -> shard.findAvailableVehiclesByType(type));
+    }
+
+    /**
+     * 查询指定网点某类型的可租赁车辆
+     * @param branchCode 网点代码
+     * @param type 车辆类型
+     * @return 可租赁车辆列表，没有该网点时为空列表
+     */
+    public List<Vehicle> findAvailableVehiclesByType(String branchCode, String type) {
+        return router.shard(branchCode).map(shard -> shard.findAvailableVehiclesByType(type)).orElseGet(ArrayList::new);
+    }
+
+    /**
+     * 查询车辆所属的网点
+     * @param id 车辆ID
+     * @return 网点，ID不属于任何网点时为空
+     */
+    public Optional<Branch> findBranchOfVehicle(int id) {
+        return router.branchOf(id);
+    }
+
+    @Override
+    public boolean markVehicleAsRented(int id) {
+        return router.route(id).map(shard -> shard.markVehicleAsRented(id)).orElse(false);
+    }
+
+    @Override
+    public boolean markVehicleAsAvailable(int id) {
+        return router.route(id).map(shard -> shard.markVehicleAsAvailable(id)).orElse(false);
+    }
+
+    /**
+     * 批量标记为已出租；车辆属于多个网点时逐个网点标记，某个网点失败时撤销已标记的网点
+     */
+    @Override
+    public boolean markVehiclesAsRented(List<Integer> ids) {
+        return markAll(ids, true);
+    }
+
+    /**
+     * 批量标记为可租赁；车辆属于多个网点时逐个网点标记，某个网点失败时撤销已标记的网点
+     */
+    @Override
+    public boolean markVehiclesAsAvailable(List<Integer> ids) {
+        return markAll(ids, false);
+    }
+
+    private boolean markAll(List<Integer> ids, boolean rented) {
+        Optional<Map<VehicleService, List<Integer>>> groups = router.groupByShard(ids);
+        if (!groups.isPresent()) {
+            return false;
+        }
+        List<Map.Entry<VehicleService, List<Integer>>> done = new ArrayList<>();
+        for (Map.Entry<VehicleService, List<Integer>> group : groups.get().entrySet()) {
+            VehicleService shard = group.getKey();
+            boolean marked = rented ? shard.markVehiclesAsRented(group.getValue()) : shard.markVehiclesAsAvailable(group.getValue());
+            if (!marked) {
+                for (Map.Entry<VehicleService, List<Integer>> undo : done) {
+                    if (rented) {
+                        undo.getKey().markVehiclesAsAvailable(undo.getValue());
+                    } else {
+                        undo.getKey().markVehiclesAsRented(undo.getValue());
+                    }
+                }
+                return false;
+            }
+            done.add(group);
+        }
+        return true;
+    }
+
+    /**
+     * @return 路由器，可以取得网点列表
+     */
+    public BranchRouter<VehicleService> getRouter() {
+        return router;
+    }
+}
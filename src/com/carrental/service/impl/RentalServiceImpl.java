@@ -1,17 +1,26 @@
 package com.carrental.service.Impl;
 
 import com.carrental.model.Customer;
+import com.carrental.model.RentalQuote;
 import com.carrental.model.RentalRecord;
 import com.carrental.model.Vehicle;
 import com.carrental.repository.RentalRecordRepository;
 import com.carrental.service.CustomerService;
+import com.carrental.service.PricingEngine;
+import com.carrental.service.RentalListener;
 import com.carrental.service.RentalService;
+import com.carrental.service.ReservationService;
 import com.carrental.service.VehicleService;
 import com.carrental.util.Constants;
+import com.carrental.util.StripedLock;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
 
 /**
  * 租赁服务实现类
@@ -20,6 +29,11 @@ public class RentalServiceImpl implements RentalService {
     private VehicleService vehicleService;
     private CustomerService customerService;
     private RentalRecordRepository rentalRecordRepository;
+    private final StripedLock vehicleLocks = new StripedLock(Constants.RENTAL_LOCK_STRIPES); // 按车辆ID分段的锁
+    private final List<RentalListener> listeners = new CopyOnWriteArrayList<>(); // 租赁事件监听器
+
+    private ReservationService reservationService; // 预约服务，为null时不检查预约
+    private PricingEngine pricingEngine = new RuleTablePricingEngine(RuleTablePricingEngine.defaultRules()); // 定价引擎
 
     // 构造函数注入依赖
     public RentalServiceImpl(VehicleService vehicleService, CustomerService customerService, RentalRecordRepository rentalRecordRepository) {
@@ -28,6 +42,20 @@ public class RentalServiceImpl implements RentalService {
         this.rentalRecordRepository = rentalRecordRepository;
     }
 
+    // 构造函数注入依赖，租车时检查车辆在租赁期间没有被其他客户预约
+    public RentalServiceImpl(VehicleService vehicleService, CustomerService customerService, RentalRecordRepository rentalRecordRepository,
+                             ReservationService reservationService) {
+        this(vehicleService, customerService, rentalRecordRepository);
+        this.reservationService = reservationService;
+    }
+
+    // 构造函数注入依赖，使用指定的定价引擎计算租金
+    public RentalServiceImpl(VehicleService vehicleService, CustomerService customerService, RentalRecordRepository rentalRecordRepository,
+                             ReservationService reservationService, PricingEngine pricingEngine) {
+        this(vehicleService, customerService, rentalRecordRepository, reservationService);
+        this.pricingEngine = pricingEngine;
+    }
+
     /**
      * 租车
      * @param vehicleId 车辆ID
@@ -37,48 +65,66 @@ public class RentalServiceImpl implements RentalService {
      */
     @Override
     public Optional<RentalRecord> rentVehicle(int vehicleId, int customerId, int rentalDays) {
-        // 检查车辆是否存在且可租赁
-        Optional<Vehicle> optionalVehicle = vehicleService.findVehicleById(vehicleId);
-        if (!optionalVehicle.isPresent() || optionalVehicle.get().isRented()) {
-            System.out.println("车辆不存在或已被出租！");
-            return Optional.empty();
-        }
+        // 同一车辆的租车、还车串行执行，检查状态和标记出租是一个原子操作
+        Lock lock = vehicleLocks.get(vehicleId);
+        lock.lock();
+        try {
+            // 检查车辆是否存在且可租赁
+            Optional<Vehicle> optionalVehicle = vehicleService.findVehicleById(vehicleId);
+            if (!optionalVehicle.isPresent() || optionalVehicle.get().isRented()) {
+                System.out.println("车辆不存在或已被出租！");
+                return Optional.empty();
+            }
 
-        // 检查客户是否存在
-        Optional<Customer> optionalCustomer = customerService.findCustomerById(customerId);
-        if (!optionalCustomer.isPresent()) {
-            System.out.println("客户不存在！");
-            return Optional.empty();
-        }
+            // 检查客户是否存在
+            Optional<Customer> optionalCustomer = customerService.findCustomerById(customerId);
+            if (!optionalCustomer.isPresent()) {
+                System.out.println("客户不存在！");
+                return Optional.empty();
+            }
 
-        // 计算租金
-        double totalRent = calculateRent(vehicleId, customerId, rentalDays);
+            // 检查租赁期间没有其他客户的预约，并占用这段时间
+            if (reservationService != null && !reservationService.holdForRental(vehicleId, customerId, rentalDays)) {
+                System.out.println("该车辆在租赁期间已被其他客户预约！");
+                return Optional.empty();
+            }
 
-        // 更新车辆状态为已出租
-        if (!vehicleService.markVehicleAsRented(vehicleId)) {
-            System.out.println("更新车辆状态失败！");
-            return Optional.empty();
-        }
+            // 计算租金
+            double totalRent = calculateRent(vehicleId, customerId, rentalDays);
 
-        // 创建租赁记录
-        RentalRecord rentalRecord = new RentalRecord(
-                rentalRecordRepository.getNextRecordId(),
-                optionalVehicle.get(),
-                optionalCustomer.get(),
-                new Date(),
-                rentalDays,
-                totalRent
-        );
-
-        // 保存租赁记录
-        if (!rentalRecordRepository.addRentalRecord(rentalRecord)) {
-            System.out.println("创建租赁记录失败！");
-            // 回滚车辆状态
-            vehicleService.markVehicleAsAvailable(vehicleId);
-            return Optional.empty();
-        }
+            // 更新车辆状态为已出租
+            if (!vehicleService.markVehicleAsRented(vehicleId)) {
+                System.out.println("更新车辆状态失败！");
+                cancelReservationHold(vehicleId);
+                return Optional.empty();
+            }
+
+            // 创建租赁记录，记录ID由仓库在保存时分配
+            RentalRecord rentalRecord = new RentalRecord(
+                    0,
+                    optionalVehicle.get(),
+                    optionalCustomer.get(),
+                    new Date(),
+                    rentalDays,
+                    totalRent
+            );
+
+            // 保存租赁记录
+            if (!rentalRecordRepository.addRentalRecord(rentalRecord)) {
+                System.out.println("创建租赁记录失败！");
+                // 回滚车辆状态和预约占用
+                vehicleService.markVehicleAsAvailable(vehicleId);
+                cancelReservationHold(vehicleId);
+                return Optional.empty();
+            }
 
-        return Optional.of(rentalRecord);
+            for (RentalListener listener : listeners) {
+                listener.onVehicleRented(rentalRecord);
+            }
+            return Optional.of(rentalRecord);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -95,33 +141,204 @@ public class RentalServiceImpl implements RentalService {
             return Optional.empty();
         }
 
-        RentalRecord rentalRecord = optionalRecord.get();
+        int vehicleId = optionalRecord.get().getVehicle().getId();
 
-        // 检查车辆是否已经归还
-        if (rentalRecord.isReturned()) {
-            System.out.println("车辆已经归还！");
-            return Optional.empty();
+        Lock lock = vehicleLocks.get(vehicleId);
+        lock.lock();
+        try {
+            // 持锁后重新读取记录：仓库可能返回记录的副本，持锁前读到的状态可能已过期
+            RentalRecord rentalRecord = rentalRecordRepository.findRentalRecordById(recordId).orElse(optionalRecord.get());
+
+            // 检查车辆是否已经归还（持锁后检查，避免重复还车）
+            if (rentalRecord.isReturned()) {
+                System.out.println("车辆已经归还！");
+                return Optional.empty();
+            }
+
+            // 更新车辆状态为可出租
+            if (!vehicleService.markVehicleAsAvailable(vehicleId)) {
+                System.out.println("更新车辆状态失败！");
+                return Optional.empty();
+            }
+
+            // 更新租赁记录
+            rentalRecord.setReturnDate(new Date());
+            rentalRecord.setReturned(true);
+
+            if (!rentalRecordRepository.updateRentalRecord(rentalRecord)) {
+                System.out.println("更新租赁记录失败！");
+                // 回滚租赁记录和车辆状态
+                rentalRecord.setReturnDate(null);
+                rentalRecord.setReturned(false);
+                vehicleService.markVehicleAsRented(vehicleId);
+                return Optional.empty();
+            }
+
+            for (RentalListener listener : listeners) {
+                listener.onVehicleReturned(rentalRecord);
+            }
+            return Optional.of(rentalRecord);
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // 更新车辆状态为可出租
-        int vehicleId = rentalRecord.getVehicle().getId();
-        if (!vehicleService.markVehicleAsAvailable(vehicleId)) {
-            System.out.println("更新车辆状态失败！");
-            return Optional.empty();
+    /**
+     * 批量租车：按分段锁的顺序锁定全部车辆，检查全部车辆可租后统一标记出租并一次添加全部记录；
+     * 任一步骤失败时撤销已做的修改
+     * @param vehicleIds 车辆ID列表
+     * @param customerId 客户ID
+     * @param rentalDays 租赁天数
+     * @return 租赁记录列表
+     */
+    @Override
+    public List<RentalRecord> rentVehicles(List<Integer> vehicleIds, int customerId, int rentalDays) {
+        if (vehicleIds.isEmpty() || new HashSet<>(vehicleIds).size() != vehicleIds.size()) {
+            System.out.println("车辆ID为空或有重复！");
+            return new ArrayList<>();
         }
 
-        // 更新租赁记录
-        rentalRecord.setReturnDate(new Date());
-        rentalRecord.setReturned(true);
+        // 检查客户是否存在
+        Optional<Customer> optionalCustomer = customerService.findCustomerById(customerId);
+        if (!optionalCustomer.isPresent()) {
+            System.out.println("客户不存在！");
+            return new ArrayList<>();
+        }
+        Customer customer = optionalCustomer.get();
 
-        if (!rentalRecordRepository.updateRentalRecord(rentalRecord)) {
-            System.out.println("更新租赁记录失败！");
-            // 回滚车辆状态
-            vehicleService.markVehicleAsRented(vehicleId);
-            return Optional.empty();
+        List<Lock> locks = vehicleLocks.lockAll(vehicleIds);
+        try {
+            // 检查全部车辆是否存在且可租赁
+            List<Vehicle> vehicles = new ArrayList<>(vehicleIds.size());
+            for (int vehicleId : vehicleIds) {
+                Optional<Vehicle> optionalVehicle = vehicleService.findVehicleById(vehicleId);
+                if (!optionalVehicle.isPresent() || optionalVehicle.get().isRented()) {
+                    System.out.println("车辆" + vehicleId + "不存在或已被出租！");
+                    return new ArrayList<>();
+                }
+                vehicles.add(optionalVehicle.get());
+            }
+
+            // 检查租赁期间没有其他客户的预约，并占用这段时间
+            List<Integer> heldVehicleIds = new ArrayList<>();
+            if (reservationService != null) {
+                for (int vehicleId : vehicleIds) {
+                    if (!reservationService.holdForRental(vehicleId, customerId, rentalDays)) {
+                        System.out.println("车辆" + vehicleId + "在租赁期间已被其他客户预约！");
+                        cancelReservationHolds(heldVehicleIds);
+                        return new ArrayList<>();
+                    }
+                    heldVehicleIds.add(vehicleId);
+                }
+            }
+
+            // 计算租金
+            double[] rents = pricingEngine.quoteAll(vehicles, customer, rentalDays, new Date());
+
+            // 更新车辆状态为已出租
+            if (!vehicleService.markVehiclesAsRented(vehicleIds)) {
+                System.out.println("更新车辆状态失败！");
+                cancelReservationHolds(heldVehicleIds);
+                return new ArrayList<>();
+            }
+
+            // 创建租赁记录，记录ID由仓库在保存时分配
+            Date rentalDate = new Date();
+            List<RentalRecord> rentalRecords = new ArrayList<>(vehicles.size());
+            for (int i = 0; i < vehicles.size(); i++) {
+                rentalRecords.add(new RentalRecord(0, vehicles.get(i), customer, rentalDate, rentalDays, rents[i]));
+            }
+
+            // 保存租赁记录
+            if (!rentalRecordRepository.addRentalRecords(rentalRecords)) {
+                System.out.println("创建租赁记录失败！");
+                // 回滚车辆状态和预约占用
+                vehicleService.markVehiclesAsAvailable(vehicleIds);
+                cancelReservationHolds(heldVehicleIds);
+                return new ArrayList<>();
+            }
+
+            for (RentalRecord rentalRecord : rentalRecords) {
+                for (RentalListener listener : listeners) {
+                    listener.onVehicleRented(rentalRecord);
+                }
+            }
+            return rentalRecords;
+        } finally {
+            StripedLock.unlockAll(locks);
+        }
+    }
+
+    /**
+     * 批量还车：按分段锁的顺序锁定全部车辆，检查全部记录未归还后统一标记车辆可出租并一次更新全部记录；
+     * 任一步骤失败时撤销已做的修改
+     * @param recordIds 租赁记录ID列表
+     * @return 租赁记录列表
+     */
+    @Override
+    public List<RentalRecord> returnVehicles(List<Integer> recordIds) {
+        if (recordIds.isEmpty() || new HashSet<>(recordIds).size() != recordIds.size()) {
+            System.out.println("租赁记录ID为空或有重复！");
+            return new ArrayList<>();
+        }
+
+        // 检查租赁记录是否存在，确定要锁定的车辆
+        List<Integer> vehicleIds = new ArrayList<>(recordIds.size());
+        for (int recordId : recordIds) {
+            Optional<RentalRecord> optionalRecord = rentalRecordRepository.findRentalRecordById(recordId);
+            if (!optionalRecord.isPresent()) {
+                System.out.println("租赁记录" + recordId + "不存在！");
+                return new ArrayList<>();
+            }
+            vehicleIds.add(optionalRecord.get().getVehicle().getId());
         }
 
-        return Optional.of(rentalRecord);
+        List<Lock> locks = vehicleLocks.lockAll(vehicleIds);
+        try {
+            // 持锁后重新读取记录并检查是否已经归还
+            List<RentalRecord> rentalRecords = new ArrayList<>(recordIds.size());
+            for (int recordId : recordIds) {
+                Optional<RentalRecord> optionalRecord = rentalRecordRepository.findRentalRecordById(recordId);
+                if (!optionalRecord.isPresent() || optionalRecord.get().isReturned()) {
+                    System.out.println("租赁记录" + recordId + "的车辆已经归还！");
+                    return new ArrayList<>();
+                }
+                rentalRecords.add(optionalRecord.get());
+            }
+
+            // 更新车辆状态为可出租
+            if (!vehicleService.markVehiclesAsAvailable(vehicleIds)) {
+                System.out.println("更新车辆状态失败！");
+                return new ArrayList<>();
+            }
+
+            // 更新租赁记录
+            Date returnDate = new Date();
+            for (RentalRecord rentalRecord : rentalRecords) {
+                rentalRecord.setReturnDate(returnDate);
+                rentalRecord.setReturned(true);
+            }
+
+            if (!rentalRecordRepository.updateRentalRecords(rentalRecords)) {
+                System.out.println("更新租赁记录失败！");
+                // 回滚租赁记录和车辆状态
+                for (RentalRecord rentalRecord : rentalRecords) {
+                    rentalRecord.setReturnDate(null);
+                    rentalRecord.setReturned(false);
+                }
+                vehicleService.markVehiclesAsRented(vehicleIds);
+                return new ArrayList<>();
+            }
+
+            for (RentalRecord rentalRecord : rentalRecords) {
+                for (RentalListener listener : listeners) {
+                    listener.onVehicleReturned(rentalRecord);
+                }
+            }
+            return rentalRecords;
+        } finally {
+            StripedLock.unlockAll(locks);
+        }
     }
 
     /**
@@ -187,33 +404,51 @@ public class RentalServiceImpl implements RentalService {
             return 0.0;
         }
 
-        Vehicle vehicle = optionalVehicle.get();
-        Customer customer = optionalCustomer.get();
+        return pricingEngine.quote(optionalVehicle.get(), optionalCustomer.get(), rentalDays, new Date());
+    }
 
-        // 获取基础租金
-        double baseRent = vehicle.getDailyRent() * rentalDays;
+    /**
+     * 批量报价：客户和报价日期只解析一次，直接遍历可租赁车辆索引中该类型的车辆
+     * @param customerId 客户ID
+     * @param type 车辆类型
+     * @param rentalDays 租赁天数
+     * @return 报价列表
+     */
+    @Override
+    public List<RentalQuote> quoteAvailableVehicles(int customerId, String type, int rentalDays) {
+        Optional<Customer> optionalCustomer = customerService.findCustomerById(customerId);
+        if (!optionalCustomer.isPresent()) {
+            return new ArrayList<>();
+        }
 
-        // 根据客户类型应用折扣
-        double discount = getDiscountByCustomerType(customer.getCustomerType());
+        Customer customer = optionalCustomer.get();
+        List<Vehicle> vehicles = vehicleService.findAvailableVehiclesByType(type);
+        double[] rents = pricingEngine.quoteAll(vehicles, customer, rentalDays, new Date());
+        List<RentalQuote> quotes = new ArrayList<>(vehicles.size());
+        for (int i = 0; i < rents.length; i++) {
+            quotes.add(new RentalQuote(vehicles.get(i), customer, rentalDays, rents[i]));
+        }
+        return quotes;
+    }
 
-        return baseRent * discount;
+    private void cancelReservationHold(int vehicleId) {
+        if (reservationService != null) {
+            reservationService.cancelRentalHold(vehicleId);
+        }
+    }
+
+    private void cancelReservationHolds(List<Integer> vehicleIds) {
+        for (int vehicleId : vehicleIds) {
+            cancelReservationHold(vehicleId);
+        }
     }
 
     /**
-     * 根据客户类型获取折扣率
-     * @param customerType 客户类型
-     * @return 折扣率
+     * 注册租赁事件监听器，租车、还车成功后通知
+     * @param listener 监听器
      */
-    private double getDiscountByCustomerType(String customerType) {
-        switch (customerType) {
-            case Constants.CUSTOMER_TYPE_REGULAR:
-                return Constants.DISCOUNT_REGULAR;
-            case Constants.CUSTOMER_TYPE_VIP:
-                return Constants.DISCOUNT_VIP;
-            case Constants.CUSTOMER_TYPE_ENTERPRISE:
-                return Constants.DISCOUNT_ENTERPRISE;
-            default:
-                return Constants.DISCOUNT_REGULAR;
-        }
+    @Override
+    public void addRentalListener(RentalListener listener) {
+        listeners.add(listener);
     }
-}
\ No newline at end of file
+}
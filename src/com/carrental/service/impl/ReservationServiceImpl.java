@@ -0,0 +1,298 @@
+package com.carrental.service.Impl;
+
+import com.carrental.model.RentalRecord;
+import com.carrental.model.Reservation;
+import com.carrental.model.Vehicle;
+import com.carrental.repository.RentalRecordRepository;
+import com.carrental.repository.ReservationRepository;
+import com.carrental.service.CustomerService;
+import com.carrental.service.RentalListener;
+import com.carrental.service.ReservationService;
+import com.carrental.service.VehicleService;
+import com.carrental.util.DateUtil;
+import com.carrental.util.IntHashMap;
+import com.carrental.util.IntervalIndex;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 预约服务实现类
+ * 每辆车一个区间索引，存放该车的预约和当前出租占用的日期区间，查询某车在某期间是否空闲为O(log n)
+ * 作为租赁事件监听器：租车成功后删除被完成的预约，还车后释放出租占用的区间
+ * 公开方法对本对象加锁，可被多个线程并发调用
+ */
+public class ReservationServiceImpl implements ReservationService, RentalListener {
+    private final VehicleService vehicleService;
+    private final CustomerService customerService;
+    private final ReservationRepository reservationRepository;
+    private final IntHashMap<IntervalIndex<Booking>> bookingsByVehicle = new IntHashMap<>(); // 车辆ID到该车占用区间的索引
+    private final IntHashMap<IntervalIndex.Interval<Booking>> rentalHolds = new IntHashMap<>(); // 车辆ID到出租占用的区间
+
+    /**
+     * 区间索引中的一项占用：一个预约，或一次出租
+     */
+    private static final class Booking {
+        final Reservation reservation; // 预约，出租时为null
+        final List<Reservation> fulfilled; // 出租时被完成的同一客户的预约
+
+        Booking(Reservation reservation, List<Reservation> fulfilled) {
+            this.reservation = reservation;
+            this.fulfilled = fulfilled;
+        }
+    }
+
+    // 构造函数注入依赖，并按已有预约和未归还的租赁记录建立索引
+    public ReservationServiceImpl(VehicleService vehicleService, CustomerService customerService,
+                                  ReservationRepository reservationRepository, RentalRecordRepository rentalRecordRepository) {
+        this(vehicleService, customerService, reservationRepository, rentalRecordRepository.findUnreturnedRentalRecords());
+    }
+
+    // 构造函数注入依赖，未归还的租赁记录来自多个网点时使用
+    public ReservationServiceImpl(VehicleService vehicleService, CustomerService customerService,
+                                  ReservationRepository reservationRepository, List<RentalRecord> unreturnedRecords) {
+        this.vehicleService = vehicleService;
+        this.customerService = customerService;
+        this.reservationRepository = reservationRepository;
+
+        for (Reservation reservation : reservationRepository.findAllReservations()) {
+            int start = DateUtil.toEpochDay(reservation.getStartDate());
+            if (bookingsOf(reservation.getVehicleId()).add(start, start + reservation.getDays(), new Booking(reservation, null)) == null) {
+                System.err.println("预约与其他预约时间冲突，已忽略: " + reservation.getId());
+            }
+        }
+        for (RentalRecord record : unreturnedRecords) {
+            if (record.getVehicle() != null) {
+                addRentalHold(record.getVehicle().getId(), record);
+            }
+        }
+    }
+
+    /**
+     * 预约车辆
+     */
+    @Override
+    public synchronized Optional<Reservation> reserveVehicle(int vehicleId, int customerId, Date startDate, int days) {
+        if (days <= 0) {
+            System.out.println("预约天数必须大于0！");
+            return Optional.empty();
+        }
+        int start = DateUtil.toEpochDay(startDate);
+        if (start < DateUtil.today()) {
+            System.out.println("预约日期不能早于今天！");
+            return Optional.empty();
+        }
+        if (!vehicleService.findVehicleById(vehicleId).isPresent()) {
+            System.out.println("车辆不存在！");
+            return Optional.empty();
+        }
+        if (!customerService.findCustomerById(customerId).isPresent()) {
+            System.out.println("客户不存在！");
+            return Optional.empty();
+        }
+        if (!isAvailable(vehicleId, startDate, days)) {
+            System.out.println("车辆在该期间已被预约或出租！");
+            return Optional.empty();
+        }
+
+        Reservation reservation = new Reservation(0, vehicleId, customerId, DateUtil.fromEpochDay(start), days);
+        if (!reservationRepository.addReservation(reservation)) {
+            System.out.println("保存预约失败！");
+            return Optional.empty();
+        }
+        bookingsOf(vehicleId).add(start, start + days, new Booking(reservation, null));
+        return Optional.of(reservation);
+    }
+
+    /**
+     * 取消预约
+     */
+    @Override
+    public synchronized boolean cancelReservation(int id) {
+        Optional<Reservation> reservation = reservationRepository.findReservationById(id);
+        if (!reservation.isPresent() || !reservationRepository.deleteReservation(id)) {
+            return false;
+        }
+        IntervalIndex<Booking> bookings = bookingsByVehicle.get(reservation.get().getVehicleId());
+        if (bookings != null) {
+            int start = DateUtil.toEpochDay(reservation.get().getStartDate());
+            IntervalIndex.Interval<Booking> removed = bookings.remove(start);
+            if (removed != null && removed.getValue().reservation == null) {
+                // 该区间已被出租占用（预约已随租车完成），放回去
+                bookings.add(removed.getStart(), removed.getEnd(), removed.getValue());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<Reservation> findReservationById(int id) {
+        return reservationRepository.findReservationById(id);
+    }
+
+    @Override
+    public synchronized List<Reservation> findAllReservations() {
+        return reservationRepository.findAllReservations();
+    }
+
+    @Override
+    public synchronized List<Reservation> findReservationsByVehicleId(int vehicleId) {
+        IntervalIndex<Booking> bookings = bookingsByVehicle.get(vehicleId);
+        if (bookings == null) {
+            return new ArrayList<>();
+        }
+        List<Reservation> reservations = new ArrayList<>();
+        for (IntervalIndex.Interval<Booking> interval : bookings.intervals()) {
+            if (interval.getValue().reservation != null) {
+                reservations.add(interval.getValue().reservation);
+            }
+        }
+        return reservations;
+    }
+
+    /**
+     * 判断车辆在指定期间是否空闲；车辆当前已出租时，今天及以前开始的期间都不空闲
+     */
+    @Override
+    public synchronized boolean isAvailable(int vehicleId, Date startDate, int days) {
+        Optional<Vehicle> vehicle = vehicleService.findVehicleById(vehicleId);
+        return vehicle.isPresent() && isFree(vehicle.get(), DateUtil.toEpochDay(startDate), Math.max(days, 1));
+    }
+
+    /**
+     * 查询指定类型中在指定期间空闲的车辆，每辆车一次O(log n)的区间查找
+     */
+    @Override
+    public synchronized List<Vehicle> findAvailableVehicles(String type, Date startDate, int days) {
+        int start = DateUtil.toEpochDay(startDate);
+        int length = Math.max(days, 1);
+        return vehicleService.findVehiclesByType(type).stream()
+                .filter(vehicle -> isFree(vehicle, start, length))
+                .collect(Collectors.toList());
+    }
+
+    private boolean isFree(Vehicle vehicle, int start, int days) {
+        if (vehicle.isRented() && start <= DateUtil.today()) {
+            return false;
+        }
+        IntervalIndex<Booking> bookings = bookingsByVehicle.get(vehicle.getId());
+        return bookings == null || bookings.isFree(start, start + days);
+    }
+
+    /**
+     * 为从今天开始的租车占用车辆的时间
+     */
+    @Override
+    public synchronized boolean holdForRental(int vehicleId, int customerId, int days) {
+        releaseRentalHold(vehicleId); // 车辆未出租时不应有出租占用，清除残留
+        int start = DateUtil.today();
+        int end = start + Math.max(days, 1);
+        IntervalIndex<Booking> bookings = bookingsOf(vehicleId);
+
+        List<IntervalIndex.Interval<Booking>> overlapping = bookings.overlapping(start, end);
+        for (IntervalIndex.Interval<Booking> interval : overlapping) {
+            Reservation reservation = interval.getValue().reservation;
+            if (reservation == null || reservation.getCustomerId() != customerId) {
+                return false;
+            }
+        }
+
+        List<Reservation> fulfilled = new ArrayList<>();
+        for (IntervalIndex.Interval<Booking> interval : overlapping) {
+            bookings.remove(interval.getStart());
+            fulfilled.add(interval.getValue().reservation);
+        }
+        rentalHolds.put(vehicleId, bookings.add(start, end, new Booking(null, fulfilled)));
+        return true;
+    }
+
+    /**
+     * 租车失败时撤销占用，恢复被完成的预约
+     */
+    @Override
+    public synchronized void cancelRentalHold(int vehicleId) {
+        IntervalIndex.Interval<Booking> hold = releaseRentalHold(vehicleId);
+        if (hold != null) {
+            for (Reservation reservation : hold.getValue().fulfilled) {
+                int start = DateUtil.toEpochDay(reservation.getStartDate());
+                bookingsOf(vehicleId).add(start, start + reservation.getDays(), new Booking(reservation, null));
+            }
+        }
+    }
+
+    /**
+     * 租车成功：删除被完成的预约；未经holdForRental()的租车在此补上占用
+     */
+    @Override
+    public synchronized void onVehicleRented(RentalRecord record) {
+        int vehicleId = record.getVehicle().getId();
+        IntervalIndex.Interval<Booking> hold = rentalHolds.get(vehicleId);
+        if (hold == null) {
+            addRentalHold(vehicleId, record);
+            return;
+        }
+        for (Reservation reservation : hold.getValue().fulfilled) {
+            reservationRepository.deleteReservation(reservation.getId());
+        }
+        hold.getValue().fulfilled.clear();
+    }
+
+    /**
+     * 还车：释放出租占用的区间
+     */
+    @Override
+    public synchronized void onVehicleReturned(RentalRecord record) {
+        if (record.getVehicle() != null) {
+            releaseRentalHold(record.getVehicle().getId());
+        }
+    }
+
+    /**
+     * 按租赁记录添加出租占用：从租车日期到预计归还日期，至少占用到今天
+     */
+    private void addRentalHold(int vehicleId, RentalRecord record) {
+        int start = DateUtil.toEpochDay(record.getRentalDate());
+        int end = Math.max(start + plannedDays(record), DateUtil.today() + 1);
+        IntervalIndex.Interval<Booking> hold = bookingsOf(vehicleId).add(start, end, new Booking(null, new ArrayList<>()));
+        if (hold != null) {
+            rentalHolds.put(vehicleId, hold);
+        } else {
+            System.err.println("未归还的租赁记录与预约时间冲突: " + record.getId());
+        }
+    }
+
+    /**
+     * 租车时约定的天数；数据文件增加租赁天数字段之前保存的记录没有该值，按总租金除以日租金估算
+     * 估算按原价计算，有折扣的记录估算的天数会偏短；无法估算时返回0，只占用到今天
+     */
+    private static int plannedDays(RentalRecord record) {
+        if (record.getRentalDays() > 0) {
+            return record.getRentalDays();
+        }
+        Vehicle vehicle = record.getVehicle();
+        if (vehicle == null || vehicle.getDailyRent() <= 0) {
+            return 0;
+        }
+        return (int) Math.ceil(record.getTotalRent() / vehicle.getDailyRent() - 1e-6);
+    }
+
+    private IntervalIndex.Interval<Booking> releaseRentalHold(int vehicleId) {
+        IntervalIndex.Interval<Booking> hold = rentalHolds.remove(vehicleId);
+        if (hold != null) {
+            bookingsOf(vehicleId).remove(hold.getStart());
+        }
+        return hold;
+    }
+
+    private IntervalIndex<Booking> bookingsOf(int vehicleId) {
+        IntervalIndex<Booking> bookings = bookingsByVehicle.get(vehicleId);
+        if (bookings == null) {
+            bookings = new IntervalIndex<>();
+            bookingsByVehicle.put(vehicleId, bookings);
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,274 @@
+package com.carrental.service.Impl;
+
+import com.carrental.model.Customer;
+import com.carrental.model.PricingRule;
+import com.carrental.model.Vehicle;
+import com.carrental.service.PricingEngine;
+import com.carrental.util.Constants;
+import com.carrental.util.DateUtil;
+import com.carrental.util.FileUtil;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 基于规则表的定价引擎
+ * 构造时把规则编译成按(车辆类型, 客户类型, 天数分段, 月份)索引的表，每格保存适用规则的倍率之积和附加费之和；
+ * 天数分段由各规则的天数边界划分，同一分段内适用的规则相同。计算租金时只需查两个类型下标、
+ * 一个分段下标和一次表格，不再逐条匹配规则；批量计算时客户类型、分段和月份只解析一次
+ * 创建后不再修改，可被多个线程同时使用
+ */
+public class RuleTablePricingEngine implements PricingEngine {
+    private static final int MONTHS = 12;
+    private static final int OTHER_VEHICLE_TYPE = 0; // 规则中未出现的车辆类型，只适用不限车辆类型的规则
+
+    private final List<PricingRule> rules;
+    private final Map<String, Integer> vehicleTypeIndexes = new HashMap<>();  // 车辆类型到下标
+    private final Map<String, Integer> customerTypeIndexes = new HashMap<>(); // 客户类型到下标
+    private final int defaultCustomerType;  // 未知客户类型按普通客户计算
+    private final int[] bucketStarts;       // 各天数分段的起始天数，升序
+    private final int[] bucketOfDays;       // 天数到分段下标，超出长度的天数属于最后一个分段
+    private final double[] table;           // 每格两个值：倍率之积、附加费之和
+
+    /**
+     * 构造方法，编译规则表
+     * @param rules 定价规则，按顺序相乘、相加，结果与顺序无关
+     */
+    public RuleTablePricingEngine(List<PricingRule> rules) {
+        this.rules = new ArrayList<>(rules);
+
+        vehicleTypeIndexes.put(null, OTHER_VEHICLE_TYPE);
+        for (String type : new String[]{Constants.VEHICLE_TYPE_CAR, Constants.VEHICLE_TYPE_VAN, Constants.VEHICLE_TYPE_BUS}) {
+            vehicleTypeIndexes.putIfAbsent(type, vehicleTypeIndexes.size());
+        }
+        for (String type : new String[]{Constants.CUSTOMER_TYPE_REGULAR, Constants.CUSTOMER_TYPE_VIP, Constants.CUSTOMER_TYPE_ENTERPRISE}) {
+            customerTypeIndexes.putIfAbsent(type, customerTypeIndexes.size());
+        }
+        TreeSet<Integer> starts = new TreeSet<>();
+        starts.add(1);
+        for (PricingRule rule : this.rules) {
+            if (rule.getVehicleType() != null) {
+                vehicleTypeIndexes.putIfAbsent(rule.getVehicleType(), vehicleTypeIndexes.size());
+            }
+            if (rule.getCustomerType() != null) {
+                customerTypeIndexes.putIfAbsent(rule.getCustomerType(), customerTypeIndexes.size());
+            }
+            if (rule.getMinDays() > 1) {
+                starts.add(rule.getMinDays());
+            }
+            if (rule.getMaxDays() > 0) {
+                starts.add(rule.getMaxDays() + 1);
+            }
+        }
+        this.defaultCustomerType = customerTypeIndexes.get(Constants.CUSTOMER_TYPE_REGULAR);
+
+        this.bucketStarts = new int[starts.size()];
+        int i = 0;
+        for (int start : starts) {
+            bucketStarts[i++] = start;
+        }
+        this.bucketOfDays = new int[bucketStarts[bucketStarts.length - 1] + 1];
+        for (int days = 0, bucket = 0; days < bucketOfDays.length; days++) {
+            while (bucket + 1 < bucketStarts.length && bucketStarts[bucket + 1] <= days) {
+                bucket++;
+            }
+            bucketOfDays[days] = bucket;
+        }
+
+        this.table = compile();
+    }
+
+    /**
+     * 默认规则：与原来按客户类型打折的计算方式一致
+     * @return 规则列表
+     */
+    public static List<PricingRule> defaultRules() {
+        List<PricingRule> rules = new ArrayList<>();
+        rules.add(PricingRule.customerDiscount(Constants.CUSTOMER_TYPE_REGULAR, Constants.DISCOUNT_REGULAR));
+        rules.add(PricingRule.customerDiscount(Constants.CUSTOMER_TYPE_VIP, Constants.DISCOUNT_VIP));
+        rules.add(PricingRule.customerDiscount(Constants.CUSTOMER_TYPE_ENTERPRISE, Constants.DISCOUNT_ENTERPRISE));
+        return rules;
+    }
+
+    /**
+     * 从规则文件创建定价引擎，文件不存在时使用默认规则
+     * 每行一条规则：车辆类型,客户类型,最少天数,最多天数,月份,倍率,每日附加费
+     * 类型、最多天数和月份可以写*表示不限；月份写成以/分隔的月份或范围，如7/8、12-2；
+     * 空行和以#开头的行忽略，格式错误的行打印后跳过
+     * 文件中的规则完全替代默认规则，需要客户折扣时也要写在文件里
+     * @param filePath 规则文件路径
+     * @return 定价引擎
+     */
+    public static RuleTablePricingEngine fromFile(String filePath) {
+        if (!new File(filePath).exists()) {
+            return new RuleTablePricingEngine(defaultRules());
+        }
+        List<PricingRule> rules = new ArrayList<>();
+        for (String line : FileUtil.readLines(filePath)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                rules.add(parseRule(line));
+            } catch (IllegalArgumentException e) {
+                System.err.println("定价规则格式错误，已跳过: " + line + "（" + e.getMessage() + "）");
+            }
+        }
+        return new RuleTablePricingEngine(rules);
+    }
+
+    private static PricingRule parseRule(String line) {
+        String[] parts = line.split(",", -1);
+        if (parts.length != 7) {
+            throw new IllegalArgumentException("应有7个字段");
+        }
+        return new PricingRule(
+                anyOrValue(parts[0]),
+                anyOrValue(parts[1]),
+                Integer.parseInt(parts[2].trim()),
+                anyOrValue(parts[3]) == null ? 0 : Integer.parseInt(parts[3].trim()),
+                parseMonths(parts[4].trim()),
+                Double.parseDouble(parts[5].trim()),
+                Double.parseDouble(parts[6].trim())
+        );
+    }
+
+    private static String anyOrValue(String field) {
+        String value = field.trim();
+        return value.equals("*") ? null : value;
+    }
+
+    /**
+     * 解析月份字段为位图，范围可以跨年，如12-2表示12月、1月和2月
+     */
+    private static int parseMonths(String field) {
+        if (field.equals("*")) {
+            return PricingRule.ALL_MONTHS;
+        }
+        int months = 0;
+        for (String part : field.split("/")) {
+            String[] range = part.split("-");
+            int from = Integer.parseInt(range[0].trim());
+            int to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+            if (range.length > 2 || from < 1 || from > MONTHS || to < 1 || to > MONTHS) {
+                throw new IllegalArgumentException("月份应在1到12之间: " + part);
+            }
+            for (int month = from; ; month = month % MONTHS + 1) {
+                months |= 1 << (month - 1);
+                if (month == to) {
+                    break;
+                }
+            }
+        }
+        return months;
+    }
+
+    /**
+     * 逐格计算适用规则的倍率之积和附加费之和
+     */
+    private double[] compile() {
+        int vehicleTypes = vehicleTypeIndexes.size();
+        int customerTypes = customerTypeIndexes.size();
+        int buckets = bucketStarts.length;
+        double[] cells = new double[vehicleTypes * customerTypes * buckets * MONTHS * 2];
+        for (int v = 0; v < vehicleTypes; v++) {
+            for (int c = 0; c < customerTypes; c++) {
+                for (int b = 0; b < buckets; b++) {
+                    for (int m = 0; m < MONTHS; m++) {
+                        double multiplier = 1.0;
+                        double surcharge = 0.0;
+                        for (PricingRule rule : rules) {
+                            if (matches(rule, v, c, bucketStarts[b], m)) {
+                                multiplier *= rule.getMultiplier();
+                                surcharge += rule.getDailySurcharge();
+                            }
+                        }
+                        int cell = cellIndex(v, c, b, m);
+                        cells[cell] = multiplier;
+                        cells[cell + 1] = surcharge;
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+
+    private boolean matches(PricingRule rule, int vehicleType, int customerType, int days, int month) {
+        return (rule.getVehicleType() == null || vehicleTypeIndexes.get(rule.getVehicleType()) == vehicleType)
+                && (rule.getCustomerType() == null || customerTypeIndexes.get(rule.getCustomerType()) == customerType)
+                && days >= rule.getMinDays()
+                && (rule.getMaxDays() == 0 || days <= rule.getMaxDays())
+                && (rule.getMonths() & (1 << month)) != 0;
+    }
+
+    private int cellIndex(int vehicleType, int customerType, int bucket, int month) {
+        return (((vehicleType * customerTypeIndexes.size() + customerType) * bucketStarts.length + bucket) * MONTHS + month) * 2;
+    }
+
+    private int vehicleTypeIndex(String vehicleType) {
+        Integer index = vehicleTypeIndexes.get(vehicleType);
+        return index != null ? index : OTHER_VEHICLE_TYPE;
+    }
+
+    private int customerTypeIndex(String customerType) {
+        Integer index = customerTypeIndexes.get(customerType);
+        return index != null ? index : defaultCustomerType;
+    }
+
+    private int bucketIndex(int rentalDays) {
+        if (rentalDays >= bucketOfDays.length) {
+            return bucketStarts.length - 1;
+        }
+        return rentalDays > 0 ? bucketOfDays[rentalDays] : 0;
+    }
+
+    private static int monthIndex(Date startDate) {
+        int epochDay = startDate != null ? DateUtil.toEpochDay(startDate) : DateUtil.today();
+        return LocalDate.ofEpochDay(epochDay).getMonthValue() - 1;
+    }
+
+    private double price(Vehicle vehicle, int customerType, int bucket, int month, int rentalDays) {
+        int cell = cellIndex(vehicleTypeIndex(vehicle.getType()), customerType, bucket, month);
+        return (vehicle.getDailyRent() + table[cell + 1]) * rentalDays * table[cell];
+    }
+
+    @Override
+    public double quote(Vehicle vehicle, Customer customer, int rentalDays, Date startDate) {
+        return price(vehicle, customerTypeIndex(customer.getCustomerType()), bucketIndex(rentalDays), monthIndex(startDate), rentalDays);
+    }
+
+    @Override
+    public double[] quoteAll(List<Vehicle> vehicles, Customer customer, int rentalDays, Date startDate) {
+        int customerType = customerTypeIndex(customer.getCustomerType());
+        int bucket = bucketIndex(rentalDays);
+        int month = monthIndex(startDate);
+        double[] quotes = new double[vehicles.size()];
+        for (int i = 0; i < quotes.length; i++) {
+            quotes[i] = price(vehicles.get(i), customerType, bucket, month, rentalDays);
+        }
+        return quotes;
+    }
+
+    /**
+     * @return 编译时使用的规则
+     */
+    public List<PricingRule> getRules() {
+        return new ArrayList<>(rules);
+    }
+
+    @Override
+    public String toString() {
+        return "RuleTablePricingEngine{rules=" + rules.size()
+                + ", vehicleTypes=" + vehicleTypeIndexes.size()
+                + ", customerTypes=" + customerTypeIndexes.size()
+                + ", dayBuckets=" + Arrays.toString(bucketStarts) + '}';
+    }
+}
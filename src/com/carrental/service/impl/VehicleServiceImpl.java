@@ -89,21 +89,13 @@ public class VehicleServiceImpl implements VehicleService {
     }
 
     /**
-     * 将车辆标记为已出租
+     * 将车辆标记为已出租，由仓库在同一次加锁中检查并修改状态和可租赁索引
      * @param id 车辆ID
      * @return 是否标记成功
      */
     @Override
     public boolean markVehicleAsRented(int id) {
-        Optional<Vehicle> optionalVehicle = vehicleRepository.findVehicleById(id);
-        if (optionalVehicle.isPresent()) {
-            Vehicle vehicle = optionalVehicle.get();
-            if (!vehicle.isRented()) {
-                vehicle.setRented(true);
-                return vehicleRepository.updateVehicle(vehicle);
-            }
-        }
-        return false;
+        return vehicleRepository.setRented(id, true);
     }
     /**
      * 将车辆标记为可出租
@@ -112,14 +104,26 @@ public class VehicleServiceImpl implements VehicleService {
      */
     @Override
     public boolean markVehicleAsAvailable(int id) {
-        Optional<Vehicle> optionalVehicle = vehicleRepository.findVehicleById(id);
-        if (optionalVehicle.isPresent()) {
-            Vehicle vehicle = optionalVehicle.get();
-            if (vehicle.isRented()) {
-                vehicle.setRented(false);
-                return vehicleRepository.updateVehicle(vehicle);
-            }
-        }
-        return false;
+        return vehicleRepository.setRented(id, false);
     }
-}
\ No newline at end of file
+
+    /**
+     * 批量将车辆标记为已出租
+     * @param ids 车辆ID列表
+     * @return 是否标记成功
+     */
+    @Override
+    public boolean markVehiclesAsRented(List<Integer> ids) {
+        return vehicleRepository.setRented(ids, true);
+    }
+
+    /**
+     * 批量将车辆标记为可出租
+     * @param ids 车辆ID列表
+     * @return 是否标记成功
+     */
+    @Override
+    public boolean markVehiclesAsAvailable(List<Integer> ids) {
+        return vehicleRepository.setRented(ids, false);
+    }
+}
@@ -0,0 +1,169 @@
+package com.carrental.terminal;
+
+import com.carrental.util.Constants;
+import com.carrental.util.InputUtil;
+import com.carrental.util.ThreadLocalPrintStream;
+import com.carrental.util.VirtualThreads;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * 终端服务器：各网点柜台用nc等工具连接后，得到与控制台相同的登录界面和菜单
+ * 每个连接运行一个独立的TerminalSession，由一个线程处理：运行在Java 21及以上版本时使用虚拟线程，否则使用普通线程
+ * 会话线程的InputUtil输入和System.out输出绑定到自己的连接，各会话共用同一套Service
+ */
+public class TerminalServer {
+    private final ServerSocket serverSocket;
+    private final Supplier<TerminalSession> sessionFactory;
+    private final ExecutorService executor;
+    private final Semaphore sessionPermits = new Semaphore(Constants.TERMINAL_MAX_SESSIONS);
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet(); // 当前打开的连接，停止时关闭
+    private final PrintStream log = System.out; // 服务器日志输出到控制台
+    private volatile boolean running;
+
+    /**
+     * 构造方法，绑定端口，调用start()后开始接受连接
+     * @param port 端口，为0时自动选择空闲端口
+     * @param sessionFactory 为每个连接创建会话
+     * @throws IOException 端口绑定失败
+     */
+    public TerminalServer(int port, Supplier<TerminalSession> sessionFactory) throws IOException {
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+        this.sessionFactory = sessionFactory;
+        this.executor = VirtualThreads.newThreadPerTaskExecutor("terminal-session-");
+    }
+
+    /**
+     * 开始接受连接；接受连接的线程不是守护线程，没有控制台时由它保持进程运行
+     */
+    public void start() {
+        ThreadLocalPrintStream.install();
+        running = true;
+        new Thread(this::acceptLoop, "terminal-acceptor").start();
+        log.println("终端服务器已启动，端口: " + getPort() + "（连接方式: nc 主机 " + getPort() + "）");
+    }
+
+    /**
+     * @return 实际监听的端口
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * 停止接受连接并断开所有会话
+     */
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // 忽略关闭异常
+        }
+        for (Socket socket : connections) {
+            closeQuietly(socket);
+        }
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("接受终端连接失败: " + e.getMessage());
+                    continue;
+                }
+                return;
+            }
+            if (!sessionPermits.tryAcquire()) {
+                reject(socket);
+                continue;
+            }
+            connections.add(socket);
+            try {
+                executor.execute(() -> serve(socket));
+            } catch (RuntimeException e) {
+                connections.remove(socket);
+                sessionPermits.release();
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    /**
+     * 在会话线程中运行一个会话，连接断开、空闲超时或用户退出系统时结束
+     */
+    private void serve(Socket socket) {
+        SocketAddress address = socket.getRemoteSocketAddress();
+        log.println("终端会话已连接: " + address + "（当前" + connections.size() + "个会话）");
+        TerminalSession session = null;
+        try {
+            socket.setSoTimeout(Constants.TERMINAL_IDLE_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+            // 不自动刷新，InputUtil读取输入前统一刷新，一屏菜单只发送一次
+            PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()), false, "UTF-8");
+            InputUtil.bind(socket.getInputStream());
+            ThreadLocalPrintStream.bind(out);
+            try {
+                session = sessionFactory.get();
+                session.run();
+            } catch (NoSuchElementException | IllegalStateException e) {
+                // 连接已断开或空闲超时，输入结束
+            } finally {
+                out.flush();
+                ThreadLocalPrintStream.unbind();
+                InputUtil.unbind();
+            }
+        } catch (IOException e) {
+            System.err.println("终端会话异常: " + address + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("终端会话异常: " + address);
+            e.printStackTrace();
+        } finally {
+            connections.remove(socket);
+            sessionPermits.release();
+            closeQuietly(socket);
+            String username = session == null ? null : session.getUsername();
+            log.println("终端会话已断开: " + address + (username == null ? "" : "（用户" + username + "）"));
+        }
+    }
+
+    /**
+     * 会话数已满时告知对方后断开
+     */
+    private void reject(Socket socket) {
+        try {
+            PrintStream out = new PrintStream(socket.getOutputStream(), true, "UTF-8");
+            out.println("当前会话数已满（" + Constants.TERMINAL_MAX_SESSIONS + "），请稍后再试。");
+        } catch (IOException e) {
+            // 对方已断开
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // 忽略关闭异常
+        }
+    }
+}
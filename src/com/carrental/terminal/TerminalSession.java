@@ -0,0 +1,72 @@
+package com.carrental.terminal;
+
+import com.carrental.controller.*;
+import com.carrental.service.*;
+
+/**
+ * 一个终端会话：拥有独立的控制器实例和登录用户，与其他会话共用同一套Service
+ * 输入输出来自当前线程绑定的InputUtil和System.out，控制台和终端服务器的每个连接各运行一个会话
+ */
+public class TerminalSession implements Runnable {
+    private static final int MAX_LOGIN_ATTEMPTS = 3;
+
+    private final UserController userController;
+    private final MainController mainController;
+
+    /**
+     * 构造方法，为本会话创建各控制器
+     */
+    public TerminalSession(VehicleService vehicleService, CustomerService customerService, RentalService rentalService,
+                           ReservationService reservationService, UserService userService, AnalyticsService analyticsService) {
+        VehicleController vehicleController = new VehicleController(vehicleService);
+        CustomerController customerController = new CustomerController(customerService);
+        ReservationController reservationController = new ReservationController(reservationService, vehicleService, customerService, vehicleController, customerController);
+        RentalController rentalController = new RentalController(rentalService, vehicleService, customerService, vehicleController, customerController, reservationController);
+        AnalyticsController analyticsController = new AnalyticsController(analyticsService);
+        this.userController = new UserController(userService);
+        this.mainController = new MainController(vehicleController, customerController, rentalController, userController, analyticsController);
+    }
+
+    /**
+     * 用户登录验证和系统主循环，选择退出系统或登录失败次数过多时返回
+     */
+    @Override
+    public void run() {
+        while (true) {
+            boolean loggedIn = false;
+            int attempts = 0;
+
+            // 登录循环
+            while (!loggedIn && attempts < MAX_LOGIN_ATTEMPTS) {
+                loggedIn = userController.showLoginScreen();
+                attempts++;
+
+                if (!loggedIn && attempts < MAX_LOGIN_ATTEMPTS) {
+                    System.out.println("剩余尝试次数: " + (MAX_LOGIN_ATTEMPTS - attempts));
+                    try {
+                        Thread.sleep(1000); // 等待1秒后重试
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+
+            if (!loggedIn) {
+                System.out.println("登录失败次数过多，系统即将退出。");
+                return;
+            }
+            // 登录成功，启动系统主菜单；退出登录后回到登录界面
+            if (!mainController.showMainMenu()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return 当前登录用户，未登录时为null
+     */
+    public String getUsername() {
+        return userController.getCurrentUser() == null ? null : userController.getCurrentUser().getUsername();
+    }
+}
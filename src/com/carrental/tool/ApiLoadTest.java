@@ -0,0 +1,283 @@
+package com.carrental.tool;
+
+import com.carrental.util.JsonUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP接口压力测试工具：多个线程反复租车后立即还车，统计每秒请求数和租车、还车请求的延迟分位数
+ * 只使用JDK自带的HttpURLConnection，服务器需先用Main --http启动
+ *
+ * 用法：java com.carrental.tool.ApiLoadTest [选项]
+ *   --url 地址             接口地址，默认http://localhost:8080
+ *   --threads 数量         并发线程数，默认16
+ *   --seconds 秒数         测试时长（不含预热），默认30
+ *   --warmup 秒数          预热时长，预热期间的请求不计入结果，默认5
+ *   --user 用户名:密码     登录用户，默认admin:admin123
+ */
+public class ApiLoadTest {
+    private String url = "http://localhost:8080";
+    private int threads = 16;
+    private int seconds = 30;
+    private int warmupSeconds = 5;
+    private String authorization = basic("admin:admin123");
+
+    private final AtomicLong conflicts = new AtomicLong(); // 车辆已被其他线程租出（409）
+    private final AtomicLong errors = new AtomicLong();    // 其他失败的请求
+
+    /**
+     * 一个线程记录的请求延迟（纳秒）
+     */
+    private static final class Latencies {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * 请求结果：状态码和响应内容
+     */
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * 运行测试并输出结果
+     * @throws IOException 读取车辆、客户列表失败
+     */
+    public void run() throws IOException, InterruptedException {
+        // HttpURLConnection默认每个地址只保持5个空闲连接，线程多时会反复建立连接
+        System.setProperty("http.maxConnections", String.valueOf(threads));
+        int[] vehicleIds = fetchIds("/api/vehicles");
+        int[] customerIds = fetchIds("/api/customers");
+        if (vehicleIds.length == 0 || customerIds.length == 0) {
+            System.err.println("服务器上没有车辆或客户数据");
+            return;
+        }
+        System.out.println("车辆" + vehicleIds.length + "辆，客户" + customerIds.length + "位，"
+                + threads + "个线程，预热" + warmupSeconds + "秒，测试" + seconds + "秒");
+
+        long measureStart = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long deadline = measureStart + seconds * 1_000_000_000L;
+        Latencies[] rentLatencies = new Latencies[threads];
+        Latencies[] returnLatencies = new Latencies[threads];
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            Latencies rents = rentLatencies[i] = new Latencies();
+            Latencies returns = returnLatencies[i] = new Latencies();
+            workers[i] = new Thread(() -> work(vehicleIds, customerIds, measureStart, deadline, rents, returns),
+                    "load-" + (i + 1));
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long[] rents = merge(rentLatencies);
+        long[] returns = merge(returnLatencies);
+        long requests = rents.length + returns.length;
+        System.out.printf("请求总数: %d，吞吐量: %.1f 请求/秒（租车成功 %d 次，车辆已被租出 %d 次，失败 %d 次）%n",
+                requests, requests / (double) seconds, returns.length, conflicts.get(), errors.get());
+        printLatencies("租车", rents);
+        printLatencies("还车", returns);
+    }
+
+    /**
+     * 工作线程：随机选车辆和客户租车，租到后立即还车，直到截止时间
+     */
+    private void work(int[] vehicleIds, int[] customerIds, long measureStart, long deadline,
+                      Latencies rents, Latencies returns) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            long begin = System.nanoTime();
+            if (begin >= deadline) {
+                return;
+            }
+            boolean measured = begin >= measureStart;
+            String request = "{\"vehicleId\":" + vehicleIds[random.nextInt(vehicleIds.length)]
+                    + ",\"customerId\":" + customerIds[random.nextInt(customerIds.length)]
+                    + ",\"rentalDays\":" + (1 + random.nextInt(7)) + "}";
+            try {
+                Response rent = send("POST", "/api/rentals", request);
+                long end = System.nanoTime();
+                if (rent.status == 409) {
+                    if (measured) {
+                        conflicts.incrementAndGet();
+                        rents.add(end - begin);
+                    }
+                    continue;
+                }
+                if (rent.status != 201) {
+                    errors.incrementAndGet();
+                    continue;
+                }
+                if (measured) {
+                    rents.add(end - begin);
+                }
+
+                Object id = ((Map<?, ?>) JsonUtil.parse(rent.body)).get("id");
+                begin = System.nanoTime();
+                Response returned = send("POST", "/api/rentals/" + id + "/return", null);
+                end = System.nanoTime();
+                if (returned.status != 200) {
+                    errors.incrementAndGet();
+                } else if (measured) {
+                    returns.add(end - begin);
+                }
+            } catch (IOException | RuntimeException e) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    private int[] fetchIds(String path) throws IOException {
+        Response response = send("GET", path, null);
+        if (response.status != 200) {
+            throw new IOException("请求" + path + "失败，状态码" + response.status + ": " + response.body);
+        }
+        List<?> items = (List<?>) JsonUtil.parse(response.body);
+        int[] ids = new int[items.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) ((Map<?, ?>) items.get(i)).get("id")).intValue();
+        }
+        return ids;
+    }
+
+    /**
+     * 发送请求并读完响应，使连接可以被复用
+     */
+    private Response send(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Authorization", authorization);
+        if (body != null) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+            connection.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+        } else if ("POST".equals(method)) {
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(0);
+            connection.getOutputStream().close();
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in == null) {
+            return new Response(status, "");
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream stream = in) {
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = stream.read(chunk)) > 0) {
+                buffer.write(chunk, 0, read);
+            }
+        }
+        return new Response(status, new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static long[] merge(Latencies[] latencies) {
+        int total = 0;
+        for (Latencies latency : latencies) {
+            total += latency.size;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (Latencies latency : latencies) {
+            System.arraycopy(latency.values, 0, merged, offset, latency.size);
+            offset += latency.size;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    private static void printLatencies(String name, long[] sorted) {
+        if (sorted.length == 0) {
+            System.out.println(name + ": 没有完成的请求");
+            return;
+        }
+        System.out.printf("%s延迟(ms): p50 %.2f，p90 %.2f，p99 %.2f，最大 %.2f%n", name,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                sorted[sorted.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    private static String basic(String credentials) {
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) {
+        ApiLoadTest loadTest = new ApiLoadTest();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("缺少参数值: " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--url":
+                        loadTest.url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                        break;
+                    case "--threads":
+                        loadTest.threads = Integer.parseInt(value);
+                        break;
+                    case "--seconds":
+                        loadTest.seconds = Integer.parseInt(value);
+                        break;
+                    case "--warmup":
+                        loadTest.warmupSeconds = Integer.parseInt(value);
+                        break;
+                    case "--user":
+                        loadTest.authorization = basic(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("未知选项: " + option);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+
+        try {
+            loadTest.run();
+        } catch (IOException e) {
+            System.err.println("压力测试失败: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.carrental.tool;
+
+import com.carrental.model.Bus;
+import com.carrental.model.Car;
+import com.carrental.model.Customer;
+import com.carrental.model.Van;
+import com.carrental.model.Vehicle;
+import com.carrental.repository.CustomerRepository;
+import com.carrental.repository.Impl.CustomerRepositoryFileImpl;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.repository.VehicleRepository;
+import com.carrental.util.Constants;
+import com.carrental.util.JsonUtil;
+import com.carrental.util.PersistenceScheduler;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 车辆、客户数据的批量导入导出工具，按文件扩展名选择CSV（.csv）或JSON（.json）格式，文件编码为UTF-8
+ * 导入时先校验全部数据，有任何错误则整批不导入；校验通过后一次性添加，只分配一段ID、只触发一次持久化
+ * 导出时逐条写出，不在内存中拼接整个文件
+ *
+ * CSV首行为表头，各列与JSON对象的字段相同：
+ *   车辆：id,type,brand,model,dailyRent,seats,rented（seats只对客车有效）
+ *   客户：id,name,customerType,phone
+ * 导入时忽略id列并分配新ID；新车辆没有租赁记录，因此也忽略rented列，一律为可出租状态；可以直接导入导出的文件
+ *
+ * 用法：java com.carrental.tool.BulkDataTool import|export vehicles|customers 文件 [目录]
+ *   目录        数据文件目录，默认./data
+ */
+public class BulkDataTool {
+    private static final List<String> VEHICLE_COLUMNS = Arrays.asList("id", "type", "brand", "model", "dailyRent", "seats", "rented");
+    private static final List<String> CUSTOMER_COLUMNS = Arrays.asList("id", "name", "customerType", "phone");
+    private static final int MAX_REPORTED_ERRORS = 20; // 导入失败时最多列出的错误数
+
+    private BulkDataTool() {
+    }
+
+    /**
+     * 导入结果
+     */
+    public static final class ImportResult {
+        private final int imported;
+        private final List<String> errors;
+
+        ImportResult(int imported, List<String> errors) {
+            this.imported = imported;
+            this.errors = errors;
+        }
+
+        /**
+         * @return 导入的条数，校验失败时为0
+         */
+        public int getImported() {
+            return imported;
+        }
+
+        /**
+         * @return 校验错误，每条注明行号或序号
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public boolean isSuccess() {
+            return errors.isEmpty();
+        }
+    }
+
+    /**
+     * 从文件导入车辆
+     * @param repository 车辆仓库
+     * @param filePath CSV或JSON文件路径
+     * @return 导入结果
+     * @throws IOException 读取失败
+     */
+    public static ImportResult importVehicles(VehicleRepository repository, String filePath) throws IOException {
+        List<Vehicle> vehicles = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (Row row : readRows(filePath, VEHICLE_COLUMNS)) {
+            try {
+                vehicles.add(toVehicle(row));
+            } catch (IllegalArgumentException e) {
+                errors.add(row.location + ": " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            return new ImportResult(0, errors);
+        }
+        return new ImportResult(repository.addVehicles(vehicles), errors);
+    }
+
+    /**
+     * 从文件导入客户
+     * @param repository 客户仓库
+     * @param filePath CSV或JSON文件路径
+     * @return 导入结果
+     * @throws IOException 读取失败
+     */
+    public static ImportResult importCustomers(CustomerRepository repository, String filePath) throws IOException {
+        List<Customer> customers = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (Row row : readRows(filePath, CUSTOMER_COLUMNS)) {
+            try {
+                customers.add(toCustomer(row));
+            } catch (IllegalArgumentException e) {
+                errors.add(row.location + ": " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            return new ImportResult(0, errors);
+        }
+        return new ImportResult(repository.addCustomers(customers), errors);
+    }
+
+    /**
+     * 导出全部车辆
+     * @param repository 车辆仓库
+     * @param filePath CSV或JSON文件路径
+     * @return 导出的条数
+     * @throws IOException 写入失败
+     */
+    public static int exportVehicles(VehicleRepository repository, String filePath) throws IOException {
+        List<Vehicle> vehicles = repository.findAllVehicles();
+        try (RowWriter writer = new RowWriter(filePath, VEHICLE_COLUMNS)) {
+            for (Vehicle vehicle : vehicles) {
+                writer.write(vehicle.getId(), vehicle.getType(), vehicle.getBrand(), vehicle.getModel(), vehicle.getDailyRent(),
+                        vehicle instanceof Bus ? ((Bus) vehicle).getSeats() : 0, vehicle.isRented());
+            }
+        }
+        return vehicles.size();
+    }
+
+    /**
+     * 导出全部客户
+     * @param repository 客户仓库
+     * @param filePath CSV或JSON文件路径
+     * @return 导出的条数
+     * @throws IOException 写入失败
+     */
+    public static int exportCustomers(CustomerRepository repository, String filePath) throws IOException {
+        List<Customer> customers = repository.findAllCustomers();
+        try (RowWriter writer = new RowWriter(filePath, CUSTOMER_COLUMNS)) {
+            for (Customer customer : customers) {
+                writer.write(customer.getId(), customer.getName(), customer.getCustomerType(), customer.getPhone());
+            }
+        }
+        return customers.size();
+    }
+
+    /**
+     * 校验并创建车辆；品牌与型号在数据文件中以空格连接，字段都保存在逗号分隔的行中，因此不允许出现逗号，品牌不允许出现空格
+     */
+    private static Vehicle toVehicle(Row row) {
+        String type = row.required("type");
+        String brand = row.required("brand");
+        String model = row.required("model");
+        double dailyRent = row.number("dailyRent");
+        if (brand.indexOf(' ') >= 0) {
+            throw new IllegalArgumentException("品牌不能包含空格: " + brand);
+        }
+        if (!(dailyRent > 0)) {
+            throw new IllegalArgumentException("日租金必须大于0: " + row.get("dailyRent"));
+        }
+
+        Vehicle vehicle;
+        switch (type) {
+            case Constants.VEHICLE_TYPE_CAR:
+                vehicle = new Car();
+                ((Car) vehicle).setTransmission("自动");
+                break;
+            case Constants.VEHICLE_TYPE_VAN:
+                vehicle = new Van();
+                ((Van) vehicle).setLoadCapacity(2.5);
+                break;
+            case Constants.VEHICLE_TYPE_BUS:
+            case "巴士":
+                int seats = row.get("seats") == null ? 0 : (int) row.number("seats");
+                if (seats < 0) {
+                    throw new IllegalArgumentException("座位数不能为负数: " + seats);
+                }
+                vehicle = new Bus();
+                ((Bus) vehicle).setSeats(seats);
+                break;
+            default:
+                throw new IllegalArgumentException("未知的车辆类型: " + type);
+        }
+        vehicle.setType(type);
+        vehicle.setBrand(brand);
+        vehicle.setModel(model);
+        vehicle.setDailyRent(dailyRent);
+        return vehicle;
+    }
+
+    private static Customer toCustomer(Row row) {
+        String name = row.required("name");
+        String customerType = row.required("customerType");
+        String phone = row.required("phone");
+        if (!customerType.equals(Constants.CUSTOMER_TYPE_REGULAR) && !customerType.equals(Constants.CUSTOMER_TYPE_VIP)
+                && !customerType.equals(Constants.CUSTOMER_TYPE_ENTERPRISE)) {
+            throw new IllegalArgumentException("未知的客户类型: " + customerType);
+        }
+
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setCustomerType(customerType);
+        customer.setPhone(phone);
+        return customer;
+    }
+
+    private static boolean isJson(String filePath) {
+        return filePath.toLowerCase(Locale.ROOT).endsWith(".json");
+    }
+
+    /**
+     * 读取全部数据行；CSV逐行读取，JSON整体解析为对象数组
+     */
+    private static List<Row> readRows(String filePath, List<String> columns) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        File file = new File(filePath);
+        if (!file.exists()) {
+            throw new IOException("文件不存在: " + filePath);
+        }
+
+        if (isJson(filePath)) {
+            Object parsed;
+            try {
+                parsed = JsonUtil.parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage() + ": " + filePath);
+            }
+            if (!(parsed instanceof List)) {
+                throw new IOException("JSON文件应为对象数组: " + filePath);
+            }
+            int index = 0;
+            for (Object element : (List<?>) parsed) {
+                index++;
+                Row row = new Row("第" + index + "个对象");
+                if (element instanceof Map) {
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) element).entrySet()) {
+                        row.put(String.valueOf(entry.getKey()), entry.getValue() == null ? null : String.valueOf(entry.getValue()));
+                    }
+                } else {
+                    row.invalid = "应为JSON对象";
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return rows;
+            }
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1); // 部分表格软件导出的CSV带有BOM
+            }
+            String[] names = header.split(",", -1);
+            for (int i = 0; i < names.length; i++) {
+                names[i] = names[i].trim();
+                if (!columns.contains(names[i])) {
+                    throw new IOException("未知的列" + names[i] + "，可用的列: " + String.join(",", columns));
+                }
+            }
+
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                Row row = new Row("第" + lineNumber + "行");
+                String[] values = line.split(",", -1);
+                if (values.length != names.length) {
+                    row.invalid = "应有" + names.length + "列，实际" + values.length + "列";
+                } else {
+                    for (int i = 0; i < names.length; i++) {
+                        row.put(names[i], values[i].trim());
+                    }
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 一条待导入的数据，字段值均为字符串
+     */
+    private static final class Row {
+        final String location;  // 行号或序号，用于错误信息
+        final Map<String, String> values = new HashMap<>();
+        String invalid;         // 整行格式错误的原因
+
+        Row(String location) {
+            this.location = location;
+        }
+
+        void put(String name, String value) {
+            values.put(name, value);
+        }
+
+        String get(String name) {
+            checkValid();
+            return values.get(name);
+        }
+
+        String required(String name) {
+            String value = get(name);
+            if (value == null || value.trim().isEmpty()) {
+                throw new IllegalArgumentException("缺少" + name);
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('\n') >= 0) {
+                throw new IllegalArgumentException(name + "不能包含逗号或换行: " + value);
+            }
+            return value.trim();
+        }
+
+        double number(String name) {
+            String value = required(name);
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + "应为数字: " + value);
+            }
+        }
+
+        private void checkValid() {
+            if (invalid != null) {
+                throw new IllegalArgumentException(invalid);
+            }
+        }
+    }
+
+    /**
+     * 逐条写出CSV行或JSON对象
+     */
+    private static final class RowWriter implements AutoCloseable {
+        private final Writer writer;
+        private final List<String> columns;
+        private final boolean json;
+        private boolean first = true;
+
+        RowWriter(String filePath, List<String> columns) throws IOException {
+            File parent = new File(filePath).getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            this.writer = new BufferedWriter(Files.newBufferedWriter(new File(filePath).toPath(), StandardCharsets.UTF_8), 64 * 1024);
+            this.columns = columns;
+            this.json = isJson(filePath);
+            writer.write(json ? "[" : String.join(",", columns));
+            writer.write('\n');
+        }
+
+        void write(Object... values) throws IOException {
+            if (json) {
+                writer.write(first ? "  {" : ",\n  {");
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(", ");
+                    }
+                    writer.write(JsonUtil.quote(columns.get(i)));
+                    writer.write(": ");
+                    Object value = values[i];
+                    writer.write(value instanceof String ? JsonUtil.quote((String) value) : formatValue(value));
+                }
+                writer.write('}');
+            } else {
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(formatValue(values[i]));
+                }
+                writer.write('\n');
+            }
+            first = false;
+        }
+
+        private static String formatValue(Object value) {
+            if (value instanceof Double) {
+                // 金额保留两位小数，与数据文件一致；逐条调用String.format开销较大
+                long cents = Math.round((Double) value * 100);
+                long fraction = Math.abs(cents % 100);
+                return (cents < 0 ? "-" : "") + Math.abs(cents / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+            }
+            return String.valueOf(value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (json) {
+                    writer.write(first ? "]\n" : "\n]\n");
+                }
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3 || args.length > 4) {
+            System.err.println("用法: BulkDataTool import|export vehicles|customers 文件 [目录]");
+            System.exit(1);
+        }
+        String command = args[0];
+        String entity = args[1];
+        String filePath = args[2];
+        String dataDir = args.length > 3 ? args[3] : Constants.DATA_DIR;
+        if (!"vehicles".equals(entity) && !"customers".equals(entity)) {
+            System.err.println("未知的数据类型: " + entity);
+            System.exit(1);
+        }
+
+        // 结束时关闭调度器，写入尚未保存的修改
+        PersistenceScheduler scheduler = new PersistenceScheduler(Constants.DURABILITY_MODE,
+                Constants.PERSISTENCE_FLUSH_INTERVAL_MS, Constants.PERSISTENCE_MAX_PENDING_CHANGES);
+        int exitCode = 0;
+        try {
+            long begin = System.nanoTime();
+            boolean vehicles = "vehicles".equals(entity);
+            if ("import".equals(command)) {
+                ImportResult result = vehicles
+                        ? importVehicles(new VehicleRepositoryFileImpl(dataDir, scheduler), filePath)
+                        : importCustomers(new CustomerRepositoryFileImpl(dataDir, scheduler), filePath);
+                if (result.isSuccess()) {
+                    System.out.println("导入完成: " + filePath + "，共" + result.getImported() + "条，耗时 "
+                            + (System.nanoTime() - begin) / 1_000_000 + "ms");
+                } else {
+                    System.err.println("校验失败，未导入任何数据，共" + result.getErrors().size() + "处错误：");
+                    for (String error : result.getErrors().subList(0, Math.min(MAX_REPORTED_ERRORS, result.getErrors().size()))) {
+                        System.err.println("  " + error);
+                    }
+                    exitCode = 1;
+                }
+            } else if ("export".equals(command)) {
+                int count = vehicles
+                        ? exportVehicles(new VehicleRepositoryFileImpl(dataDir, scheduler), filePath)
+                        : exportCustomers(new CustomerRepositoryFileImpl(dataDir, scheduler), filePath);
+                System.out.println("导出完成: " + filePath + "，共" + count + "条，耗时 "
+                        + (System.nanoTime() - begin) / 1_000_000 + "ms");
+            } else {
+                System.err.println("未知命令: " + command);
+                exitCode = 1;
+            }
+        } catch (IOException e) {
+            System.err.println("操作失败: " + e.getMessage());
+            exitCode = 1;
+        } finally {
+            scheduler.shutdown();
+        }
+        System.exit(exitCode);
+    }
+}
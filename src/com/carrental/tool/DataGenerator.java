@@ -0,0 +1,412 @@
+package com.carrental.tool;
+
+import com.carrental.util.AtomicFileWriter;
+import com.carrental.util.Constants;
+import com.carrental.util.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * 测试数据生成工具，按各仓库加载时解析的格式生成车辆、客户、租赁记录和用户数据文件
+ * 逐行写出，不在内存中保留已生成的行，可以生成上千万行的数据
+ * 同一种子生成的数据完全相同；未归还记录与已出租车辆一一对应，加载后数据保持一致
+ *
+ * 用法：java com.carrental.tool.DataGenerator [选项]
+ *   --dir 目录              输出目录，默认./data
+ *   --vehicles 数量         车辆数，默认1000
+ *   --customers 数量        客户数，默认1000
+ *   --rentals 数量          租赁记录数，默认10000
+ *   --users 数量            用户数（含admin），默认10
+ *   --vehicle-mix 轿车:面包车:客车   车辆类型比例，默认6:3:1
+ *   --customer-mix 普通:VIP:企业     客户类型比例，默认7:2:1
+ *   --open-ratio 比例       未归还记录占租赁记录的比例，默认0.05，不超过车辆数
+ *   --seed 种子             随机种子，默认42
+ */
+public class DataGenerator {
+    private static final String[] VEHICLE_TYPES = {
+            Constants.VEHICLE_TYPE_CAR, Constants.VEHICLE_TYPE_VAN, Constants.VEHICLE_TYPE_BUS
+    };
+    private static final String[] CUSTOMER_TYPES = {
+            Constants.CUSTOMER_TYPE_REGULAR, Constants.CUSTOMER_TYPE_VIP, Constants.CUSTOMER_TYPE_ENTERPRISE
+    };
+    // 各类型车辆的品牌型号，与VEHICLE_TYPES一一对应
+    private static final String[][] BRAND_MODELS = {
+            {"丰田 卡罗拉", "本田 思域", "大众 帕萨特", "日产 轩逸", "别克 英朗", "比亚迪 秦"},
+            {"福田 风景", "金杯 海狮", "五菱 宏光", "江铃 特顺", "依维柯 得意"},
+            {"宇通 ZK6122HQ", "金龙 XMQ6118AY", "海格 KLQ6125", "中通 LCK6108"}
+    };
+    // 各类型车辆的日租金范围（元），与VEHICLE_TYPES一一对应
+    private static final int[][] DAILY_RENT_RANGES = {{150, 400}, {250, 450}, {400, 900}};
+    private static final String[] SURNAMES = {"张", "王", "李", "赵", "刘", "陈", "杨", "黄", "周", "吴"};
+    private static final String[] GIVEN_NAMES = {"伟", "芳", "娜", "敏", "静", "强", "磊", "洋", "勇", "军", "杰", "娟"};
+    private static final String[] CITIES = {"北京", "上海", "广州", "深圳", "杭州", "成都"};
+    private static final String[] INDUSTRIES = {"科技", "贸易", "物流", "建设", "文化", "旅游"};
+    private static final int MAX_RENTAL_DAYS = 14;
+
+    private int vehicleCount = 1000;
+    private int customerCount = 1000;
+    private int rentalCount = 10000;
+    private int userCount = 10;
+    private int[] vehicleTypeWeights = {6, 3, 1};
+    private int[] customerTypeWeights = {7, 2, 1};
+    private double openRatio = 0.05;
+    private long seed = 42;
+    private LocalDate startDate = LocalDate.of(2023, 1, 1); // 最早的租赁日期
+    private int spanDays = 730; // 租赁日期分布的天数
+
+    public void setVehicleCount(int vehicleCount) {
+        this.vehicleCount = vehicleCount;
+    }
+
+    public void setCustomerCount(int customerCount) {
+        this.customerCount = customerCount;
+    }
+
+    public void setRentalCount(int rentalCount) {
+        this.rentalCount = rentalCount;
+    }
+
+    public void setUserCount(int userCount) {
+        this.userCount = userCount;
+    }
+
+    public void setVehicleTypeWeights(int[] vehicleTypeWeights) {
+        this.vehicleTypeWeights = vehicleTypeWeights;
+    }
+
+    public void setCustomerTypeWeights(int[] customerTypeWeights) {
+        this.customerTypeWeights = customerTypeWeights;
+    }
+
+    public void setOpenRatio(double openRatio) {
+        this.openRatio = openRatio;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public void setSpanDays(int spanDays) {
+        this.spanDays = spanDays;
+    }
+
+    /**
+     * 在指定目录生成全部数据文件，并删除该目录中已有的变更日志和ID序列文件
+     * @param dataDir 输出目录
+     * @throws IOException 写入失败
+     */
+    public void generate(String dataDir) throws IOException {
+        if (rentalCount > 0 && (vehicleCount == 0 || customerCount == 0)) {
+            throw new IllegalArgumentException("生成租赁记录需要至少一辆车和一个客户");
+        }
+
+        // 旧的变更日志会在加载时重放到新快照上，ID序列会在加载时按数据恢复
+        FileUtil.deleteFile(dataDir + "/" + Constants.VEHICLE_JOURNAL_FILE_NAME);
+        FileUtil.deleteFile(dataDir + "/" + Constants.VEHICLE_JOURNAL_FILE_NAME + ".compacting");
+        FileUtil.deleteFile(dataDir + "/" + Constants.VEHICLE_SEQUENCE_FILE_NAME);
+        FileUtil.deleteFile(dataDir + "/" + Constants.CUSTOMER_SEQUENCE_FILE_NAME);
+        FileUtil.deleteFile(dataDir + "/" + Constants.RENTAL_SEQUENCE_FILE_NAME);
+        // 二进制租赁记录文件存在时优先于文本文件，删除后由二进制存储从新生成的文本文件迁移
+        FileUtil.deleteFile(dataDir + "/" + Constants.RENTAL_BINARY_FILE_NAME);
+        // 归档分区中是旧数据的历史记录，与新生成的记录ID重叠
+        File[] archived = new File(dataDir, Constants.RENTAL_ARCHIVE_DIR_NAME).listFiles(File::isFile);
+        if (archived != null) {
+            for (File file : archived) {
+                FileUtil.deleteFile(file.getPath());
+            }
+        }
+
+        BitSet rentedVehicles = selectRentedVehicles();
+        writeVehicles(dataDir + "/" + Constants.VEHICLE_FILE_NAME, rentedVehicles);
+        writeCustomers(dataDir + "/" + Constants.CUSTOMER_FILE_NAME);
+        writeRentalRecords(dataDir + "/" + Constants.RENTAL_FILE_NAME, rentedVehicles);
+        writeUsers(dataDir + "/" + Constants.USER_FILE_NAME);
+    }
+
+    /**
+     * 未归还记录数，每辆车最多一条
+     */
+    private int openCount() {
+        return (int) Math.min(Math.round(rentalCount * openRatio), vehicleCount);
+    }
+
+    /**
+     * 等概率选出恰好openCount()辆已出租的车辆，逐个决定，不需要额外内存
+     */
+    private BitSet selectRentedVehicles() {
+        SplittableRandom random = new SplittableRandom(seed);
+        BitSet rented = new BitSet(vehicleCount + 1);
+        int needed = openCount();
+        for (int id = 1; id <= vehicleCount && needed > 0; id++) {
+            if (random.nextInt(vehicleCount - id + 1) < needed) {
+                rented.set(id);
+                needed--;
+            }
+        }
+        return rented;
+    }
+
+    private void writeVehicles(String filePath, BitSet rentedVehicles) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        try (AtomicFileWriter writer = new AtomicFileWriter(filePath)) {
+            for (int id = 1; id <= vehicleCount; id++) {
+                int type = vehicleType(id);
+                String[] brandModels = BRAND_MODELS[type];
+                int seatingCapacity;
+                if (type == 2) {
+                    seatingCapacity = 30 + (int) (unit(id, 4) * 26);
+                } else {
+                    seatingCapacity = type == 1 ? 9 : 5;
+                }
+
+                // 格式：ID,类型,品牌型号,购买年份,购买价格,日租金,座位数,状态
+                line.setLength(0);
+                line.append(id).append(',').append(VEHICLE_TYPES[type]).append(',')
+                        .append(brandModels[(int) (unit(id, 3) * brandModels.length)]).append(",0,0,");
+                appendAmount(line, dailyRentCents(id, type));
+                line.append(',').append(seatingCapacity).append(',').append(!rentedVehicles.get(id));
+                writer.writeLine(line.toString());
+            }
+            writer.commit();
+        }
+    }
+
+    private void writeCustomers(String filePath) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        try (AtomicFileWriter writer = new AtomicFileWriter(filePath)) {
+            for (int id = 1; id <= customerCount; id++) {
+                int type = customerType(id);
+                String name;
+                if (type == 2) {
+                    name = CITIES[(int) (unit(id, 6) * CITIES.length)]
+                            + INDUSTRIES[(int) (unit(id, 7) * INDUSTRIES.length)] + "有限公司" + id;
+                } else {
+                    name = SURNAMES[(int) (unit(id, 6) * SURNAMES.length)]
+                            + GIVEN_NAMES[(int) (unit(id, 7) * GIVEN_NAMES.length)] + id;
+                }
+
+                // 格式：ID,姓名,类型,电话
+                line.setLength(0);
+                line.append(id).append(',').append(name).append(',').append(CUSTOMER_TYPES[type])
+                        .append(",13").append(100000000 + (long) (unit(id, 8) * 900000000));
+                writer.writeLine(line.toString());
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * 按日期先后生成租赁记录，最后openCount()条为未归还记录，分别对应各辆已出租的车辆
+     */
+    private void writeRentalRecords(String filePath, BitSet rentedVehicles) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        int returnedCount = rentalCount - openCount();
+        int openVehicle = rentedVehicles.nextSetBit(0);
+        long startDay = startDate.toEpochDay();
+        StringBuilder line = new StringBuilder(64);
+
+        try (AtomicFileWriter writer = new AtomicFileWriter(filePath)) {
+            for (int id = 1; id <= rentalCount; id++) {
+                boolean returned = id <= returnedCount;
+                int vehicleId;
+                if (returned) {
+                    vehicleId = 1 + random.nextInt(vehicleCount);
+                } else {
+                    vehicleId = openVehicle;
+                    openVehicle = rentedVehicles.nextSetBit(openVehicle + 1);
+                }
+                int customerId = 1 + random.nextInt(customerCount);
+                int rentalDays = 1 + random.nextInt(MAX_RENTAL_DAYS);
+                LocalDate rentalDate = LocalDate.ofEpochDay(startDay + (long) (id - 1) * spanDays / rentalCount);
+
+                // 租金与默认定价规则一致：日租金 × 天数 × 客户折扣
+                double totalRent = dailyRentCents(vehicleId, vehicleType(vehicleId)) / 100.0 * rentalDays
+                        * discount(customerType(customerId));
+
+                // 格式：ID,车辆ID,客户ID,租赁日期,归还日期,总租金,状态,租赁天数
+                line.setLength(0);
+                line.append(id).append(',').append(vehicleId).append(',').append(customerId).append(',')
+                        .append(rentalDate).append(',');
+                if (returned) {
+                    line.append(rentalDate.plusDays(rentalDays));
+                } else {
+                    line.append("null");
+                }
+                line.append(',');
+                appendAmount(line, Math.round(totalRent * 100));
+                line.append(',').append(returned ? "已归还" : "未归还");
+                line.append(',').append(rentalDays);
+                writer.writeLine(line.toString());
+            }
+            writer.commit();
+        }
+    }
+
+    private void writeUsers(String filePath) throws IOException {
+        try (AtomicFileWriter writer = new AtomicFileWriter(filePath)) {
+            // 格式：用户名,密码,角色
+            writer.writeLine("admin,admin123,ADMIN");
+            for (int i = 1; i < userCount; i++) {
+                writer.writeLine("user" + i + ",password" + i + ",USER");
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * 车辆类型序号，由车辆ID决定，生成租赁记录时可以重新算出
+     */
+    private int vehicleType(int id) {
+        return weightedIndex(vehicleTypeWeights, unit(id, 1));
+    }
+
+    /**
+     * 车辆日租金（分），取整到元
+     */
+    private long dailyRentCents(int id, int type) {
+        int[] range = DAILY_RENT_RANGES[type];
+        return (range[0] + (long) (unit(id, 2) * (range[1] - range[0] + 1))) * 100;
+    }
+
+    /**
+     * 客户类型序号，由客户ID决定
+     */
+    private int customerType(int id) {
+        return weightedIndex(customerTypeWeights, unit(id, 5));
+    }
+
+    private static double discount(int customerType) {
+        switch (customerType) {
+            case 1:
+                return Constants.DISCOUNT_VIP;
+            case 2:
+                return Constants.DISCOUNT_ENTERPRISE;
+            default:
+                return Constants.DISCOUNT_REGULAR;
+        }
+    }
+
+    private static int weightedIndex(int[] weights, double unit) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        double target = unit * total;
+        for (int i = 0; i < weights.length; i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * 由种子、ID和属性编号确定的[0,1)之间的伪随机数，同一输入总是得到同一结果
+     */
+    private double unit(int id, int attribute) {
+        long z = seed + id * 0x9E3779B97F4A7C15L + attribute * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * 以两位小数追加金额，与String.format("%.2f")的输出一致
+     */
+    private static void appendAmount(StringBuilder line, long cents) {
+        line.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    public static void main(String[] args) {
+        DataGenerator generator = new DataGenerator();
+        String dataDir = Constants.DATA_DIR;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("缺少参数值: " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--dir":
+                        dataDir = value;
+                        break;
+                    case "--vehicles":
+                        generator.setVehicleCount(Integer.parseInt(value));
+                        break;
+                    case "--customers":
+                        generator.setCustomerCount(Integer.parseInt(value));
+                        break;
+                    case "--rentals":
+                        generator.setRentalCount(Integer.parseInt(value));
+                        break;
+                    case "--users":
+                        generator.setUserCount(Integer.parseInt(value));
+                        break;
+                    case "--vehicle-mix":
+                        generator.setVehicleTypeWeights(parseWeights(value));
+                        break;
+                    case "--customer-mix":
+                        generator.setCustomerTypeWeights(parseWeights(value));
+                        break;
+                    case "--open-ratio":
+                        generator.setOpenRatio(Double.parseDouble(value));
+                        break;
+                    case "--seed":
+                        generator.setSeed(Long.parseLong(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("未知选项: " + option);
+                }
+            }
+
+            long begin = System.nanoTime();
+            generator.generate(dataDir);
+            System.out.println("数据生成完成: " + dataDir + "，车辆 " + generator.vehicleCount + "，客户 "
+                    + generator.customerCount + "，租赁记录 " + generator.rentalCount + "（未归还 "
+                    + generator.openCount() + "），用户 " + generator.userCount + "，耗时 "
+                    + (System.nanoTime() - begin) / 1_000_000 + "ms");
+        } catch (IllegalArgumentException e) {
+            System.err.println("参数错误: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("写入数据失败: " + dataDir);
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 解析“6:3:1”形式的三个类型比例
+     */
+    private static int[] parseWeights(String value) {
+        String[] parts = value.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("类型比例应为三个整数，如6:3:1: " + value);
+        }
+        int[] weights = new int[3];
+        for (int i = 0; i < 3; i++) {
+            weights[i] = Integer.parseInt(parts[i].trim());
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("类型比例不能为负数: " + value);
+            }
+        }
+        return weights;
+    }
+}
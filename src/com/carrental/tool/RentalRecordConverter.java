@@ -0,0 +1,83 @@
+package com.carrental.tool;
+
+import com.carrental.repository.Impl.RentalRecordBinaryFormat;
+import com.carrental.repository.Impl.RentalRecordColumns;
+import com.carrental.repository.Impl.RentalRecordTextFormat;
+import com.carrental.util.Constants;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 租赁记录文本格式与二进制列存格式的互相转换工具，转换后源文件保持不变
+ *
+ * 用法：java com.carrental.tool.RentalRecordConverter text2bin|bin2text [目录]
+ *   text2bin   将rental_records.txt转换为rental_records.bin
+ *   bin2text   将rental_records.bin转换为rental_records.txt
+ *   目录        数据文件目录，默认./data
+ */
+public class RentalRecordConverter {
+    private RentalRecordConverter() {
+    }
+
+    /**
+     * 文本格式转换为二进制格式
+     * @param dataDir 数据文件目录
+     * @return 转换的记录数
+     * @throws IOException 读写失败
+     */
+    public static int textToBinary(String dataDir) throws IOException {
+        String source = dataDir + "/" + Constants.RENTAL_FILE_NAME;
+        requireExists(source);
+        RentalRecordColumns columns = RentalRecordTextFormat.read(source);
+        RentalRecordBinaryFormat.write(dataDir + "/" + Constants.RENTAL_BINARY_FILE_NAME, columns);
+        return columns.size();
+    }
+
+    /**
+     * 二进制格式转换为文本格式
+     * @param dataDir 数据文件目录
+     * @return 转换的记录数
+     * @throws IOException 读写失败
+     */
+    public static int binaryToText(String dataDir) throws IOException {
+        String source = dataDir + "/" + Constants.RENTAL_BINARY_FILE_NAME;
+        requireExists(source);
+        RentalRecordColumns columns = RentalRecordBinaryFormat.read(source);
+        RentalRecordTextFormat.write(dataDir + "/" + Constants.RENTAL_FILE_NAME, columns);
+        return columns.size();
+    }
+
+    private static void requireExists(String filePath) throws IOException {
+        if (!new File(filePath).exists()) {
+            throw new IOException("文件不存在: " + filePath);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("用法: RentalRecordConverter text2bin|bin2text [目录]");
+            System.exit(1);
+        }
+        String dataDir = args.length > 1 ? args[1] : Constants.DATA_DIR;
+
+        try {
+            long begin = System.nanoTime();
+            int count;
+            if ("text2bin".equals(args[0])) {
+                count = textToBinary(dataDir);
+            } else if ("bin2text".equals(args[0])) {
+                count = binaryToText(dataDir);
+            } else {
+                System.err.println("未知命令: " + args[0]);
+                System.exit(1);
+                return;
+            }
+            System.out.println("转换完成: " + dataDir + "，共" + count + "条租赁记录，耗时 "
+                    + (System.nanoTime() - begin) / 1_000_000 + "ms");
+        } catch (IOException e) {
+            System.err.println("转换失败: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
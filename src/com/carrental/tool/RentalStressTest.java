@@ -0,0 +1,269 @@
+package com.carrental.tool;
+
+import com.carrental.model.RentalRecord;
+import com.carrental.model.Vehicle;
+import com.carrental.repository.Impl.CustomerRepositoryFileImpl;
+import com.carrental.repository.Impl.RentalRecordRepositoryFileImpl;
+import com.carrental.repository.Impl.VehicleRepositoryFileImpl;
+import com.carrental.repository.RentalRecordRepository;
+import com.carrental.service.Impl.CustomerServiceImpl;
+import com.carrental.service.Impl.RentalServiceImpl;
+import com.carrental.service.Impl.VehicleServiceImpl;
+import com.carrental.service.RentalListener;
+import com.carrental.service.RentalService;
+import com.carrental.service.VehicleService;
+import com.carrental.util.Constants;
+import com.carrental.util.DurabilityMode;
+import com.carrental.util.PersistenceScheduler;
+import com.carrental.util.ThreadLocalPrintStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 租车并发压力测试工具：在临时数据目录中生成少量车辆，多个线程同时随机租车、批量租车、还车和重复还车，
+ * 检查同一车辆不会被同时租给两个客户、同一记录不会被归还两次，结束后检查每辆已出租车辆正好有一条未归还记录
+ * 发现问题时输出明细并以状态码1退出
+ *
+ * 用法：java com.carrental.tool.RentalStressTest [选项]
+ *   --threads 数量         并发线程数，默认16
+ *   --vehicles 数量        车辆数，越少竞争越激烈，默认16
+ *   --seconds 秒数         测试时长，默认10
+ */
+public class RentalStressTest {
+    private int threads = 16;
+    private int vehicles = 16;
+    private int seconds = 10;
+
+    private final AtomicLong rentals = new AtomicLong();   // 成功的租车次数
+    private final AtomicLong conflicts = new AtomicLong(); // 车辆已被其他线程租出的次数
+
+    /**
+     * 在持有车辆锁时登记每辆车当前的租赁记录：车辆已有未归还记录时又被租出，或归还的不是登记的记录，都是一次冲突
+     * 登记和检查都在租赁服务的锁内进行，不会把还车与随后的租车误判为冲突
+     */
+    public static class ExclusiveRentalChecker implements RentalListener {
+        private final Map<Integer, Integer> rentedBy = new ConcurrentHashMap<>(); // 车辆ID到当前租赁记录ID
+        private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onVehicleRented(RentalRecord record) {
+            Integer previous = rentedBy.putIfAbsent(record.getVehicle().getId(), record.getId());
+            if (previous != null) {
+                violations.add("车辆" + record.getVehicle().getId() + "被重复出租：记录" + previous + "尚未归还时又生成记录"
+                        + record.getId());
+            }
+        }
+
+        @Override
+        public void onVehicleReturned(RentalRecord record) {
+            if (!rentedBy.remove(record.getVehicle().getId(), record.getId())) {
+                violations.add("归还的记录" + record.getId() + "不是车辆" + record.getVehicle().getId() + "当前的租赁记录");
+            }
+        }
+
+        /**
+         * @param vehicleId 车辆ID
+         * @return 车辆是否登记为出租中
+         */
+        public boolean isRented(int vehicleId) {
+            return rentedBy.containsKey(vehicleId);
+        }
+
+        /**
+         * @return 发现的冲突，没有时为空列表
+         */
+        public List<String> getViolations() {
+            return new ArrayList<>(violations);
+        }
+    }
+
+    /**
+     * 检查车辆状态与租赁记录一致：出租中的车辆正好有一条未归还记录，可租的车辆没有未归还记录
+     * 需在没有租车、还车进行时调用
+     * @param vehicleService 车辆服务
+     * @param rentalRecordRepository 租赁记录仓库
+     * @return 不一致之处，没有时为空列表
+     */
+    public static List<String> checkUnreturnedRecords(VehicleService vehicleService,
+                                                      RentalRecordRepository rentalRecordRepository) {
+        Map<Integer, Integer> unreturned = new HashMap<>();
+        for (RentalRecord record : rentalRecordRepository.findUnreturnedRentalRecords()) {
+            unreturned.merge(record.getVehicle().getId(), 1, Integer::sum);
+        }
+        List<String> errors = new ArrayList<>();
+        for (Vehicle vehicle : vehicleService.findAllVehicles()) {
+            int count = unreturned.getOrDefault(vehicle.getId(), 0);
+            if (vehicle.isRented() ? count != 1 : count != 0) {
+                errors.add("车辆" + vehicle.getId() + (vehicle.isRented() ? "已出租" : "可租") + "，但有" + count + "条未归还记录");
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * 运行测试并输出结果
+     * @return 没有发现问题时返回true
+     * @throws IOException 生成或删除测试数据失败
+     */
+    public boolean run() throws IOException, InterruptedException {
+        String dataDir = Files.createTempDirectory("carrental-stress").toString();
+        PersistenceScheduler scheduler = new PersistenceScheduler(DurabilityMode.GROUP_COMMIT,
+                Constants.PERSISTENCE_FLUSH_INTERVAL_MS, Constants.PERSISTENCE_MAX_PENDING_CHANGES);
+        try {
+            DataGenerator generator = new DataGenerator();
+            generator.setVehicleCount(vehicles);
+            generator.setCustomerCount(100);
+            generator.setRentalCount(0);
+            generator.setUserCount(1);
+            generator.generate(dataDir);
+
+            VehicleRepositoryFileImpl vehicleRepository = new VehicleRepositoryFileImpl(dataDir, scheduler);
+            CustomerRepositoryFileImpl customerRepository = new CustomerRepositoryFileImpl(dataDir, scheduler);
+            RentalRecordRepositoryFileImpl rentalRecordRepository = new RentalRecordRepositoryFileImpl(dataDir, scheduler);
+            rentalRecordRepository.setRepository(vehicleRepository, customerRepository);
+            VehicleService vehicleService = new VehicleServiceImpl(vehicleRepository);
+            RentalService rentalService = new RentalServiceImpl(vehicleService,
+                    new CustomerServiceImpl(customerRepository), rentalRecordRepository);
+            ExclusiveRentalChecker checker = new ExclusiveRentalChecker();
+            rentalService.addRentalListener(checker);
+            System.out.println("车辆" + vehicles + "辆，" + threads + "个线程，测试" + seconds + "秒");
+
+            // 租车冲突时服务会输出提示，工作线程的输出全部丢弃
+            ThreadLocalPrintStream.install();
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            List<String> errors = Collections.synchronizedList(new ArrayList<>());
+            Thread[] workers = new Thread[threads];
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Thread(() -> {
+                    ThreadLocalPrintStream.bind(new PrintStream(new OutputStream() {
+                        @Override
+                        public void write(int b) {
+                        }
+                    }));
+                    work(rentalService, checker, deadline, errors);
+                }, "stress-" + (i + 1));
+                workers[i].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            errors.addAll(checker.getViolations());
+            errors.addAll(checkUnreturnedRecords(vehicleService, rentalRecordRepository));
+            System.out.printf("租车成功 %d 次，车辆已被租出 %d 次，吞吐量 %.1f 次/秒%n",
+                    rentals.get(), conflicts.get(), rentals.get() / (double) seconds);
+            if (errors.isEmpty()) {
+                System.out.println("未发现重复出租或重复归还");
+                return true;
+            }
+            System.err.println("发现" + errors.size() + "处问题：");
+            for (String error : errors.subList(0, Math.min(errors.size(), 20))) {
+                System.err.println("  " + error);
+            }
+            return false;
+        } finally {
+            scheduler.shutdown();
+            try (Stream<Path> paths = Files.walk(new File(dataDir).toPath())) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    /**
+     * 工作线程：随机租一辆或几辆车，租到后检查登记状态再还车，并尝试重复还车，直到截止时间
+     */
+    private void work(RentalService rentalService, ExclusiveRentalChecker checker, long deadline, List<String> errors) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            int customerId = 1 + random.nextInt(100);
+            List<RentalRecord> records;
+            if (random.nextInt(5) == 0) {
+                Set<Integer> vehicleIds = new HashSet<>();
+                int count = 2 + random.nextInt(3);
+                while (vehicleIds.size() < Math.min(count, vehicles)) {
+                    vehicleIds.add(1 + random.nextInt(vehicles));
+                }
+                records = rentalService.rentVehicles(new ArrayList<>(vehicleIds), customerId, 1);
+            } else {
+                Optional<RentalRecord> record = rentalService.rentVehicle(1 + random.nextInt(vehicles), customerId, 1);
+                records = record.isPresent() ? Collections.singletonList(record.get()) : Collections.emptyList();
+            }
+            if (records.isEmpty()) {
+                conflicts.incrementAndGet();
+                continue;
+            }
+            rentals.addAndGet(records.size());
+
+            // 还车前车辆必须一直登记为出租中
+            for (RentalRecord record : records) {
+                if (!checker.isRented(record.getVehicle().getId())) {
+                    errors.add("车辆" + record.getVehicle().getId() + "在记录" + record.getId() + "归还前已不是出租状态");
+                }
+            }
+            for (RentalRecord record : records) {
+                if (!rentalService.returnVehicle(record.getId()).isPresent()) {
+                    errors.add("归还记录" + record.getId() + "失败");
+                }
+                if (random.nextInt(10) == 0 && rentalService.returnVehicle(record.getId()).isPresent()) {
+                    errors.add("记录" + record.getId() + "被归还两次");
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        RentalStressTest stressTest = new RentalStressTest();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("缺少参数值: " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--threads":
+                        stressTest.threads = Integer.parseInt(value);
+                        break;
+                    case "--vehicles":
+                        stressTest.vehicles = Integer.parseInt(value);
+                        break;
+                    case "--seconds":
+                        stressTest.seconds = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("未知选项: " + option);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+
+        try {
+            System.exit(stressTest.run() ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println("压力测试失败: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.carrental.util;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 原子文件写入器：先写临时文件，追加校验行并刷盘，再原子替换目标文件
+ * 写入过程中崩溃或磁盘写满时，目标文件保持旧内容不变
+ * 用法：逐行writeLine()，或通过openDataStream()写入二进制内容，全部写完后commit()；
+ * 未commit就close()则放弃本次写入
+ * 逐行写入的文件第一行为ChecksumTrailer.HEADER，读取时据此要求校验行必须存在；
+ * 二进制内容不加该行，由各格式自己的文件头识别，读取时总是要求校验行
+ */
+public class AtomicFileWriter implements Closeable {
+    private final Path target;         // 目标文件
+    private final Path temp;           // 临时文件
+    private final FileOutputStream fileOut;
+    private final CheckedOutputStream checkedOut;
+    private final BufferedWriter writer;
+    private DataOutputStream dataStream; // 二进制内容的输出流，未使用时为null
+    private boolean headerWritten;       // 是否已写入文本文件的第一行
+    private boolean committed;
+
+    /**
+     * 构造方法，创建临时文件
+     * @param filePath 目标文件路径
+     * @throws IOException 创建临时文件失败
+     */
+    public AtomicFileWriter(String filePath) throws IOException {
+        File file = new File(filePath);
+        File parentDir = file.getAbsoluteFile().getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+
+        this.target = file.toPath();
+        this.temp = new File(parentDir, file.getName() + ".tmp").toPath();
+        this.fileOut = new FileOutputStream(temp.toFile());
+        this.checkedOut = new CheckedOutputStream(fileOut, new CRC32());
+        this.writer = new BufferedWriter(new OutputStreamWriter(checkedOut));
+    }
+
+    /**
+     * 写入一行
+     * @param line 内容
+     * @throws IOException 写入失败
+     */
+    public void writeLine(String line) throws IOException {
+        writeHeader();
+        writer.write(line);
+        writer.newLine();
+    }
+
+    private void writeHeader() throws IOException {
+        if (!headerWritten) {
+            writer.write(ChecksumTrailer.HEADER);
+            writer.newLine();
+            headerWritten = true;
+        }
+    }
+
+    /**
+     * 获取写入二进制内容的输出流，不要与writeLine()混用；无需关闭，commit()时自动刷新
+     * @return 输出流
+     */
+    public DataOutputStream openDataStream() {
+        if (dataStream == null) {
+            dataStream = new DataOutputStream(new BufferedOutputStream(checkedOut, 64 * 1024));
+        }
+        return dataStream;
+    }
+
+    /**
+     * 追加校验行、刷盘并替换目标文件
+     * @throws IOException 写入或替换失败，目标文件保持不变
+     */
+    public void commit() throws IOException {
+        if (dataStream != null) {
+            dataStream.flush();
+        } else {
+            writeHeader(); // 没有内容的文本文件也写入第一行
+        }
+        writer.flush();
+        ChecksumTrailer trailer = new ChecksumTrailer(checkedOut.getChecksum().getValue(), fileOut.getChannel().position());
+        // 校验行直接写入文件流，不计入校验值
+        fileOut.write((trailer.toLine() + System.lineSeparator()).getBytes("US-ASCII"));
+        fileOut.flush();
+        fileOut.getFD().sync();
+        fileOut.close();
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * 关闭写入器；未提交时删除临时文件
+     */
+    @Override
+    public void close() {
+        if (committed) {
+            return;
+        }
+        try {
+            fileOut.close();
+        } catch (IOException ignored) {
+            // 放弃写入时无需处理
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+            // 残留的临时文件会在下次写入时被覆盖
+        }
+    }
+
+    /**
+     * 刷新目录元数据，使改名或新建文件的操作持久化；部分平台不支持打开目录，忽略即可
+     */
+    static void syncDirectory(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // 不支持时依赖操作系统稍后写入
+        }
+    }
+}
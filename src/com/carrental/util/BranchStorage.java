@@ -0,0 +1,140 @@
+package com.carrental.util;
+
+import com.carrental.model.Branch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 网点数据目录工具类：读取网点配置，为每个网点准备独立的车辆和租赁记录数据目录
+ * 网点配置文件每行一个网点，格式为"序号,代码,名称"，#开头的行为注释；序号决定ID段，确定后不能修改
+ */
+public class BranchStorage {
+    // 分网点前由单一数据目录保存、分网点后归入序号为0的网点的数据文件
+    private static final String[] BRANCH_FILE_NAMES = {
+            Constants.VEHICLE_FILE_NAME, Constants.VEHICLE_JOURNAL_FILE_NAME, Constants.VEHICLE_SEQUENCE_FILE_NAME,
+            Constants.RENTAL_FILE_NAME, Constants.RENTAL_BINARY_FILE_NAME, Constants.RENTAL_SEQUENCE_FILE_NAME
+    };
+
+    private BranchStorage() {
+    }
+
+    /**
+     * 读取网点配置
+     * @param filePath 网点配置文件路径
+     * @return 按序号排列的网点列表，文件不存在时为空列表（不分网点）
+     */
+    public static List<Branch> readBranches(String filePath) {
+        List<Branch> branches = new ArrayList<>();
+        if (!FileUtil.fileExists(filePath)) {
+            return branches;
+        }
+        Set<Integer> indexes = new HashSet<>();
+        Set<String> codes = new HashSet<>();
+        int maxIndex = Integer.MAX_VALUE / Constants.BRANCH_ID_BLOCK - 1;
+        for (String line : FileUtil.readLines(filePath)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split(",", 3);
+            try {
+                if (parts.length != 3 || parts[1].trim().isEmpty()) {
+                    throw new IllegalArgumentException("应为\"序号,代码,名称\"");
+                }
+                int index = Integer.parseInt(parts[0].trim());
+                String code = parts[1].trim();
+                if (index < 0 || index > maxIndex) {
+                    throw new IllegalArgumentException("序号应在0到" + maxIndex + "之间");
+                }
+                if (!code.matches("[A-Za-z0-9_-]+")) {
+                    throw new IllegalArgumentException("代码只能包含字母、数字、下划线和连字符");
+                }
+                if (!indexes.add(index) || !codes.add(code)) {
+                    throw new IllegalArgumentException("序号或代码重复");
+                }
+                branches.add(new Branch(index, code, parts[2].trim()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("网点配置格式错误，已跳过: " + line + "（" + e.getMessage() + "）");
+            }
+        }
+        Collections.sort(branches, Comparator.comparingInt(Branch::getIndex));
+        return branches;
+    }
+
+    /**
+     * 准备网点的数据目录：序号为0的网点首次使用时复制分网点前的车辆和租赁记录文件及租赁历史归档（原文件保留），
+     * 并把ID序列推进到本网点ID段的起点、限制在ID段终点之前，使新分配的ID落在本网点的ID段内
+     * @param branch 网点
+     * @param branchRootDir 各网点数据目录所在的目录
+     * @param legacyDataDir 分网点前的数据目录
+     * @return 网点的数据目录
+     */
+    public static String prepare(Branch branch, String branchRootDir, String legacyDataDir) {
+        String dataDir = branchRootDir + "/" + branch.getCode();
+        File dir = new File(dataDir);
+        boolean created = !dir.exists();
+        if (created && !dir.mkdirs()) {
+            System.err.println("创建网点数据目录失败: " + dataDir);
+        }
+        if (created && branch.getIndex() == 0) {
+            copyLegacyFiles(legacyDataDir, dataDir);
+        }
+        advanceSequence(dataDir + "/" + Constants.VEHICLE_SEQUENCE_FILE_NAME, branch);
+        advanceSequence(dataDir + "/" + Constants.RENTAL_SEQUENCE_FILE_NAME, branch);
+        return dataDir;
+    }
+
+    private static void copyLegacyFiles(String legacyDataDir, String dataDir) {
+        int copied = 0;
+        for (String fileName : BRANCH_FILE_NAMES) {
+            String source = legacyDataDir + "/" + fileName;
+            if (!FileUtil.fileExists(source)) {
+                continue;
+            }
+            try {
+                Files.copy(Paths.get(source), Paths.get(dataDir, fileName));
+                copied++;
+            } catch (IOException e) {
+                System.err.println("复制数据文件到网点目录失败: " + source + ": " + e.getMessage());
+            }
+        }
+        // 租赁历史的归档分区
+        File[] archived = new File(legacyDataDir, Constants.RENTAL_ARCHIVE_DIR_NAME).listFiles(File::isFile);
+        if (archived != null && archived.length > 0) {
+            File archiveDir = new File(dataDir, Constants.RENTAL_ARCHIVE_DIR_NAME);
+            archiveDir.mkdirs();
+            for (File file : archived) {
+                try {
+                    Files.copy(file.toPath(), new File(archiveDir, file.getName()).toPath());
+                    copied++;
+                } catch (IOException e) {
+                    System.err.println("复制数据文件到网点目录失败: " + file.getPath() + ": " + e.getMessage());
+                }
+            }
+        }
+        if (copied > 0) {
+            System.out.println("已将" + legacyDataDir + "中的车辆和租赁记录复制到网点目录" + dataDir);
+        }
+    }
+
+    /**
+     * 序列小于网点ID段起点时推进到起点，并写入ID段终点作为序列允许分配的最大ID，ID段用完后新增车辆或租赁记录会失败
+     */
+    private static void advanceSequence(String sequenceFilePath, Branch branch) {
+        int current = new IdSequence(sequenceFilePath).current();
+        if (current >= branch.getIdLimit()) {
+            System.err.println("网点" + branch.getCode() + "的ID段已用完: " + sequenceFilePath);
+        }
+        FileUtil.writeLines(sequenceFilePath,
+                IdSequence.toLines(Math.max(current, branch.getIdBase()), branch.getIdLimit()));
+    }
+}
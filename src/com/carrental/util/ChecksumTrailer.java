@@ -0,0 +1,104 @@
+package com.carrental.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 数据文件末尾的校验行，格式：#CRC32,校验值(十六进制),内容字节数
+ * 校验值按校验行之前的全部字节计算
+ *
+ * AtomicFileWriter写入的文本文件以HEADER开头，这样的文件必须有有效的校验行，否则视为被截断或损坏；
+ * 没有HEADER的旧文件和日志文件没有校验行时视为无需校验
+ */
+public final class ChecksumTrailer {
+    public static final String PREFIX = "#CRC32,";
+    // 带校验行的文本文件的第一行，校验值包含该行
+    public static final String HEADER = "#CRC32-CHECKED";
+    private static final byte[] HEADER_BYTES = HEADER.getBytes(StandardCharsets.US_ASCII);
+    // 校验行最大长度，读取文件末尾这么多字节即可找到校验行
+    public static final int MAX_LENGTH = 64;
+
+    private final long crc;           // 内容的CRC32校验值
+    private final long contentLength; // 内容的字节数
+
+    public ChecksumTrailer(long crc, long contentLength) {
+        this.crc = crc;
+        this.contentLength = contentLength;
+    }
+
+    public long getCrc() {
+        return crc;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * 生成校验行（不含换行符）
+     * @return 校验行
+     */
+    public String toLine() {
+        return PREFIX + Long.toHexString(crc) + "," + contentLength;
+    }
+
+    /**
+     * 判断文件是否以HEADER开头，即是否必须有校验行
+     * @param head 文件开头的字节
+     * @param headLength 有效字节数
+     * @return 以HEADER开头时返回true
+     */
+    public static boolean hasHeader(byte[] head, int headLength) {
+        if (headLength < HEADER_BYTES.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER_BYTES.length; i++) {
+            if (head[i] != HEADER_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 从文件末尾的字节中解析校验行
+     * @param tail 文件末尾的字节
+     * @param tailLength 有效字节数
+     * @param fileLength 文件总长度
+     * @return 校验行，文件没有有效的校验行时返回null
+     */
+    public static ChecksumTrailer parse(byte[] tail, int tailLength, long fileLength) {
+        // 去掉末尾的换行符
+        int end = tailLength;
+        if (end > 0 && tail[end - 1] == '\n') end--;
+        if (end > 0 && tail[end - 1] == '\r') end--;
+
+        // 找到最后一行的起点
+        int start = end;
+        while (start > 0 && tail[start - 1] != '\n') {
+            start--;
+        }
+        if (start == 0 && tailLength < fileLength) {
+            return null; // 最后一行比读取的范围还长，不可能是校验行
+        }
+
+        String line = new String(tail, start, end - start, StandardCharsets.US_ASCII);
+        if (!line.startsWith(PREFIX)) {
+            return null;
+        }
+        String[] parts = line.substring(PREFIX.length()).split(",");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            long crc = Long.parseLong(parts[0], 16);
+            long contentLength = Long.parseLong(parts[1]);
+            // 内容长度必须正好是校验行的起点，否则说明这不是写入时生成的校验行
+            if (contentLength != fileLength - tailLength + start) {
+                return null;
+            }
+            return new ChecksumTrailer(crc, contentLength);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
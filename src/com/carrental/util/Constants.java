@@ -14,14 +14,96 @@ public class Constants {
     public static final String VEHICLE_TYPE_CAR = "轿车";
     public static final String VEHICLE_TYPE_VAN = "面包车";
 
+    // 数据文件目录，各仓库也可以在构造时指定其他目录
+    public static final String DATA_DIR = "./data";
+
+    // 数据目录下的文件名
+    public static final String VEHICLE_FILE_NAME = "vehicles.txt";
+    public static final String VEHICLE_JOURNAL_FILE_NAME = "vehicles.log";
+    public static final String USER_FILE_NAME = "users.txt";
+    public static final String RENTAL_FILE_NAME = "rental_records.txt";
+    public static final String RENTAL_BINARY_FILE_NAME = "rental_records.bin";
+    public static final String CUSTOMER_FILE_NAME = "customers.txt";
+    public static final String RESERVATION_FILE_NAME = "reservations.txt";
+    public static final String PRICING_RULE_FILE_NAME = "pricing_rules.txt";
+    public static final String VEHICLE_SEQUENCE_FILE_NAME = "vehicles.seq";
+    public static final String CUSTOMER_SEQUENCE_FILE_NAME = "customers.seq";
+    public static final String RENTAL_SEQUENCE_FILE_NAME = "rental_records.seq";
+    public static final String RESERVATION_SEQUENCE_FILE_NAME = "reservations.seq";
+    public static final String BRANCH_FILE_NAME = "branches.txt";
+
     // 车辆数据文件路径
-    public static final String VEHICLE_FILE_PATH = "./data/vehicles.txt";
+    public static final String VEHICLE_FILE_PATH = DATA_DIR + "/" + VEHICLE_FILE_NAME;
+    // 车辆变更日志文件路径
+    public static final String VEHICLE_JOURNAL_FILE_PATH = DATA_DIR + "/" + VEHICLE_JOURNAL_FILE_NAME;
+    // 车辆变更日志达到该条数后在后台合并为快照
+    public static final int VEHICLE_JOURNAL_COMPACT_THRESHOLD = 1000;
     // 用户数据文件路径
-    public static final String USER_FILE_PATH = "./data/users.txt";
+    public static final String USER_FILE_PATH = DATA_DIR + "/" + USER_FILE_NAME;
     // 租赁记录文件路径
-    public static final String RENTAL_FILE_PATH = "./data/rental_records.txt";
+    public static final String RENTAL_FILE_PATH = DATA_DIR + "/" + RENTAL_FILE_NAME;
     // 客户数据文件路径
-    public static final String CUSTOMER_FILE_PATH = "./data/customers.txt";
+    public static final String CUSTOMER_FILE_PATH = DATA_DIR + "/" + CUSTOMER_FILE_NAME;
+    // 预约数据文件路径
+    public static final String RESERVATION_FILE_PATH = DATA_DIR + "/" + RESERVATION_FILE_NAME;
+    // 定价规则文件路径，文件不存在时按下面的客户折扣率计算
+    public static final String PRICING_RULE_FILE_PATH = DATA_DIR + "/" + PRICING_RULE_FILE_NAME;
+    // 网点配置文件，存在时车辆和租赁记录按网点分别保存在BRANCH_DATA_DIR下以网点代码命名的目录中
+    public static final String BRANCH_FILE_PATH = DATA_DIR + "/" + BRANCH_FILE_NAME;
+    public static final String BRANCH_DATA_DIR = DATA_DIR + "/branches";
+
+    // ID序列文件路径
+    public static final String VEHICLE_SEQUENCE_FILE_PATH = DATA_DIR + "/" + VEHICLE_SEQUENCE_FILE_NAME;
+    public static final String CUSTOMER_SEQUENCE_FILE_PATH = DATA_DIR + "/" + CUSTOMER_SEQUENCE_FILE_NAME;
+    public static final String RENTAL_SEQUENCE_FILE_PATH = DATA_DIR + "/" + RENTAL_SEQUENCE_FILE_NAME;
+    public static final String RESERVATION_SEQUENCE_FILE_PATH = DATA_DIR + "/" + RESERVATION_SEQUENCE_FILE_NAME;
+    // ID序列每次预留的ID数，预留的ID用完时才重写序列文件
+    public static final int ID_SEQUENCE_BLOCK = 1000;
+
+    // 持久化模式，默认每次修改后立即写入文件；改为GROUP_COMMIT或ASYNC可提高吞吐量，
+    // 但修改操作不等待写入，崩溃时可能丢失最近一次写入之后（最多下面的间隔或修改数）的修改
+    public static final DurabilityMode DURABILITY_MODE = DurabilityMode.SYNC;
+    // 组提交、异步模式的参数
+    public static final long PERSISTENCE_FLUSH_INTERVAL_MS = 50;   // 后台写入间隔（毫秒）
+    public static final int PERSISTENCE_MAX_PENDING_CHANGES = 100; // 累计修改数达到该值时立即写入
+
+    // 租车、还车时按车辆ID分段加锁的锁数量
+    public static final int RENTAL_LOCK_STRIPES = 64;
+
+    // 租赁记录存储格式，切换为BINARY时首次启动自动从文本文件迁移
+    public static final RentalStorage RENTAL_STORAGE = RentalStorage.TEXT;
+
+    // 是否以紧凑的列式结构在内存中保存租赁记录，记录很多时可大幅减少内存占用
+    public static final boolean RENTAL_COMPACT_STORE = false;
+
+    // 是否按月归档租赁历史：启动时把热窗口之前已归还的记录按租赁月份写入压缩的归档分区，只在查询涉及时才读取
+    public static final boolean RENTAL_ARCHIVE_ENABLED = false;
+    public static final int RENTAL_HOT_MONTHS = 3;             // 热窗口包含的月数（含当月）
+    public static final int RENTAL_ARCHIVE_CACHE_RECORDS = 1_000_000; // 内存中最多缓存的归档记录数，按列缓存每条约32字节
+    public static final String RENTAL_ARCHIVE_DIR_NAME = "rental_history"; // 归档分区所在的目录名
+    public static final String RENTAL_ARCHIVE_MANIFEST_FILE_NAME = "manifest.txt"; // 归档分区清单
+
+    // 数据存储方式，可用启动参数--storage=file或--storage=jdbc覆盖；预约数据始终保存在文件中
+    public static final StorageBackend STORAGE_BACKEND = StorageBackend.FILE;
+    // 嵌入式数据库的JDBC URL，驱动jar需在classpath中；使用SQLite时可改为jdbc:sqlite:./data/carrental.db
+    // 首次使用数据库时，各表从数据目录中的数据文件迁移
+    public static final String JDBC_URL = "jdbc:h2:file:" + DATA_DIR + "/carrental;LOCK_TIMEOUT=10000";
+    public static final int JDBC_POOL_SIZE = 8; // 数据库连接池的最大连接数
+
+    // HTTP接口默认端口（启动参数--http未指定端口时使用）和等待接受的连接数
+    public static final int API_PORT = 8080;
+    public static final int API_BACKLOG = 1024;
+
+    // 终端服务器默认端口（启动参数--terminal未指定端口时使用）、最大同时会话数和空闲超时
+    public static final int TERMINAL_PORT = 2323;
+    public static final int TERMINAL_MAX_SESSIONS = 64;
+    public static final int TERMINAL_IDLE_TIMEOUT_MS = 30 * 60 * 1000; // 30分钟无输入时断开会话
+
+    // 每个网点车辆和租赁记录的ID段大小，最多可以有Integer.MAX_VALUE / BRANCH_ID_BLOCK个网点
+    public static final int BRANCH_ID_BLOCK = 10_000_000;
+
+    // 启动时并行加载数据文件的线程数
+    public static final int STARTUP_LOAD_THREADS = 4;
 
     // 折扣率
     public static final double DISCOUNT_REGULAR = 1.0;    // 普通客户无折扣
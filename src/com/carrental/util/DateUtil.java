@@ -0,0 +1,39 @@
+package com.carrental.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * 日期工具类，在Date与按天计数的日期之间转换，均按本地时区计算
+ */
+public class DateUtil {
+    private DateUtil() {
+    }
+
+    /**
+     * 日期转换为纪元日（1970-01-01起的天数）
+     * @param date 日期
+     * @return 纪元日
+     */
+    public static int toEpochDay(Date date) {
+        return (int) Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * 纪元日转换为当天零点的日期
+     * @param epochDay 纪元日
+     * @return 日期
+     */
+    public static Date fromEpochDay(int epochDay) {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * @return 今天的纪元日
+     */
+    public static int today() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+}
@@ -0,0 +1,22 @@
+package com.carrental.util;
+
+/**
+ * 数据持久化模式
+ */
+public enum DurabilityMode {
+    /**
+     * 同步：每次修改后立即写入文件
+     */
+    SYNC,
+
+    /**
+     * 组提交：修改先合并，按较短的间隔或累计修改数达到上限时统一写入
+     * 修改操作不等待写入完成，崩溃时可能丢失最近一次统一写入之后的修改
+     */
+    GROUP_COMMIT,
+
+    /**
+     * 异步：修改只在后台按固定间隔写入，吞吐量最高，崩溃时可能丢失最近一个间隔内的修改
+     */
+    ASYNC
+}
@@ -1,18 +1,36 @@
 package com.carrental.util;
 
 import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.CRC32;
 
 /**
  * 文件工具类，提供通用的文件读写功能
  */
 public class FileUtil {
+    // 变更日志文件的第一行，有该行的日志每个条目末尾都带有校验值
+    static final String JOURNAL_HEADER = "#CRC32-ENTRIES";
+    private static final char JOURNAL_CHECKSUM_SEPARATOR = '|';
     
     /**
      * 读取文件内容，返回每一行作为列表元素
+     * 文件末尾有校验行时先校验内容；以ChecksumTrailer.HEADER开头的文件必须有校验行；
+     * 第一行HEADER和校验行本身不返回
      * @param filePath 文件路径
      * @return 文件内容列表
+     * @throws UncheckedIOException 校验失败或缺少校验行，拒绝返回可能已损坏的内容
      */
     public static List<String> readLines(String filePath) {
         List<String> lines = new ArrayList<>();
@@ -23,8 +41,37 @@ public class FileUtil {
             return lines;
         }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            System.err.println("读取文件失败: " + filePath);
+            e.printStackTrace();
+            return lines;
+        }
+
+        int contentLength = content.length;
+        int tailLength = Math.min(content.length, ChecksumTrailer.MAX_LENGTH);
+        byte[] tail = Arrays.copyOfRange(content, content.length - tailLength, content.length);
+        ChecksumTrailer trailer = ChecksumTrailer.parse(tail, tailLength, content.length);
+        boolean checked = ChecksumTrailer.hasHeader(content, content.length);
+        if (checked && trailer == null) {
+            throw new UncheckedIOException(new IOException("文件缺少校验行，可能已被截断: " + filePath));
+        }
+        if (trailer != null) {
+            contentLength = (int) trailer.getContentLength();
+            CRC32 crc = new CRC32();
+            crc.update(content, 0, contentLength);
+            if (crc.getValue() != trailer.getCrc()) {
+                throw new UncheckedIOException(new IOException("文件校验失败，内容可能已损坏: " + filePath));
+            }
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content, 0, contentLength)))) {
             String line;
+            if (checked) {
+                reader.readLine(); // 跳过第一行HEADER
+            }
             while ((line = reader.readLine()) != null) {
                 lines.add(line);
             }
@@ -38,88 +85,303 @@ public class FileUtil {
     
     /**
      * 将内容列表写入文件
+     * 先写入临时文件并刷盘，再原子替换原文件，写入失败时原文件保持不变
      * @param filePath 文件路径
      * @param lines 要写入的内容列表
      * @return 写入成功返回true，否则返回false
      */
     public static boolean writeLines(String filePath, List<String> lines) {
+        try (AtomicFileWriter writer = new AtomicFileWriter(filePath)) {
+            for (String line : lines) {
+                writer.writeLine(line);
+            }
+            writer.commit();
+            return true;
+        } catch (IOException e) {
+            System.err.println("写入文件失败: " + filePath);
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * 写入失败时抛出异常，供持久化调度器的写文件操作使用，使调度器保留修改标记并在下次重试
+     * @param written 写入是否成功
+     * @param filePath 文件路径
+     * @throws UncheckedIOException 写入失败
+     */
+    public static void requireWritten(boolean written, String filePath) {
+        if (!written) {
+            throw new UncheckedIOException(new IOException("写入文件失败: " + filePath));
+        }
+    }
+
+    /**
+     * 向文件追加一行内容，写入后刷盘
+     * @param filePath 文件路径
+     * @param line 要追加的内容
+     * @return 追加成功返回true，否则返回false
+     */
+    public static boolean appendLine(String filePath, String line) {
         // 确保目录存在
         File file = new File(filePath);
         File parentDir = file.getParentFile();
         if (parentDir != null && !parentDir.exists()) {
             parentDir.mkdirs();
         }
-        
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+
+        boolean created = !file.exists();
+        try (FileOutputStream out = new FileOutputStream(file, true);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out))) {
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+            out.getFD().sync(); // 刷盘后才算追加成功
+            if (created) {
+                AtomicFileWriter.syncDirectory(file.getAbsoluteFile().getParentFile().toPath());
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("追加内容到文件失败: " + filePath);
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * 向文件追加多行内容，一次写入，全部写完后刷盘一次
+     * @param filePath 文件路径
+     * @param lines 要追加的内容列表
+     * @return 追加成功返回true，否则返回false
+     */
+    public static boolean appendLines(String filePath, List<String> lines) {
+        // 确保目录存在
+        File file = new File(filePath);
+        File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+
+        boolean created = !file.exists();
+        try (FileOutputStream out = new FileOutputStream(file, true);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out))) {
             for (String line : lines) {
                 writer.write(line);
                 writer.newLine();
             }
+            writer.flush();
+            out.getFD().sync(); // 整批刷盘一次
+            if (created) {
+                AtomicFileWriter.syncDirectory(file.getAbsoluteFile().getParentFile().toPath());
+            }
             return true;
         } catch (IOException e) {
-            System.err.println("写入文件失败: " + filePath);
+            System.err.println("追加内容到文件失败: " + filePath);
             e.printStackTrace();
             return false;
         }
     }
-    
+
     /**
-     * 向文件追加一行内容
-     * @param filePath 文件路径
-     * @param line 要追加的内容
+     * 向变更日志追加一批条目，每个条目末尾加上校验值，整批写完后刷盘一次
+     * 新建的日志文件先写入JOURNAL_HEADER
+     * @param filePath 日志文件路径
+     * @param entries 日志条目，不含换行符
      * @return 追加成功返回true，否则返回false
      */
-    // public static boolean appendLine(String filePath, String line) {
-    //     // 确保目录存在
-    //     File file = new File(filePath);
-    //     File parentDir = file.getParentFile();
-    //     if (parentDir != null && !parentDir.exists()) {
-    //         parentDir.mkdirs();
-    //     }
-        
-    //     try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
-    //         writer.write(line);
-    //         writer.newLine();
-    //         return true;
-    //     } catch (IOException e) {
-    //         System.err.println("追加内容到文件失败: " + filePath);
-    //         e.printStackTrace();
-    //         return false;
-    //     }
-    // }
-    
+    public static boolean appendJournal(String filePath, List<String> entries) {
+        // 确保目录存在
+        File file = new File(filePath);
+        File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+
+        boolean created = file.length() == 0;
+        try (FileOutputStream out = new FileOutputStream(file, true);
+             BufferedOutputStream buffered = new BufferedOutputStream(out)) {
+            if (created) {
+                buffered.write(JOURNAL_HEADER.getBytes(StandardCharsets.US_ASCII));
+                buffered.write('\n');
+            }
+            CRC32 crc = new CRC32();
+            for (String entry : entries) {
+                byte[] bytes = entry.getBytes();
+                crc.reset();
+                crc.update(bytes, 0, bytes.length);
+                buffered.write(bytes);
+                buffered.write(JOURNAL_CHECKSUM_SEPARATOR);
+                buffered.write(Long.toHexString(crc.getValue()).getBytes(StandardCharsets.US_ASCII));
+                buffered.write('\n');
+            }
+            buffered.flush();
+            out.getFD().sync();
+            if (created) {
+                AtomicFileWriter.syncDirectory(file.getAbsoluteFile().getParentFile().toPath());
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("追加内容到文件失败: " + filePath);
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * 读取变更日志，返回去掉校验值的条目
+     * 崩溃时最后一批条目可能只写了一部分：从第一个没有换行符或校验失败的条目起截断文件，
+     * 之后的内容属于未写完的批次，不返回也不重放
+     * 没有JOURNAL_HEADER的旧日志不校验条目，只丢弃末尾没有换行符的半行
+     * @param filePath 日志文件路径
+     * @return 有效的日志条目
+     * @throws UncheckedIOException 读取或截断失败，拒绝返回可能不完整的内容
+     */
+    public static List<String> readJournal(String filePath) {
+        List<String> entries = new ArrayList<>();
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return entries;
+        }
+
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取文件失败: " + filePath, e);
+        }
+
+        boolean checked = false;
+        int start = 0;
+        while (start < content.length) {
+            int end = start;
+            while (end < content.length && content[end] != '\n') {
+                end++;
+            }
+            if (end == content.length) {
+                break; // 最后一行没有换行符，是写了一半的条目
+            }
+            int lineEnd = end > start && content[end - 1] == '\r' ? end - 1 : end;
+            String line = new String(content, start, lineEnd - start);
+            if (start == 0 && line.equals(JOURNAL_HEADER)) {
+                checked = true;
+            } else if (!checked) {
+                entries.add(line);
+            } else {
+                int separator = lastIndexOf(content, start, lineEnd, (byte) JOURNAL_CHECKSUM_SEPARATOR);
+                if (separator < 0 || !entryChecksumMatches(content, start, separator, lineEnd)) {
+                    break;
+                }
+                entries.add(new String(content, start, separator - start));
+            }
+            start = end + 1;
+        }
+
+        if (start < content.length) {
+            System.err.println("变更日志末尾有不完整的条目，已丢弃" + (content.length - start) + "字节: " + filePath);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(start);
+                channel.force(true);
+            } catch (IOException e) {
+                // 不截断的话之后追加的条目会排在损坏的内容之后，下次加载时被一起丢弃
+                throw new UncheckedIOException("截断变更日志失败: " + filePath, e);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 在字节数组的指定范围内查找最后一个指定字节
+     * @return 下标，找不到时返回-1
+     */
+    private static int lastIndexOf(byte[] content, int from, int to, byte value) {
+        for (int i = to - 1; i >= from; i--) {
+            if (content[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 校验一个日志条目：分隔符之后为条目内容的CRC32（十六进制）
+     * @param content 文件内容
+     * @param start 条目起始下标
+     * @param separator 分隔符下标
+     * @param end 条目结束下标（不含换行符）
+     * @return 校验值一致时返回true
+     */
+    private static boolean entryChecksumMatches(byte[] content, int start, int separator, int end) {
+        long expected;
+        try {
+            expected = Long.parseLong(new String(content, separator + 1, end - separator - 1, StandardCharsets.US_ASCII), 16);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content, start, separator - start);
+        return crc.getValue() == expected;
+    }
+
     /**
      * 检查文件是否存在
      * @param filePath 文件路径
      * @return 文件存在返回true，否则返回false
      */
-//     public static boolean fileExists(String filePath) {
-//         return new File(filePath).exists();
-//     }
-    
-//     /**
-//      * 创建文件（如果不存在）
-//      * @param filePath 文件路径
-//      * @return 创建成功或文件已存在返回true，否则返回false
-//      */
-//     public static boolean createFile(String filePath) {
-//         File file = new File(filePath);
-//         if (file.exists()) {
-//             return true;
-//         }
-        
-//         // 确保目录存在
-//         File parentDir = file.getParentFile();
-//         if (parentDir != null && !parentDir.exists()) {
-//             parentDir.mkdirs();
-//         }
-        
-//         try {
-//             return file.createNewFile();
-//         } catch (IOException e) {
-//             System.err.println("创建文件失败: " + filePath);
-//             e.printStackTrace();
-//             return false;
-//         }
-//     }
+    public static boolean fileExists(String filePath) {
+        return new File(filePath).exists();
+    }
+
+    /**
+     * 重命名文件，目标文件已存在时将被覆盖
+     * @param sourcePath 源文件路径
+     * @param targetPath 目标文件路径
+     * @return 重命名成功返回true，否则返回false
+     */
+    public static boolean renameFile(String sourcePath, String targetPath) {
+        try {
+            Files.move(Paths.get(sourcePath), Paths.get(targetPath), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            System.err.println("重命名文件失败: " + sourcePath + " -> " + targetPath);
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * 立即释放内存映射，使文件可以被删除或替换（Windows上映射期间无法替换文件）
+     * 调用后不能再访问该缓冲区及其派生的缓冲区；运行环境不支持时等待垃圾回收释放
+     * @param buffer 内存映射缓冲区
+     */
+    public static void unmap(MappedByteBuffer buffer) {
+        try {
+            // Java 9及以上
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+        } catch (NoSuchMethodException e) {
+            try {
+                // Java 8
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // 等待垃圾回收释放
+            }
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // 等待垃圾回收释放
+        }
+    }
+
+    /**
+     * 删除文件（如果存在）
+     * @param filePath 文件路径
+     * @return 删除成功或文件不存在返回true，否则返回false
+     */
+    public static boolean deleteFile(String filePath) {
+        File file = new File(filePath);
+        return !file.exists() || file.delete();
+    }
  }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.carrental.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ID序列生成器，每个实体一个计数器
+ * 分配ID为常数时间，并发安全；删除最大ID的数据后也不会重复使用该ID
+ *
+ * ID按段预留：序列文件中保存的是预留段的上限，比已分配的ID多出Constants.ID_SEQUENCE_BLOCK个，
+ * 只有预留的ID用完时才重写文件。重启后从上限之后继续分配，未用完的预留ID被跳过；
+ * 段内分配后在写入上限前崩溃的情况由recover()根据已加载数据中的最大ID恢复
+ *
+ * 序列文件第二行可选，为允许分配的最大ID（如网点的ID段终点），超出时分配失败
+ */
+public class IdSequence {
+    private final String filePath;       // 序列文件路径
+    private final AtomicInteger current; // 最近一次分配的ID
+    private final int maxId;             // 允许分配的最大ID
+    private volatile int reserved;       // 已写入文件的预留上限，不超过该值的ID分配时无需写文件
+
+    /**
+     * 构造方法，从序列文件中恢复已分配的最大ID和允许分配的最大ID
+     * @param filePath 序列文件路径
+     */
+    public IdSequence(String filePath) {
+        this.filePath = filePath;
+        List<String> lines = FileUtil.readLines(filePath);
+        this.reserved = parseLine(lines, 0, 0);
+        this.maxId = parseLine(lines, 1, Integer.MAX_VALUE);
+        this.current = new AtomicInteger(reserved);
+    }
+
+    /**
+     * 根据已加载的数据恢复序列，保证之后分配的ID大于所有已有ID
+     * @param maxExistingId 已有数据中的最大ID
+     */
+    public void recover(int maxExistingId) {
+        current.accumulateAndGet(maxExistingId, Math::max);
+    }
+
+    /**
+     * 分配下一个ID
+     * @return 新ID
+     */
+    public int next() {
+        return nextRange(1);
+    }
+
+    /**
+     * 一次分配一段连续的ID
+     * @param count 需要的ID个数
+     * @return 这段ID中的第一个
+     * @throws IllegalStateException 超出允许分配的最大ID时抛出，此时不分配任何ID；
+     *         新的预留上限写入文件失败时也抛出，这段ID作废不再分配，以免重启后被重复使用
+     */
+    public int nextRange(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("ID个数必须大于0: " + count);
+        }
+        int previous;
+        do {
+            previous = current.get();
+            if ((long) previous + count > maxId) {
+                throw new IllegalStateException("ID已用完（最大ID为" + maxId + "）: " + filePath);
+            }
+        } while (!current.compareAndSet(previous, previous + count));
+        int last = previous + count;
+        if (last > reserved) {
+            reserve(last);
+        }
+        return last - count + 1;
+    }
+
+    /**
+     * 获取最近一次分配的ID
+     * @return 最近一次分配的ID，尚未分配时为0；重启后尚未分配时为序列文件中的预留上限
+     */
+    public int current() {
+        return current.get();
+    }
+
+    /**
+     * 预留的ID用完时，把新的预留上限写入文件；并发分配时只保留较大的值，避免文件回退
+     * 写入失败时上限不变并抛出异常，下次分配时重新写入
+     * @param value 已分配的ID
+     * @throws IllegalStateException 序列文件写入失败时抛出
+     */
+    private synchronized void reserve(int value) {
+        if (value <= reserved) {
+            return;
+        }
+        int limit = (int) Math.min((long) value + Constants.ID_SEQUENCE_BLOCK, maxId);
+        if (!FileUtil.writeLines(filePath, toLines(limit, maxId))) {
+            throw new IllegalStateException("写入ID序列文件失败: " + filePath);
+        }
+        reserved = limit;
+    }
+
+    /**
+     * 生成序列文件内容，没有最大ID限制时只有一行
+     * @param reserved 预留上限
+     * @param maxId 允许分配的最大ID
+     * @return 序列文件的各行
+     */
+    static List<String> toLines(int reserved, int maxId) {
+        if (maxId == Integer.MAX_VALUE) {
+            return Collections.singletonList(String.valueOf(reserved));
+        }
+        return Arrays.asList(String.valueOf(reserved), String.valueOf(maxId));
+    }
+
+    /**
+     * 读取序列文件中的一行
+     * @param lines 序列文件的各行
+     * @param index 行号，从0开始
+     * @param defaultValue 该行不存在时的默认值
+     * @return 该行的值，格式错误时返回默认值
+     */
+    private int parseLine(List<String> lines, int index, int defaultValue) {
+        if (lines.size() <= index) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(lines.get(index).trim());
+        } catch (NumberFormatException e) {
+            System.err.println("解析序列文件失败: " + filePath);
+            return defaultValue;
+        }
+    }
+}
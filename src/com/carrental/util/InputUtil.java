@@ -1,12 +1,44 @@
 package com.carrental.util;
 
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.Scanner;
 
 /**
  * 输入工具类，用于处理用户输入并提供错误处理
+ * 输入来源按线程区分：终端会话线程调用bind()绑定自己的输入流，其他线程读取控制台（System.in）
  */
 public class InputUtil {
-    private static final Scanner scanner = new Scanner(System.in);
+    private static final Scanner consoleScanner = new Scanner(System.in);
+    private static final ThreadLocal<Scanner> sessionScanner = new ThreadLocal<>(); // 当前线程绑定的终端会话输入
+
+    /**
+     * 把当前线程的输入绑定到指定的输入流，直到调用unbind()
+     * @param in 输入流，按UTF-8读取
+     */
+    public static void bind(InputStream in) {
+        sessionScanner.set(new Scanner(in, "UTF-8"));
+    }
+
+    /**
+     * 解除当前线程的输入绑定，恢复读取控制台
+     */
+    public static void unbind() {
+        sessionScanner.remove();
+    }
+
+    /**
+     * 取得当前线程的输入；读取前先刷新System.out，使终端会话能看到缓冲中的提示信息
+     */
+    private static Scanner scanner() {
+        System.out.flush();
+        Scanner scanner = sessionScanner.get();
+        return scanner != null ? scanner : consoleScanner;
+    }
 
     /**
      * 获取整数输入
@@ -17,13 +49,39 @@ public class InputUtil {
         while (true) {
             try {
                 System.out.print(prompt);
-                return Integer.parseInt(scanner.nextLine());
+                return Integer.parseInt(scanner().nextLine());
             } catch (NumberFormatException e) {
                 System.out.println("输入错误，请输入一个有效的整数！");
             }
         }
     }
 
+    /**
+     * 获取以逗号或空格分隔的一组整数
+     * @param prompt 提示信息
+     * @return 用户输入的整数列表，至少包含一个整数
+     */
+    public static List<Integer> getIntList(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String line = scanner().nextLine().trim();
+            try {
+                List<Integer> values = new ArrayList<>();
+                for (String part : line.split("[,，\\s]+")) {
+                    if (!part.isEmpty()) {
+                        values.add(Integer.parseInt(part));
+                    }
+                }
+                if (!values.isEmpty()) {
+                    return values;
+                }
+            } catch (NumberFormatException e) {
+                // 按输入错误处理
+            }
+            System.out.println("输入错误，请输入以逗号分隔的整数！");
+        }
+    }
+
     /**
      * 获取浮点数输入
      * @param prompt 提示信息
@@ -33,13 +91,31 @@ public class InputUtil {
         while (true) {
             try {
                 System.out.print(prompt);
-                return Double.parseDouble(scanner.nextLine());
+                return Double.parseDouble(scanner().nextLine());
             } catch (NumberFormatException e) {
                 System.out.println("输入错误，请输入一个有效的数字！");
             }
         }
     }
 
+    /**
+     * 获取yyyy-MM-dd格式的日期输入
+     * @param prompt 提示信息
+     * @return 用户输入的日期（当天零点）
+     */
+    public static Date getDate(String prompt) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        dateFormat.setLenient(false);
+        while (true) {
+            try {
+                System.out.print(prompt);
+                return dateFormat.parse(scanner().nextLine().trim());
+            } catch (ParseException e) {
+                System.out.println("输入错误，请按yyyy-MM-dd格式输入日期！");
+            }
+        }
+    }
+
     /**
      * 获取字符串输入
      * @param prompt 提示信息
@@ -47,7 +123,7 @@ public class InputUtil {
      */
     public static String getString(String prompt) {
         System.out.print(prompt);
-        return scanner.nextLine();
+        return scanner().nextLine();
     }
 
     /**
@@ -67,9 +143,9 @@ public class InputUtil {
     }
 
     /**
-     * 关闭Scanner
+     * 关闭当前线程使用的Scanner
      */
     public static void close() {
-        scanner.close();
+        scanner().close();
     }
 }
\ No newline at end of file
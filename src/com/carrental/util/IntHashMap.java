@@ -0,0 +1,242 @@
+package com.carrental.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 以int为键的哈希表，避免Integer装箱，并按插入顺序遍历
+ * 用作仓库的主键索引：按ID查找、更新、删除均为O(1)，遍历顺序与原列表一致
+ * @param <V> 值类型
+ */
+public class IntHashMap<V> implements Iterable<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * 哈希表条目，同时串成双向链表以保持插入顺序
+     */
+    private static final class Entry<V> {
+        final int key;
+        V value;
+        Entry<V> next;   // 同一个桶中的下一个条目
+        Entry<V> before; // 插入顺序中的前一个条目
+        Entry<V> after;  // 插入顺序中的后一个条目
+
+        Entry(int key, V value, Entry<V> next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private Entry<V>[] table;
+    private Entry<V> head;
+    private Entry<V> tail;
+    private int size;
+    private int threshold;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预计元素个数
+     */
+    public IntHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        initTable(capacity);
+    }
+
+    /**
+     * 根据键获取值
+     * @param key 键
+     * @return 值，不存在时返回null
+     */
+    public V get(int key) {
+        Entry<V> entry = findEntry(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * 是否包含指定的键
+     * @param key 键
+     * @return 包含返回true，否则返回false
+     */
+    public boolean containsKey(int key) {
+        return findEntry(key) != null;
+    }
+
+    /**
+     * 放入键值对；键已存在时替换值并保持原有顺序
+     * @param key 键
+     * @param value 值
+     * @return 旧值，不存在时返回null
+     */
+    public V put(int key, V value) {
+        Entry<V> entry = findEntry(key);
+        if (entry != null) {
+            V old = entry.value;
+            entry.value = value;
+            return old;
+        }
+
+        if (size >= threshold) {
+            resize();
+        }
+        int index = indexFor(key, table.length);
+        entry = new Entry<>(key, value, table[index]);
+        table[index] = entry;
+        linkLast(entry);
+        size++;
+        return null;
+    }
+
+    /**
+     * 删除键
+     * @param key 键
+     * @return 被删除的值，不存在时返回null
+     */
+    public V remove(int key) {
+        int index = indexFor(key, table.length);
+        Entry<V> prev = null;
+        for (Entry<V> entry = table[index]; entry != null; prev = entry, entry = entry.next) {
+            if (entry.key == key) {
+                if (prev == null) {
+                    table[index] = entry.next;
+                } else {
+                    prev.next = entry.next;
+                }
+                unlink(entry);
+                size--;
+                return entry.value;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空所有元素
+     */
+    public void clear() {
+        initTable(DEFAULT_CAPACITY);
+        head = null;
+        tail = null;
+        size = 0;
+    }
+
+    /**
+     * 按插入顺序复制所有值
+     * @return 值列表
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        for (Entry<V> entry = head; entry != null; entry = entry.after) {
+            values.add(entry.value);
+        }
+        return values;
+    }
+
+    /**
+     * 按插入顺序遍历所有值的流
+     * @return 值的流
+     */
+    public Stream<V> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private Entry<V> current = head;
+
+            @Override
+            public boolean hasNext() {
+                return current != null;
+            }
+
+            @Override
+            public V next() {
+                if (current == null) {
+                    throw new NoSuchElementException();
+                }
+                V value = current.value;
+                current = current.after;
+                return value;
+            }
+        };
+    }
+
+    private Entry<V> findEntry(int key) {
+        for (Entry<V> entry = table[indexFor(key, table.length)]; entry != null; entry = entry.next) {
+            if (entry.key == key) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void initTable(int capacity) {
+        table = (Entry<V>[]) new Entry[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void resize() {
+        Entry<V>[] oldTable = table;
+        initTable(oldTable.length << 1);
+        // 按插入顺序重新分桶，链表顺序不受影响
+        for (Entry<V> entry = head; entry != null; entry = entry.after) {
+            int index = indexFor(entry.key, table.length);
+            entry.next = table[index];
+            table[index] = entry;
+        }
+    }
+
+    private void linkLast(Entry<V> entry) {
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.after = entry;
+            entry.before = tail;
+        }
+        tail = entry;
+    }
+
+    private void unlink(Entry<V> entry) {
+        if (entry.before == null) {
+            head = entry.after;
+        } else {
+            entry.before.after = entry.after;
+        }
+        if (entry.after == null) {
+            tail = entry.before;
+        } else {
+            entry.after.before = entry.before;
+        }
+        entry.before = null;
+        entry.after = null;
+    }
+
+    /**
+     * 打散连续ID，避免集中在少数桶中
+     */
+    private static int indexFor(int key, int length) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (length - 1);
+    }
+}
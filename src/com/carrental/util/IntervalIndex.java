@@ -0,0 +1,117 @@
+package com.carrental.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 互不重叠的半开区间[start, end)的索引，按起点有序存放，每个区间关联一个值
+ * 区间互不重叠，与[start, end)相交的区间中起点最大的一个就是起点小于end的最后一个区间，
+ * 因此判断是否空闲只需一次有序查找，复杂度O(log n)
+ * @param <V> 值类型
+ */
+public class IntervalIndex<V> {
+    /**
+     * 索引中的一个区间
+     */
+    public static final class Interval<V> {
+        private final int start;
+        private final int end;
+        private final V value;
+
+        Interval(int start, int end, V value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public V getValue() {
+            return value;
+        }
+    }
+
+    private final TreeMap<Integer, Interval<V>> intervals = new TreeMap<>(); // 起点到区间的映射
+
+    /**
+     * 判断[start, end)是否与已有区间都不相交
+     * @param start 起点
+     * @param end 终点（不含）
+     * @return 空闲返回true
+     */
+    public boolean isFree(int start, int end) {
+        Map.Entry<Integer, Interval<V>> last = intervals.lowerEntry(end);
+        return last == null || last.getValue().end <= start;
+    }
+
+    /**
+     * 查找与[start, end)相交的全部区间
+     * @param start 起点
+     * @param end 终点（不含）
+     * @return 相交的区间，按起点升序
+     */
+    public List<Interval<V>> overlapping(int start, int end) {
+        List<Interval<V>> result = new ArrayList<>();
+        Integer from = intervals.floorKey(start);
+        for (Interval<V> interval : intervals.subMap(from != null ? from : start, true, end, false).values()) {
+            if (interval.end > start) {
+                result.add(interval);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 全部区间，按起点升序
+     */
+    public List<Interval<V>> intervals() {
+        return new ArrayList<>(intervals.values());
+    }
+
+    /**
+     * 添加区间
+     * @param start 起点
+     * @param end 终点（不含），必须大于起点
+     * @param value 关联的值
+     * @return 添加的区间；与已有区间相交时不添加，返回null
+     */
+    public Interval<V> add(int start, int end, V value) {
+        if (end <= start) {
+            throw new IllegalArgumentException("区间为空: [" + start + ", " + end + ")");
+        }
+        if (!isFree(start, end)) {
+            return null;
+        }
+        Interval<V> interval = new Interval<>(start, end, value);
+        intervals.put(start, interval);
+        return interval;
+    }
+
+    /**
+     * 移除以start为起点的区间
+     * @param start 起点
+     * @return 被移除的区间，不存在时返回null
+     */
+    public Interval<V> remove(int start) {
+        return intervals.remove(start);
+    }
+
+    /**
+     * @return 区间个数
+     */
+    public int size() {
+        return intervals.size();
+    }
+
+    public boolean isEmpty() {
+        return intervals.isEmpty();
+    }
+}
@@ -0,0 +1,157 @@
+package com.carrental.util;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 简单的JDBC连接池：连接按需创建，最多创建指定数量，用完归还后复用，连接都用完时等待归还
+ * 同时使用的连接数由许可控制，归还失效的连接时同样释放许可，等待的线程随即新建连接
+ * 数据库驱动（H2或SQLite，文件模式，不需要数据库服务器）放在classpath中即可，按JDBC URL自动加载
+ */
+public class JdbcConnectionPool implements AutoCloseable {
+    /**
+     * 在一个连接上执行的数据库操作
+     * @param <T> 操作结果类型
+     */
+    public interface Work<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private final String url;                     // JDBC URL
+    private final Semaphore permits;              // 可以取出的连接数，等于最多创建的连接数减去正在使用的连接数
+    private final BlockingQueue<Connection> idle; // 空闲连接
+    private volatile boolean closed;
+
+    /**
+     * 构造方法，不立即创建连接
+     * @param url JDBC URL，例如jdbc:h2:file:./data/carrental
+     * @param maxSize 最多创建的连接数
+     */
+    public JdbcConnectionPool(String url, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("连接数必须大于0: " + maxSize);
+        }
+        this.url = url;
+        this.permits = new Semaphore(maxSize);
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+    }
+
+    /**
+     * 取一个连接执行操作（自动提交），完成后归还连接
+     * @param work 数据库操作
+     * @return 操作结果
+     * @throws SQLException 数据库访问失败
+     */
+    public <T> T execute(Work<T> work) throws SQLException {
+        Connection connection = acquire();
+        try {
+            return work.run(connection);
+        } finally {
+            release(connection);
+        }
+    }
+
+    /**
+     * 在一个事务中执行操作：正常返回时提交，抛出异常时回滚
+     * @param work 数据库操作
+     * @return 操作结果
+     * @throws SQLException 数据库访问失败
+     */
+    public <T> T transaction(Work<T> work) throws SQLException {
+        Connection connection = acquire();
+        try {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                rollbackQuietly(connection);
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } finally {
+            release(connection);
+        }
+    }
+
+    /**
+     * 等待取得许可后取空闲连接，没有空闲连接时新建：持有许可时已创建的连接数一定未达到上限
+     */
+    private Connection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("连接池已关闭");
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("等待数据库连接时被中断", e);
+        }
+        try {
+            if (closed) {
+                throw new SQLException("连接池已关闭");
+            }
+            Connection connection = idle.poll();
+            return connection != null ? connection : DriverManager.getConnection(url);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 归还连接并释放许可，已失效的连接不再复用
+     */
+    private void release(Connection connection) {
+        boolean usable;
+        try {
+            usable = !closed && !connection.isClosed();
+        } catch (SQLException e) {
+            usable = false;
+        }
+        if (usable) {
+            idle.offer(connection);
+            // 与close()同时执行时，放回的连接可能错过关闭
+            if (closed && idle.remove(connection)) {
+                closeQuietly(connection);
+            }
+        } else {
+            closeQuietly(connection);
+        }
+        permits.release();
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.err.println("回滚事务失败: " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("关闭数据库连接失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭全部连接，正在使用的连接在归还时关闭
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.carrental.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 保存在数据库中的ID序列，每个实体一行，与IdSequence一样已分配的ID不会再次使用
+ * 分配ID在调用方的事务中更新序列行，和插入数据一起提交或回滚
+ */
+public class JdbcIdSequence {
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS id_sequences ("
+            + "name VARCHAR(50) PRIMARY KEY, last_id INTEGER NOT NULL)";
+
+    private final String name; // 序列名称，一般为表名
+
+    /**
+     * 构造方法，序列不存在时创建
+     * @param connection 数据库连接
+     * @param name 序列名称
+     * @throws SQLException 数据库访问失败
+     */
+    public JdbcIdSequence(Connection connection, String name) throws SQLException {
+        this.name = name;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+        }
+        if (current(connection) < 0) {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO id_sequences (name, last_id) VALUES (?, 0)")) {
+                insert.setString(1, name);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * 一次分配一段连续的ID，应在事务中调用
+     * @param connection 数据库连接
+     * @param count 需要的ID个数
+     * @return 这段ID中的第一个
+     * @throws SQLException 数据库访问失败
+     */
+    public int nextRange(Connection connection, int count) throws SQLException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("ID个数必须大于0: " + count);
+        }
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE id_sequences SET last_id = last_id + ? WHERE name = ?")) {
+            update.setInt(1, count);
+            update.setString(2, name);
+            update.executeUpdate();
+        }
+        return current(connection) - count + 1;
+    }
+
+    /**
+     * 恢复序列，保证之后分配的ID大于已有ID
+     * @param connection 数据库连接
+     * @param maxExistingId 已有数据中的最大ID
+     * @throws SQLException 数据库访问失败
+     */
+    public void recover(Connection connection, int maxExistingId) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE id_sequences SET last_id = ? WHERE name = ? AND last_id < ?")) {
+            update.setInt(1, maxExistingId);
+            update.setString(2, name);
+            update.setInt(3, maxExistingId);
+            update.executeUpdate();
+        }
+    }
+
+    /**
+     * 读取最近一次分配的ID
+     * @return 最近一次分配的ID，序列不存在时返回-1
+     */
+    private int current(Connection connection) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT last_id FROM id_sequences WHERE name = ?")) {
+            query.setString(1, name);
+            try (ResultSet resultSet = query.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : -1;
+            }
+        }
+    }
+}
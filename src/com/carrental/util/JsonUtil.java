@@ -0,0 +1,307 @@
+package com.carrental.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 简单的JSON工具类，用于导入导出、HTTP接口等数据交换，不依赖第三方库
+ * 解析结果：对象为Map（保持字段顺序），数组为List，字符串为String，
+ * 整数为Long，其他数字为Double，true/false为Boolean，null为null
+ */
+public class JsonUtil {
+    private final String text;
+    private int position;
+
+    private JsonUtil(String text) {
+        this.text = text;
+    }
+
+    /**
+     * 解析JSON文本
+     * @param text JSON文本
+     * @return 解析结果
+     * @throws IllegalArgumentException 格式错误，消息中包含出错位置
+     */
+    public static Object parse(String text) {
+        JsonUtil parser = new JsonUtil(text);
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.position < text.length()) {
+            throw parser.error("多余的内容");
+        }
+        return value;
+    }
+
+    /**
+     * 将字符串转换为带引号的JSON字符串
+     * @param value 字符串，为null时返回null
+     * @return JSON字符串
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder(value.length() + 2);
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * 将Map、List、字符串、数字、布尔值和null组成的结构转换为JSON文本，其他对象按toString()作为字符串
+     * @param value 要转换的值
+     * @return JSON文本
+     */
+    public static String toJson(Object value) {
+        StringBuilder builder = new StringBuilder();
+        appendJson(builder, value);
+        return builder.toString();
+    }
+
+    private static void appendJson(StringBuilder builder, Object value) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof Map) {
+            builder.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                builder.append(quote(String.valueOf(entry.getKey()))).append(':');
+                appendJson(builder, entry.getValue());
+                first = false;
+            }
+            builder.append('}');
+        } else if (value instanceof Iterable) {
+            builder.append('[');
+            boolean first = true;
+            for (Object element : (Iterable<?>) value) {
+                if (!first) {
+                    builder.append(',');
+                }
+                appendJson(builder, element);
+                first = false;
+            }
+            builder.append(']');
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            // JSON不能表示NaN和无穷大
+            builder.append(Double.isNaN(number) || Double.isInfinite(number) ? "null" : String.valueOf(value));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value);
+        } else {
+            builder.append(quote(value.toString()));
+        }
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("内容不完整");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("无法识别的字符'" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++; // {
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("字段名应为字符串");
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(key, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        position++; // [
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    private String readString() {
+        position++; // "
+        StringBuilder builder = new StringBuilder();
+        while (true) {
+            if (position >= text.length()) {
+                throw error("字符串未结束");
+            }
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return builder.toString();
+            }
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                throw error("字符串未结束");
+            }
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    builder.append(escaped);
+                    break;
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("转义字符不完整");
+                    }
+                    try {
+                        builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("转义字符格式错误");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("未知的转义字符'\\" + escaped + "'");
+            }
+        }
+    }
+
+    private Object readNumber() {
+        int start = position;
+        boolean integral = true;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            position++;
+        }
+        String number = text.substring(start, position);
+        try {
+            return integral ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("数字格式错误: " + number);
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("无法识别的内容");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= text.length()) {
+            throw error("内容不完整");
+        }
+        return text.charAt(position);
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("应为'" + c + "'");
+        }
+        position++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("JSON格式错误（位置" + position + "）: " + message);
+    }
+}
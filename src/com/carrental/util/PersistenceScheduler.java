@@ -0,0 +1,164 @@
+package com.carrental.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 持久化调度器，合并各仓库的写文件操作
+ * 仓库修改数据后只标记为“脏”，由调度器按持久化模式决定何时写入：
+ * 同步模式立即写入；组提交和异步模式由后台线程统一写入所有脏仓库，
+ * 突发的大量修改只需少量几次文件写入
+ * 组提交和异步模式下markDirty()都不等待写入完成：调用方持有仓库的锁，而写文件操作也需要该锁，
+ * 在这里等待会死锁，因此崩溃时两种模式都可能丢失尚未写入的修改，区别只在于写入的时机
+ * 写文件操作失败时应抛出RuntimeException（如UncheckedIOException），调度器保留修改标记，下次写入时重试
+ */
+public class PersistenceScheduler {
+    private final DurabilityMode mode;
+    private final int maxPendingChanges;
+    private final List<Target> targets = new CopyOnWriteArrayList<>();
+    private final AtomicInteger pendingChanges = new AtomicInteger(); // 上次写入以来的修改次数
+    private final AtomicBoolean flushRequested = new AtomicBoolean(); // 是否已请求后台立即写入
+    private final Object flushLock = new Object(); // 保证同一时间只有一次统一写入
+    private final ScheduledExecutorService flusher; // 后台写入线程，同步模式下为null
+
+    /**
+     * 持久化目标，对应一个仓库的写文件操作
+     */
+    public class Target {
+        private final String name;
+        private final Runnable flushAction;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+
+        private Target(String name, Runnable flushAction) {
+            this.name = name;
+            this.flushAction = flushAction;
+        }
+
+        /**
+         * 标记数据已修改，等待写入
+         */
+        public void markDirty() {
+            PersistenceScheduler.this.markDirty(this);
+        }
+    }
+
+    /**
+     * 构造方法
+     * @param mode 持久化模式
+     * @param flushIntervalMillis 后台写入间隔（毫秒），同步模式下忽略
+     * @param maxPendingChanges 组提交模式下累计多少次修改后立即写入
+     */
+    public PersistenceScheduler(DurabilityMode mode, long flushIntervalMillis, int maxPendingChanges) {
+        this.mode = mode;
+        this.maxPendingChanges = maxPendingChanges;
+
+        if (mode == DurabilityMode.SYNC) {
+            this.flusher = null;
+        } else {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "persistence-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 创建同步模式的调度器，每次修改立即写入
+     * @return 调度器
+     */
+    public static PersistenceScheduler sync() {
+        return new PersistenceScheduler(DurabilityMode.SYNC, 0, 1);
+    }
+
+    /**
+     * 注册持久化目标
+     * @param name 目标名称，用于错误信息
+     * @param flushAction 写文件操作，失败时抛出RuntimeException
+     * @return 持久化目标
+     */
+    public Target register(String name, Runnable flushAction) {
+        Target target = new Target(name, flushAction);
+        targets.add(target);
+        return target;
+    }
+
+    public DurabilityMode getMode() {
+        return mode;
+    }
+
+    /**
+     * 标记目标已修改
+     * 调用方通常持有仓库的锁，因此这里不会在调用线程上写入其他仓库，避免锁顺序不一致导致死锁
+     * @param target 持久化目标
+     */
+    private void markDirty(Target target) {
+        if (mode == DurabilityMode.SYNC) {
+            try {
+                target.flushAction.run();
+                target.dirty.set(false);
+            } catch (RuntimeException e) {
+                // 下次修改或shutdown()时重试
+                target.dirty.set(true);
+                System.err.println("写入数据失败: " + target.name);
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        target.dirty.set(true);
+        if (mode == DurabilityMode.GROUP_COMMIT
+                && pendingChanges.incrementAndGet() >= maxPendingChanges
+                && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false); // 已关闭，剩余修改由shutdown()写入
+            }
+        }
+    }
+
+    /**
+     * 立即写入所有已修改的目标
+     * 某个目标写入失败时保留其修改标记，下次重试，不影响其他目标
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+            pendingChanges.set(0);
+            for (Target target : targets) {
+                if (target.dirty.getAndSet(false)) {
+                    try {
+                        target.flushAction.run();
+                    } catch (RuntimeException e) {
+                        target.dirty.set(true);
+                        System.err.println("写入数据失败: " + target.name);
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 停止后台线程并写入剩余的修改，系统退出前调用
+     */
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+}
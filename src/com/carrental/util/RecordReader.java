@@ -0,0 +1,428 @@
+package com.carrental.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 逐行读取逗号分隔数据文件的读取器
+ * 从文件通道分块读入字节，在缓冲区内按行、按逗号切分字段，数字直接从字节解析，
+ * 不构造整行字符串，也不把整个文件读入列表；只有取文本字段时才创建字符串
+ * 文件末尾有校验行时边读边计算校验值，读完后校验；以ChecksumTrailer.HEADER开头的文件必须有校验行，第一行不作为记录返回
+ * 用法：while (reader.next()) { reader.getInt(0) ... }
+ */
+public class RecordReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char DELIMITER = ',';
+
+    private final String filePath;
+    private final FileChannel channel;  // 文件不存在时为null
+    private final Charset charset = Charset.defaultCharset(); // 与FileUtil写入时的编码一致
+    private final ChecksumTrailer trailer; // 没有校验行时为null
+    private final CRC32 crc = new CRC32();
+    private long remaining;             // 尚未读入缓冲区的内容字节数（不含校验行）
+    private boolean skipHeader;         // 第一行是否为HEADER、尚未跳过
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;               // 下一行的起点
+    private int limit;                  // 缓冲区中有效数据的终点
+    private boolean eof;
+
+    private int lineStart;              // 当前行的起点
+    private int lineEnd;                // 当前行的终点（不含换行符）
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+
+    private final Calendar calendar = Calendar.getInstance();
+    private final Map<String, byte[]> encodedValues = new IdentityHashMap<>(); // fieldEquals比较用的编码缓存
+
+    /**
+     * 打开数据文件，文件不存在时视为空文件
+     * @param filePath 文件路径
+     * @throws IOException 打开文件失败，或文件以HEADER开头却缺少校验行
+     */
+    public RecordReader(String filePath) throws IOException {
+        this.filePath = filePath;
+        File file = new File(filePath);
+        if (!file.exists()) {
+            this.channel = null;
+            this.trailer = null;
+            this.eof = true;
+            return;
+        }
+
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        long fileLength = channel.size();
+        this.trailer = readTrailer(fileLength);
+        this.remaining = trailer != null ? trailer.getContentLength() : fileLength;
+        this.skipHeader = readHasHeader();
+        if (skipHeader && trailer == null) {
+            channel.close();
+            throw new IOException("文件缺少校验行，可能已被截断: " + filePath);
+        }
+    }
+
+    /**
+     * 读取文件开头，判断是否以HEADER开头
+     */
+    private boolean readHasHeader() throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(ChecksumTrailer.HEADER.length());
+        while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+            // 读满为止
+        }
+        return ChecksumTrailer.hasHeader(head.array(), head.position());
+    }
+
+    /**
+     * 读取文件末尾的校验行
+     */
+    private ChecksumTrailer readTrailer(long fileLength) throws IOException {
+        int tailLength = (int) Math.min(fileLength, ChecksumTrailer.MAX_LENGTH);
+        ByteBuffer tail = ByteBuffer.allocate(tailLength);
+        long offset = fileLength - tailLength;
+        while (tail.hasRemaining() && channel.read(tail, offset + tail.position()) > 0) {
+            // 读满为止
+        }
+        return ChecksumTrailer.parse(tail.array(), tail.position(), fileLength);
+    }
+
+    /**
+     * 前进到下一条记录，跳过空行
+     * @return 读到记录返回true，文件结束返回false
+     * @throws IOException 读取失败
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int newline = indexOfNewline(position);
+            while (newline < 0 && !eof) {
+                fill();
+                newline = indexOfNewline(position);
+            }
+            if (newline < 0) {
+                newline = limit; // 最后一行没有换行符
+                if (position >= limit) {
+                    return false;
+                }
+            }
+
+            lineStart = position;
+            lineEnd = newline;
+            position = newline < limit ? newline + 1 : limit;
+
+            // 与String.trim()一致，去掉首尾空白（包括\r）
+            while (lineStart < lineEnd && (buffer[lineStart] & 0xff) <= ' ') lineStart++;
+            while (lineEnd > lineStart && (buffer[lineEnd - 1] & 0xff) <= ' ') lineEnd--;
+            if (lineStart == lineEnd) {
+                continue;
+            }
+            if (skipHeader) {
+                skipHeader = false; // 文件开头即HEADER，第一个非空行就是它
+                continue;
+            }
+
+            splitFields();
+            return true;
+        }
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < limit; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 从通道读入更多数据：已处理的部分移出缓冲区，当前行过长时扩容
+     */
+    private void fill() throws IOException {
+        int unread = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, unread);
+            position = 0;
+            limit = unread;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        ByteBuffer target = ByteBuffer.wrap(buffer, limit, (int) Math.min(buffer.length - limit, remaining));
+        int read = target.hasRemaining() ? channel.read(target) : -1;
+        if (read <= 0) {
+            eof = true;
+            return;
+        }
+        crc.update(buffer, limit, read);
+        limit += read;
+        remaining -= read;
+        if (remaining == 0) {
+            eof = true;
+        }
+    }
+
+    private void splitFields() {
+        fieldCount = 0;
+        int start = lineStart;
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i == lineEnd || buffer[i] == DELIMITER) {
+                if (fieldCount == fieldStarts.length) {
+                    fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+                    fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+                }
+                fieldStarts[fieldCount] = start;
+                fieldEnds[fieldCount] = i;
+                fieldCount++;
+                start = i + 1;
+            }
+        }
+    }
+
+    /**
+     * @return 当前记录的字段数
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * 获取文本字段
+     * @param field 字段序号，从0开始
+     * @return 字段内容
+     */
+    public String getString(int field) {
+        checkField(field);
+        return new String(buffer, fieldStarts[field], fieldEnds[field] - fieldStarts[field], charset);
+    }
+
+    /**
+     * 获取整数字段
+     * @param field 字段序号，从0开始
+     * @return 整数值
+     * @throws NumberFormatException 字段不是合法的整数
+     */
+    public int getInt(int field) {
+        checkField(field);
+        return parseInt(fieldStarts[field], fieldEnds[field]);
+    }
+
+    /**
+     * 获取小数字段，支持“123.45”形式，其他形式交给Double.parseDouble处理
+     * @param field 字段序号，从0开始
+     * @return 小数值
+     * @throws NumberFormatException 字段不是合法的数字
+     */
+    public double getDouble(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        int i = start;
+        boolean negative = i < end && buffer[i] == '-';
+        if (negative) i++;
+
+        long value = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                digits++;
+                if (point) scale++;
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        // 有效数字不超过15位时整数除以10的幂可以精确得到最接近的double
+        if (i == end && digits > 0 && digits <= 15) {
+            double result = scale == 0 ? value : value / POWERS_OF_TEN[scale];
+            return negative ? -result : result;
+        }
+        return Double.parseDouble(getString(field));
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    /**
+     * 获取布尔字段，规则与Boolean.parseBoolean一致
+     * @param field 字段序号，从0开始
+     * @return 字段为true（不区分大小写）时返回true
+     */
+    public boolean getBoolean(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        if (fieldEnds[field] - start != 4) {
+            return false;
+        }
+        return (buffer[start] | 0x20) == 't' && (buffer[start + 1] | 0x20) == 'r'
+                && (buffer[start + 2] | 0x20) == 'u' && (buffer[start + 3] | 0x20) == 'e';
+    }
+
+    /**
+     * 获取yyyy-MM-dd格式的日期字段，按本地时区解析
+     * @param field 字段序号，从0开始
+     * @return 日期
+     * @throws NumberFormatException 字段不是合法的日期
+     */
+    public Date getDate(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        int firstDash = indexOf((byte) '-', start, end);
+        int secondDash = firstDash < 0 ? -1 : indexOf((byte) '-', firstDash + 1, end);
+        if (secondDash < 0) {
+            throw new NumberFormatException("日期格式错误: " + getString(field));
+        }
+        calendar.clear();
+        calendar.set(parseInt(start, firstDash), parseInt(firstDash + 1, secondDash) - 1, parseInt(secondDash + 1, end));
+        return calendar.getTime();
+    }
+
+    /**
+     * 获取yyyy-MM-dd格式的日期字段，返回纪元日（1970-01-01起的天数）
+     * @param field 字段序号，从0开始
+     * @return 纪元日
+     * @throws NumberFormatException 字段不是合法的日期
+     */
+    public int getEpochDay(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        int firstDash = indexOf((byte) '-', start, end);
+        int secondDash = firstDash < 0 ? -1 : indexOf((byte) '-', firstDash + 1, end);
+        if (secondDash < 0) {
+            throw new NumberFormatException("日期格式错误: " + getString(field));
+        }
+        try {
+            return (int) LocalDate.of(parseInt(start, firstDash), parseInt(firstDash + 1, secondDash),
+                    parseInt(secondDash + 1, end)).toEpochDay();
+        } catch (DateTimeException e) {
+            throw new NumberFormatException("日期格式错误: " + getString(field));
+        }
+    }
+
+    /**
+     * 判断字段内容是否等于给定的文本，不创建字符串
+     * @param field 字段序号，从0开始
+     * @param value 文本，建议使用常量以便复用编码结果
+     * @return 相等返回true
+     */
+    public boolean fieldEquals(int field, String value) {
+        checkField(field);
+        byte[] encoded = encodedValues.get(value);
+        if (encoded == null) {
+            encoded = value.getBytes(charset);
+            encodedValues.put(value, encoded);
+        }
+        int start = fieldStarts[field];
+        int length = fieldEnds[field] - start;
+        if (length != encoded.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[start + i] != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取当前整行内容，用于错误信息
+     * @return 当前行
+     */
+    public String line() {
+        return new String(buffer, lineStart, lineEnd - lineStart, charset);
+    }
+
+    /**
+     * 校验文件内容，需在读完所有记录后调用
+     * @return 校验通过或文件没有校验行时返回true
+     */
+    public boolean isChecksumValid() {
+        return trailer == null || (eof && remaining == 0 && crc.getValue() == trailer.getCrc());
+    }
+
+    /**
+     * 读完所有记录后校验文件内容
+     * @throws IOException 校验失败，已读出的内容不应使用
+     */
+    public void verify() throws IOException {
+        if (!isChecksumValid()) {
+            throw new IOException("文件校验失败，内容可能已损坏: " + filePath);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("字段序号超出范围: " + field);
+        }
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 从字节直接解析整数，规则与Integer.parseInt一致
+     */
+    private int parseInt(int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("空的数字字段");
+        }
+        int i = start;
+        boolean negative = buffer[i] == '-';
+        if (negative || buffer[i] == '+') {
+            i++;
+            if (i == end) {
+                throw new NumberFormatException(new String(buffer, start, end - start, charset));
+            }
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(new String(buffer, start, end - start, charset));
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException(new String(buffer, start, end - start, charset));
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException(new String(buffer, start, end - start, charset));
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,16 @@
+package com.carrental.util;
+
+/**
+ * 租赁记录的存储格式
+ */
+public enum RentalStorage {
+    /**
+     * 文本：每行一条记录，便于直接查看和编辑
+     */
+    TEXT,
+
+    /**
+     * 二进制列存：按列存放定长数值，加载时整列读入，文件更小、加载更快
+     */
+    BINARY
+}
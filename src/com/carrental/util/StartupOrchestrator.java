@@ -0,0 +1,88 @@
+package com.carrental.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动编排器：互不依赖的加载任务并行执行，有依赖的阶段在其后顺序执行，并记录各阶段耗时
+ * 用法：先submit()提交并行任务，再用get()取结果，用run()执行依赖前面结果的阶段，最后printReport()
+ */
+public class StartupOrchestrator {
+    private final ExecutorService executor;
+    private final long startTime = System.nanoTime();
+    private final List<String> timings = new ArrayList<>(); // 各阶段耗时，按完成顺序记录
+
+    /**
+     * @param threads 并行加载的线程数
+     */
+    public StartupOrchestrator(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "startup-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 提交一个并行执行的加载任务
+     * @param name 阶段名称
+     * @param task 加载任务
+     * @return 任务结果
+     */
+    public <T> Future<T> submit(String name, Callable<T> task) {
+        return executor.submit(() -> {
+            long begin = System.nanoTime();
+            T result = task.call();
+            record(name, begin);
+            return result;
+        });
+    }
+
+    /**
+     * 等待并行任务完成并取得结果
+     * @param future submit()返回的结果
+     * @return 任务结果
+     * @throws IllegalStateException 任务执行失败
+     */
+    public <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("启动被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("加载数据失败", e.getCause());
+        }
+    }
+
+    /**
+     * 在当前线程执行一个依赖前面结果的阶段
+     * @param name 阶段名称
+     * @param phase 阶段任务
+     */
+    public void run(String name, Runnable phase) {
+        long begin = System.nanoTime();
+        phase.run();
+        record(name, begin);
+    }
+
+    private synchronized void record(String name, long begin) {
+        timings.add(name + " " + (System.nanoTime() - begin) / 1_000_000 + "ms");
+    }
+
+    /**
+     * 输出各阶段耗时并关闭加载线程
+     */
+    public synchronized void printReport() {
+        executor.shutdown();
+        System.out.println("系统启动完成，耗时 " + (System.nanoTime() - startTime) / 1_000_000 + "ms（"
+                + String.join("，", timings) + "）");
+    }
+}
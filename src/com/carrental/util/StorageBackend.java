@@ -0,0 +1,16 @@
+package com.carrental.util;
+
+/**
+ * 车辆、客户、用户和租赁记录的存储方式
+ */
+public enum StorageBackend {
+    /**
+     * 数据文件：启动时全部加载到内存，修改后由持久化调度器整体写回文件
+     */
+    FILE,
+
+    /**
+     * 嵌入式数据库（H2或SQLite的文件模式）：按需查询，每次修改只写入对应的行
+     */
+    JDBC
+}
@@ -0,0 +1,78 @@
+package com.carrental.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分段锁：按ID把对象映射到固定数量的锁上
+ * 同一ID总是得到同一把锁，不同ID大概率落在不同的锁上，可以并行处理
+ */
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+
+    /**
+     * @param stripeCount 锁的数量，会向上取整为2的幂
+     */
+    public StripedLock(int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 获取ID对应的锁
+     * @param id 对象ID
+     * @return 锁
+     */
+    public Lock get(int id) {
+        return stripes[stripeOf(id)];
+    }
+
+    /**
+     * 获取一组ID对应的全部锁，按锁的下标顺序加锁，多个线程同时锁定有交集的ID组时不会死锁
+     * 多个ID落在同一把锁上时只加锁一次
+     * @param ids 对象ID
+     * @return 已加锁的锁，按加锁顺序排列，用unlockAll()释放
+     */
+    public List<Lock> lockAll(Collection<Integer> ids) {
+        BitSet indexes = new BitSet(stripes.length);
+        for (int id : ids) {
+            indexes.set(stripeOf(id));
+        }
+        List<Lock> locked = new ArrayList<>(indexes.cardinality());
+        try {
+            for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+                stripes[i].lock();
+                locked.add(stripes[i]);
+            }
+        } catch (RuntimeException | Error e) {
+            unlockAll(locked);
+            throw e;
+        }
+        return locked;
+    }
+
+    /**
+     * 按与加锁相反的顺序释放lockAll()获得的锁
+     * @param locks 已加锁的锁
+     */
+    public static void unlockAll(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private int stripeOf(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,211 @@
+package com.carrental.util;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * 按线程区分输出目标的PrintStream：终端会话线程调用bind()绑定自己的输出流，其他线程仍输出到原来的控制台
+ * 控制器直接使用System.out输出，install()把System.out替换为本类后，各会话的输出互不干扰
+ * 每个方法都转发给当前线程的输出流，不经过本对象的锁和缓冲，一个会话写入阻塞不影响其他会话
+ */
+public class ThreadLocalPrintStream extends PrintStream {
+    private static final ThreadLocal<PrintStream> sessionOut = new ThreadLocal<>(); // 当前线程绑定的终端会话输出
+
+    private final PrintStream console; // 未绑定会话的线程使用的输出
+
+    private ThreadLocalPrintStream(PrintStream console) {
+        super(console, true);
+        this.console = console;
+    }
+
+    /**
+     * 把System.out替换为按线程区分输出目标的PrintStream，重复调用无影响
+     */
+    public static synchronized void install() {
+        if (!(System.out instanceof ThreadLocalPrintStream)) {
+            System.setOut(new ThreadLocalPrintStream(System.out));
+        }
+    }
+
+    /**
+     * 把当前线程的System.out输出绑定到指定的输出流，直到调用unbind()；需先调用install()
+     * @param out 输出流
+     */
+    public static void bind(PrintStream out) {
+        sessionOut.set(out);
+    }
+
+    /**
+     * 解除当前线程的输出绑定，恢复输出到控制台
+     */
+    public static void unbind() {
+        sessionOut.remove();
+    }
+
+    private PrintStream target() {
+        PrintStream out = sessionOut.get();
+        return out != null ? out : console;
+    }
+
+    @Override
+    public void flush() {
+        target().flush();
+    }
+
+    @Override
+    public void close() {
+        target().close();
+    }
+
+    @Override
+    public boolean checkError() {
+        return target().checkError();
+    }
+
+    @Override
+    public void write(int b) {
+        target().write(b);
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        target().write(buf, off, len);
+    }
+
+    @Override
+    public void print(boolean b) {
+        target().print(b);
+    }
+
+    @Override
+    public void print(char c) {
+        target().print(c);
+    }
+
+    @Override
+    public void print(int i) {
+        target().print(i);
+    }
+
+    @Override
+    public void print(long l) {
+        target().print(l);
+    }
+
+    @Override
+    public void print(float f) {
+        target().print(f);
+    }
+
+    @Override
+    public void print(double d) {
+        target().print(d);
+    }
+
+    @Override
+    public void print(char[] s) {
+        target().print(s);
+    }
+
+    @Override
+    public void print(String s) {
+        target().print(s);
+    }
+
+    @Override
+    public void print(Object obj) {
+        target().print(obj);
+    }
+
+    @Override
+    public void println() {
+        target().println();
+    }
+
+    @Override
+    public void println(boolean x) {
+        target().println(x);
+    }
+
+    @Override
+    public void println(char x) {
+        target().println(x);
+    }
+
+    @Override
+    public void println(int x) {
+        target().println(x);
+    }
+
+    @Override
+    public void println(long x) {
+        target().println(x);
+    }
+
+    @Override
+    public void println(float x) {
+        target().println(x);
+    }
+
+    @Override
+    public void println(double x) {
+        target().println(x);
+    }
+
+    @Override
+    public void println(char[] x) {
+        target().println(x);
+    }
+
+    @Override
+    public void println(String x) {
+        target().println(x);
+    }
+
+    @Override
+    public void println(Object x) {
+        target().println(x);
+    }
+
+    @Override
+    public PrintStream printf(String format, Object... args) {
+        target().printf(format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream printf(Locale l, String format, Object... args) {
+        target().printf(l, format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream format(String format, Object... args) {
+        target().format(format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream format(Locale l, String format, Object... args) {
+        target().format(l, format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream append(CharSequence csq) {
+        target().append(csq);
+        return this;
+    }
+
+    @Override
+    public PrintStream append(CharSequence csq, int start, int end) {
+        target().append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public PrintStream append(char c) {
+        target().append(c);
+        return this;
+    }
+}
@@ -0,0 +1,34 @@
+package com.carrental.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 虚拟线程工具类：运行在Java 21及以上版本时使用虚拟线程，否则退回到普通线程
+ * 通过反射调用Java 21的API，这样在Java 8上也能编译运行
+ */
+public class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 创建每个任务一个线程的执行器，优先使用Executors.newVirtualThreadPerTaskExecutor()，
+     * 没有虚拟线程时使用按需创建的守护线程池
+     * @param namePrefix 普通线程的名称前缀
+     * @return 执行器
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}